@@ -1,5 +1,6 @@
 package com.calculator.parser.builders;
 
+import com.calculator.parser.compiler.EvaluationLimits;
 import com.calculator.parser.entities.LogicStringExpression;
 
 /**
@@ -13,4 +14,14 @@ public class LogicStringExpressionBuilder extends StringExpressionBuilder<LogicS
     public LogicStringExpressionBuilder(String expression) {
         stringExpression = new LogicStringExpression(expression);
     }
+
+    /**
+     * Задать выражению ограничения разбора и вычисления
+     * @param limits ограничения
+     * @return LogicStringExpressionBuilder
+     */
+    public LogicStringExpressionBuilder setLimits(EvaluationLimits limits) {
+        stringExpression.setLimits(limits);
+        return this;
+    }
 }
\ No newline at end of file
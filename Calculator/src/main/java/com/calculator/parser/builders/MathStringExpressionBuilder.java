@@ -1,8 +1,12 @@
 package com.calculator.parser.builders;
 
+import com.calculator.parser.compiler.EvaluationLimits;
+import com.calculator.parser.compiler.OperatorTable;
 import com.calculator.parser.entities.MathStringExpression;
 
 import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 /**
@@ -39,4 +43,39 @@ public class MathStringExpressionBuilder extends StringExpressionBuilder<MathStr
         stringExpression.setClientFunctionWithTwoArgument(functionName, function);
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Задать выражению клиентский бинарный оператор, например ^ (приоритет 4, правая ассоциативность)
+     * @param symbol символ оператора
+     * @param priority приоритет: 2 у +, -, 3 у *, /
+     * @param associativity ассоциативность
+     * @param operator реализация оператора
+     * @return MathStringExpressionBuilder
+     */
+    public MathStringExpressionBuilder setClientOperator(char symbol, int priority, OperatorTable.Associativity associativity,
+                                                         DoubleBinaryOperator operator) {
+        stringExpression.getOperatorTable().addBinaryOperator(symbol, priority, associativity, operator);
+        return this;
+    }
+
+    /**
+     * Задать выражению клиентский постфиксный оператор, например ! (факториал)
+     * @param symbol символ оператора
+     * @param operator реализация оператора
+     * @return MathStringExpressionBuilder
+     */
+    public MathStringExpressionBuilder setClientPostfixOperator(char symbol, DoubleUnaryOperator operator) {
+        stringExpression.getOperatorTable().addPostfixOperator(symbol, operator);
+        return this;
+    }
+
+    /**
+     * Задать выражению ограничения разбора и вычисления
+     * @param limits ограничения
+     * @return MathStringExpressionBuilder
+     */
+    public MathStringExpressionBuilder setLimits(EvaluationLimits limits) {
+        stringExpression.setLimits(limits);
+        return this;
+    }
+}
@@ -0,0 +1,451 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Адаптивное логическое выражение с переупорядочиванием операндов по профилю вычислений.
+ * Цепочки операторов &amp; и | вычисляются с сокращённым вычислением; для выборки вычислений по каждому операнду
+ * собирается частота истинного значения и стоимость (количество вычисленных листьев). Периодически операнды
+ * каждой цепочки упорядочиваются по возрастанию ожидаемой стоимости на сокращение вычисления:
+ * c / P(ложь) для &amp; и c / P(истина) для |. Цепочки под отрицанием профилируются так же, остальные узлы
+ * (пользовательские операторы) вычисляются целиком как листы. Логические операторы не имеют побочных эффектов,
+ * поэтому порядок операндов не влияет на результат. Безопасно для использования из нескольких потоков
+ */
+public class AdaptiveLogicExpression {
+
+    /**
+     * Интервал выборки вычислений для профилирования по умолчанию
+     */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+    /**
+     * Количество профилированных вычислений между переупорядочиваниями по умолчанию
+     */
+    public static final int DEFAULT_REORDER_INTERVAL = 1024;
+
+    /**
+     * Исходное скомпилированное выражение
+     */
+    private final CompiledLogicExpression expression;
+
+    /**
+     * Корневой операнд
+     */
+    private final Operand root;
+
+    /**
+     * Цепочки выражения
+     */
+    private final List<Chain> chains = new ArrayList<>();
+
+    /**
+     * Каждое какое вычисление профилируется
+     */
+    private final int sampleInterval;
+
+    /**
+     * Количество профилированных вычислений между переупорядочиваниями
+     */
+    private final int reorderInterval;
+
+    /**
+     * Количество вычислений
+     */
+    private final AtomicLong evaluations = new AtomicLong();
+
+    /**
+     * Количество профилированных вычислений
+     */
+    private final AtomicLong samples = new AtomicLong();
+
+    /**
+     * Количество выполненных переупорядочиваний
+     */
+    private final AtomicLong reorders = new AtomicLong();
+
+    /**
+     * Конструктор - создание адаптивного выражения с параметрами профилирования по умолчанию
+     * @param expression скомпилированное логическое выражение
+     */
+    public AdaptiveLogicExpression(CompiledLogicExpression expression) {
+        this(expression, DEFAULT_SAMPLE_INTERVAL, DEFAULT_REORDER_INTERVAL);
+    }
+
+    /**
+     * Конструктор - создание адаптивного выражения
+     * @param expression скомпилированное логическое выражение
+     * @param sampleInterval каждое какое вычисление профилируется (1 - каждое)
+     * @param reorderInterval количество профилированных вычислений между переупорядочиваниями
+     */
+    public AdaptiveLogicExpression(CompiledLogicExpression expression, int sampleInterval, int reorderInterval) {
+        if (sampleInterval <= 0 || reorderInterval <= 0) {
+            throw new IllegalArgumentException("Profiling intervals must be positive");
+        }
+        this.expression = expression;
+        this.sampleInterval = sampleInterval;
+        this.reorderInterval = reorderInterval;
+        this.root = build(expression.getRoot());
+    }
+
+    /**
+     * Вычислить выражение
+     * @param variablesValue значения переменных в порядке первого появления в выражении
+     * @return результат выражения
+     */
+    public boolean evaluate(boolean... variablesValue) {
+        expression.checkVariablesQuantity(variablesValue.length);
+        if (evaluations.incrementAndGet() % sampleInterval != 0) {
+            return root.evaluate(variablesValue, null);
+        }
+        boolean result = root.evaluate(variablesValue, new int[1]);
+        if (samples.incrementAndGet() % reorderInterval == 0) {
+            reorder();
+        }
+        return result;
+    }
+
+    /**
+     * Вычислить выражение
+     * @param variablesValue значения переменных по именам
+     * @return результат выражения
+     */
+    public boolean evaluate(Map<String, Boolean> variablesValue) {
+        Map<String, Integer> variableSlots = expression.getVariableSlots();
+        boolean[] variables = new boolean[variableSlots.size()];
+        for (Map.Entry<String, Integer> slot : variableSlots.entrySet()) {
+            Boolean value = variablesValue.get(slot.getKey());
+            if (value == null) {
+                throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+            }
+            variables[slot.getValue()] = value;
+        }
+        return evaluate(variables);
+    }
+
+    /**
+     * Переупорядочить операнды всех цепочек по собранному профилю и начать новый профиль
+     */
+    public synchronized void reorder() {
+        for (Chain chain : chains) {
+            chain.reorder();
+        }
+        reorders.incrementAndGet();
+    }
+
+    /**
+     * Получить выражение с текущим порядком операндов
+     * @return выражение, пригодное для повторной компиляции
+     */
+    public String getCurrentForm() {
+        return root.toString();
+    }
+
+    /**
+     * Получить текущий порядок операндов цепочек в порядке обхода выражения
+     * @return записи операндов каждой цепочки в порядке вычисления
+     */
+    public List<List<String>> getChainOrders() {
+        List<List<String>> orders = new ArrayList<>();
+        for (Chain chain : chains) {
+            List<String> order = new ArrayList<>();
+            for (int index : chain.order) {
+                order.add(chain.operands[index].toString());
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    /**
+     * Получить исходное скомпилированное выражение
+     * @return скомпилированное выражение
+     */
+    public CompiledLogicExpression getExpression() {
+        return expression;
+    }
+
+    /**
+     * Получить количество профилированных вычислений
+     * @return количество вычислений
+     */
+    public long getSamplesCount() {
+        return samples.get();
+    }
+
+    /**
+     * Получить количество выполненных переупорядочиваний
+     * @return количество переупорядочиваний
+     */
+    public long getReordersCount() {
+        return reorders.get();
+    }
+
+    /**
+     * Построить операнд по узлу дерева
+     * @param node узел дерева выражения
+     * @return операнд
+     */
+    private Operand build(Node node) {
+        if (node instanceof BinaryOperatorNode binaryNode && (binaryNode.getOperator() == '&' || binaryNode.getOperator() == '|')) {
+            List<Node> operandNodes = new ArrayList<>();
+            ExpressionCanonicalizer.flatten(binaryNode, binaryNode.getOperator(), operandNodes);
+            Operand[] operands = new Operand[operandNodes.size()];
+            Chain chain = new Chain(binaryNode.getOperator() == '&', operands);
+            chains.add(chain);
+            for (int i = 0; i < operands.length; i++) {
+                operands[i] = build(operandNodes.get(i));
+            }
+            return chain;
+        }
+        if (node instanceof VariableNode variableNode) {
+            return new Leaf(expression.getVariableSlots().get(variableNode.getName()), false, variableNode.getName());
+        }
+        if (node instanceof BooleanNode booleanNode) {
+            return new Leaf(-1, booleanNode.getValue(), booleanNode.toString());
+        }
+        if (node instanceof UnaryOperatorNode unaryNode && unaryNode.getOperator() == '!') {
+            return new Negation(build(unaryNode.getOperand()));
+        }
+        return new OpaqueLeaf(Program.compile(node, expression.getVariableSlots()), node.toString());
+    }
+
+    /**
+     * Операнд адаптивного выражения
+     */
+    private abstract static class Operand {
+
+        /**
+         * Вычислить операнд
+         * @param variables значения переменных по номерам
+         * @param cost счётчик стоимости при профилировании, null без профилирования
+         * @return значение операнда
+         */
+        abstract boolean evaluate(boolean[] variables, int[] cost);
+    }
+
+    /**
+     * Лист: переменная или константа
+     */
+    private static class Leaf extends Operand {
+
+        /**
+         * Номер переменной или -1 для константы
+         */
+        private final int slot;
+
+        /**
+         * Значение константы
+         */
+        private final boolean value;
+
+        /**
+         * Запись листа в выражении
+         */
+        private final String text;
+
+        /**
+         * Конструктор - создание листа
+         * @param slot номер переменной или -1 для константы
+         * @param value значение константы
+         * @param text запись листа в выражении
+         */
+        private Leaf(int slot, boolean value, String text) {
+            this.slot = slot;
+            this.value = value;
+            this.text = text;
+        }
+
+        @Override
+        boolean evaluate(boolean[] variables, int[] cost) {
+            if (cost != null) {
+                cost[0]++;
+            }
+            return slot < 0 ? value : variables[slot];
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * Отрицание операнда
+     */
+    private static class Negation extends Operand {
+
+        /**
+         * Отрицаемый операнд
+         */
+        private final Operand operand;
+
+        /**
+         * Конструктор - создание отрицания
+         * @param operand отрицаемый операнд
+         */
+        private Negation(Operand operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean evaluate(boolean[] variables, int[] cost) {
+            return !operand.evaluate(variables, cost);
+        }
+
+        @Override
+        public String toString() {
+            return "!" + operand;
+        }
+    }
+
+    /**
+     * Лист, вычисляемый целиком программой стековой машины: узел, не являющийся цепочкой, отрицанием,
+     * переменной или константой
+     */
+    private static class OpaqueLeaf extends Operand {
+
+        /**
+         * Программа вычисления узла
+         */
+        private final Program program;
+
+        /**
+         * Запись узла в выражении
+         */
+        private final String text;
+
+        /**
+         * Конструктор - создание листа
+         * @param program программа вычисления узла
+         * @param text запись узла в выражении
+         */
+        private OpaqueLeaf(Program program, String text) {
+            this.program = program;
+            this.text = text;
+        }
+
+        @Override
+        boolean evaluate(boolean[] variables, int[] cost) {
+            if (cost != null) {
+                cost[0]++;
+            }
+            double[] values = new double[variables.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = variables[i] ? 1 : 0;
+            }
+            return program.execute(values) != 0;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * Цепочка одинаковых операторов с переупорядочиваемыми операндами
+     */
+    private static class Chain extends Operand {
+
+        /**
+         * Является ли цепочка конъюнкцией
+         */
+        private final boolean and;
+
+        /**
+         * Операнды в исходном порядке
+         */
+        private final Operand[] operands;
+
+        /**
+         * Текущий порядок вычисления операндов
+         */
+        private volatile int[] order;
+
+        /**
+         * Количество профилированных вычислений операндов
+         */
+        private final AtomicLongArray evaluations;
+
+        /**
+         * Количество истинных значений операндов
+         */
+        private final AtomicLongArray trueValues;
+
+        /**
+         * Суммарная стоимость вычислений операндов
+         */
+        private final AtomicLongArray costs;
+
+        /**
+         * Конструктор - создание цепочки
+         * @param and является ли цепочка конъюнкцией
+         * @param operands операнды
+         */
+        private Chain(boolean and, Operand[] operands) {
+            this.and = and;
+            this.operands = operands;
+            this.order = IntStream.range(0, operands.length).toArray();
+            this.evaluations = new AtomicLongArray(operands.length);
+            this.trueValues = new AtomicLongArray(operands.length);
+            this.costs = new AtomicLongArray(operands.length);
+        }
+
+        @Override
+        boolean evaluate(boolean[] variables, int[] cost) {
+            for (int index : order) {
+                int costBefore = cost == null ? 0 : cost[0];
+                boolean value = operands[index].evaluate(variables, cost);
+                if (cost != null) {
+                    evaluations.incrementAndGet(index);
+                    if (value) {
+                        trueValues.incrementAndGet(index);
+                    }
+                    costs.addAndGet(index, cost[0] - costBefore);
+                }
+                if (value != and) {
+                    return value;
+                }
+            }
+            return and;
+        }
+
+        /**
+         * Упорядочить операнды по ожидаемой стоимости на сокращение вычисления и сбросить профиль
+         */
+        private void reorder() {
+            double[] ranks = new double[operands.length];
+            for (int i = 0; i < operands.length; i++) {
+                long evaluated = evaluations.getAndSet(i, 0);
+                double trueProbability = (trueValues.getAndSet(i, 0) + 1.0) / (evaluated + 2.0);
+                double cost = (costs.getAndSet(i, 0) + 1.0) / (evaluated + 1.0);
+                ranks[i] = cost / (and ? 1 - trueProbability : trueProbability);
+            }
+            Integer[] newOrder = Arrays.stream(order).boxed().toArray(Integer[]::new);
+            Arrays.sort(newOrder, Comparator.comparingDouble(index -> ranks[index]));
+            order = Arrays.stream(newOrder).mapToInt(Integer::intValue).toArray();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("(");
+            for (int i = 0; i < order.length; i++) {
+                if (i > 0) {
+                    text.append(and ? '&' : '|');
+                }
+                text.append(operands[order[i]]);
+            }
+            return text.append(')').toString();
+        }
+    }
+}
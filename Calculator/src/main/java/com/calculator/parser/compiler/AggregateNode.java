@@ -0,0 +1,131 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.List;
+
+/**
+ * Узел агрегатной функции над переменными-массивами: sum, avg, min, max, count или dot.
+ * Значение агрегата вычисляется до выполнения программы и передаётся ей как значение дополнительной переменной
+ */
+public class AggregateNode extends Node {
+
+    /**
+     * Имя функции
+     */
+    private final String name;
+
+    /**
+     * Имена переменных-массивов
+     */
+    private final List<String> arrays;
+
+    /**
+     * Конструктор - создание узла агрегатной функции
+     * @param name имя функции
+     * @param arrays имена переменных-массивов
+     */
+    public AggregateNode(String name, List<String> arrays) {
+        this.name = name;
+        this.arrays = List.copyOf(arrays);
+    }
+
+    /**
+     * Вычислить агрегат
+     * @param arraysValue значения переменных-массивов
+     * @return значение агрегата
+     */
+    public double evaluate(ArrayVariables arraysValue) {
+        Object values = require(arraysValue, arrays.get(0));
+        int length = values instanceof long[] longValues ? longValues.length : ((double[]) values).length;
+        if (length == 0 && (name.equals("min") || name.equals("max"))) {
+            throw new ParserException(ErrorType.INCORRECT_VARIABLE_VALUE_TYPE);
+        }
+        return switch (name) {
+            case "count" -> length;
+            case "sum" -> sum(values);
+            case "avg" -> {
+                if (length == 0) {
+                    throw new ParserException(ErrorType.DIVISION_BY_ZERO_ERROR);
+                }
+                yield sum(values) / length;
+            }
+            case "min" -> values instanceof long[] longValues ?
+                          ArrayAggregates.min(longValues) : ArrayAggregates.min((double[]) values);
+            case "max" -> values instanceof long[] longValues ?
+                          ArrayAggregates.max(longValues) : ArrayAggregates.max((double[]) values);
+            case "dot" -> dot(values, require(arraysValue, arrays.get(1)), length);
+            default -> throw new IllegalStateException("Unknown aggregate " + name);
+        };
+    }
+
+    /**
+     * Получить имя функции
+     * @return имя функции
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Получить имена переменных-массивов
+     * @return имена переменных
+     */
+    public List<String> getArrays() {
+        return arrays;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return List.of();
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + String.join(",", arrays) + ")";
+    }
+
+    /**
+     * Сумма значений массива
+     * @param values double[] или long[]
+     * @return сумма
+     */
+    private static double sum(Object values) {
+        return values instanceof long[] longValues ? ArrayAggregates.sum(longValues) : ArrayAggregates.sum((double[]) values);
+    }
+
+    /**
+     * Скалярное произведение массивов
+     * @param left double[] или long[]
+     * @param right double[] или long[]
+     * @param length длина первого массива
+     * @return скалярное произведение
+     */
+    private static double dot(Object left, Object right, int length) {
+        int rightLength = right instanceof long[] longValues ? longValues.length : ((double[]) right).length;
+        if (rightLength != length) {
+            throw new ParserException(ErrorType.INCORRECT_VARIABLES_QUANTITY_ERROR);
+        }
+        if (left instanceof long[] leftLong) {
+            return right instanceof long[] rightLong ?
+                   ArrayAggregates.dot(leftLong, rightLong) : ArrayAggregates.dot((double[]) right, leftLong);
+        }
+        return right instanceof long[] rightLong ?
+               ArrayAggregates.dot((double[]) left, rightLong) : ArrayAggregates.dot((double[]) left, (double[]) right);
+    }
+
+    /**
+     * Получить массив с проверкой его наличия
+     * @param arraysValue значения переменных-массивов
+     * @param array имя переменной
+     * @return массив
+     */
+    private static Object require(ArrayVariables arraysValue, String array) {
+        Object values = arraysValue != null ? arraysValue.get(array) : null;
+        if (values == null) {
+            throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,185 @@
+package com.calculator.parser.compiler;
+
+import java.util.Set;
+
+/**
+ * Агрегатные функции над массивами примитивных значений. Циклы не упаковывают значения;
+ * суммы вычисляются в четыре независимых накопителя, что убирает зависимость между соседними итерациями
+ * и позволяет компилятору JIT использовать векторные инструкции. Порядок сложения фиксирован,
+ * поэтому результат детерминирован, но может отличаться в младших разрядах от сложения слева направо
+ */
+public final class ArrayAggregates {
+
+    /**
+     * Агрегатные функции одного массива
+     */
+    public static final Set<String> ONE_ARRAY_FUNCTIONS = Set.of("sum", "avg", "min", "max", "count");
+
+    /**
+     * Агрегатные функции двух массивов
+     */
+    public static final Set<String> TWO_ARRAYS_FUNCTIONS = Set.of("dot");
+
+    private ArrayAggregates() {
+    }
+
+    /**
+     * Сумма значений
+     * @param values значения
+     * @return сумма
+     */
+    public static double sum(double[] values) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < values.length; i += 4) {
+            s0 += values[i];
+            s1 += values[i + 1];
+            s2 += values[i + 2];
+            s3 += values[i + 3];
+        }
+        for (; i < values.length; i++) {
+            s0 += values[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Сумма значений. Сумма накапливается точно в long, при переполнении накопление продолжается в double
+     * @param values значения
+     * @return сумма
+     */
+    public static double sum(long[] values) {
+        long sum = 0;
+        int i = 0;
+        try {
+            for (; i < values.length; i++) {
+                sum = Math.addExact(sum, values[i]);
+            }
+            return sum;
+        }
+        catch (ArithmeticException overflow) {
+            double doubleSum = sum;
+            for (; i < values.length; i++) {
+                doubleSum += values[i];
+            }
+            return doubleSum;
+        }
+    }
+
+    /**
+     * Минимальное значение
+     * @param values непустой массив значений
+     * @return минимальное значение
+     */
+    public static double min(double[] values) {
+        double min = values[0];
+        for (int i = 1; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    /**
+     * Минимальное значение
+     * @param values непустой массив значений
+     * @return минимальное значение
+     */
+    public static double min(long[] values) {
+        long min = values[0];
+        for (int i = 1; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    /**
+     * Максимальное значение
+     * @param values непустой массив значений
+     * @return максимальное значение
+     */
+    public static double max(double[] values) {
+        double max = values[0];
+        for (int i = 1; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Максимальное значение
+     * @param values непустой массив значений
+     * @return максимальное значение
+     */
+    public static double max(long[] values) {
+        long max = values[0];
+        for (int i = 1; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Скалярное произведение
+     * @param left первый массив
+     * @param right второй массив той же длины
+     * @return скалярное произведение
+     */
+    public static double dot(double[] left, double[] right) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < left.length; i += 4) {
+            s0 += left[i] * right[i];
+            s1 += left[i + 1] * right[i + 1];
+            s2 += left[i + 2] * right[i + 2];
+            s3 += left[i + 3] * right[i + 3];
+        }
+        for (; i < left.length; i++) {
+            s0 += left[i] * right[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Скалярное произведение. Произведения и сумма накапливаются точно в long, при переполнении накопление
+     * продолжается в double
+     * @param left первый массив
+     * @param right второй массив той же длины
+     * @return скалярное произведение
+     */
+    public static double dot(long[] left, long[] right) {
+        long sum = 0;
+        int i = 0;
+        try {
+            for (; i < left.length; i++) {
+                sum = Math.addExact(sum, Math.multiplyExact(left[i], right[i]));
+            }
+            return sum;
+        }
+        catch (ArithmeticException overflow) {
+            double doubleSum = sum;
+            for (; i < left.length; i++) {
+                doubleSum += (double) left[i] * right[i];
+            }
+            return doubleSum;
+        }
+    }
+
+    /**
+     * Скалярное произведение
+     * @param left первый массив
+     * @param right второй массив той же длины
+     * @return скалярное произведение
+     */
+    public static double dot(double[] left, long[] right) {
+        double s0 = 0, s1 = 0;
+        int i = 0;
+        for (; i + 1 < left.length; i += 2) {
+            s0 += left[i] * right[i];
+            s1 += left[i + 1] * right[i + 1];
+        }
+        for (; i < left.length; i++) {
+            s0 += left[i] * right[i];
+        }
+        return s0 + s1;
+    }
+}
@@ -0,0 +1,47 @@
+package com.calculator.parser.compiler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Значения переменных-массивов для агрегатных функций скомпилированных выражений.
+ * Массивы не копируются: агрегаты вычисляются непосредственно по переданным массивам
+ */
+public class ArrayVariables {
+
+    /**
+     * Массивы по именам: double[] или long[]
+     */
+    private final Map<String, Object> arrays = new HashMap<>();
+
+    /**
+     * Задать массив вещественных значений
+     * @param name имя переменной
+     * @param values значения
+     * @return значения переменных-массивов
+     */
+    public ArrayVariables set(String name, double[] values) {
+        arrays.put(name, values);
+        return this;
+    }
+
+    /**
+     * Задать массив целых значений
+     * @param name имя переменной
+     * @param values значения
+     * @return значения переменных-массивов
+     */
+    public ArrayVariables set(String name, long[] values) {
+        arrays.put(name, values);
+        return this;
+    }
+
+    /**
+     * Получить массив
+     * @param name имя переменной
+     * @return double[], long[] или null, если массив не задан
+     */
+    Object get(String name) {
+        return arrays.get(name);
+    }
+}
@@ -0,0 +1,389 @@
+package com.calculator.parser.compiler;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Математические функции над BigDecimal с заданной точностью без перехода к double.
+ * Целые степени вычисляются возведением в квадрат, тригонометрические функции, экспонента и логарифм -
+ * рядами с приведением аргумента. Константы pi и ln 2 вычисляются один раз для каждой рабочей точности.
+ * Объект неизменяем и может использоваться из нескольких потоков
+ */
+public final class BigDecimalMath {
+
+    /**
+     * Количество дополнительных разрядов промежуточных вычислений
+     */
+    private static final int GUARD_DIGITS = 10;
+
+    /**
+     * Вычисленные значения pi по рабочей точности
+     */
+    private static final Map<Integer, BigDecimal> PI_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Вычисленные значения ln 2 по рабочей точности
+     */
+    private static final Map<Integer, BigDecimal> LN2_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Число 2
+     */
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    /**
+     * Точность и округление результатов
+     */
+    private final MathContext mathContext;
+
+    /**
+     * Конструктор - создание функций с точностью 34 значащих разряда
+     */
+    public BigDecimalMath() {
+        this(MathContext.DECIMAL128);
+    }
+
+    /**
+     * Конструктор - создание функций с заданной точностью
+     * @param mathContext точность и округление результатов (неограниченная точность не поддерживается)
+     */
+    public BigDecimalMath(MathContext mathContext) {
+        if (mathContext.getPrecision() == 0) {
+            throw new IllegalArgumentException("Unlimited precision is not supported");
+        }
+        this.mathContext = mathContext;
+    }
+
+    /**
+     * Получить точность и округление результатов
+     * @return точность
+     */
+    public MathContext getMathContext() {
+        return mathContext;
+    }
+
+    /**
+     * Возвести в степень. Целые показатели вычисляются возведением в квадрат, дробные - через exp(y ln x)
+     * @param base основание
+     * @param exponent показатель
+     * @return степень
+     * @throws ArithmeticException нулевое основание при отрицательном показателе или отрицательное основание при дробном
+     */
+    public BigDecimal pow(BigDecimal base, BigDecimal exponent) {
+        if (exponent.signum() == 0 ||
+                exponent.stripTrailingZeros().scale() <= 0 && exponent.abs().compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0) {
+            return pow(base, exponent.longValue());
+        }
+        if (base.signum() == 0 && exponent.signum() > 0) {
+            return BigDecimal.ZERO;
+        }
+        if (base.signum() <= 0) {
+            throw new ArithmeticException("Fractional power of non-positive base");
+        }
+        MathContext working = working(mathContext.getPrecision());
+        return expInternal(exponent.multiply(lnInternal(base, working), working), working).round(mathContext);
+    }
+
+    /**
+     * Возвести в целую степень возведением в квадрат
+     * @param base основание
+     * @param exponent показатель
+     * @return степень
+     */
+    public BigDecimal pow(BigDecimal base, long exponent) {
+        MathContext working = working(mathContext.getPrecision() + Long.SIZE - Long.numberOfLeadingZeros(Math.abs(exponent)));
+        BigDecimal result = BigDecimal.ONE;
+        BigDecimal square = base;
+        long remaining = Math.abs(exponent);
+        while (remaining > 0) {
+            if ((remaining & 1) != 0) {
+                result = result.multiply(square, working);
+            }
+            remaining >>= 1;
+            if (remaining > 0) {
+                square = square.multiply(square, working);
+            }
+        }
+        if (exponent < 0) {
+            if (result.signum() == 0) {
+                throw new ArithmeticException("Division by zero");
+            }
+            result = BigDecimal.ONE.divide(result, working);
+        }
+        return result.round(mathContext);
+    }
+
+    /**
+     * Вычислить синус
+     * @param x аргумент в радианах
+     * @return синус
+     */
+    public BigDecimal sin(BigDecimal x) {
+        MathContext working = working(mathContext.getPrecision());
+        return sinInternal(reduce(x, working), working).round(mathContext);
+    }
+
+    /**
+     * Вычислить косинус
+     * @param x аргумент в радианах
+     * @return косинус
+     */
+    public BigDecimal cos(BigDecimal x) {
+        MathContext working = working(mathContext.getPrecision());
+        return cosInternal(reduce(x, working), working).round(mathContext);
+    }
+
+    /**
+     * Вычислить тангенс
+     * @param x аргумент в радианах
+     * @return тангенс
+     */
+    public BigDecimal tan(BigDecimal x) {
+        MathContext working = working(mathContext.getPrecision());
+        BigDecimal reduced = reduce(x, working);
+        return sinInternal(reduced, working).divide(cosInternal(reduced, working), working).round(mathContext);
+    }
+
+    /**
+     * Вычислить экспоненту
+     * @param x показатель
+     * @return e в степени x
+     */
+    public BigDecimal exp(BigDecimal x) {
+        return expInternal(x, working(mathContext.getPrecision())).round(mathContext);
+    }
+
+    /**
+     * Вычислить натуральный логарифм
+     * @param x аргумент
+     * @return логарифм
+     * @throws ArithmeticException неположительный аргумент
+     */
+    public BigDecimal ln(BigDecimal x) {
+        return lnInternal(x, working(mathContext.getPrecision())).round(mathContext);
+    }
+
+    /**
+     * Получить минимум
+     * @param a первое значение
+     * @param b второе значение
+     * @return минимум
+     */
+    public BigDecimal min(BigDecimal a, BigDecimal b) {
+        return (a.compareTo(b) <= 0 ? a : b).round(mathContext);
+    }
+
+    /**
+     * Получить максимум
+     * @param a первое значение
+     * @param b второе значение
+     * @return максимум
+     */
+    public BigDecimal max(BigDecimal a, BigDecimal b) {
+        return (a.compareTo(b) >= 0 ? a : b).round(mathContext);
+    }
+
+    /**
+     * Получить pi с заданной точностью
+     * @param precision количество значащих разрядов
+     * @return pi
+     */
+    public static BigDecimal pi(int precision) {
+        MathContext working = working(precision);
+        BigDecimal pi = PI_CACHE.computeIfAbsent(working.getPrecision(), key ->
+                BigDecimal.valueOf(16).multiply(arctanOfInverse(5, working))
+                          .subtract(BigDecimal.valueOf(4).multiply(arctanOfInverse(239, working)), working));
+        return pi.round(new MathContext(precision, RoundingMode.HALF_EVEN));
+    }
+
+    /**
+     * Привести аргумент тригонометрической функции к отрезку [-pi, pi]
+     * @param x аргумент
+     * @param working рабочая точность
+     * @return приведённый аргумент
+     */
+    private static BigDecimal reduce(BigDecimal x, MathContext working) {
+        int magnitude = Math.max(0, x.precision() - x.scale());
+        MathContext reduction = new MathContext(working.getPrecision() + magnitude, RoundingMode.HALF_EVEN);
+        BigDecimal pi = pi(reduction.getPrecision());
+        BigDecimal twoPi = pi.multiply(TWO);
+        BigDecimal reduced = x.subtract(x.divideToIntegralValue(twoPi).multiply(twoPi), reduction);
+        if (reduced.compareTo(pi) > 0) {
+            reduced = reduced.subtract(twoPi);
+        }
+        else if (reduced.compareTo(pi.negate()) < 0) {
+            reduced = reduced.add(twoPi);
+        }
+        return reduced.round(working);
+    }
+
+    /**
+     * Вычислить синус рядом Тейлора
+     * @param x приведённый аргумент
+     * @param working рабочая точность
+     * @return синус
+     */
+    private static BigDecimal sinInternal(BigDecimal x, MathContext working) {
+        BigDecimal squared = x.multiply(x, working);
+        BigDecimal term = x;
+        BigDecimal sum = x;
+        for (int n = 1; !isNegligible(term, sum, working); n++) {
+            term = term.multiply(squared, working).divide(BigDecimal.valueOf((2L * n) * (2L * n + 1)), working).negate();
+            sum = sum.add(term, working);
+        }
+        return sum;
+    }
+
+    /**
+     * Вычислить косинус рядом Тейлора
+     * @param x приведённый аргумент
+     * @param working рабочая точность
+     * @return косинус
+     */
+    private static BigDecimal cosInternal(BigDecimal x, MathContext working) {
+        BigDecimal squared = x.multiply(x, working);
+        BigDecimal term = BigDecimal.ONE;
+        BigDecimal sum = BigDecimal.ONE;
+        for (int n = 1; !isNegligible(term, sum, working); n++) {
+            term = term.multiply(squared, working).divide(BigDecimal.valueOf((2L * n - 1) * (2L * n)), working).negate();
+            sum = sum.add(term, working);
+        }
+        return sum;
+    }
+
+    /**
+     * Вычислить экспоненту рядом Тейлора после деления аргумента пополам до модуля не больше 1/2
+     * @param x показатель
+     * @param working рабочая точность
+     * @return e в степени x
+     */
+    private static BigDecimal expInternal(BigDecimal x, MathContext working) {
+        if (x.signum() == 0) {
+            return BigDecimal.ONE;
+        }
+        int halvings = 0;
+        BigDecimal reduced = x;
+        BigDecimal half = new BigDecimal("0.5");
+        while (reduced.abs().compareTo(half) > 0) {
+            reduced = reduced.divide(TWO, working);
+            halvings++;
+        }
+        MathContext extended = new MathContext(working.getPrecision() + halvings / 3 + 1, RoundingMode.HALF_EVEN);
+        BigDecimal term = BigDecimal.ONE;
+        BigDecimal sum = BigDecimal.ONE;
+        for (int n = 1; !isNegligible(term, sum, extended); n++) {
+            term = term.multiply(reduced, extended).divide(BigDecimal.valueOf(n), extended);
+            sum = sum.add(term, extended);
+        }
+        for (int i = 0; i < halvings; i++) {
+            sum = sum.multiply(sum, extended);
+        }
+        return sum.round(working);
+    }
+
+    /**
+     * Вычислить натуральный логарифм: x = m * 2^k, ln x = k ln 2 + 2 artanh((m - 1) / (m + 1))
+     * @param x аргумент
+     * @param working рабочая точность
+     * @return логарифм
+     */
+    private static BigDecimal lnInternal(BigDecimal x, MathContext working) {
+        if (x.signum() <= 0) {
+            throw new ArithmeticException("Logarithm of non-positive value");
+        }
+        long exponent = (long) Math.floor((x.precision() - x.scale() - 1) * 3.321928094887362);
+        BigDecimal mantissa = exponent >= 0 ? x.divide(new BigDecimal(TWO.toBigInteger().pow((int) exponent)), working)
+                                            : x.multiply(new BigDecimal(TWO.toBigInteger().pow((int) -exponent)), working);
+        BigDecimal upper = new BigDecimal("1.5");
+        BigDecimal lower = new BigDecimal("0.75");
+        while (mantissa.compareTo(upper) > 0) {
+            mantissa = mantissa.divide(TWO, working);
+            exponent++;
+        }
+        while (mantissa.compareTo(lower) < 0) {
+            mantissa = mantissa.multiply(TWO, working);
+            exponent--;
+        }
+        BigDecimal result = artanh(mantissa.subtract(BigDecimal.ONE).divide(mantissa.add(BigDecimal.ONE), working), working)
+                .multiply(TWO, working);
+        if (exponent != 0) {
+            result = result.add(ln2(working).multiply(BigDecimal.valueOf(exponent), working), working);
+        }
+        return result;
+    }
+
+    /**
+     * Получить ln 2 с рабочей точностью
+     * @param working рабочая точность
+     * @return ln 2
+     */
+    private static BigDecimal ln2(MathContext working) {
+        return LN2_CACHE.computeIfAbsent(working.getPrecision(),
+                key -> artanh(BigDecimal.ONE.divide(BigDecimal.valueOf(3), working), working).multiply(TWO, working));
+    }
+
+    /**
+     * Вычислить гиперболический арктангенс рядом z + z^3/3 + z^5/5 + ...
+     * @param z аргумент, |z| &lt; 1
+     * @param working рабочая точность
+     * @return гиперболический арктангенс
+     */
+    private static BigDecimal artanh(BigDecimal z, MathContext working) {
+        BigDecimal squared = z.multiply(z, working);
+        BigDecimal power = z;
+        BigDecimal sum = z;
+        BigDecimal term = z;
+        for (int n = 1; !isNegligible(term, sum, working); n++) {
+            power = power.multiply(squared, working);
+            term = power.divide(BigDecimal.valueOf(2L * n + 1), working);
+            sum = sum.add(term, working);
+        }
+        return sum;
+    }
+
+    /**
+     * Вычислить арктангенс 1/n рядом Тейлора
+     * @param n знаменатель аргумента
+     * @param working рабочая точность
+     * @return арктангенс
+     */
+    private static BigDecimal arctanOfInverse(int n, MathContext working) {
+        BigDecimal inverse = BigDecimal.ONE.divide(BigDecimal.valueOf(n), working);
+        BigDecimal inverseSquared = inverse.multiply(inverse, working);
+        BigDecimal power = inverse;
+        BigDecimal sum = inverse;
+        BigDecimal term = inverse;
+        for (int k = 1; !isNegligible(term, sum, working); k++) {
+            power = power.multiply(inverseSquared, working).negate();
+            term = power.divide(BigDecimal.valueOf(2L * k + 1), working);
+            sum = sum.add(term, working);
+        }
+        return sum;
+    }
+
+    /**
+     * Пренебрежимо ли мал член ряда относительно суммы
+     * @param term член ряда
+     * @param sum сумма
+     * @param working рабочая точность
+     * @return логический результат проверки
+     */
+    private static boolean isNegligible(BigDecimal term, BigDecimal sum, MathContext working) {
+        if (term.signum() == 0) {
+            return true;
+        }
+        return sum.signum() != 0 && term.abs().compareTo(sum.abs().movePointLeft(working.getPrecision())) < 0;
+    }
+
+    /**
+     * Получить рабочую точность с запасом разрядов
+     * @param precision требуемая точность
+     * @return рабочая точность
+     */
+    private static MathContext working(int precision) {
+        return new MathContext(precision + GUARD_DIGITS, RoundingMode.HALF_EVEN);
+    }
+}
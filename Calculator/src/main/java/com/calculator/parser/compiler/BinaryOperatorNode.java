@@ -0,0 +1,115 @@
+package com.calculator.parser.compiler;
+
+import java.util.List;
+
+/**
+ * Узел бинарного оператора
+ */
+public class BinaryOperatorNode extends Node {
+
+    /**
+     * Внутреннее обозначение оператора "меньше или равно" (в выражении записывается как &lt;=)
+     */
+    public static final char LESS_OR_EQUAL = '\u2264';
+
+    /**
+     * Внутреннее обозначение оператора "больше или равно" (в выражении записывается как &gt;=)
+     */
+    public static final char GREATER_OR_EQUAL = '\u2265';
+
+    /**
+     * Внутреннее обозначение оператора "равно" (в выражении записывается как ==)
+     */
+    public static final char EQUAL = '=';
+
+    /**
+     * Внутреннее обозначение оператора "не равно" (в выражении записывается как !=)
+     */
+    public static final char NOT_EQUAL = '\u2260';
+
+    /**
+     * Оператор
+     */
+    private final char operator;
+
+    /**
+     * Левый операнд
+     */
+    private final Node left;
+
+    /**
+     * Правый операнд
+     */
+    private final Node right;
+
+    /**
+     * Конструктор - создание нового узла бинарного оператора
+     * @param operator оператор
+     * @param left левый операнд
+     * @param right правый операнд
+     */
+    public BinaryOperatorNode(char operator, Node left, Node right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Получить оператор
+     * @return оператор
+     */
+    public char getOperator() {
+        return operator;
+    }
+
+    /**
+     * Получить левый операнд
+     * @return левый операнд
+     */
+    public Node getLeft() {
+        return left;
+    }
+
+    /**
+     * Получить правый операнд
+     * @return правый операнд
+     */
+    public Node getRight() {
+        return right;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return List.of(left, right);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + left + symbol(operator) + right + ")";
+    }
+
+    /**
+     * Получить запись оператора в выражении
+     * @param operator оператор
+     * @return запись оператора
+     */
+    public static String symbol(char operator) {
+        return switch (operator) {
+            case LESS_OR_EQUAL -> "<=";
+            case GREATER_OR_EQUAL -> ">=";
+            case EQUAL -> "==";
+            case NOT_EQUAL -> "!=";
+            default -> String.valueOf(operator);
+        };
+    }
+
+    /**
+     * Является ли оператор сравнением
+     * @param operator оператор
+     * @return логический результат проверки
+     */
+    public static boolean isComparison(char operator) {
+        return operator == '<' || operator == '>' || operator == LESS_OR_EQUAL ||
+                operator == GREATER_OR_EQUAL || operator == EQUAL || operator == NOT_EQUAL;
+    }
+}
@@ -0,0 +1,104 @@
+package com.calculator.parser.compiler;
+
+/**
+ * Результат минимизации логического выражения: минимизированное выражение в нормальной форме
+ * и сокращение количества операторов
+ */
+public final class BooleanMinimization {
+
+    /**
+     * Минимизированное выражение
+     */
+    private final CompiledLogicExpression expression;
+
+    /**
+     * Нормальная форма минимизированного выражения
+     */
+    private final BooleanMinimizer.NormalForm form;
+
+    /**
+     * Использованный метод минимизации
+     */
+    private final BooleanMinimizer.Method method;
+
+    /**
+     * Количество операторов исходного выражения
+     */
+    private final int originalOperatorsCount;
+
+    /**
+     * Количество операторов минимизированного выражения
+     */
+    private final int minimizedOperatorsCount;
+
+    /**
+     * Конструктор - создание результата минимизации
+     * @param expression минимизированное выражение
+     * @param form нормальная форма
+     * @param method метод минимизации
+     * @param originalOperatorsCount количество операторов исходного выражения
+     * @param minimizedOperatorsCount количество операторов минимизированного выражения
+     */
+    BooleanMinimization(CompiledLogicExpression expression, BooleanMinimizer.NormalForm form,
+                        BooleanMinimizer.Method method, int originalOperatorsCount, int minimizedOperatorsCount) {
+        this.expression = expression;
+        this.form = form;
+        this.method = method;
+        this.originalOperatorsCount = originalOperatorsCount;
+        this.minimizedOperatorsCount = minimizedOperatorsCount;
+    }
+
+    /**
+     * Получить минимизированное выражение. Переменные, от которых выражение не зависит, в него не входят
+     * @return минимизированное выражение
+     */
+    public CompiledLogicExpression getExpression() {
+        return expression;
+    }
+
+    /**
+     * Получить нормальную форму минимизированного выражения
+     * @return нормальная форма
+     */
+    public BooleanMinimizer.NormalForm getForm() {
+        return form;
+    }
+
+    /**
+     * Получить использованный метод минимизации
+     * @return метод минимизации
+     */
+    public BooleanMinimizer.Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Получить количество операторов исходного выражения
+     * @return количество операторов
+     */
+    public int getOriginalOperatorsCount() {
+        return originalOperatorsCount;
+    }
+
+    /**
+     * Получить количество операторов минимизированного выражения
+     * @return количество операторов
+     */
+    public int getMinimizedOperatorsCount() {
+        return minimizedOperatorsCount;
+    }
+
+    /**
+     * Получить долю операторов, удалённых минимизацией
+     * @return доля от 0 до 1, отрицательная, если нормальная форма длиннее исходного выражения
+     */
+    public double getOperatorsReduction() {
+        return originalOperatorsCount == 0 ? 0 : 1 - (double) minimizedOperatorsCount / originalOperatorsCount;
+    }
+
+    @Override
+    public String toString() {
+        return expression.getExpression() + " (" + form + ", " + method + ", операторов: " +
+               originalOperatorsCount + " -> " + minimizedOperatorsCount + ")";
+    }
+}
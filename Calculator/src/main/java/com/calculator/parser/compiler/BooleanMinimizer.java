@@ -0,0 +1,486 @@
+package com.calculator.parser.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Минимизация логических выражений в дизъюнктивной или конъюнктивной нормальной форме.
+ * Для выражений с количеством переменных не больше {@link #EXACT_VARIABLES_LIMIT} строится таблица истинности
+ * и применяется метод Куайна - Мак-Класки; для больших выражений покрытие строится из дерева и улучшается
+ * эвристикой в духе Espresso (расширение кубов до импликант и удаление избыточных кубов).
+ * Куб задаётся масками: бит i маски care - переменная i входит в куб, бит i маски value - её значение
+ */
+public final class BooleanMinimizer {
+
+    /**
+     * Наибольшее количество переменных, для которого выполняется минимизация по таблице истинности
+     */
+    public static final int EXACT_VARIABLES_LIMIT = 12;
+
+    /**
+     * Наибольшее количество переменных минимизируемого выражения
+     */
+    public static final int MAX_VARIABLES = 64;
+
+    /**
+     * Нормальная форма результата
+     */
+    public enum NormalForm {
+
+        /**
+         * Дизъюнкция конъюнкций литералов
+         */
+        DNF,
+
+        /**
+         * Конъюнкция дизъюнкций литералов
+         */
+        CNF
+    }
+
+    /**
+     * Метод минимизации
+     */
+    public enum Method {
+
+        /**
+         * Метод Куайна - Мак-Класки по таблице истинности
+         */
+        QUINE_MCCLUSKEY,
+
+        /**
+         * Эвристика расширения и удаления избыточных кубов
+         */
+        ESPRESSO
+    }
+
+    private BooleanMinimizer() {
+    }
+
+    /**
+     * Минимизировать логическое выражение
+     * @param expression скомпилированное логическое выражение
+     * @param form нормальная форма результата
+     * @return результат минимизации
+     */
+    public static BooleanMinimization minimize(CompiledLogicExpression expression, NormalForm form) {
+        List<String> variables = expression.getVariables();
+        if (variables.size() > MAX_VARIABLES) {
+            throw new IllegalArgumentException("Minimization supports at most " + MAX_VARIABLES + " variables");
+        }
+        Method method = variables.size() <= EXACT_VARIABLES_LIMIT ? Method.QUINE_MCCLUSKEY : Method.ESPRESSO;
+        boolean complement = form == NormalForm.CNF;
+        List<long[]> cover = method == Method.QUINE_MCCLUSKEY ?
+                             quineMcCluskey(expression, complement) : espresso(expression, complement);
+
+        Node root = toTree(cover, variables, complement);
+        CompiledLogicExpression minimized = new CompiledLogicExpression(format(cover, variables, complement), root,
+                                                                        expression.getLimits());
+        return new BooleanMinimization(minimized, form, method, countOperators(expression.getRoot()), countOperators(root));
+    }
+
+    /**
+     * Посчитать операторы дерева выражения
+     * @param node корень дерева
+     * @return количество бинарных и унарных операторов
+     */
+    public static int countOperators(Node node) {
+        int count = node instanceof BinaryOperatorNode || node instanceof UnaryOperatorNode ? 1 : 0;
+        for (Node child : node.getChildren()) {
+            count += countOperators(child);
+        }
+        return count;
+    }
+
+    /**
+     * Построить минимальное покрытие по таблице истинности методом Куайна - Мак-Класки.
+     * Сначала выбираются существенные простые импликанты, оставшиеся наборы покрываются жадно
+     * @param expression выражение
+     * @param complement покрывать ли наборы, на которых выражение ложно
+     * @return покрытие из кубов {care, value}
+     */
+    private static List<long[]> quineMcCluskey(CompiledLogicExpression expression, boolean complement) {
+        int variablesCount = expression.getVariables().size();
+        long allVariables = variablesCount == 0 ? 0 : -1L >>> (64 - variablesCount);
+        Program program = expression.getProgram();
+        double[] values = new double[variablesCount];
+        double[] stack = new double[Math.max(program.getMaxStackDepth(), 1)];
+        List<Long> minterms = new ArrayList<>();
+        for (long assignment = 0; assignment < 1L << variablesCount; assignment++) {
+            for (int i = 0; i < variablesCount; i++) {
+                values[i] = (assignment >>> i & 1) != 0 ? 1 : 0;
+            }
+            if ((program.execute(values, stack) != 0) != complement) {
+                minterms.add(assignment);
+            }
+        }
+
+        List<long[]> primes = new ArrayList<>();
+        Set<Long> current = new LinkedHashSet<>();
+        for (long minterm : minterms) {
+            current.add(allVariables << 32 | minterm);
+        }
+        while (!current.isEmpty()) {
+            Set<Long> next = new LinkedHashSet<>();
+            Set<Long> combined = new HashSet<>();
+            for (long implicant : current) {
+                long care = implicant >>> 32;
+                long value = implicant & 0xFFFFFFFFL;
+                for (long remaining = care; remaining != 0; remaining &= remaining - 1) {
+                    long variable = remaining & -remaining;
+                    long partner = care << 32 | value ^ variable;
+                    if (current.contains(partner)) {
+                        next.add((care & ~variable) << 32 | value & ~variable);
+                        combined.add(implicant);
+                        combined.add(partner);
+                    }
+                }
+            }
+            for (long implicant : current) {
+                if (!combined.contains(implicant)) {
+                    primes.add(new long[]{implicant >>> 32, implicant & 0xFFFFFFFFL});
+                }
+            }
+            current = next;
+        }
+        return selectCover(primes, minterms);
+    }
+
+    /**
+     * Выбрать покрытие наборов простыми импликантами: существенные импликанты, затем жадный выбор
+     * импликанты, покрывающей больше всего оставшихся наборов (при равенстве - с меньшим числом литералов)
+     * @param primes простые импликанты
+     * @param minterms покрываемые наборы
+     * @return покрытие
+     */
+    private static List<long[]> selectCover(List<long[]> primes, List<Long> minterms) {
+        List<long[]> cover = new ArrayList<>();
+        Set<Long> uncovered = new LinkedHashSet<>(minterms);
+        for (long minterm : minterms) {
+            long[] single = null;
+            int covering = 0;
+            for (long[] prime : primes) {
+                if (covers(prime, minterm)) {
+                    single = prime;
+                    covering++;
+                }
+            }
+            if (covering == 1 && !cover.contains(single)) {
+                long[] essential = single;
+                cover.add(essential);
+                uncovered.removeIf(covered -> covers(essential, covered));
+            }
+        }
+        while (!uncovered.isEmpty()) {
+            long[] best = null;
+            int bestCount = 0;
+            for (long[] prime : primes) {
+                int count = 0;
+                for (long minterm : uncovered) {
+                    if (covers(prime, minterm)) {
+                        count++;
+                    }
+                }
+                if (count > bestCount || count == bestCount && count > 0 && Long.bitCount(prime[0]) < Long.bitCount(best[0])) {
+                    best = prime;
+                    bestCount = count;
+                }
+            }
+            long[] chosen = best;
+            cover.add(chosen);
+            uncovered.removeIf(covered -> covers(chosen, covered));
+        }
+        return cover;
+    }
+
+    /**
+     * Покрывает ли куб набор значений переменных
+     * @param cube куб
+     * @param minterm набор значений
+     * @return логический результат проверки
+     */
+    private static boolean covers(long[] cube, long minterm) {
+        return (minterm & cube[0]) == cube[1];
+    }
+
+    /**
+     * Построить покрытие из дерева выражения и улучшить его расширением и удалением избыточных кубов
+     * @param expression выражение
+     * @param complement строить ли покрытие отрицания выражения
+     * @return покрытие из кубов {care, value}
+     */
+    private static List<long[]> espresso(CompiledLogicExpression expression, boolean complement) {
+        List<long[]> function = toCover(expression.getRoot(), expression.getVariableSlots(), complement);
+        List<long[]> cover = function;
+        int cost = Integer.MAX_VALUE;
+        while (cost(cover) < cost) {
+            cost = cost(cover);
+            cover = irredundant(expand(cover, function));
+        }
+        return cover;
+    }
+
+    /**
+     * Стоимость покрытия: количество литералов и кубов
+     * @param cover покрытие
+     * @return стоимость
+     */
+    private static int cost(List<long[]> cover) {
+        int cost = cover.size();
+        for (long[] cube : cover) {
+            cost += Long.bitCount(cube[0]);
+        }
+        return cost;
+    }
+
+    /**
+     * Расширить кубы покрытия: удалить литералы, без которых куб остаётся импликантой функции,
+     * и исключить кубы, поглощённые расширенными
+     * @param cover покрытие
+     * @param function исходное покрытие функции
+     * @return расширенное покрытие
+     */
+    private static List<long[]> expand(List<long[]> cover, List<long[]> function) {
+        List<long[]> sorted = new ArrayList<>(cover);
+        sorted.sort((a, b) -> Long.bitCount(a[0]) - Long.bitCount(b[0]));
+        List<long[]> expanded = new ArrayList<>();
+        for (long[] cube : sorted) {
+            if (expanded.stream().anyMatch(larger -> contains(larger, cube))) {
+                continue;
+            }
+            long care = cube[0];
+            long value = cube[1];
+            for (long remaining = care; remaining != 0; remaining &= remaining - 1) {
+                long literal = remaining & -remaining;
+                if (isTautology(cofactor(function, care & ~literal, value & ~literal))) {
+                    care &= ~literal;
+                    value &= ~literal;
+                }
+            }
+            expanded.add(new long[]{care, value});
+        }
+        return expanded;
+    }
+
+    /**
+     * Удалить избыточные кубы, покрытые остальными кубами покрытия
+     * @param cover покрытие
+     * @return неизбыточное покрытие
+     */
+    private static List<long[]> irredundant(List<long[]> cover) {
+        List<long[]> result = new ArrayList<>(cover);
+        result.sort((a, b) -> Long.bitCount(b[0]) - Long.bitCount(a[0]));
+        for (int i = 0; i < result.size(); ) {
+            long[] cube = result.remove(i);
+            if (!isTautology(cofactor(result, cube[0], cube[1]))) {
+                result.add(i++, cube);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Содержит ли первый куб второй
+     * @param outer внешний куб
+     * @param inner внутренний куб
+     * @return логический результат проверки
+     */
+    private static boolean contains(long[] outer, long[] inner) {
+        return (outer[0] & ~inner[0]) == 0 && (inner[1] & outer[0]) == outer[1];
+    }
+
+    /**
+     * Получить кофактор покрытия по кубу: кубы, пересекающиеся с заданным, без его переменных
+     * @param cover покрытие
+     * @param care переменные куба
+     * @param value значения переменных куба
+     * @return кофактор
+     */
+    private static List<long[]> cofactor(List<long[]> cover, long care, long value) {
+        List<long[]> result = new ArrayList<>();
+        for (long[] cube : cover) {
+            long common = cube[0] & care;
+            if ((cube[1] & common) == (value & common)) {
+                result.add(new long[]{cube[0] & ~care, cube[1] & ~care});
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Является ли покрытие тождественно истинным (разложение Шеннона по самой частой переменной)
+     * @param cover покрытие
+     * @return логический результат проверки
+     */
+    private static boolean isTautology(List<long[]> cover) {
+        if (cover.isEmpty()) {
+            return false;
+        }
+        long used = 0;
+        for (long[] cube : cover) {
+            if (cube[0] == 0) {
+                return true;
+            }
+            used |= cube[0];
+        }
+        long variable = mostFrequentVariable(cover, used);
+        return isTautology(cofactor(cover, variable, variable)) && isTautology(cofactor(cover, variable, 0));
+    }
+
+    /**
+     * Получить бит переменной, входящей в наибольшее количество кубов
+     * @param cover покрытие
+     * @param used маска переменных покрытия, не пустая
+     * @return бит переменной
+     */
+    private static long mostFrequentVariable(List<long[]> cover, long used) {
+        long best = Long.lowestOneBit(used);
+        int bestCount = 0;
+        for (long remaining = used; remaining != 0; remaining &= remaining - 1) {
+            long variable = remaining & -remaining;
+            int count = 0;
+            for (long[] cube : cover) {
+                if ((cube[0] & variable) != 0) {
+                    count++;
+                }
+            }
+            if (count > bestCount) {
+                best = variable;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Построить покрытие поддерева
+     * @param node узел
+     * @param slots номера переменных
+     * @param negate строить ли покрытие отрицания поддерева
+     * @return покрытие
+     */
+    private static List<long[]> toCover(Node node, Map<String, Integer> slots, boolean negate) {
+        if (node instanceof VariableNode variableNode) {
+            long variable = 1L << slots.get(variableNode.getName());
+            return new ArrayList<>(List.<long[]>of(new long[]{variable, negate ? 0 : variable}));
+        }
+        if (node instanceof BooleanNode booleanNode) {
+            return booleanNode.getValue() != negate ? new ArrayList<>(List.<long[]>of(new long[]{0, 0})) : new ArrayList<>();
+        }
+        if (node instanceof UnaryOperatorNode unaryNode) {
+            return toCover(unaryNode.getOperand(), slots, !negate);
+        }
+        if (node instanceof BinaryOperatorNode binaryNode) {
+            List<long[]> left = toCover(binaryNode.getLeft(), slots, negate);
+            List<long[]> right = toCover(binaryNode.getRight(), slots, negate);
+            boolean conjunction = binaryNode.getOperator() == '&' != negate;
+            if (!conjunction) {
+                left.addAll(right);
+                return absorb(left);
+            }
+            List<long[]> product = new ArrayList<>();
+            for (long[] a : left) {
+                for (long[] b : right) {
+                    long common = a[0] & b[0];
+                    if ((a[1] & common) == (b[1] & common)) {
+                        product.add(new long[]{a[0] | b[0], a[1] | b[1]});
+                    }
+                }
+            }
+            return absorb(product);
+        }
+        throw new IllegalArgumentException("Unsupported node in logic expression: " + node);
+    }
+
+    /**
+     * Удалить кубы, содержащиеся в других кубах покрытия
+     * @param cover покрытие
+     * @return покрытие без поглощённых кубов
+     */
+    private static List<long[]> absorb(List<long[]> cover) {
+        List<long[]> result = new ArrayList<>();
+        for (int i = 0; i < cover.size(); i++) {
+            long[] cube = cover.get(i);
+            boolean absorbed = false;
+            for (int j = 0; j < cover.size() && !absorbed; j++) {
+                absorbed = j != i && contains(cover.get(j), cube) &&
+                           (!Arrays.equals(cover.get(j), cube) || j < i);
+            }
+            if (!absorbed) {
+                result.add(cube);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Построить дерево нормальной формы по покрытию
+     * @param cover покрытие функции либо её отрицания для КНФ
+     * @param variables имена переменных по номерам
+     * @param complement является ли покрытие покрытием отрицания (КНФ)
+     * @return корень дерева
+     */
+    private static Node toTree(List<long[]> cover, List<String> variables, boolean complement) {
+        if (cover.isEmpty() || cover.stream().anyMatch(cube -> cube[0] == 0)) {
+            return new BooleanNode(!cover.isEmpty() != complement);
+        }
+        Node root = null;
+        for (long[] cube : cover) {
+            Node term = null;
+            for (long remaining = cube[0]; remaining != 0; remaining &= remaining - 1) {
+                int slot = Long.numberOfTrailingZeros(remaining);
+                Node literal = new VariableNode(variables.get(slot));
+                if (((cube[1] >>> slot & 1) != 0) == complement) {
+                    literal = new UnaryOperatorNode('!', literal);
+                }
+                term = term == null ? literal : new BinaryOperatorNode(complement ? '|' : '&', term, literal);
+            }
+            root = root == null ? term : new BinaryOperatorNode(complement ? '&' : '|', root, term);
+        }
+        return root;
+    }
+
+    /**
+     * Записать нормальную форму по покрытию с короткими операторами
+     * @param cover покрытие функции либо её отрицания для КНФ
+     * @param variables имена переменных по номерам
+     * @param complement является ли покрытие покрытием отрицания (КНФ)
+     * @return запись выражения
+     */
+    private static String format(List<long[]> cover, List<String> variables, boolean complement) {
+        if (cover.isEmpty() || cover.stream().anyMatch(cube -> cube[0] == 0)) {
+            return !cover.isEmpty() != complement ? "T" : "F";
+        }
+        StringBuilder expression = new StringBuilder();
+        for (long[] cube : cover) {
+            if (expression.length() > 0) {
+                expression.append(complement ? '&' : '|');
+            }
+            boolean parentheses = complement && Long.bitCount(cube[0]) > 1;
+            if (parentheses) {
+                expression.append('(');
+            }
+            boolean first = true;
+            for (long remaining = cube[0]; remaining != 0; remaining &= remaining - 1) {
+                int slot = Long.numberOfTrailingZeros(remaining);
+                if (!first) {
+                    expression.append(complement ? '|' : '&');
+                }
+                if (((cube[1] >>> slot & 1) != 0) == complement) {
+                    expression.append('!');
+                }
+                expression.append(variables.get(slot));
+                first = false;
+            }
+            if (parentheses) {
+                expression.append(')');
+            }
+        }
+        return expression.toString();
+    }
+}
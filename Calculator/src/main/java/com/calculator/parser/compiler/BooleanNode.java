@@ -0,0 +1,40 @@
+package com.calculator.parser.compiler;
+
+import java.util.List;
+
+/**
+ * Узел логической константы
+ */
+public class BooleanNode extends Node {
+
+    /**
+     * Значение константы
+     */
+    private final boolean value;
+
+    /**
+     * Конструктор - создание нового узла логической константы
+     * @param value значение константы
+     */
+    public BooleanNode(boolean value) {
+        this.value = value;
+    }
+
+    /**
+     * Получить значение константы
+     * @return значение константы
+     */
+    public boolean getValue() {
+        return value;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return List.of();
+    }
+
+    @Override
+    public String toString() {
+        return value ? "T" : "F";
+    }
+}
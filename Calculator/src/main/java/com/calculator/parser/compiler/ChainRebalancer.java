@@ -0,0 +1,120 @@
+package com.calculator.parser.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Перестройка длинных цепочек ассоциативных операторов в сбалансированные деревья.
+ * Разбор строит цепочку a1+a2+...+an как левостороннее дерево глубины n, которое переполняет стек
+ * рекурсивных обходов и не допускает параллельного вычисления. Цепочки не короче заданной длины
+ * перестраиваются в дерево глубины log2(n); вычитание в цепочке сложения заменяется сложением
+ * с противоположным операндом, что точно. Для сложения и умножения вещественных чисел перестановка скобок
+ * может изменить младшие разряды результата, поэтому цепочки короче {@link #MIN_CHAIN_OPERANDS} операндов
+ * сохраняют порядок вычисления слева направо
+ */
+public final class ChainRebalancer {
+
+    /**
+     * Минимальное количество операндов перестраиваемой цепочки при компиляции. Левостороннее дерево из нескольких
+     * тысяч операндов переполняет стек потока размером 1 МБ при рекурсивных обходах, более короткие цепочки
+     * вычисляются в исходном порядке
+     */
+    public static final int MIN_CHAIN_OPERANDS = 1024;
+
+    private ChainRebalancer() {
+    }
+
+    /**
+     * Перестроить цепочки левой ветви дерева, корнем которого является узел.
+     * Левая ветвь обходится без рекурсии, каждая непрерывная цепочка одного оператора перестраивается отдельно
+     * @param node узел
+     * @param minOperands минимальное количество операндов перестраиваемой цепочки
+     * @return корень перестроенного дерева либо исходный узел
+     */
+    public static Node rebalance(Node node, int minOperands) {
+        List<BinaryOperatorNode> spine = new ArrayList<>();
+        Node current = node;
+        while (current instanceof BinaryOperatorNode binaryNode) {
+            spine.add(binaryNode);
+            current = binaryNode.getLeft();
+        }
+
+        boolean changed = false;
+        int bottom = spine.size() - 1;
+        while (bottom >= 0) {
+            char operator = chainOperator(spine.get(bottom).getOperator());
+            int top = bottom;
+            while (operator != 0 && top > 0 && belongsToChain(spine.get(top - 1).getOperator(), operator)) {
+                top--;
+            }
+            if (operator != 0 && bottom - top + 2 >= minOperands) {
+                List<Node> operands = new ArrayList<>(bottom - top + 2);
+                operands.add(current);
+                for (int i = bottom; i >= top; i--) {
+                    BinaryOperatorNode chainNode = spine.get(i);
+                    operands.add(chainNode.getOperator() == '-' ?
+                                 new UnaryOperatorNode('-', chainNode.getRight()) : chainNode.getRight());
+                }
+                current = balance(operator, operands, 0, operands.size());
+                changed = true;
+            }
+            else {
+                for (int i = bottom; i >= top; i--) {
+                    BinaryOperatorNode spineNode = spine.get(i);
+                    current = changed ? new BinaryOperatorNode(spineNode.getOperator(), current, spineNode.getRight())
+                                      : spineNode;
+                }
+            }
+            bottom = top - 1;
+        }
+        return current;
+    }
+
+    /**
+     * Является ли оператор ассоциативным (вычитание - как сложение с противоположным операндом)
+     * @param operator оператор
+     * @return логический результат проверки
+     */
+    public static boolean isAssociative(char operator) {
+        return ExpressionCanonicalizer.isCommutative(operator) || operator == '-';
+    }
+
+    /**
+     * Получить оператор цепочки, которую начинает оператор
+     * @param operator оператор узла
+     * @return оператор цепочки или 0, если оператор не ассоциативен
+     */
+    private static char chainOperator(char operator) {
+        if (!isAssociative(operator)) {
+            return 0;
+        }
+        return operator == '-' ? '+' : operator;
+    }
+
+    /**
+     * Принадлежит ли оператор цепочке
+     * @param operator оператор узла
+     * @param chainOperator оператор цепочки
+     * @return логический результат проверки
+     */
+    private static boolean belongsToChain(char operator, char chainOperator) {
+        return operator == chainOperator || chainOperator == '+' && operator == '-';
+    }
+
+    /**
+     * Построить сбалансированное дерево из операндов делением диапазона пополам
+     * @param operator оператор
+     * @param operands операнды
+     * @param from начало диапазона
+     * @param to конец диапазона (не включительно)
+     * @return корень дерева
+     */
+    private static Node balance(char operator, List<Node> operands, int from, int to) {
+        if (to - from == 1) {
+            return operands.get(from);
+        }
+        int middle = (from + to) >>> 1;
+        return new BinaryOperatorNode(operator, balance(operator, operands, from, middle),
+                                      balance(operator, operands, middle, to));
+    }
+}
@@ -0,0 +1,111 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Компилятор программы стековой машины в дерево замыканий.
+ * Замыкания не используют стек и разбор кодов операций при вычислении, поэтому выполняются быстрее интерпретатора,
+ * но их построение дороже. Деления без проверки и разрешённые функции сохраняются из программы.
+ * Замыкания не проверяют ограничения времени, поэтому программы с ограничениями времени не компилируются
+ */
+public final class ClosureCompiler {
+
+    private ClosureCompiler() {
+    }
+
+    /**
+     * Построить дерево замыканий
+     * @param program программа стековой машины
+     * @return исполняемое выражение
+     * @throws IllegalArgumentException программа проверяет ограничения времени
+     */
+    public static Executable compile(Program program) {
+        if (program.hasTimeLimits()) {
+            throw new IllegalArgumentException("Time limited program cannot be compiled to closures");
+        }
+        int[] code = program.getCode();
+        double[] constants = program.getConstants();
+        DoubleUnaryOperator[] oneArgumentFunctions = program.getOneArgumentFunctions();
+        DoubleBinaryOperator[] twoArgumentsFunctions = program.getTwoArgumentsFunctions();
+        Deque<Executable> stack = new ArrayDeque<>();
+
+        for (int i = 0; i < code.length; i++) {
+            int opcode = code[i];
+            switch (opcode) {
+                case Program.PUSH_CONSTANT -> {
+                    double constant = constants[code[++i]];
+                    stack.push(variables -> constant);
+                }
+                case Program.LOAD_VARIABLE -> {
+                    int slot = code[++i];
+                    stack.push(variables -> variables[slot]);
+                }
+                case Program.NEGATE -> {
+                    Executable operand = stack.pop();
+                    stack.push(variables -> -operand.execute(variables));
+                }
+                case Program.NOT -> {
+                    Executable operand = stack.pop();
+                    stack.push(variables -> operand.execute(variables) != 0 ? 0 : 1);
+                }
+                case Program.JUMP_IF_FALSE, Program.JUMP_IF_TRUE -> i++;
+                case Program.CALL_ONE_ARGUMENT -> {
+                    DoubleUnaryOperator function = oneArgumentFunctions[code[++i]];
+                    Executable argument = stack.pop();
+                    stack.push(variables -> function.applyAsDouble(argument.execute(variables)));
+                }
+                case Program.CALL_TWO_ARGUMENTS -> {
+                    DoubleBinaryOperator function = twoArgumentsFunctions[code[++i]];
+                    Executable second = stack.pop();
+                    Executable first = stack.pop();
+                    stack.push(variables -> function.applyAsDouble(first.execute(variables), second.execute(variables)));
+                }
+                default -> {
+                    Executable right = stack.pop();
+                    Executable left = stack.pop();
+                    stack.push(binary(opcode, left, right));
+                }
+            }
+        }
+        return stack.pop();
+    }
+
+    /**
+     * Построить замыкание бинарной операции
+     * @param opcode код операции
+     * @param left левый операнд
+     * @param right правый операнд
+     * @return замыкание
+     */
+    static Executable binary(int opcode, Executable left, Executable right) {
+        return switch (opcode) {
+            case Program.ADD -> variables -> left.execute(variables) + right.execute(variables);
+            case Program.SUBTRACT -> variables -> left.execute(variables) - right.execute(variables);
+            case Program.MULTIPLY -> variables -> left.execute(variables) * right.execute(variables);
+            case Program.DIVIDE -> variables -> {
+                double dividend = left.execute(variables);
+                double divisor = right.execute(variables);
+                if (divisor == 0) {
+                    throw new ParserException(ErrorType.DIVISION_BY_ZERO_ERROR);
+                }
+                return dividend / divisor;
+            };
+            case Program.DIVIDE_UNCHECKED -> variables -> left.execute(variables) / right.execute(variables);
+            case Program.AND -> variables -> left.execute(variables) != 0 && right.execute(variables) != 0 ? 1 : 0;
+            case Program.OR -> variables -> left.execute(variables) != 0 || right.execute(variables) != 0 ? 1 : 0;
+            case Program.LESS -> variables -> left.execute(variables) < right.execute(variables) ? 1 : 0;
+            case Program.LESS_OR_EQUAL -> variables -> left.execute(variables) <= right.execute(variables) ? 1 : 0;
+            case Program.GREATER -> variables -> left.execute(variables) > right.execute(variables) ? 1 : 0;
+            case Program.GREATER_OR_EQUAL -> variables -> left.execute(variables) >= right.execute(variables) ? 1 : 0;
+            case Program.EQUAL -> variables -> left.execute(variables) == right.execute(variables) ? 1 : 0;
+            case Program.NOT_EQUAL -> variables -> left.execute(variables) != right.execute(variables) ? 1 : 0;
+            default -> throw new IllegalStateException("Unknown opcode " + opcode);
+        };
+    }
+}
@@ -0,0 +1,464 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Скомпилированное выражение: дерево выражения и программа стековой машины.
+ * Разбор строки выполняется один раз, после чего выражение вычисляется многократно с разными значениями переменных.
+ * Объект неизменяем и может использоваться из нескольких потоков
+ * @param <T> тип результата и значений переменных
+ */
+public abstract class CompiledExpression<T> {
+
+    /**
+     * Исходное выражение
+     */
+    private final String expression;
+
+    /**
+     * Корень дерева выражения
+     */
+    private final Node root;
+
+    /**
+     * Номера переменных в порядке первого появления в выражении
+     */
+    private final Map<String, Integer> variableSlots;
+
+    /**
+     * Производные значения: агрегаты переменных-массивов и скользящие окна.
+     * Они вычисляются до выполнения программы и передаются ей после значений переменных
+     */
+    private final List<Node> derivedValues = new ArrayList<>();
+
+    /**
+     * Программа стековой машины
+     */
+    protected final Program program;
+
+    /**
+     * Ограничения вычисления
+     */
+    private final EvaluationLimits limits;
+
+    /**
+     * Оценка стоимости, вычисляется при первом обращении
+     */
+    private volatile ExpressionCost cost;
+
+    /**
+     * Каноническая форма, вычисляется при первом обращении
+     */
+    private volatile String canonicalForm;
+
+    /**
+     * Структурный хэш, вычисляется при первом обращении
+     */
+    private volatile long structuralHash;
+
+    /**
+     * Вычислен ли структурный хэш
+     */
+    private volatile boolean structuralHashComputed;
+
+    /**
+     * Состояние многоуровневого исполнения, создаётся при первом выполнении через {@link TieredExecutor}
+     */
+    private volatile TieredExecutor.TierState tierState;
+
+    /**
+     * Конструктор - создание скомпилированного выражения
+     * @param expression исходное выражение
+     * @param root корень дерева выражения
+     */
+    protected CompiledExpression(String expression, Node root) {
+        this(expression, root, Set.of());
+    }
+
+    /**
+     * Конструктор - создание скомпилированного выражения без проверок деления на ноль для заданных узлов
+     * @param expression исходное выражение
+     * @param root корень дерева выражения
+     * @param uncheckedDivisions узлы деления, делитель которых заведомо не равен нулю
+     */
+    protected CompiledExpression(String expression, Node root, Set<Node> uncheckedDivisions) {
+        this(expression, root, uncheckedDivisions, EvaluationLimits.UNLIMITED);
+    }
+
+    /**
+     * Конструктор - создание скомпилированного выражения с ограничениями вычисления.
+     * Количество операций программы проверяется при создании
+     * @param expression исходное выражение
+     * @param root корень дерева выражения
+     * @param uncheckedDivisions узлы деления, делитель которых заведомо не равен нулю
+     * @param limits ограничения вычисления
+     */
+    protected CompiledExpression(String expression, Node root, Set<Node> uncheckedDivisions, EvaluationLimits limits) {
+        this.expression = expression;
+        this.root = root;
+        this.limits = limits;
+        this.variableSlots = new LinkedHashMap<>();
+        collectVariables(root);
+        Program compiledProgram;
+        if (derivedValues.isEmpty()) {
+            compiledProgram = Program.compile(root, variableSlots, uncheckedDivisions);
+        }
+        else {
+            Map<String, Integer> programSlots = new LinkedHashMap<>(variableSlots);
+            for (Node derivedValue : derivedValues) {
+                programSlots.put(derivedValue.toString(), programSlots.size());
+            }
+            compiledProgram = Program.compile(root, programSlots, uncheckedDivisions);
+        }
+        limits.checkProgram(compiledProgram);
+        this.program = limits.hasTimeLimits() ? compiledProgram.withLimits(limits) : compiledProgram;
+    }
+
+    /**
+     * Вычислить выражение
+     * @param variablesValue значения переменных по именам
+     * @return результат выражения
+     */
+    public abstract T evaluate(Map<String, T> variablesValue);
+
+    /**
+     * Вычислить выражение без выбрасывания исключения
+     * @param variablesValue значения переменных по именам
+     * @return результат выражения либо тип ошибки
+     */
+    public ParserResult<T> tryEvaluate(Map<String, T> variablesValue) {
+        for (String variable : variableSlots.keySet()) {
+            if (variablesValue.get(variable) == null) {
+                return ParserResult.failure(ErrorType.VARIABLE_DETECTED_ERROR, -1);
+            }
+        }
+        try {
+            return ParserResult.success(evaluate(variablesValue));
+        }
+        catch (ParserException exception) {
+            return ParserResult.failure(exception);
+        }
+    }
+
+    /**
+     * Преобразовать значение во внутреннее представление стековой машины
+     * @param value значение
+     * @return внутреннее представление
+     */
+    protected abstract double toInternalValue(T value);
+
+    /**
+     * Преобразовать внутреннее представление стековой машины в значение
+     * @param internalValue внутреннее представление
+     * @return значение
+     */
+    protected abstract T fromInternalValue(double internalValue);
+
+    /**
+     * Вычислить выражение для набора значений переменных за один проход по столбцам
+     * @param variablesValues значения переменных по именам для каждой строки
+     * @return результаты в порядке строк
+     */
+    public List<T> evaluateBatch(List<Map<String, T>> variablesValues) {
+        checkNoDerivedValues();
+        int rows = variablesValues.size();
+        double[][] columns = new double[variableSlots.size()][rows];
+        double[] results = new double[rows];
+
+        for (int row = 0; row < rows; row++) {
+            Map<String, T> variablesValue = variablesValues.get(row);
+            for (Map.Entry<String, Integer> slot : variableSlots.entrySet()) {
+                columns[slot.getValue()][row] = toInternalValue(requireValue(variablesValue, slot.getKey()));
+            }
+        }
+        program.executeColumns(columns, rows, results);
+
+        List<T> resultList = new ArrayList<>(rows);
+        for (double result : results) {
+            resultList.add(fromInternalValue(result));
+        }
+        return resultList;
+    }
+
+    /**
+     * Вычислить выражение во внутреннем представлении
+     * @param variablesValue значения переменных по именам
+     * @return результат во внутреннем представлении
+     */
+    protected double evaluateInternal(Map<String, T> variablesValue) {
+        return program.execute(toInternalVariables(variablesValue));
+    }
+
+    /**
+     * Преобразовать значения переменных по именам во внутренние значения по номерам
+     * @param variablesValue значения переменных по именам
+     * @return внутренние значения переменных по номерам
+     */
+    protected double[] toInternalVariables(Map<String, T> variablesValue) {
+        return toInternalVariables(variablesValue, null);
+    }
+
+    /**
+     * Преобразовать значения переменных во внутренние значения по номерам и вычислить агрегаты переменных-массивов
+     * @param variablesValue значения переменных по именам
+     * @param arraysValue значения переменных-массивов или null, если выражение их не использует
+     * @return внутренние значения переменных и агрегатов по номерам
+     */
+    protected double[] toInternalVariables(Map<String, T> variablesValue, ArrayVariables arraysValue) {
+        double[] variables = new double[variableSlots.size() + derivedValues.size()];
+        for (Map.Entry<String, Integer> slot : variableSlots.entrySet()) {
+            variables[slot.getValue()] = toInternalValue(requireValue(variablesValue, slot.getKey()));
+        }
+        for (int i = 0; i < derivedValues.size(); i++) {
+            if (!(derivedValues.get(i) instanceof AggregateNode aggregate)) {
+                throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+            }
+            variables[variableSlots.size() + i] = aggregate.evaluate(arraysValue);
+        }
+        return variables;
+    }
+
+    /**
+     * Проверить количество значений переменных, переданных по порядку
+     * @param valuesQuantity количество значений
+     */
+    protected void checkVariablesQuantity(int valuesQuantity) {
+        checkNoDerivedValues();
+        if (valuesQuantity > variableSlots.size()) {
+            throw new ParserException(ErrorType.INCORRECT_VARIABLES_QUANTITY_ERROR);
+        }
+        if (valuesQuantity < variableSlots.size()) {
+            throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+        }
+    }
+
+    /**
+     * Получить исходное выражение
+     * @return выражение
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Получить корень дерева выражения
+     * @return корень дерева
+     */
+    public Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Получить программу стековой машины
+     * @return программа
+     */
+    public Program getProgram() {
+        return program;
+    }
+
+    /**
+     * Получить ограничения вычисления
+     * @return ограничения
+     */
+    public EvaluationLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Получить статическую оценку стоимости вычисления
+     * @return оценка стоимости
+     */
+    public ExpressionCost getCost() {
+        ExpressionCost expressionCost = cost;
+        if (expressionCost == null) {
+            expressionCost = new ExpressionCost(this);
+            cost = expressionCost;
+        }
+        return expressionCost;
+    }
+
+    /**
+     * Получить состояние многоуровневого исполнения, создав его при первом обращении
+     * @return состояние исполнения
+     */
+    TieredExecutor.TierState getTierState() {
+        TieredExecutor.TierState state = tierState;
+        if (state == null) {
+            synchronized (this) {
+                state = tierState;
+                if (state == null) {
+                    state = new TieredExecutor.TierState(program);
+                    tierState = state;
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Получить состояние многоуровневого исполнения без его создания
+     * @return состояние исполнения или null, если выражение не выполнялось через {@link TieredExecutor}
+     */
+    TieredExecutor.TierState peekTierState() {
+        return tierState;
+    }
+
+    /**
+     * Получить план вычисления выражения интерпретатором программы
+     * @return план вычисления
+     */
+    public ExplainPlan explain() {
+        return new ExplainPlan(this, ExecutionTier.INTERPRETER);
+    }
+
+    /**
+     * Создать профилировщик, накапливающий время и количество вычислений узлов и вызовов функций
+     * @return профилировщик выражения
+     */
+    public ExpressionProfiler<T> profiler() {
+        return new ExpressionProfiler<>(this);
+    }
+
+    /**
+     * Получить имена переменных в порядке первого появления в выражении
+     * @return имена переменных
+     */
+    public List<String> getVariables() {
+        return List.copyOf(variableSlots.keySet());
+    }
+
+    /**
+     * Получить имена переменных-массивов, используемых агрегатными функциями
+     * @return имена переменных-массивов в порядке первого появления
+     */
+    public List<String> getArrayVariables() {
+        return derivedValues.stream().filter(AggregateNode.class::isInstance)
+                            .flatMap(aggregate -> ((AggregateNode) aggregate).getArrays().stream()).distinct().toList();
+    }
+
+    /**
+     * Получить скользящие окна выражения
+     * @return узлы скользящих окон в порядке первого появления
+     */
+    public List<WindowNode> getWindows() {
+        return derivedValues.stream().filter(WindowNode.class::isInstance).map(WindowNode.class::cast).toList();
+    }
+
+    /**
+     * Получить номер производного значения (агрегата или окна) во внутренних значениях переменных
+     * @param derivedValue узел агрегата или окна
+     * @return номер значения
+     */
+    public int getDerivedValueSlot(Node derivedValue) {
+        for (int i = 0; i < derivedValues.size(); i++) {
+            if (derivedValues.get(i).toString().equals(derivedValue.toString())) {
+                return variableSlots.size() + i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown derived value " + derivedValue);
+    }
+
+    /**
+     * Есть ли у выражения производные значения (агрегаты или окна), которые программа читает после переменных
+     * @return true, если программу нельзя вычислить по одним значениям переменных
+     */
+    public boolean hasDerivedValues() {
+        return !derivedValues.isEmpty();
+    }
+
+    /**
+     * Проверить, что программу можно вычислить по одним значениям переменных, без производных значений
+     * @throws ParserException выражение содержит агрегаты или скользящие окна
+     */
+    public void checkNoDerivedValues() {
+        if (hasDerivedValues()) {
+            throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+        }
+    }
+
+    /**
+     * Получить количество внутренних значений переменных программы: переменные и производные значения
+     * @return количество значений
+     */
+    public int getProgramVariablesCount() {
+        return variableSlots.size() + derivedValues.size();
+    }
+
+    /**
+     * Получить номера переменных
+     * @return номера переменных по именам
+     */
+    public Map<String, Integer> getVariableSlots() {
+        return Collections.unmodifiableMap(variableSlots);
+    }
+
+    /**
+     * Получить каноническую форму выражения, одинаковую для выражений,
+     * отличающихся только порядком операндов коммутативных операторов
+     * @return каноническая форма
+     */
+    public String getCanonicalForm() {
+        String form = canonicalForm;
+        if (form == null) {
+            form = ExpressionCanonicalizer.canonicalForm(root);
+            canonicalForm = form;
+        }
+        return form;
+    }
+
+    /**
+     * Получить 64-битный структурный хэш выражения, согласованный с канонической формой
+     * @return структурный хэш
+     */
+    public long getStructuralHash() {
+        if (!structuralHashComputed) {
+            structuralHash = ExpressionCanonicalizer.structuralHash(root);
+            structuralHashComputed = true;
+        }
+        return structuralHash;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * Получить значение переменной с проверкой его наличия
+     * @param variablesValue значения переменных
+     * @param variable имя переменной
+     * @return значение переменной
+     */
+    private T requireValue(Map<String, T> variablesValue, String variable) {
+        T value = variablesValue.get(variable);
+        if (value == null) {
+            throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+        }
+        return value;
+    }
+
+    /**
+     * Собрать переменные дерева в порядке появления
+     * @param node узел
+     */
+    private void collectVariables(Node node) {
+        if (node instanceof VariableNode variableNode) {
+            variableSlots.putIfAbsent(variableNode.getName(), variableSlots.size());
+        }
+        if ((node instanceof AggregateNode || node instanceof WindowNode) &&
+                derivedValues.stream().noneMatch(derivedValue -> derivedValue.toString().equals(node.toString()))) {
+            derivedValues.add(node);
+        }
+        for (Node child : node.getChildren()) {
+            collectVariables(child);
+        }
+    }
+}
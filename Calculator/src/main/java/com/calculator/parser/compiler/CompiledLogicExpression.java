@@ -0,0 +1,110 @@
+package com.calculator.parser.compiler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Скомпилированное логическое выражение
+ */
+public class CompiledLogicExpression extends CompiledExpression<Boolean> {
+
+    /**
+     * Конструктор - создание скомпилированного логического выражения
+     * @param expression исходное выражение
+     * @param root корень дерева выражения
+     */
+    public CompiledLogicExpression(String expression, Node root) {
+        this(expression, root, EvaluationLimits.UNLIMITED);
+    }
+
+    /**
+     * Конструктор - создание скомпилированного логического выражения с ограничениями вычисления
+     * @param expression исходное выражение
+     * @param root корень дерева выражения
+     * @param limits ограничения вычисления
+     */
+    public CompiledLogicExpression(String expression, Node root, EvaluationLimits limits) {
+        super(expression, root, Set.of(), limits);
+    }
+
+    /**
+     * Вычислить выражение
+     * @param variablesValue значения переменных в порядке первого появления в выражении
+     * @return результат выражения
+     */
+    public boolean evaluate(boolean... variablesValue) {
+        checkVariablesQuantity(variablesValue.length);
+        double[] variables = new double[variablesValue.length];
+        for (int i = 0; i < variablesValue.length; i++) {
+            variables[i] = variablesValue[i] ? 1 : 0;
+        }
+        return program.execute(variables) != 0;
+    }
+
+    /**
+     * Частично вычислить выражение: подставить известные значения переменных и упростить операторы
+     * с известными операндами. Остаточное выражение может кэшироваться для набора известных значений
+     * @param variablesValue известные значения переменных по именам
+     * @return остаточное выражение
+     */
+    public CompiledLogicExpression specialize(Map<String, Boolean> variablesValue) {
+        Map<String, Node> constants = new HashMap<>();
+        variablesValue.forEach((name, value) -> constants.put(name, new BooleanNode(value)));
+        Node residual = PartialEvaluator.specialize(getRoot(), constants);
+        return new CompiledLogicExpression(residual.toString(), residual, getLimits());
+    }
+
+    /**
+     * Минимизировать выражение в дизъюнктивной нормальной форме
+     * @return результат минимизации с минимизированным выражением и количеством операторов до и после
+     */
+    public BooleanMinimization minimize() {
+        return minimize(BooleanMinimizer.NormalForm.DNF);
+    }
+
+    /**
+     * Минимизировать выражение в заданной нормальной форме
+     * @param form нормальная форма результата
+     * @return результат минимизации с минимизированным выражением и количеством операторов до и после
+     */
+    public BooleanMinimization minimize(BooleanMinimizer.NormalForm form) {
+        return BooleanMinimizer.minimize(this, form);
+    }
+
+    @Override
+    public Boolean evaluate(Map<String, Boolean> variablesValue) {
+        return evaluateInternal(variablesValue) != 0;
+    }
+
+    /**
+     * Вычислить выражение для набора строк за один проход по столбцам
+     * @param columns значения переменных по столбцам, columns[номер переменной][номер строки]
+     * @param results массив результатов, его длина задаёт количество строк
+     */
+    public void evaluateColumns(boolean[][] columns, boolean[] results) {
+        checkVariablesQuantity(columns.length);
+        int rows = results.length;
+        double[][] internalColumns = new double[columns.length][rows];
+        double[] internalResults = new double[rows];
+        for (int column = 0; column < columns.length; column++) {
+            for (int row = 0; row < rows; row++) {
+                internalColumns[column][row] = columns[column][row] ? 1 : 0;
+            }
+        }
+        program.executeColumns(internalColumns, rows, internalResults);
+        for (int row = 0; row < rows; row++) {
+            results[row] = internalResults[row] != 0;
+        }
+    }
+
+    @Override
+    protected double toInternalValue(Boolean value) {
+        return value ? 1 : 0;
+    }
+
+    @Override
+    protected Boolean fromInternalValue(double internalValue) {
+        return internalValue != 0;
+    }
+}
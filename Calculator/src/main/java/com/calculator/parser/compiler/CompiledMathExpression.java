@@ -0,0 +1,166 @@
+package com.calculator.parser.compiler;
+
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Скомпилированное математическое выражение. Вычисления выполняются в double без промежуточных округлений
+ */
+public class CompiledMathExpression extends CompiledExpression<Double> {
+
+    /**
+     * Результат анализа безопасности, null если выражение не специализировано по диапазонам переменных
+     */
+    private final SafetyAnalysis safetyAnalysis;
+
+    /**
+     * Конструктор - создание скомпилированного математического выражения
+     * @param expression исходное выражение
+     * @param root корень дерева выражения
+     */
+    public CompiledMathExpression(String expression, Node root) {
+        this(expression, root, EvaluationLimits.UNLIMITED);
+    }
+
+    /**
+     * Конструктор - создание скомпилированного математического выражения с ограничениями вычисления
+     * @param expression исходное выражение
+     * @param root корень дерева выражения
+     * @param limits ограничения вычисления
+     */
+    public CompiledMathExpression(String expression, Node root, EvaluationLimits limits) {
+        super(expression, root, Set.of(), limits);
+        this.safetyAnalysis = null;
+    }
+
+    /**
+     * Конструктор - создание выражения, специализированного по результату анализа безопасности
+     * @param expression исходное выражение
+     * @param root корень дерева выражения
+     * @param safetyAnalysis результат анализа безопасности
+     * @param limits ограничения вычисления
+     */
+    private CompiledMathExpression(String expression, Node root, SafetyAnalysis safetyAnalysis, EvaluationLimits limits) {
+        super(expression, root, safetyAnalysis.getSafeDivisions(), limits);
+        this.safetyAnalysis = safetyAnalysis;
+    }
+
+    /**
+     * Специализировать выражение по объявленным диапазонам переменных: доказанные анализом проверки
+     * (деление на ноль, переполнение int) удаляются из программы.
+     * Значения переменных вне объявленных диапазонов дают неопределённый результат
+     * @param variableBounds диапазоны переменных по именам
+     * @return специализированное выражение
+     */
+    public CompiledMathExpression withVariableBounds(Map<String, Interval> variableBounds) {
+        return new CompiledMathExpression(getExpression(), getRoot(), SafetyAnalyzer.analyze(getRoot(), variableBounds), getLimits());
+    }
+
+    /**
+     * Частично вычислить выражение: подставить известные значения переменных и свернуть константы.
+     * Остаточное выражение содержит только неизвестные переменные и может кэшироваться для набора известных значений.
+     * Бесконечности и NaN не подставляются: такие переменные остаются в остаточном выражении, чтобы его запись
+     * оставалась корректным выражением
+     * @param variablesValue известные значения переменных по именам
+     * @return остаточное выражение
+     */
+    public CompiledMathExpression specialize(Map<String, Double> variablesValue) {
+        Map<String, Node> constants = new HashMap<>();
+        variablesValue.forEach((name, value) -> {
+            if (Double.isFinite(value)) {
+                constants.put(name, new NumberNode(value));
+            }
+        });
+        Node residual = PartialEvaluator.specialize(getRoot(), constants);
+        return new CompiledMathExpression(residual.toString(), residual, getLimits());
+    }
+
+    /**
+     * Подготовить вычисление со смешанной точностью: целые подвыражения в long, дробные в double
+     * @param variableKinds объявленные представления переменных, необъявленные переменные вещественные
+     * @return выражение со смешанной точностью
+     */
+    public MixedPrecisionExpression withMixedPrecision(Map<String, NumericKind> variableKinds) {
+        return new MixedPrecisionExpression(this, variableKinds, NumericKind.DOUBLE, MathContext.DECIMAL128);
+    }
+
+    /**
+     * Подготовить вычисление со смешанной точностью для десятичной формулы: целые подвыражения в long,
+     * дробные в BigDecimal с заданной точностью. Клиентские функции по-прежнему вычисляются в double
+     * @param variableKinds объявленные представления переменных, необъявленные переменные десятичные
+     * @param mathContext точность и округление десятичных операций
+     * @return выражение со смешанной точностью
+     */
+    public MixedPrecisionExpression withMixedPrecision(Map<String, NumericKind> variableKinds, MathContext mathContext) {
+        return new MixedPrecisionExpression(this, variableKinds, NumericKind.DECIMAL, mathContext);
+    }
+
+    /**
+     * Получить результат анализа безопасности
+     * @return результат анализа или null, если выражение не специализировано по диапазонам переменных
+     */
+    public SafetyAnalysis getSafetyAnalysis() {
+        return safetyAnalysis;
+    }
+
+    /**
+     * Вычислить выражение с округлением результата до int, как в целочисленном парсере
+     * @param variablesValue значения переменных в порядке первого появления в выражении
+     * @return округлённый результат выражения
+     * @throws ArithmeticException если результат не помещается в int и это не исключено анализом
+     */
+    public int evaluateInt(double... variablesValue) {
+        long result = Math.round(evaluate(variablesValue));
+        if (safetyAnalysis != null && safetyAnalysis.isIntRangeSafe()) {
+            return (int) result;
+        }
+        return Math.toIntExact(result);
+    }
+
+    /**
+     * Вычислить выражение
+     * @param variablesValue значения переменных в порядке первого появления в выражении
+     * @return результат выражения
+     */
+    public double evaluate(double... variablesValue) {
+        checkVariablesQuantity(variablesValue.length);
+        return program.execute(variablesValue);
+    }
+
+    /**
+     * Вычислить выражение с агрегатными функциями над переменными-массивами
+     * @param variablesValue значения переменных по именам
+     * @param arraysValue значения переменных-массивов
+     * @return результат выражения
+     */
+    public double evaluate(Map<String, Double> variablesValue, ArrayVariables arraysValue) {
+        return program.execute(toInternalVariables(variablesValue, arraysValue));
+    }
+
+    @Override
+    public Double evaluate(Map<String, Double> variablesValue) {
+        return evaluateInternal(variablesValue);
+    }
+
+    /**
+     * Вычислить выражение для набора строк за один проход по столбцам
+     * @param columns значения переменных по столбцам, columns[номер переменной][номер строки]
+     * @param results массив результатов, его длина задаёт количество строк
+     */
+    public void evaluateColumns(double[][] columns, double[] results) {
+        checkVariablesQuantity(columns.length);
+        program.executeColumns(columns, results.length, results);
+    }
+
+    @Override
+    protected double toInternalValue(Double value) {
+        return value;
+    }
+
+    @Override
+    protected Double fromInternalValue(double internalValue) {
+        return internalValue;
+    }
+}
@@ -0,0 +1,138 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Скомпилированное типизированное выражение, смешивающее числа и логические значения,
+ * например price*qty&gt;limit&amp;flag. Математическая и логическая части вычисляются за один проход
+ * одной программой; значения переменных - Double (или другой Number) и Boolean в соответствии с выведенными типами
+ */
+public class CompiledTypedExpression extends CompiledExpression<Object> {
+
+    /**
+     * Тип результата
+     */
+    private final ExpressionType resultType;
+
+    /**
+     * Типы переменных по именам
+     */
+    private final Map<String, ExpressionType> variableTypes;
+
+    /**
+     * Конструктор - создание скомпилированного типизированного выражения
+     * @param expression исходное выражение
+     * @param root корень дерева выражения
+     * @param resultType тип результата
+     * @param variableTypes типы переменных по именам
+     */
+    public CompiledTypedExpression(String expression, Node root, ExpressionType resultType,
+                                   Map<String, ExpressionType> variableTypes) {
+        this(expression, root, resultType, variableTypes, EvaluationLimits.UNLIMITED);
+    }
+
+    /**
+     * Конструктор - создание скомпилированного типизированного выражения с ограничениями вычисления
+     * @param expression исходное выражение
+     * @param root корень дерева выражения
+     * @param resultType тип результата
+     * @param variableTypes типы переменных по именам
+     * @param limits ограничения вычисления
+     */
+    public CompiledTypedExpression(String expression, Node root, ExpressionType resultType,
+                                   Map<String, ExpressionType> variableTypes, EvaluationLimits limits) {
+        super(expression, root, Set.of(), limits);
+        this.resultType = resultType;
+        this.variableTypes = Map.copyOf(variableTypes);
+    }
+
+    @Override
+    public Object evaluate(Map<String, Object> variablesValue) {
+        return fromInternalValue(evaluateInternal(variablesValue));
+    }
+
+    /**
+     * Вычислить выражение с логическим результатом
+     * @param variablesValue значения переменных по именам
+     * @return результат выражения
+     */
+    @SuppressWarnings("unchecked")
+    public boolean evaluateBoolean(Map<String, ?> variablesValue) {
+        requireResultType(ExpressionType.BOOLEAN);
+        return evaluateInternal((Map<String, Object>) variablesValue) != 0;
+    }
+
+    /**
+     * Вычислить выражение с числовым результатом
+     * @param variablesValue значения переменных по именам
+     * @return результат выражения
+     */
+    @SuppressWarnings("unchecked")
+    public double evaluateNumber(Map<String, ?> variablesValue) {
+        requireResultType(ExpressionType.NUMBER);
+        return evaluateInternal((Map<String, Object>) variablesValue);
+    }
+
+    /**
+     * Получить тип результата
+     * @return тип результата
+     */
+    public ExpressionType getResultType() {
+        return resultType;
+    }
+
+    /**
+     * Получить типы переменных
+     * @return типы переменных по именам
+     */
+    public Map<String, ExpressionType> getVariableTypes() {
+        return variableTypes;
+    }
+
+    @Override
+    protected double[] toInternalVariables(Map<String, Object> variablesValue) {
+        Map<String, Integer> variableSlots = getVariableSlots();
+        double[] variables = new double[variableSlots.size()];
+        for (Map.Entry<String, Integer> slot : variableSlots.entrySet()) {
+            Object value = variablesValue.get(slot.getKey());
+            if (value == null) {
+                throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+            }
+            if ((value instanceof Boolean) != (variableTypes.get(slot.getKey()) == ExpressionType.BOOLEAN)) {
+                throw new ParserException(ErrorType.INCORRECT_VARIABLE_VALUE_TYPE);
+            }
+            variables[slot.getValue()] = toInternalValue(value);
+        }
+        return variables;
+    }
+
+    @Override
+    protected double toInternalValue(Object value) {
+        if (value instanceof Boolean booleanValue) {
+            return booleanValue ? 1 : 0;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        throw new ParserException(ErrorType.INCORRECT_VARIABLE_VALUE_TYPE);
+    }
+
+    @Override
+    protected Object fromInternalValue(double internalValue) {
+        return resultType == ExpressionType.BOOLEAN ? (Object) (internalValue != 0) : (Object) internalValue;
+    }
+
+    /**
+     * Проверить тип результата
+     * @param type ожидаемый тип
+     */
+    private void requireResultType(ExpressionType type) {
+        if (resultType != type) {
+            throw new ParserException(ErrorType.TYPE_MISMATCH_ERROR);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.time.Duration;
+
+/**
+ * Ограничения разбора и вычисления выражений, полученных от недоверенных клиентов.
+ * Длина, количество лексем и глубина вложенности скобок проверяются по строке до разбора,
+ * количество операций - по программе при компиляции, время - при вычислении программой стековой машины:
+ * после каждого вызова функции проверяются бюджет времени функции и срок вычисления.
+ * Функция, которая не возвращает управление, не прерывается. Объект неизменяем, создаётся через {@link EvaluationLimitsBuilder}
+ */
+public final class EvaluationLimits {
+
+    /**
+     * Отсутствие ограничений
+     */
+    public static final EvaluationLimits UNLIMITED = new EvaluationLimitsBuilder().build();
+
+    /**
+     * Максимальная длина выражения
+     */
+    private final int maxLength;
+
+    /**
+     * Максимальное количество лексем
+     */
+    private final int maxTokens;
+
+    /**
+     * Максимальная глубина вложенности скобок
+     */
+    private final int maxDepth;
+
+    /**
+     * Максимальное количество операций программы
+     */
+    private final int maxOperations;
+
+    /**
+     * Срок одного вычисления в наносекундах, 0 - без ограничения
+     */
+    private final long deadlineNanos;
+
+    /**
+     * Бюджет времени одного вызова функции в наносекундах, 0 - без ограничения
+     */
+    private final long functionBudgetNanos;
+
+    /**
+     * Конструктор - создание ограничений
+     * @param maxLength максимальная длина выражения
+     * @param maxTokens максимальное количество лексем
+     * @param maxDepth максимальная глубина вложенности скобок
+     * @param maxOperations максимальное количество операций программы
+     * @param deadline срок одного вычисления или null
+     * @param functionBudget бюджет времени одного вызова функции или null
+     */
+    EvaluationLimits(int maxLength, int maxTokens, int maxDepth, int maxOperations, Duration deadline, Duration functionBudget) {
+        this.maxLength = maxLength;
+        this.maxTokens = maxTokens;
+        this.maxDepth = maxDepth;
+        this.maxOperations = maxOperations;
+        this.deadlineNanos = deadline == null ? 0 : deadline.toNanos();
+        this.functionBudgetNanos = functionBudget == null ? 0 : functionBudget.toNanos();
+    }
+
+    /**
+     * Проверить длину, количество лексем и глубину вложенности скобок выражения до его разбора.
+     * Лексема - имя, число или отдельный символ оператора, скобки или запятой
+     * @param expression выражение без пробельных символов
+     */
+    public void checkExpression(String expression) {
+        if (expression.length() > maxLength) {
+            throw new ParserException(ErrorType.LIMIT_EXCEEDED_ERROR, maxLength);
+        }
+        int tokens = 0;
+        int depth = 0;
+        boolean operand = false;
+        for (int position = 0; position < expression.length(); position++) {
+            char symbol = expression.charAt(position);
+            boolean operandSymbol = Character.isLetterOrDigit(symbol) || symbol == '.' || symbol == '_';
+            if (!operandSymbol || !operand) {
+                tokens++;
+                if (tokens > maxTokens) {
+                    throw new ParserException(ErrorType.LIMIT_EXCEEDED_ERROR, position);
+                }
+            }
+            operand = operandSymbol;
+            if (symbol == '(' && ++depth > maxDepth) {
+                throw new ParserException(ErrorType.LIMIT_EXCEEDED_ERROR, position);
+            }
+            if (symbol == ')') {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Проверить количество операций скомпилированной программы
+     * @param program программа
+     */
+    public void checkProgram(Program program) {
+        if (ExpressionCost.countOperations(program) > maxOperations) {
+            throw new ParserException(ErrorType.LIMIT_EXCEEDED_ERROR);
+        }
+    }
+
+    /**
+     * Заданы ли ограничения времени вычисления
+     * @return логический результат проверки
+     */
+    public boolean hasTimeLimits() {
+        return deadlineNanos > 0 || functionBudgetNanos > 0;
+    }
+
+    /**
+     * Получить максимальную длину выражения
+     * @return максимальная длина
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Получить максимальное количество лексем
+     * @return максимальное количество лексем
+     */
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    /**
+     * Получить максимальную глубину вложенности скобок
+     * @return максимальная глубина
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Получить максимальное количество операций программы
+     * @return максимальное количество операций
+     */
+    public int getMaxOperations() {
+        return maxOperations;
+    }
+
+    /**
+     * Получить срок одного вычисления
+     * @return срок в наносекундах, 0 - без ограничения
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Получить бюджет времени одного вызова функции
+     * @return бюджет в наносекундах, 0 - без ограничения
+     */
+    public long getFunctionBudgetNanos() {
+        return functionBudgetNanos;
+    }
+}
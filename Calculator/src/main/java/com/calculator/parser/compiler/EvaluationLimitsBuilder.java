@@ -0,0 +1,131 @@
+package com.calculator.parser.compiler;
+
+import java.time.Duration;
+
+/**
+ * Построитель ограничений разбора и вычисления выражений. По умолчанию ограничения отсутствуют
+ */
+public class EvaluationLimitsBuilder {
+
+    /**
+     * Максимальная длина выражения
+     */
+    private int maxLength = Integer.MAX_VALUE;
+
+    /**
+     * Максимальное количество лексем
+     */
+    private int maxTokens = Integer.MAX_VALUE;
+
+    /**
+     * Максимальная глубина вложенности скобок
+     */
+    private int maxDepth = Integer.MAX_VALUE;
+
+    /**
+     * Максимальное количество операций программы
+     */
+    private int maxOperations = Integer.MAX_VALUE;
+
+    /**
+     * Срок одного вычисления
+     */
+    private Duration deadline;
+
+    /**
+     * Бюджет времени одного вызова функции
+     */
+    private Duration functionBudget;
+
+    /**
+     * Задать максимальную длину выражения без пробельных символов
+     * @param maxLength максимальная длина
+     * @return построитель
+     */
+    public EvaluationLimitsBuilder setMaxLength(int maxLength) {
+        this.maxLength = requirePositive(maxLength);
+        return this;
+    }
+
+    /**
+     * Задать максимальное количество лексем
+     * @param maxTokens максимальное количество лексем
+     * @return построитель
+     */
+    public EvaluationLimitsBuilder setMaxTokens(int maxTokens) {
+        this.maxTokens = requirePositive(maxTokens);
+        return this;
+    }
+
+    /**
+     * Задать максимальную глубину вложенности скобок, включая скобки вызовов функций
+     * @param maxDepth максимальная глубина
+     * @return построитель
+     */
+    public EvaluationLimitsBuilder setMaxDepth(int maxDepth) {
+        this.maxDepth = requirePositive(maxDepth);
+        return this;
+    }
+
+    /**
+     * Задать максимальное количество операций программы стековой машины (загрузок, операторов и вызовов функций)
+     * @param maxOperations максимальное количество операций
+     * @return построитель
+     */
+    public EvaluationLimitsBuilder setMaxOperations(int maxOperations) {
+        this.maxOperations = requirePositive(maxOperations);
+        return this;
+    }
+
+    /**
+     * Задать срок одного вычисления (для пакетного вычисления - срок на строку)
+     * @param deadline срок
+     * @return построитель
+     */
+    public EvaluationLimitsBuilder setDeadline(Duration deadline) {
+        this.deadline = requirePositive(deadline);
+        return this;
+    }
+
+    /**
+     * Задать бюджет времени одного вызова функции
+     * @param functionBudget бюджет времени
+     * @return построитель
+     */
+    public EvaluationLimitsBuilder setFunctionBudget(Duration functionBudget) {
+        this.functionBudget = requirePositive(functionBudget);
+        return this;
+    }
+
+    /**
+     * Построить ограничения
+     * @return ограничения
+     */
+    public EvaluationLimits build() {
+        return new EvaluationLimits(maxLength, maxTokens, maxDepth, maxOperations, deadline, functionBudget);
+    }
+
+    /**
+     * Проверить, что ограничение положительно
+     * @param limit ограничение
+     * @return ограничение
+     */
+    private static int requirePositive(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return limit;
+    }
+
+    /**
+     * Проверить, что ограничение времени положительно
+     * @param limit ограничение
+     * @return ограничение
+     */
+    private static Duration requirePositive(Duration limit) {
+        if (limit.isNegative() || limit.isZero()) {
+            throw new IllegalArgumentException("Time limit must be positive");
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,15 @@
+package com.calculator.parser.compiler;
+
+/**
+ * Исполняемое представление выражения во внутренних значениях (логические значения - 1 и 0)
+ */
+@FunctionalInterface
+public interface Executable {
+
+    /**
+     * Выполнить выражение
+     * @param variables значения переменных по номерам
+     * @return результат выполнения
+     */
+    double execute(double[] variables);
+}
@@ -0,0 +1,15 @@
+package com.calculator.parser.compiler;
+
+/**
+ * Уровень исполнения выражения в многоуровневом исполнителе
+ */
+public enum ExecutionTier {
+    /**
+     * Интерпретация программы стековой машины
+     */
+    INTERPRETER,
+    /**
+     * Дерево замыканий, построенное из программы
+     */
+    OPTIMIZED
+}
@@ -0,0 +1,262 @@
+package com.calculator.parser.compiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * План вычисления скомпилированного выражения: токены исходной строки, программа стековой машины в обратной
+ * польской нотации, дерево выражения, константные подвыражения, которые компилятор не сворачивает, но можно свернуть
+ * частичным вычислением, разрешённые функции, глубина стека, оценка стоимости и уровень исполнения
+ */
+public final class ExplainPlan {
+
+    /**
+     * Токены исходного выражения
+     */
+    private final List<String> tokens;
+
+    /**
+     * Инструкции программы стековой машины
+     */
+    private final List<String> instructions;
+
+    /**
+     * Дерево выражения
+     */
+    private final String tree;
+
+    /**
+     * Сворачиваемые константные подвыражения и их значения
+     */
+    private final Map<String, String> foldableConstants = new LinkedHashMap<>();
+
+    /**
+     * Разрешённые функции и их происхождение
+     */
+    private final Map<String, String> functions = new LinkedHashMap<>();
+
+    /**
+     * Максимальная глубина стека
+     */
+    private final int maxStackDepth;
+
+    /**
+     * Оценка стоимости
+     */
+    private final ExpressionCost cost;
+
+    /**
+     * Уровень исполнения
+     */
+    private final ExecutionTier tier;
+
+    /**
+     * Конструктор - построение плана выражения
+     * @param expression скомпилированное выражение
+     * @param tier уровень исполнения
+     */
+    ExplainPlan(CompiledExpression<?> expression, ExecutionTier tier) {
+        this.tokens = tokenize(expression.getExpression());
+        this.instructions = disassemble(expression.getProgram(), expression.getVariableSlots(), expression.getProgramVariablesCount());
+        this.tree = expression.getRoot().toString();
+        this.maxStackDepth = expression.getProgram().getMaxStackDepth();
+        this.cost = expression.getCost();
+        this.tier = tier;
+        Set<Node> constantNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectFunctions(expression.getRoot(), constantNodes);
+        collectFoldableConstants(expression.getRoot(), constantNodes);
+    }
+
+    /**
+     * Получить токены исходного выражения
+     * @return токены в порядке следования
+     */
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Получить инструкции программы стековой машины в обратной польской нотации
+     * @return инструкции
+     */
+    public List<String> getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Получить дерево выражения в скобочной записи
+     * @return дерево выражения
+     */
+    public String getTree() {
+        return tree;
+    }
+
+    /**
+     * Получить константные подвыражения, которые программа вычисляет при каждом вычислении, но которые сворачиваются
+     * в значение при частичном вычислении. Подвыражения с клиентскими функциями и пользовательскими операторами
+     * не учитываются
+     * @return значения по записям подвыражений
+     */
+    public Map<String, String> getFoldableConstants() {
+        return Collections.unmodifiableMap(foldableConstants);
+    }
+
+    /**
+     * Получить разрешённые функции
+     * @return происхождение (built-in, client, operator, aggregate, window) по именам функций
+     */
+    public Map<String, String> getFunctions() {
+        return Collections.unmodifiableMap(functions);
+    }
+
+    /**
+     * Получить максимальную глубину стека
+     * @return глубина стека
+     */
+    public int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * Получить оценку стоимости
+     * @return оценка стоимости
+     */
+    public ExpressionCost getCost() {
+        return cost;
+    }
+
+    /**
+     * Получить уровень исполнения
+     * @return уровень исполнения
+     */
+    public ExecutionTier getTier() {
+        return tier;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder plan = new StringBuilder();
+        plan.append("Tokens (").append(tokens.size()).append("): ").append(String.join(" ", tokens)).append('\n');
+        plan.append("RPN: ").append(String.join(", ", instructions)).append('\n');
+        plan.append("AST: ").append(tree).append('\n');
+        plan.append("Foldable constant subexpressions: ").append(foldableConstants).append('\n');
+        plan.append("Functions: ").append(functions).append('\n');
+        plan.append("Max stack depth: ").append(maxStackDepth).append('\n');
+        plan.append("Cost: ").append(cost).append('\n');
+        plan.append("Backend: ").append(tier);
+        return plan.toString();
+    }
+
+    /**
+     * Разбить выражение на токены: имена и числа, двухсимвольные операторы сравнения, остальные символы
+     * @param expression выражение
+     * @return токены
+     */
+    static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int position = 0;
+        while (position < expression.length()) {
+            int start = position;
+            char symbol = expression.charAt(position);
+            if (Character.isLetterOrDigit(symbol) || symbol == '.' || symbol == '_') {
+                while (position < expression.length() && (Character.isLetterOrDigit(expression.charAt(position)) ||
+                        expression.charAt(position) == '.' || expression.charAt(position) == '_')) {
+                    position++;
+                }
+            }
+            else if ("<>=!".indexOf(symbol) >= 0 && position + 1 < expression.length() && expression.charAt(position + 1) == '=') {
+                position += 2;
+            }
+            else {
+                position++;
+            }
+            tokens.add(expression.substring(start, position));
+        }
+        return tokens;
+    }
+
+    /**
+     * Записать программу в виде инструкций
+     * @param program программа
+     * @param variableSlots номера переменных
+     * @param variablesCount количество внутренних значений переменных
+     * @return инструкции
+     */
+    private static List<String> disassemble(Program program, Map<String, Integer> variableSlots, int variablesCount) {
+        String[] variables = new String[variablesCount];
+        variableSlots.forEach((name, slot) -> variables[slot] = name);
+        int[] code = program.getCode();
+        List<String> instructions = new ArrayList<>();
+        for (int i = 0; i < code.length; i++) {
+            instructions.add(switch (code[i]) {
+                case Program.PUSH_CONSTANT -> "PUSH " + new NumberNode(program.getConstants()[code[++i]]);
+                case Program.LOAD_VARIABLE -> {
+                    int slot = code[++i];
+                    yield "LOAD " + (variables[slot] != null ? variables[slot] : "#" + slot);
+                }
+                case Program.NEGATE -> "NEG";
+                case Program.NOT -> "NOT";
+                case Program.JUMP_IF_FALSE -> "JUMP_IF_FALSE +" + code[++i];
+                case Program.JUMP_IF_TRUE -> "JUMP_IF_TRUE +" + code[++i];
+                case Program.DIVIDE_UNCHECKED -> "/ (unchecked)";
+                case Program.CALL_ONE_ARGUMENT -> "CALL " + program.getOneArgumentFunctionNames()[code[++i]] + "/1";
+                case Program.CALL_TWO_ARGUMENTS -> "CALL " + program.getTwoArgumentsFunctionNames()[code[++i]] + "/2";
+                default -> BinaryOperatorNode.symbol(Program.binaryOperator(code[i]));
+            });
+        }
+        return instructions;
+    }
+
+    /**
+     * Собрать функции дерева и найти подвыражения из одних констант и встроенных функций. Клиентские функции
+     * и пользовательские операторы могут быть медленными или иметь побочные эффекты, поэтому план их не вызывает
+     * @param node узел
+     * @param constantNodes множество для узлов из одних констант
+     * @return состоит ли подвыражение из одних констант
+     */
+    private boolean collectFunctions(Node node, Set<Node> constantNodes) {
+        if (node instanceof FunctionNode functionNode) {
+            functions.putIfAbsent(functionNode.getName(), FunctionNode.isOperator(functionNode.getName()) ? "operator" :
+                                                           PrecisionInference.isBuiltIn(functionNode) ? "built-in" : "client");
+        }
+        else if (node instanceof AggregateNode aggregateNode) {
+            functions.putIfAbsent(aggregateNode.getName(), "aggregate");
+        }
+        else if (node instanceof WindowNode windowNode) {
+            functions.putIfAbsent(windowNode.getName(), "window");
+        }
+        boolean constant = node instanceof NumberNode || node instanceof BooleanNode ||
+                           !node.getChildren().isEmpty() && (!(node instanceof FunctionNode functionNode) ||
+                                                             PrecisionInference.isBuiltIn(functionNode));
+        for (Node child : node.getChildren()) {
+            constant &= collectFunctions(child, constantNodes);
+        }
+        if (constant) {
+            constantNodes.add(node);
+        }
+        return constant;
+    }
+
+    /**
+     * Собрать наибольшие константные подвыражения, которые сворачиваются частичным вычислением
+     * @param node узел
+     * @param constantNodes узлы из одних констант
+     */
+    private void collectFoldableConstants(Node node, Set<Node> constantNodes) {
+        if (constantNodes.contains(node) && !node.getChildren().isEmpty()) {
+            Node folded = PartialEvaluator.specialize(node, Map.of());
+            if (folded instanceof NumberNode || folded instanceof BooleanNode) {
+                foldableConstants.putIfAbsent(node.toString(), folded.toString());
+                return;
+            }
+        }
+        for (Node child : node.getChildren()) {
+            collectFoldableConstants(child, constantNodes);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.calculator.parser.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Построение канонической формы и структурного хэша дерева выражения.
+ * Цепочки коммутативных операторов (+, *, &amp;, |) разворачиваются, а их операнды упорядочиваются,
+ * поэтому выражения, отличающиеся только порядком таких операндов, получают одинаковую форму и хэш.
+ * Для математических выражений это эквивалентность с точностью до порядка округлений при сложении и умножении
+ */
+public final class ExpressionCanonicalizer {
+
+    /**
+     * Начальное значение хэша FNV-1a
+     */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * Множитель хэша FNV-1a
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ExpressionCanonicalizer() {
+    }
+
+    /**
+     * Получить каноническую форму выражения
+     * @param node корень дерева выражения
+     * @return каноническая форма в виде строки, пригодной для повторной компиляции
+     */
+    public static String canonicalForm(Node node) {
+        if (node instanceof BinaryOperatorNode binaryNode && isCommutative(binaryNode.getOperator())) {
+            List<Node> operands = new ArrayList<>();
+            flatten(binaryNode, binaryNode.getOperator(), operands);
+            String[] canonicalOperands = new String[operands.size()];
+            for (int i = 0; i < canonicalOperands.length; i++) {
+                canonicalOperands[i] = canonicalForm(operands.get(i));
+            }
+            Arrays.sort(canonicalOperands);
+            return "(" + String.join(BinaryOperatorNode.symbol(binaryNode.getOperator()), canonicalOperands) + ")";
+        }
+        if (node instanceof BinaryOperatorNode binaryNode) {
+            return "(" + canonicalForm(binaryNode.getLeft()) + BinaryOperatorNode.symbol(binaryNode.getOperator()) +
+                    canonicalForm(binaryNode.getRight()) + ")";
+        }
+        if (node instanceof UnaryOperatorNode unaryNode) {
+            return unaryNode.getOperator() + "(" + canonicalForm(unaryNode.getOperand()) + ")";
+        }
+        if (node instanceof FunctionNode functionNode && FunctionNode.isOperator(functionNode.getName())) {
+            List<Node> arguments = functionNode.getArguments();
+            return arguments.size() == 1 ? "(" + canonicalForm(arguments.get(0)) + ")" + functionNode.getName() :
+                   "(" + canonicalForm(arguments.get(0)) + functionNode.getName() + canonicalForm(arguments.get(1)) + ")";
+        }
+        if (node instanceof FunctionNode functionNode) {
+            StringBuilder form = new StringBuilder(functionNode.getName()).append('(');
+            for (int i = 0; i < functionNode.getArguments().size(); i++) {
+                if (i > 0) {
+                    form.append(',');
+                }
+                form.append(canonicalForm(functionNode.getArguments().get(i)));
+            }
+            return form.append(')').toString();
+        }
+        return node.toString();
+    }
+
+    /**
+     * Получить 64-битный структурный хэш выражения, согласованный с канонической формой
+     * @param node корень дерева выражения
+     * @return структурный хэш
+     */
+    public static long structuralHash(Node node) {
+        if (node instanceof BinaryOperatorNode binaryNode && isCommutative(binaryNode.getOperator())) {
+            List<Node> operands = new ArrayList<>();
+            flatten(binaryNode, binaryNode.getOperator(), operands);
+            long[] operandHashes = new long[operands.size()];
+            for (int i = 0; i < operandHashes.length; i++) {
+                operandHashes[i] = structuralHash(operands.get(i));
+            }
+            Arrays.sort(operandHashes);
+            long hash = mix(FNV_OFFSET_BASIS, binaryNode.getOperator());
+            for (long operandHash : operandHashes) {
+                hash = mix(hash, operandHash);
+            }
+            return finish(hash);
+        }
+        if (node instanceof BinaryOperatorNode binaryNode) {
+            long hash = mix(FNV_OFFSET_BASIS, binaryNode.getOperator());
+            hash = mix(hash, structuralHash(binaryNode.getLeft()));
+            return finish(mix(hash, structuralHash(binaryNode.getRight())));
+        }
+        if (node instanceof UnaryOperatorNode unaryNode) {
+            return finish(mix(mix(FNV_OFFSET_BASIS, 'u'), structuralHash(unaryNode.getOperand())));
+        }
+        if (node instanceof FunctionNode functionNode) {
+            long hash = mix(hashString(functionNode.getName()), 'f');
+            for (Node argument : functionNode.getArguments()) {
+                hash = mix(hash, structuralHash(argument));
+            }
+            return finish(hash);
+        }
+        if (node instanceof NumberNode numberNode) {
+            return finish(mix(mix(FNV_OFFSET_BASIS, 'n'), Double.doubleToLongBits(numberNode.getValue() + 0.0)));
+        }
+        if (node instanceof BooleanNode booleanNode) {
+            return finish(mix(mix(FNV_OFFSET_BASIS, 'b'), booleanNode.getValue() ? 1 : 0));
+        }
+        return finish(mix(hashString(node.toString()), 'v'));
+    }
+
+    /**
+     * Является ли оператор коммутативным и ассоциативным
+     * @param operator оператор
+     * @return логический результат проверки
+     */
+    public static boolean isCommutative(char operator) {
+        return operator == '+' || operator == '*' || operator == '&' || operator == '|';
+    }
+
+    /**
+     * Развернуть цепочку одинаковых операторов в список операндов
+     * @param node узел
+     * @param operator оператор цепочки
+     * @param operands список для операндов
+     */
+    static void flatten(Node node, char operator, List<Node> operands) {
+        if (node instanceof BinaryOperatorNode binaryNode && binaryNode.getOperator() == operator) {
+            flatten(binaryNode.getLeft(), operator, operands);
+            flatten(binaryNode.getRight(), operator, operands);
+        }
+        else {
+            operands.add(node);
+        }
+    }
+
+    /**
+     * Добавить значение к хэшу
+     * @param hash текущий хэш
+     * @param value значение
+     * @return новый хэш
+     */
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    /**
+     * Перемешать биты хэша (финализатор SplitMix64)
+     * @param hash хэш
+     * @return перемешанный хэш
+     */
+    private static long finish(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Получить хэш строки FNV-1a
+     * @param value строка
+     * @return хэш строки
+     */
+    private static long hashString(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash = mix(hash, value.charAt(i));
+        }
+        return hash;
+    }
+}
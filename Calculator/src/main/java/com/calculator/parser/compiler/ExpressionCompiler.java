@@ -0,0 +1,442 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Компилятор строкового выражения в дерево узлов.
+ * Приоритеты операторов берутся из парсера, для которого выполняется компиляция.
+ * Типизированные выражения смешивают числа и логические значения: операторы сравнения
+ * (&lt;, &lt;=, &gt;, &gt;=, ==, !=) дают логический результат, типы переменных выводятся из их использования
+ */
+public class ExpressionCompiler {
+
+    /**
+     * Таблица операторов, null для типизированных выражений
+     */
+    private final OperatorTable operators;
+
+    /**
+     * Доступные функции с одним параметром
+     */
+    private final Map<String, DoubleUnaryOperator> oneArgumentFunctions;
+
+    /**
+     * Доступные функции с двумя параметрами
+     */
+    private final Map<String, DoubleBinaryOperator> twoArgumentsFunctions;
+
+    /**
+     * Компилируется ли логическое выражение
+     */
+    private final boolean logic;
+
+    /**
+     * Компилируется ли типизированное выражение
+     */
+    private final boolean typed;
+
+    /**
+     * Выведенные типы переменных типизированного выражения
+     */
+    private final Map<String, ExpressionType> variableTypes = new HashMap<>();
+
+    /**
+     * Длина последнего прочитанного оператора
+     */
+    private int operatorLength;
+
+    /**
+     * Компилируемое выражение
+     */
+    private String expression;
+
+    /**
+     * Текущая позиция в выражении
+     */
+    private int position;
+
+    /**
+     * Конструктор - создание компилятора математических выражений
+     * @param operators таблица операторов
+     * @param oneArgumentFunctions доступные функции с одним параметром
+     * @param twoArgumentsFunctions доступные функции с двумя параметрами
+     */
+    public ExpressionCompiler(OperatorTable operators,
+                              Map<String, DoubleUnaryOperator> oneArgumentFunctions,
+                              Map<String, DoubleBinaryOperator> twoArgumentsFunctions) {
+        this.operators = operators;
+        this.oneArgumentFunctions = oneArgumentFunctions;
+        this.twoArgumentsFunctions = twoArgumentsFunctions;
+        this.logic = false;
+        this.typed = false;
+    }
+
+    /**
+     * Конструктор - создание компилятора типизированных выражений
+     * @param oneArgumentFunctions доступные функции с одним параметром
+     * @param twoArgumentsFunctions доступные функции с двумя параметрами
+     */
+    public ExpressionCompiler(Map<String, DoubleUnaryOperator> oneArgumentFunctions,
+                              Map<String, DoubleBinaryOperator> twoArgumentsFunctions) {
+        this.operators = null;
+        this.oneArgumentFunctions = oneArgumentFunctions;
+        this.twoArgumentsFunctions = twoArgumentsFunctions;
+        this.logic = false;
+        this.typed = true;
+    }
+
+    /**
+     * Конструктор - создание компилятора логических выражений
+     * @param operators таблица операторов
+     */
+    public ExpressionCompiler(OperatorTable operators) {
+        this.operators = operators;
+        this.oneArgumentFunctions = Map.of();
+        this.twoArgumentsFunctions = Map.of();
+        this.logic = true;
+        this.typed = false;
+    }
+
+    /**
+     * Разобрать выражение в дерево узлов
+     * @param expression выражение без пробельных символов
+     * @return корень дерева выражения
+     */
+    public Node parse(String expression) {
+        if (expression.isEmpty()) {
+            throw new ParserException(ErrorType.NO_EXPRESSION_ERROR, 0);
+        }
+        this.expression = expression;
+        this.position = 0;
+        variableTypes.clear();
+        Node root = parseExpression(2);
+        if (position != expression.length()) {
+            throw new ParserException(ErrorType.INCORRECT_EXPRESSION_SYNTAX, position);
+        }
+        if (typed && typeOf(root) == null) {
+            require(root, ExpressionType.NUMBER, 0);
+        }
+        return root;
+    }
+
+    /**
+     * Получить тип подвыражения последнего разобранного типизированного выражения
+     * @param node узел подвыражения
+     * @return тип значения или null, если тип переменной не выведен
+     */
+    public ExpressionType typeOf(Node node) {
+        if (node instanceof VariableNode variableNode) {
+            return variableTypes.get(variableNode.getName());
+        }
+        if (node instanceof BooleanNode) {
+            return ExpressionType.BOOLEAN;
+        }
+        if (node instanceof BinaryOperatorNode binaryNode) {
+            char operator = binaryNode.getOperator();
+            return operator == '&' || operator == '|' || BinaryOperatorNode.isComparison(operator) ?
+                   ExpressionType.BOOLEAN : ExpressionType.NUMBER;
+        }
+        if (node instanceof UnaryOperatorNode unaryNode && unaryNode.getOperator() == '!') {
+            return ExpressionType.BOOLEAN;
+        }
+        return ExpressionType.NUMBER;
+    }
+
+    /**
+     * Получить выведенные типы переменных последнего разобранного типизированного выражения
+     * @return типы переменных по именам
+     */
+    public Map<String, ExpressionType> getVariableTypes() {
+        return Collections.unmodifiableMap(variableTypes);
+    }
+
+    /**
+     * Получить приоритет оператора типизированного выражения
+     * @param token токен-символ
+     * @return приоритет токена
+     */
+    private static int getTypedTokenPriority(int token) {
+        return switch (token) {
+            case '*', '/' -> 6;
+            case '+', '-' -> 5;
+            case '<', '>', BinaryOperatorNode.LESS_OR_EQUAL, BinaryOperatorNode.GREATER_OR_EQUAL,
+                 BinaryOperatorNode.EQUAL, BinaryOperatorNode.NOT_EQUAL -> 4;
+            case '&' -> 3;
+            case '|' -> 2;
+            case '(' -> 1;
+            case ')' -> -1;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Разобрать подвыражение, операторы которого имеют приоритет не ниже заданного
+     * @param minPriority минимальный приоритет оператора
+     * @return узел подвыражения
+     */
+    private Node parseExpression(int minPriority) {
+        Node left = parseUnary();
+        while (position < expression.length()) {
+            int operatorPosition = position;
+            char operator = peekOperator();
+            int operatorPriority = typed ? getTypedTokenPriority(operator) : operators.getPriority(operator);
+            if (operatorPriority <= 1 || operatorPriority < minPriority) {
+                break;
+            }
+            position += operatorLength;
+            if (typed) {
+                Node right = parseExpression(operatorPriority + 1);
+                checkOperandTypes(operator, left, right, operatorPosition);
+                left = new BinaryOperatorNode(operator, left, right);
+                continue;
+            }
+            Node right = parseExpression(operators.isRightAssociative(operator) ? operatorPriority : operatorPriority + 1);
+            DoubleBinaryOperator userOperator = operators.getBinaryOperator(operator);
+            left = userOperator != null ? new FunctionNode(String.valueOf(operator), left, right, userOperator) :
+                   new BinaryOperatorNode(operator, left, right);
+        }
+        return ChainRebalancer.rebalance(left, ChainRebalancer.MIN_CHAIN_OPERANDS);
+    }
+
+    /**
+     * Прочитать оператор с текущей позиции без сдвига позиции, двухсимвольные операторы сравнения
+     * типизированного выражения заменяются внутренними обозначениями
+     * @return оператор
+     */
+    private char peekOperator() {
+        char symbol = expression.charAt(position);
+        operatorLength = 1;
+        if (typed && position + 1 < expression.length() && expression.charAt(position + 1) == '=') {
+            char operator = switch (symbol) {
+                case '<' -> BinaryOperatorNode.LESS_OR_EQUAL;
+                case '>' -> BinaryOperatorNode.GREATER_OR_EQUAL;
+                case '=' -> BinaryOperatorNode.EQUAL;
+                case '!' -> BinaryOperatorNode.NOT_EQUAL;
+                default -> 0;
+            };
+            if (operator != 0) {
+                operatorLength = 2;
+                return operator;
+            }
+        }
+        return symbol;
+    }
+
+    /**
+     * Проверить типы операндов бинарного оператора типизированного выражения
+     * @param operator оператор
+     * @param left левый операнд
+     * @param right правый операнд
+     * @param operatorPosition позиция оператора
+     */
+    private void checkOperandTypes(char operator, Node left, Node right, int operatorPosition) {
+        ExpressionType operandType;
+        if (operator == '&' || operator == '|') {
+            operandType = ExpressionType.BOOLEAN;
+        }
+        else if (operator == BinaryOperatorNode.EQUAL || operator == BinaryOperatorNode.NOT_EQUAL) {
+            operandType = typeOf(left) != null ? typeOf(left) : typeOf(right);
+            if (operandType == null) {
+                operandType = ExpressionType.NUMBER;
+            }
+        }
+        else {
+            operandType = ExpressionType.NUMBER;
+        }
+        require(left, operandType, operatorPosition);
+        require(right, operandType, operatorPosition);
+    }
+
+    /**
+     * Потребовать тип подвыражения, выводя тип переменной при первом использовании
+     * @param node узел подвыражения
+     * @param type требуемый тип
+     * @param errorPosition позиция для сообщения об ошибке
+     */
+    private void require(Node node, ExpressionType type, int errorPosition) {
+        if (node instanceof VariableNode variableNode) {
+            variableTypes.putIfAbsent(variableNode.getName(), type);
+        }
+        if (typeOf(node) != type) {
+            throw new ParserException(ErrorType.TYPE_MISMATCH_ERROR, errorPosition);
+        }
+    }
+
+    /**
+     * Разобрать операнд с возможным унарным минусом (отрицанием для логических выражений, минусом или отрицанием
+     * для типизированных) и постфиксными операторами
+     * @return узел операнда
+     */
+    private Node parseUnary() {
+        if (!logic && position < expression.length() && expression.charAt(position) == '-') {
+            int operatorPosition = position++;
+            Node operand = parseUnary();
+            if (typed) {
+                require(operand, ExpressionType.NUMBER, operatorPosition);
+            }
+            return new UnaryOperatorNode('-', operand);
+        }
+        if ((logic || typed) && position < expression.length() && expression.charAt(position) == '!') {
+            int operatorPosition = position++;
+            Node operand = parseUnary();
+            if (typed) {
+                require(operand, ExpressionType.BOOLEAN, operatorPosition);
+            }
+            return new UnaryOperatorNode('!', operand);
+        }
+        Node operand = parseOperand();
+        while (!typed && position < expression.length() && operators.getPostfixOperator(expression.charAt(position)) != null) {
+            char operator = expression.charAt(position++);
+            operand = new FunctionNode(String.valueOf(operator), operand, operators.getPostfixOperator(operator));
+        }
+        return operand;
+    }
+
+    /**
+     * Разобрать операнд: число, переменную, вызов функции или выражение в скобках
+     * @return узел операнда
+     */
+    private Node parseOperand() {
+        if (position >= expression.length()) {
+            throw new ParserException(ErrorType.INCORRECT_EXPRESSION_SYNTAX, position);
+        }
+        char symbol = expression.charAt(position);
+        if (symbol == '(') {
+            position++;
+            Node node = parseExpression(2);
+            expect(')');
+            return node;
+        }
+        if (Character.isDigit(symbol) || symbol == '.') {
+            return parseNumber();
+        }
+        if (Character.isLetter(symbol)) {
+            String identifier = peekIdentifier();
+            position += identifier.length();
+            if (position < expression.length() && expression.charAt(position) == '(') {
+                return parseFunction(identifier);
+            }
+            if (typed) {
+                if (identifier.equalsIgnoreCase("true") || identifier.equalsIgnoreCase("false")) {
+                    return new BooleanNode(identifier.equalsIgnoreCase("true"));
+                }
+            }
+            if (logic) {
+                if (identifier.equalsIgnoreCase("t") || identifier.equalsIgnoreCase("true")) {
+                    return new BooleanNode(true);
+                }
+                if (identifier.equalsIgnoreCase("f") || identifier.equalsIgnoreCase("false")) {
+                    return new BooleanNode(false);
+                }
+            }
+            return new VariableNode(identifier);
+        }
+        throw new ParserException(ErrorType.INCORRECT_EXPRESSION_SYNTAX, position);
+    }
+
+    /**
+     * Разобрать числовую константу
+     * @return узел числовой константы
+     */
+    private Node parseNumber() {
+        if (logic) {
+            throw new ParserException(ErrorType.INCORRECT_LOGIC_TYPE, position);
+        }
+        int start = position;
+        int digits = 0;
+        int points = 0;
+        while (position < expression.length() &&
+                (Character.isDigit(expression.charAt(position)) || expression.charAt(position) == '.')) {
+            if (expression.charAt(position) == '.') {
+                points++;
+            }
+            else {
+                digits++;
+            }
+            position++;
+        }
+        if (digits == 0 || points > 1) {
+            throw new ParserException(ErrorType.INCORRECT_EXPRESSION_SYNTAX, start);
+        }
+        return new NumberNode(Double.parseDouble(expression.substring(start, position)));
+    }
+
+    /**
+     * Разобрать вызов функции
+     * @param functionName имя функции
+     * @return узел функции
+     */
+    private Node parseFunction(String functionName) {
+        int functionPosition = position - functionName.length();
+        expect('(');
+        Node firstArgument = parseExpression(2);
+        if (position < expression.length() && expression.charAt(position) == ',') {
+            position++;
+            Node secondArgument = parseExpression(2);
+            expect(')');
+            DoubleBinaryOperator function = twoArgumentsFunctions.get(functionName);
+            if (function == null && !logic && ArrayAggregates.TWO_ARRAYS_FUNCTIONS.contains(functionName) &&
+                    firstArgument instanceof VariableNode first && secondArgument instanceof VariableNode second) {
+                return new AggregateNode(functionName, List.of(first.getName(), second.getName()));
+            }
+            if (function == null && !logic && SlidingWindow.FUNCTIONS.contains(functionName) &&
+                    firstArgument instanceof VariableNode source && secondArgument instanceof NumberNode size &&
+                    size.getValue() >= 1 && size.getValue() == Math.rint(size.getValue())) {
+                return new WindowNode(functionName, source.getName(), (long) size.getValue());
+            }
+            if (function == null) {
+                throw new ParserException(ErrorType.UNKNOWN_FUNCTION_ERROR, functionPosition);
+            }
+            if (typed) {
+                require(firstArgument, ExpressionType.NUMBER, functionPosition);
+                require(secondArgument, ExpressionType.NUMBER, functionPosition);
+            }
+            return new FunctionNode(functionName, firstArgument, secondArgument, function);
+        }
+        expect(')');
+        DoubleUnaryOperator function = oneArgumentFunctions.get(functionName);
+        if (function == null && !logic && ArrayAggregates.ONE_ARRAY_FUNCTIONS.contains(functionName) &&
+                firstArgument instanceof VariableNode array) {
+            return new AggregateNode(functionName, List.of(array.getName()));
+        }
+        if (function == null) {
+            throw new ParserException(ErrorType.UNKNOWN_FUNCTION_ERROR, functionPosition);
+        }
+        if (typed) {
+            require(firstArgument, ExpressionType.NUMBER, functionPosition);
+        }
+        return new FunctionNode(functionName, firstArgument, function);
+    }
+
+    /**
+     * Прочитать идентификатор с текущей позиции без сдвига позиции
+     * @return идентификатор
+     */
+    private String peekIdentifier() {
+        int end = position;
+        while (end < expression.length() &&
+                (Character.isLetterOrDigit(expression.charAt(end)) || expression.charAt(end) == '_')) {
+            end++;
+        }
+        return expression.substring(position, end);
+    }
+
+    /**
+     * Проверить наличие ожидаемого символа и сдвинуть позицию
+     * @param symbol ожидаемый символ
+     */
+    private void expect(char symbol) {
+        if (position >= expression.length() || expression.charAt(position) != symbol) {
+            throw new ParserException(ErrorType.INCORRECT_EXPRESSION_SYNTAX, position);
+        }
+        position++;
+    }
+}
@@ -0,0 +1,199 @@
+package com.calculator.parser.compiler;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Статическая оценка стоимости вычисления скомпилированного выражения в условных единицах.
+ * Вычисляется по программе стековой машины без выполнения и позволяет планировщику направлять
+ * дорогие формулы в отдельный пул. Вызовы клиентских функций и агрегаты по массивам оцениваются
+ * с большим весом, так как их время заранее неизвестно
+ */
+public final class ExpressionCost {
+
+    /**
+     * Стоимость загрузки значения и простого оператора
+     */
+    public static final long OPERATION_COST = 1;
+
+    /**
+     * Стоимость деления с проверкой делителя
+     */
+    public static final long DIVISION_COST = 4;
+
+    /**
+     * Стоимость вызова встроенной математической функции
+     */
+    public static final long BUILT_IN_FUNCTION_COST = 20;
+
+    /**
+     * Стоимость вызова клиентской функции или пользовательского оператора
+     */
+    public static final long CLIENT_FUNCTION_COST = 200;
+
+    /**
+     * Стоимость производного значения: агрегата переменной-массива или скользящего окна
+     */
+    public static final long DERIVED_VALUE_COST = 1000;
+
+    /**
+     * Количество операций программы
+     */
+    private final int operationsCount;
+
+    /**
+     * Количество вызовов встроенных функций
+     */
+    private final int builtInFunctionCallsCount;
+
+    /**
+     * Количество вызовов клиентских функций и пользовательских операторов
+     */
+    private final int clientFunctionCallsCount;
+
+    /**
+     * Количество производных значений
+     */
+    private final int derivedValuesCount;
+
+    /**
+     * Максимальная глубина стека
+     */
+    private final int maxStackDepth;
+
+    /**
+     * Оценка стоимости
+     */
+    private final long estimatedCost;
+
+    /**
+     * Конструктор - оценка стоимости выражения
+     * @param expression скомпилированное выражение
+     */
+    ExpressionCost(CompiledExpression<?> expression) {
+        Program program = expression.getProgram();
+        int[] code = program.getCode();
+        int builtInCalls = 0;
+        int clientCalls = 0;
+        long cost = 0;
+        for (int i = 0; i < code.length; i++) {
+            switch (code[i]) {
+                case Program.CALL_ONE_ARGUMENT -> {
+                    int function = code[++i];
+                    DoubleUnaryOperator builtIn = MathFunctions.ONE_ARGUMENT_FUNCTIONS.get(program.getOneArgumentFunctionNames()[function]);
+                    if (builtIn != null && builtIn == program.getOneArgumentFunctions()[function]) {
+                        builtInCalls++;
+                    }
+                    else {
+                        clientCalls++;
+                    }
+                }
+                case Program.CALL_TWO_ARGUMENTS -> {
+                    int function = code[++i];
+                    DoubleBinaryOperator builtIn = MathFunctions.TWO_ARGUMENTS_FUNCTIONS.get(program.getTwoArgumentsFunctionNames()[function]);
+                    if (builtIn != null && builtIn == program.getTwoArgumentsFunctions()[function]) {
+                        builtInCalls++;
+                    }
+                    else {
+                        clientCalls++;
+                    }
+                }
+                case Program.DIVIDE -> cost += DIVISION_COST - OPERATION_COST;
+                case Program.PUSH_CONSTANT, Program.LOAD_VARIABLE, Program.JUMP_IF_FALSE, Program.JUMP_IF_TRUE -> i++;
+                default -> {
+                }
+            }
+        }
+        this.operationsCount = countOperations(program);
+        this.builtInFunctionCallsCount = builtInCalls;
+        this.clientFunctionCallsCount = clientCalls;
+        this.derivedValuesCount = expression.getProgramVariablesCount() - expression.getVariables().size();
+        this.maxStackDepth = program.getMaxStackDepth();
+        this.estimatedCost = cost + (operationsCount - builtInCalls - clientCalls) * OPERATION_COST +
+                             builtInCalls * BUILT_IN_FUNCTION_COST + clientCalls * CLIENT_FUNCTION_COST +
+                             derivedValuesCount * DERIVED_VALUE_COST;
+    }
+
+    /**
+     * Посчитать операции программы
+     * @param program программа
+     * @return количество кодов операций без учёта операндов и условных переходов
+     */
+    public static int countOperations(Program program) {
+        int[] code = program.getCode();
+        int count = 0;
+        for (int i = 0; i < code.length; i++) {
+            if (code[i] != Program.JUMP_IF_FALSE && code[i] != Program.JUMP_IF_TRUE) {
+                count++;
+            }
+            if (Program.hasOperand(code[i])) {
+                i++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Получить количество операций программы
+     * @return количество операций
+     */
+    public int getOperationsCount() {
+        return operationsCount;
+    }
+
+    /**
+     * Получить количество вызовов встроенных функций
+     * @return количество вызовов
+     */
+    public int getBuiltInFunctionCallsCount() {
+        return builtInFunctionCallsCount;
+    }
+
+    /**
+     * Получить количество вызовов клиентских функций и пользовательских операторов
+     * @return количество вызовов
+     */
+    public int getClientFunctionCallsCount() {
+        return clientFunctionCallsCount;
+    }
+
+    /**
+     * Получить количество производных значений: агрегатов и скользящих окон
+     * @return количество производных значений
+     */
+    public int getDerivedValuesCount() {
+        return derivedValuesCount;
+    }
+
+    /**
+     * Получить максимальную глубину стека
+     * @return глубина стека
+     */
+    public int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * Получить оценку стоимости вычисления
+     * @return стоимость в условных единицах
+     */
+    public long getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    /**
+     * Является ли выражение дорогим
+     * @param threshold порог стоимости
+     * @return логический результат проверки
+     */
+    public boolean isExpensive(long threshold) {
+        return estimatedCost > threshold;
+    }
+
+    @Override
+    public String toString() {
+        return "стоимость " + estimatedCost + " (операций: " + operationsCount + ", встроенных функций: " +
+               builtInFunctionCallsCount + ", клиентских функций: " + clientFunctionCallsCount +
+               ", производных значений: " + derivedValuesCount + ")";
+    }
+}
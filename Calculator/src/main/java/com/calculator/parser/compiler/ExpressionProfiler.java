@@ -0,0 +1,360 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Профилирующее вычисление скомпилированного выражения обходом дерева.
+ * Для каждого узла накапливаются количество вычислений, полное время (с потомками) и собственное время,
+ * для каждой функции - количество вызовов и время внутри вызовов. Профилирование заметно медленнее
+ * обычного вычисления и предназначено для поиска дорогих частей выражения. Объект не потокобезопасен
+ * @param <T> тип результата и значений переменных
+ */
+public final class ExpressionProfiler<T> {
+
+    /**
+     * Скомпилированное выражение
+     */
+    private final CompiledExpression<T> expression;
+
+    /**
+     * Узлы дерева в прямом порядке обхода
+     */
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Номера потомков узлов
+     */
+    private final List<int[]> children = new ArrayList<>();
+
+    /**
+     * Номера внутренних значений для переменных, агрегатов и окон, -1 для остальных узлов
+     */
+    private final int[] slots;
+
+    /**
+     * Количество вычислений узлов
+     */
+    private final long[] calls;
+
+    /**
+     * Полное время вычисления узлов в наносекундах
+     */
+    private final long[] totalNanos;
+
+    /**
+     * Количество профилирующих вычислений выражения
+     */
+    private long evaluations;
+
+    /**
+     * Конструктор - подготовка профилирования выражения
+     * @param expression скомпилированное выражение
+     */
+    ExpressionProfiler(CompiledExpression<T> expression) {
+        this.expression = expression;
+        index(expression.getRoot());
+        this.slots = new int[nodes.size()];
+        for (int i = 0; i < slots.length; i++) {
+            Node node = nodes.get(i);
+            slots[i] = node instanceof VariableNode variableNode ? expression.getVariableSlots().get(variableNode.getName()) :
+                       node instanceof AggregateNode || node instanceof WindowNode ? expression.getDerivedValueSlot(node) : -1;
+        }
+        this.calls = new long[nodes.size()];
+        this.totalNanos = new long[nodes.size()];
+    }
+
+    /**
+     * Вычислить выражение с профилированием
+     * @param variablesValue значения переменных по именам
+     * @return результат выражения
+     */
+    public T evaluate(Map<String, T> variablesValue) {
+        return evaluate(variablesValue, null);
+    }
+
+    /**
+     * Вычислить выражение с агрегатными функциями над переменными-массивами с профилированием
+     * @param variablesValue значения переменных по именам
+     * @param arraysValue значения переменных-массивов
+     * @return результат выражения
+     */
+    public T evaluate(Map<String, T> variablesValue, ArrayVariables arraysValue) {
+        double[] variables = expression.toInternalVariables(variablesValue, arraysValue);
+        evaluations++;
+        return expression.fromInternalValue(evaluate(0, variables));
+    }
+
+    /**
+     * Получить количество профилирующих вычислений
+     * @return количество вычислений
+     */
+    public long getEvaluationsCount() {
+        return evaluations;
+    }
+
+    /**
+     * Получить профили узлов по убыванию собственного времени
+     * @return профили узлов
+     */
+    public List<NodeProfile> getNodeProfiles() {
+        List<NodeProfile> profiles = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            profiles.add(new NodeProfile(nodes.get(i), null, calls[i], totalNanos[i], selfNanos(i)));
+        }
+        profiles.sort(Comparator.comparingLong(NodeProfile::getSelfNanos).reversed());
+        return profiles;
+    }
+
+    /**
+     * Получить профили функций (встроенных, клиентских и пользовательских операторов),
+     * время функции - суммарное собственное время её вызовов без вычисления аргументов
+     * @return профили функций по убыванию времени
+     */
+    public List<NodeProfile> getFunctionProfiles() {
+        Map<String, long[]> functions = new LinkedHashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i) instanceof FunctionNode functionNode) {
+                long[] statistics = functions.computeIfAbsent(functionNode.getName(), name -> new long[2]);
+                statistics[0] += calls[i];
+                statistics[1] += selfNanos(i);
+            }
+        }
+        List<NodeProfile> profiles = new ArrayList<>(functions.size());
+        functions.forEach((name, statistics) -> profiles.add(new NodeProfile(null, name, statistics[0], statistics[1], statistics[1])));
+        profiles.sort(Comparator.comparingLong(NodeProfile::getSelfNanos).reversed());
+        return profiles;
+    }
+
+    /**
+     * Сбросить накопленные результаты
+     */
+    public void reset() {
+        Arrays.fill(calls, 0);
+        Arrays.fill(totalNanos, 0);
+        evaluations = 0;
+    }
+
+    /**
+     * Получить отчёт о самых дорогих узлах и функциях
+     * @param limit количество узлов в отчёте
+     * @return отчёт
+     */
+    public String report(int limit) {
+        StringBuilder report = new StringBuilder("Evaluations: ").append(evaluations).append('\n');
+        report.append("Functions:\n");
+        for (NodeProfile profile : getFunctionProfiles()) {
+            report.append("  ").append(profile).append('\n');
+        }
+        report.append("Nodes:\n");
+        for (NodeProfile profile : getNodeProfiles().subList(0, Math.min(limit, nodes.size()))) {
+            report.append("  ").append(profile).append('\n');
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report(10);
+    }
+
+    /**
+     * Пронумеровать узлы дерева в прямом порядке обхода
+     * @param node узел
+     * @return номер узла
+     */
+    private int index(Node node) {
+        int index = nodes.size();
+        nodes.add(node);
+        children.add(null);
+        List<Node> nodeChildren = node instanceof AggregateNode || node instanceof WindowNode ? List.of() : node.getChildren();
+        int[] childIndexes = new int[nodeChildren.size()];
+        for (int i = 0; i < childIndexes.length; i++) {
+            childIndexes[i] = index(nodeChildren.get(i));
+        }
+        children.set(index, childIndexes);
+        return index;
+    }
+
+    /**
+     * Получить собственное время узла без времени потомков
+     * @param index номер узла
+     * @return время в наносекундах
+     */
+    private long selfNanos(int index) {
+        long self = totalNanos[index];
+        for (int child : children.get(index)) {
+            self -= totalNanos[child];
+        }
+        return Math.max(self, 0);
+    }
+
+    /**
+     * Вычислить узел с замером времени, с той же семантикой, что и программа стековой машины
+     * @param index номер узла
+     * @param variables внутренние значения переменных
+     * @return значение узла во внутреннем представлении
+     */
+    private double evaluate(int index, double[] variables) {
+        long start = System.nanoTime();
+        Node node = nodes.get(index);
+        int[] nodeChildren = children.get(index);
+        double result;
+        if (slots[index] >= 0) {
+            result = variables[slots[index]];
+        }
+        else if (node instanceof NumberNode numberNode) {
+            result = numberNode.getValue();
+        }
+        else if (node instanceof BooleanNode booleanNode) {
+            result = booleanNode.getValue() ? 1 : 0;
+        }
+        else if (node instanceof UnaryOperatorNode unaryNode) {
+            double operand = evaluate(nodeChildren[0], variables);
+            result = unaryNode.getOperator() == '!' ? (operand != 0 ? 0 : 1) : -operand;
+        }
+        else if (node instanceof BinaryOperatorNode binaryNode && binaryNode.getOperator() == '&') {
+            result = evaluate(nodeChildren[0], variables) != 0 && evaluate(nodeChildren[1], variables) != 0 ? 1 : 0;
+        }
+        else if (node instanceof BinaryOperatorNode binaryNode && binaryNode.getOperator() == '|') {
+            result = evaluate(nodeChildren[0], variables) != 0 || evaluate(nodeChildren[1], variables) != 0 ? 1 : 0;
+        }
+        else if (node instanceof BinaryOperatorNode binaryNode) {
+            result = binary(binaryNode.getOperator(), evaluate(nodeChildren[0], variables), evaluate(nodeChildren[1], variables));
+        }
+        else if (node instanceof FunctionNode functionNode) {
+            double first = evaluate(nodeChildren[0], variables);
+            result = nodeChildren.length == 1 ? functionNode.getOneArgumentFunction().applyAsDouble(first) :
+                     functionNode.getTwoArgumentsFunction().applyAsDouble(first, evaluate(nodeChildren[1], variables));
+        }
+        else {
+            throw new IllegalStateException("Unsupported node " + node);
+        }
+        calls[index]++;
+        totalNanos[index] += System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Вычислить бинарный оператор
+     * @param operator оператор
+     * @param left левый операнд
+     * @param right правый операнд
+     * @return результат
+     */
+    private static double binary(char operator, double left, double right) {
+        return switch (operator) {
+            case '+' -> left + right;
+            case '-' -> left - right;
+            case '*' -> left * right;
+            case '/' -> {
+                if (right == 0) {
+                    throw new ParserException(ErrorType.DIVISION_BY_ZERO_ERROR);
+                }
+                yield left / right;
+            }
+            default -> Program.compare(Program.binaryOpcode(operator), left, right);
+        };
+    }
+
+    /**
+     * Профиль узла или функции
+     */
+    public static final class NodeProfile {
+
+        /**
+         * Узел или null для профиля функции
+         */
+        private final Node node;
+
+        /**
+         * Имя функции или null для профиля узла
+         */
+        private final String functionName;
+
+        /**
+         * Количество вычислений
+         */
+        private final long calls;
+
+        /**
+         * Полное время в наносекундах
+         */
+        private final long totalNanos;
+
+        /**
+         * Собственное время в наносекундах
+         */
+        private final long selfNanos;
+
+        /**
+         * Конструктор - создание профиля
+         * @param node узел или null для профиля функции
+         * @param functionName имя функции или null для профиля узла
+         * @param calls количество вычислений
+         * @param totalNanos полное время
+         * @param selfNanos собственное время
+         */
+        NodeProfile(Node node, String functionName, long calls, long totalNanos, long selfNanos) {
+            this.node = node;
+            this.functionName = functionName;
+            this.calls = calls;
+            this.totalNanos = totalNanos;
+            this.selfNanos = selfNanos;
+        }
+
+        /**
+         * Получить узел
+         * @return узел или null для профиля функции
+         */
+        public Node getNode() {
+            return node;
+        }
+
+        /**
+         * Получить запись узла или имя функции
+         * @return описание
+         */
+        public String getDescription() {
+            return functionName != null ? functionName : node.toString();
+        }
+
+        /**
+         * Получить количество вычислений
+         * @return количество вычислений
+         */
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * Получить полное время с потомками
+         * @return время в наносекундах
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Получить собственное время без потомков
+         * @return время в наносекундах
+         */
+        public long getSelfNanos() {
+            return selfNanos;
+        }
+
+        @Override
+        public String toString() {
+            String description = getDescription();
+            String shortDescription = description.length() > 80 ? description.substring(0, 77) + "..." : description;
+            return shortDescription + ": calls=" + calls + ", total=" + totalNanos + "ns, self=" + selfNanos + "ns";
+        }
+    }
+}
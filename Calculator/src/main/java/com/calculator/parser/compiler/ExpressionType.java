@@ -0,0 +1,15 @@
+package com.calculator.parser.compiler;
+
+/**
+ * Тип значения подвыражения в типизированном выражении
+ */
+public enum ExpressionType {
+    /**
+     * Вещественное число
+     */
+    NUMBER,
+    /**
+     * Логическое значение
+     */
+    BOOLEAN
+}
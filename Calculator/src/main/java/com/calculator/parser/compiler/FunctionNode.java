@@ -0,0 +1,116 @@
+package com.calculator.parser.compiler;
+
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Узел вызова функции
+ */
+public class FunctionNode extends Node {
+
+    /**
+     * Имя функции
+     */
+    private final String name;
+
+    /**
+     * Аргументы функции
+     */
+    private final List<Node> arguments;
+
+    /**
+     * Реализация функции с одним параметром
+     */
+    private final DoubleUnaryOperator oneArgumentFunction;
+
+    /**
+     * Реализация функции с двумя параметрами
+     */
+    private final DoubleBinaryOperator twoArgumentsFunction;
+
+    /**
+     * Конструктор - создание нового узла функции с одним параметром
+     * @param name имя функции
+     * @param argument аргумент функции
+     * @param function реализация функции
+     */
+    public FunctionNode(String name, Node argument, DoubleUnaryOperator function) {
+        this.name = name;
+        this.arguments = List.of(argument);
+        this.oneArgumentFunction = function;
+        this.twoArgumentsFunction = null;
+    }
+
+    /**
+     * Конструктор - создание нового узла функции с двумя параметрами
+     * @param name имя функции
+     * @param firstArgument первый аргумент функции
+     * @param secondArgument второй аргумент функции
+     * @param function реализация функции
+     */
+    public FunctionNode(String name, Node firstArgument, Node secondArgument, DoubleBinaryOperator function) {
+        this.name = name;
+        this.arguments = List.of(firstArgument, secondArgument);
+        this.oneArgumentFunction = null;
+        this.twoArgumentsFunction = function;
+    }
+
+    /**
+     * Получить имя функции
+     * @return имя функции
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Получить аргументы функции
+     * @return аргументы функции
+     */
+    public List<Node> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Получить реализацию функции с одним параметром
+     * @return реализация функции или null, если функция имеет два параметра
+     */
+    public DoubleUnaryOperator getOneArgumentFunction() {
+        return oneArgumentFunction;
+    }
+
+    /**
+     * Получить реализацию функции с двумя параметрами
+     * @return реализация функции или null, если функция имеет один параметр
+     */
+    public DoubleBinaryOperator getTwoArgumentsFunction() {
+        return twoArgumentsFunction;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return arguments;
+    }
+
+    @Override
+    public String toString() {
+        if (isOperator(name)) {
+            return arguments.size() == 1 ? "(" + arguments.get(0) + ")" + name :
+                   "(" + arguments.get(0) + name + arguments.get(1) + ")";
+        }
+        if (arguments.size() == 1) {
+            return name + "(" + arguments.get(0) + ")";
+        }
+        return name + "(" + arguments.get(0) + "," + arguments.get(1) + ")";
+    }
+
+    /**
+     * Является ли имя функции символом пользовательского оператора из {@link OperatorTable}
+     * @param name имя функции
+     * @return логический результат проверки
+     */
+    public static boolean isOperator(String name) {
+        return name.length() == 1 && !Character.isLetter(name.charAt(0));
+    }
+}
@@ -0,0 +1,167 @@
+package com.calculator.parser.compiler;
+
+/**
+ * Замкнутый интервал значений [min, max] для анализа диапазонов
+ */
+public final class Interval {
+
+    /**
+     * Интервал всех значений
+     */
+    public static final Interval UNBOUNDED = new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    /**
+     * Нижняя граница
+     */
+    private final double min;
+
+    /**
+     * Верхняя граница
+     */
+    private final double max;
+
+    /**
+     * Конструктор - создание интервала
+     * @param min нижняя граница
+     * @param max верхняя граница
+     */
+    private Interval(double min, double max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Создать интервал
+     * @param min нижняя граница
+     * @param max верхняя граница
+     * @return интервал
+     */
+    public static Interval of(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            return UNBOUNDED;
+        }
+        if (min > max) {
+            throw new IllegalArgumentException("Interval lower bound " + min + " is greater than upper bound " + max);
+        }
+        return new Interval(min, max);
+    }
+
+    /**
+     * Создать интервал из одного значения
+     * @param value значение
+     * @return интервал
+     */
+    public static Interval point(double value) {
+        return of(value, value);
+    }
+
+    /**
+     * Получить нижнюю границу
+     * @return нижняя граница
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Получить верхнюю границу
+     * @return верхняя граница
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Содержит ли интервал значение
+     * @param value значение
+     * @return логический результат проверки
+     */
+    public boolean contains(double value) {
+        return min <= value && value <= max;
+    }
+
+    /**
+     * Сложить интервалы
+     * @param other второй интервал
+     * @return интервал суммы
+     */
+    public Interval add(Interval other) {
+        return of(min + other.min, max + other.max);
+    }
+
+    /**
+     * Вычесть интервал
+     * @param other вычитаемый интервал
+     * @return интервал разности
+     */
+    public Interval subtract(Interval other) {
+        return of(min - other.max, max - other.min);
+    }
+
+    /**
+     * Умножить интервалы
+     * @param other второй интервал
+     * @return интервал произведения
+     */
+    public Interval multiply(Interval other) {
+        double a = min * other.min;
+        double b = min * other.max;
+        double c = max * other.min;
+        double d = max * other.max;
+        return of(Math.min(Math.min(a, b), Math.min(c, d)), Math.max(Math.max(a, b), Math.max(c, d)));
+    }
+
+    /**
+     * Разделить на интервал
+     * @param other интервал делителя
+     * @return интервал частного, все значения если делитель может быть равен нулю
+     */
+    public Interval divide(Interval other) {
+        if (other.contains(0)) {
+            return UNBOUNDED;
+        }
+        return multiply(of(1 / other.max, 1 / other.min));
+    }
+
+    /**
+     * Сменить знак интервала
+     * @return интервал противоположных значений
+     */
+    public Interval negate() {
+        return of(-max, -min);
+    }
+
+    /**
+     * Получить интервал минимума двух значений
+     * @param other второй интервал
+     * @return интервал минимума
+     */
+    public Interval min(Interval other) {
+        return of(Math.min(min, other.min), Math.min(max, other.max));
+    }
+
+    /**
+     * Получить интервал максимума двух значений
+     * @param other второй интервал
+     * @return интервал максимума
+     */
+    public Interval max(Interval other) {
+        return of(Math.max(min, other.min), Math.max(max, other.max));
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object instanceof Interval other &&
+                Double.compare(min, other.min) == 0 && Double.compare(max, other.max) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(min) + Double.hashCode(max);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + min + ", " + max + "]";
+    }
+}
@@ -0,0 +1,26 @@
+package com.calculator.parser.compiler;
+
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Встроенные математические функции, доступные в скомпилированных выражениях
+ */
+public final class MathFunctions {
+
+    /**
+     * Математические функции с одним параметром
+     */
+    public static final Map<String, DoubleUnaryOperator> ONE_ARGUMENT_FUNCTIONS =
+            Map.of("tan", Math::tan, "sin", Math::sin, "cos", Math::cos);
+
+    /**
+     * Математические функции с двумя параметрами
+     */
+    public static final Map<String, DoubleBinaryOperator> TWO_ARGUMENTS_FUNCTIONS =
+            Map.of("pow", Math::pow, "min", Math::min, "max", Math::max);
+
+    private MathFunctions() {
+    }
+}
@@ -0,0 +1,544 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Математическое выражение, каждый узел которого вычисляется в самом дешёвом точном представлении:
+ * целые подвыражения в long, дробные в double или BigDecimal, с расширением только там, где оно требуется.
+ * Представления узлов выводятся {@link PrecisionInference} при создании.
+ * При переполнении long выражение повторно вычисляется с целыми подвыражениями в более широком представлении:
+ * целое выражение - в BigDecimal без потери точности, выражение с дробным результатом - в дробном представлении.
+ * Объект неизменяем и может использоваться из нескольких потоков
+ */
+public final class MixedPrecisionExpression {
+
+    /**
+     * Скомпилированное выражение
+     */
+    private final CompiledMathExpression expression;
+
+    /**
+     * Объявленные представления переменных
+     */
+    private final Map<String, NumericKind> variableKinds;
+
+    /**
+     * Представление дробных значений
+     */
+    private final NumericKind fractionalKind;
+
+    /**
+     * Функции над BigDecimal с точностью выражения
+     */
+    private final BigDecimalMath decimalMath;
+
+    /**
+     * Представления узлов
+     */
+    private final Map<Node, NumericKind> nodeKinds;
+
+    /**
+     * Вычислитель корня дерева
+     */
+    private final Evaluator evaluator;
+
+    /**
+     * Вычислитель корня дерева без long, создаётся при первом переполнении.
+     * Для целого результата целые значения расширяются до BigDecimal, для дробного - до дробного представления
+     */
+    private volatile Evaluator widenedEvaluator;
+
+    /**
+     * Конструктор - вывод представлений и построение вычислителей
+     * @param expression скомпилированное выражение
+     * @param variableKinds объявленные представления переменных
+     * @param fractionalKind представление дробных значений: DOUBLE или DECIMAL
+     * @param mathContext точность и округление операций над BigDecimal
+     */
+    MixedPrecisionExpression(CompiledMathExpression expression, Map<String, NumericKind> variableKinds,
+                             NumericKind fractionalKind, MathContext mathContext) {
+        this.expression = expression;
+        this.variableKinds = Map.copyOf(variableKinds);
+        this.fractionalKind = fractionalKind;
+        this.decimalMath = new BigDecimalMath(mathContext);
+        this.nodeKinds = PrecisionInference.infer(expression.getRoot(), this.variableKinds, fractionalKind);
+        this.evaluator = build(expression.getRoot(), nodeKinds);
+    }
+
+    /**
+     * Вычислить выражение
+     * @param variablesValue значения переменных по именам: Long, Integer, Double или BigDecimal
+     * @return результат в представлении корня: Long, Double или BigDecimal. Если целое выражение переполняет long,
+     * результат возвращается как BigDecimal с точным целым значением
+     * @throws ParserException дробное значение целой переменной, отсутствующее значение или деление на ноль
+     */
+    public Number evaluate(Map<String, ? extends Number> variablesValue) {
+        Number[] values = new Number[expression.getVariables().size()];
+        for (Map.Entry<String, Integer> slot : expression.getVariableSlots().entrySet()) {
+            Number value = variablesValue.get(slot.getKey());
+            if (value == null) {
+                throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+            }
+            values[slot.getValue()] = normalize(value, variableKinds.getOrDefault(slot.getKey(), fractionalKind));
+        }
+        try {
+            return evaluator.value(values);
+        }
+        catch (LongOverflow overflow) {
+            Evaluator widened = widenedEvaluator;
+            if (widened == null) {
+                NumericKind widenedKind = getResultKind() == NumericKind.LONG ? NumericKind.DECIMAL : fractionalKind;
+                widened = build(expression.getRoot(), PrecisionInference.infer(expression.getRoot(), variableKinds,
+                                                                                 widenedKind, fractionalKind));
+                widenedEvaluator = widened;
+            }
+            return widened.value(values);
+        }
+    }
+
+    /**
+     * Получить представление результата. Для LONG результат вычисления, переполнивший long, возвращается
+     * в представлении DECIMAL
+     * @return представление корня дерева
+     */
+    public NumericKind getResultKind() {
+        return nodeKinds.get(expression.getRoot());
+    }
+
+    /**
+     * Получить представление подвыражения
+     * @param node узел дерева выражения
+     * @return представление узла
+     */
+    public NumericKind getKind(Node node) {
+        NumericKind kind = nodeKinds.get(node);
+        if (kind == null) {
+            throw new IllegalArgumentException("Node does not belong to the expression: " + node);
+        }
+        return kind;
+    }
+
+    /**
+     * Получить представления всех узлов
+     * @return представления узлов (ключи сравниваются по ссылке)
+     */
+    public Map<Node, NumericKind> getNodeKinds() {
+        return Collections.unmodifiableMap(nodeKinds);
+    }
+
+    /**
+     * Получить скомпилированное выражение
+     * @return скомпилированное выражение
+     */
+    public CompiledMathExpression getExpression() {
+        return expression;
+    }
+
+    @Override
+    public String toString() {
+        return expression + " : " + getResultKind();
+    }
+
+    /**
+     * Привести значение переменной к объявленному представлению
+     * @param value значение
+     * @param kind объявленное представление
+     * @return Long, Double или BigDecimal
+     */
+    private static Number normalize(Number value, NumericKind kind) {
+        return switch (kind) {
+            case LONG -> {
+                if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                    yield value.longValue();
+                }
+                try {
+                    yield toDecimal(value).longValueExact();
+                }
+                catch (ArithmeticException exception) {
+                    throw new ParserException(ErrorType.INCORRECT_VARIABLE_VALUE_TYPE);
+                }
+            }
+            case DOUBLE -> value.doubleValue();
+            case DECIMAL -> toDecimal(value);
+        };
+    }
+
+    /**
+     * Преобразовать число в BigDecimal без потери точности целых и десятичной записи double
+     * @param value число
+     * @return десятичное число
+     */
+    private static BigDecimal toDecimal(Number value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof BigInteger integer) {
+            return new BigDecimal(integer);
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double doubleValue = value.doubleValue();
+            if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+                throw new ParserException(ErrorType.INCORRECT_NUMBER_TYPE);
+            }
+            return BigDecimal.valueOf(doubleValue);
+        }
+        return BigDecimal.valueOf(value.longValue());
+    }
+
+    /**
+     * Построить вычислитель узла
+     * @param node узел
+     * @param kinds представления узлов
+     * @return вычислитель
+     */
+    private Evaluator build(Node node, Map<Node, NumericKind> kinds) {
+        NumericKind kind = kinds.get(node);
+        if (node instanceof NumberNode numberNode) {
+            return constant(numberNode.getValue(), kind);
+        }
+        if (node instanceof VariableNode variableNode) {
+            int slot = expression.getVariableSlots().get(variableNode.getName());
+            return switch (kind) {
+                case LONG -> (LongEvaluator) values -> values[slot].longValue();
+                case DOUBLE -> (DoubleEvaluator) values -> values[slot].doubleValue();
+                case DECIMAL -> (DecimalEvaluator) values -> toDecimal(values[slot]);
+            };
+        }
+        if (node instanceof UnaryOperatorNode unaryNode) {
+            Evaluator operand = build(unaryNode.getOperand(), kinds);
+            return switch (kind) {
+                case LONG -> (LongEvaluator) values -> negateExact(operand.asLong(values));
+                case DOUBLE -> (DoubleEvaluator) values -> -operand.asDouble(values);
+                case DECIMAL -> (DecimalEvaluator) values -> operand.asDecimal(values).negate();
+            };
+        }
+        if (node instanceof BinaryOperatorNode binaryNode) {
+            return binary(binaryNode.getOperator(), build(binaryNode.getLeft(), kinds), build(binaryNode.getRight(), kinds), kind);
+        }
+        FunctionNode functionNode = (FunctionNode) node;
+        Evaluator first = build(functionNode.getArguments().get(0), kinds);
+        if (functionNode.getArguments().size() == 1) {
+            return oneArgumentFunction(functionNode, first, kind);
+        }
+        return twoArgumentsFunction(functionNode, first, build(functionNode.getArguments().get(1), kinds), kind);
+    }
+
+    /**
+     * Построить вычислитель константы
+     * @param value значение константы
+     * @param kind представление
+     * @return вычислитель
+     */
+    private static Evaluator constant(double value, NumericKind kind) {
+        return switch (kind) {
+            case LONG -> {
+                long longValue = (long) value;
+                yield (LongEvaluator) values -> longValue;
+            }
+            case DOUBLE -> (DoubleEvaluator) values -> value;
+            case DECIMAL -> {
+                BigDecimal decimalValue = value == Math.rint(value) && Math.abs(value) < 0x1p63 ?
+                                          BigDecimal.valueOf((long) value) : BigDecimal.valueOf(value);
+                yield (DecimalEvaluator) values -> decimalValue;
+            }
+        };
+    }
+
+    /**
+     * Построить вычислитель бинарного оператора
+     * @param operator оператор
+     * @param left левый операнд
+     * @param right правый операнд
+     * @param kind представление результата
+     * @return вычислитель
+     */
+    private Evaluator binary(char operator, Evaluator left, Evaluator right, NumericKind kind) {
+        MathContext mathContext = decimalMath.getMathContext();
+        return switch (kind) {
+            case LONG -> switch (operator) {
+                case '+' -> (LongEvaluator) values -> addExact(left.asLong(values), right.asLong(values));
+                case '-' -> (LongEvaluator) values -> subtractExact(left.asLong(values), right.asLong(values));
+                default -> (LongEvaluator) values -> multiplyExact(left.asLong(values), right.asLong(values));
+            };
+            case DOUBLE -> switch (operator) {
+                case '+' -> (DoubleEvaluator) values -> left.asDouble(values) + right.asDouble(values);
+                case '-' -> (DoubleEvaluator) values -> left.asDouble(values) - right.asDouble(values);
+                case '*' -> (DoubleEvaluator) values -> left.asDouble(values) * right.asDouble(values);
+                default -> (DoubleEvaluator) values -> {
+                    double divisor = right.asDouble(values);
+                    if (divisor == 0) {
+                        throw new ParserException(ErrorType.DIVISION_BY_ZERO_ERROR);
+                    }
+                    return left.asDouble(values) / divisor;
+                };
+            };
+            case DECIMAL -> switch (operator) {
+                case '+' -> (DecimalEvaluator) values -> left.asDecimal(values).add(right.asDecimal(values), mathContext);
+                case '-' -> (DecimalEvaluator) values -> left.asDecimal(values).subtract(right.asDecimal(values), mathContext);
+                case '*' -> (DecimalEvaluator) values -> left.asDecimal(values).multiply(right.asDecimal(values), mathContext);
+                default -> (DecimalEvaluator) values -> {
+                    BigDecimal divisor = right.asDecimal(values);
+                    if (divisor.signum() == 0) {
+                        throw new ParserException(ErrorType.DIVISION_BY_ZERO_ERROR);
+                    }
+                    return left.asDecimal(values).divide(divisor, mathContext);
+                };
+            };
+        };
+    }
+
+    /**
+     * Построить вычислитель функции с одним параметром
+     * @param functionNode узел функции
+     * @param argument аргумент
+     * @param kind представление результата
+     * @return вычислитель
+     */
+    private Evaluator oneArgumentFunction(FunctionNode functionNode, Evaluator argument, NumericKind kind) {
+        DoubleUnaryOperator function = functionNode.getOneArgumentFunction();
+        if (kind != NumericKind.DECIMAL || !PrecisionInference.isBuiltIn(functionNode)) {
+            return (DoubleEvaluator) values -> function.applyAsDouble(argument.asDouble(values));
+        }
+        return switch (functionNode.getName()) {
+            case "sin" -> (DecimalEvaluator) values -> decimalMath.sin(argument.asDecimal(values));
+            case "cos" -> (DecimalEvaluator) values -> decimalMath.cos(argument.asDecimal(values));
+            case "tan" -> (DecimalEvaluator) values -> decimalMath.tan(argument.asDecimal(values));
+            default -> (DecimalEvaluator) values -> BigDecimal.valueOf(function.applyAsDouble(argument.asDouble(values)));
+        };
+    }
+
+    /**
+     * Построить вычислитель функции с двумя параметрами
+     * @param functionNode узел функции
+     * @param first первый аргумент
+     * @param second второй аргумент
+     * @param kind представление результата
+     * @return вычислитель
+     */
+    private Evaluator twoArgumentsFunction(FunctionNode functionNode, Evaluator first, Evaluator second, NumericKind kind) {
+        DoubleBinaryOperator function = functionNode.getTwoArgumentsFunction();
+        if (kind == NumericKind.DOUBLE || !PrecisionInference.isBuiltIn(functionNode)) {
+            return (DoubleEvaluator) values -> function.applyAsDouble(first.asDouble(values), second.asDouble(values));
+        }
+        if (kind == NumericKind.LONG) {
+            return switch (functionNode.getName()) {
+                case "min" -> (LongEvaluator) values -> Math.min(first.asLong(values), second.asLong(values));
+                case "max" -> (LongEvaluator) values -> Math.max(first.asLong(values), second.asLong(values));
+                default -> (LongEvaluator) values -> powExact(first.asLong(values), second.asLong(values));
+            };
+        }
+        return switch (functionNode.getName()) {
+            case "min" -> (DecimalEvaluator) values -> decimalMath.min(first.asDecimal(values), second.asDecimal(values));
+            case "max" -> (DecimalEvaluator) values -> decimalMath.max(first.asDecimal(values), second.asDecimal(values));
+            case "pow" -> (DecimalEvaluator) values -> decimalMath.pow(first.asDecimal(values), second.asDecimal(values));
+            default -> (DecimalEvaluator) values ->
+                    BigDecimal.valueOf(function.applyAsDouble(first.asDouble(values), second.asDouble(values)));
+        };
+    }
+
+    /**
+     * Сложить целые числа с проверкой переполнения
+     * @param a первое слагаемое
+     * @param b второе слагаемое
+     * @return сумма
+     */
+    private static long addExact(long a, long b) {
+        long result = a + b;
+        if (((a ^ result) & (b ^ result)) < 0) {
+            throw LongOverflow.INSTANCE;
+        }
+        return result;
+    }
+
+    /**
+     * Вычесть целые числа с проверкой переполнения
+     * @param a уменьшаемое
+     * @param b вычитаемое
+     * @return разность
+     */
+    private static long subtractExact(long a, long b) {
+        long result = a - b;
+        if (((a ^ b) & (a ^ result)) < 0) {
+            throw LongOverflow.INSTANCE;
+        }
+        return result;
+    }
+
+    /**
+     * Перемножить целые числа с проверкой переполнения
+     * @param a первый множитель
+     * @param b второй множитель
+     * @return произведение
+     */
+    private static long multiplyExact(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long result = a * b;
+        if (high != (result >> 63)) {
+            throw LongOverflow.INSTANCE;
+        }
+        return result;
+    }
+
+    /**
+     * Сменить знак целого числа с проверкой переполнения
+     * @param a число
+     * @return число с противоположным знаком
+     */
+    private static long negateExact(long a) {
+        if (a == Long.MIN_VALUE) {
+            throw LongOverflow.INSTANCE;
+        }
+        return -a;
+    }
+
+    /**
+     * Возвести целое число в неотрицательную целую степень возведением в квадрат с проверкой переполнения
+     * @param base основание
+     * @param exponent показатель
+     * @return степень
+     */
+    private static long powExact(long base, long exponent) {
+        long result = 1;
+        long square = base;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = multiplyExact(result, square);
+            }
+            exponent >>= 1;
+            if (exponent > 0) {
+                square = multiplyExact(square, square);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Переполнение long при вычислении, после которого выражение вычисляется в дробном представлении
+     */
+    private static final class LongOverflow extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Единственный экземпляр без стека вызовов
+         */
+        private static final LongOverflow INSTANCE = new LongOverflow();
+
+        /**
+         * Конструктор - создание исключения без сообщения, причины и стека вызовов
+         */
+        private LongOverflow() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Вычислитель узла в собственном представлении с преобразованием к более широким
+     */
+    private interface Evaluator {
+
+        /**
+         * Вычислить узел в long
+         * @param values значения переменных по номерам
+         * @return значение
+         */
+        default long asLong(Number[] values) {
+            throw new IllegalStateException("Node is not evaluated as long");
+        }
+
+        /**
+         * Вычислить узел в double
+         * @param values значения переменных по номерам
+         * @return значение
+         */
+        double asDouble(Number[] values);
+
+        /**
+         * Вычислить узел в BigDecimal
+         * @param values значения переменных по номерам
+         * @return значение
+         */
+        BigDecimal asDecimal(Number[] values);
+
+        /**
+         * Вычислить узел в собственном представлении
+         * @param values значения переменных по номерам
+         * @return Long, Double или BigDecimal
+         */
+        Number value(Number[] values);
+    }
+
+    /**
+     * Вычислитель узла в long
+     */
+    @FunctionalInterface
+    private interface LongEvaluator extends Evaluator {
+
+        @Override
+        long asLong(Number[] values);
+
+        @Override
+        default double asDouble(Number[] values) {
+            return asLong(values);
+        }
+
+        @Override
+        default BigDecimal asDecimal(Number[] values) {
+            return BigDecimal.valueOf(asLong(values));
+        }
+
+        @Override
+        default Number value(Number[] values) {
+            return asLong(values);
+        }
+    }
+
+    /**
+     * Вычислитель узла в double
+     */
+    @FunctionalInterface
+    private interface DoubleEvaluator extends Evaluator {
+
+        @Override
+        double asDouble(Number[] values);
+
+        @Override
+        default BigDecimal asDecimal(Number[] values) {
+            return toDecimal(asDouble(values));
+        }
+
+        @Override
+        default Number value(Number[] values) {
+            return asDouble(values);
+        }
+    }
+
+    /**
+     * Вычислитель узла в BigDecimal
+     */
+    @FunctionalInterface
+    private interface DecimalEvaluator extends Evaluator {
+
+        @Override
+        BigDecimal asDecimal(Number[] values);
+
+        @Override
+        default double asDouble(Number[] values) {
+            return asDecimal(values).doubleValue();
+        }
+
+        @Override
+        default Number value(Number[] values) {
+            return asDecimal(values);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.calculator.parser.compiler;
+
+import java.util.List;
+
+/**
+ * Узел дерева разобранного выражения
+ */
+public abstract class Node {
+
+    /**
+     * Получить дочерние узлы
+     * @return дочерние узлы в порядке записи в выражении
+     */
+    public abstract List<Node> getChildren();
+}
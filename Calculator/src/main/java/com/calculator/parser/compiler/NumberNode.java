@@ -0,0 +1,47 @@
+package com.calculator.parser.compiler;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Узел числовой константы
+ */
+public class NumberNode extends Node {
+
+    /**
+     * Значение константы
+     */
+    private final double value;
+
+    /**
+     * Конструктор - создание нового узла числовой константы
+     * @param value значение константы
+     */
+    public NumberNode(double value) {
+        this.value = value;
+    }
+
+    /**
+     * Получить значение константы
+     * @return значение константы
+     */
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return List.of();
+    }
+
+    @Override
+    public String toString() {
+        if (!Double.isFinite(value)) {
+            return Double.toString(value);
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+}
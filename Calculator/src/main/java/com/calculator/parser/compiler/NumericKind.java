@@ -0,0 +1,29 @@
+package com.calculator.parser.compiler;
+
+/**
+ * Числовое представление подвыражения при вычислении со смешанной точностью.
+ * Представления упорядочены по возрастанию стоимости арифметики
+ */
+public enum NumericKind {
+    /**
+     * Целое число long с проверкой переполнения
+     */
+    LONG,
+    /**
+     * Вещественное число double
+     */
+    DOUBLE,
+    /**
+     * Десятичное число BigDecimal
+     */
+    DECIMAL;
+
+    /**
+     * Получить представление, в котором точно выражаются значения обоих представлений
+     * @param other другое представление
+     * @return более широкое представление
+     */
+    public NumericKind widen(NumericKind other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+}
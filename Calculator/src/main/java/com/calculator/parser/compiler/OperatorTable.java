@@ -0,0 +1,207 @@
+package com.calculator.parser.compiler;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Таблица операторов, индексированная символом оператора: приоритет, ассоциативность и реализация
+ * пользовательских операторов. Разбор выражения выполняет поиск в массивах вместо цепочек сравнений.
+ * Пользовательские бинарные операторы (например, ^ или %) и постфиксные унарные операторы (например, !)
+ * компилируются в вызовы функций, номера которых определяются при компиляции программы.
+ * Приоритеты 1 и -1 зарезервированы за открывающей и закрывающей скобками, операторы имеют приоритет не меньше 2
+ */
+public final class OperatorTable {
+
+    /**
+     * Количество символов таблицы: операторами могут быть только символы ASCII
+     */
+    private static final int SIZE = 128;
+
+    /**
+     * Ассоциативность бинарного оператора
+     */
+    public enum Associativity {
+
+        /**
+         * Левая: a-b-c = (a-b)-c
+         */
+        LEFT,
+
+        /**
+         * Правая: a^b^c = a^(b^c)
+         */
+        RIGHT
+    }
+
+    /**
+     * Приоритеты символов, 0 - символ операнда
+     */
+    private final int[] priorities = new int[SIZE];
+
+    /**
+     * Правоассоциативные операторы
+     */
+    private final boolean[] rightAssociative = new boolean[SIZE];
+
+    /**
+     * Встроенные операторы, вычисляемые собственными кодами операций
+     */
+    private final boolean[] builtIn = new boolean[SIZE];
+
+    /**
+     * Реализации пользовательских бинарных операторов
+     */
+    private final DoubleBinaryOperator[] binaryOperators = new DoubleBinaryOperator[SIZE];
+
+    /**
+     * Реализации пользовательских постфиксных операторов
+     */
+    private final DoubleUnaryOperator[] postfixOperators = new DoubleUnaryOperator[SIZE];
+
+    /**
+     * Конструктор - создание таблицы со скобками без операторов
+     */
+    private OperatorTable() {
+        priorities['('] = 1;
+        priorities[')'] = -1;
+    }
+
+    /**
+     * Создать таблицу встроенных операторов математических выражений: *, / и +, -
+     * @return новая таблица
+     */
+    public static OperatorTable math() {
+        OperatorTable table = new OperatorTable();
+        table.addBuiltIn('*', 3);
+        table.addBuiltIn('/', 3);
+        table.addBuiltIn('+', 2);
+        table.addBuiltIn('-', 2);
+        return table;
+    }
+
+    /**
+     * Создать таблицу встроенных операторов логических выражений: &amp; и |
+     * @return новая таблица
+     */
+    public static OperatorTable logic() {
+        OperatorTable table = new OperatorTable();
+        table.addBuiltIn('&', 3);
+        table.addBuiltIn('|', 2);
+        return table;
+    }
+
+    /**
+     * Зарегистрировать пользовательский бинарный оператор
+     * @param symbol символ оператора
+     * @param priority приоритет, не меньше 2; встроенные математические операторы имеют приоритеты 2 (+, -) и 3 (*, /)
+     * @param associativity ассоциативность
+     * @param operator реализация оператора
+     * @return эта таблица
+     */
+    public OperatorTable addBinaryOperator(char symbol, int priority, Associativity associativity,
+                                           DoubleBinaryOperator operator) {
+        checkSymbol(symbol);
+        if (priority < 2) {
+            throw new IllegalArgumentException("Operator priority must be at least 2");
+        }
+        priorities[symbol] = priority;
+        rightAssociative[symbol] = associativity == Associativity.RIGHT;
+        binaryOperators[symbol] = operator;
+        return this;
+    }
+
+    /**
+     * Зарегистрировать пользовательский постфиксный унарный оператор, применяемый к операнду слева от него
+     * раньше любых бинарных операторов, например факториал 5!
+     * @param symbol символ оператора
+     * @param operator реализация оператора
+     * @return эта таблица
+     */
+    public OperatorTable addPostfixOperator(char symbol, DoubleUnaryOperator operator) {
+        checkSymbol(symbol);
+        postfixOperators[symbol] = operator;
+        return this;
+    }
+
+    /**
+     * Получить приоритет символа
+     * @param token символ
+     * @return приоритет бинарного оператора, 1 для открывающей скобки, -1 для закрывающей, 0 для остальных символов
+     */
+    public int getPriority(char token) {
+        return token < SIZE ? priorities[token] : 0;
+    }
+
+    /**
+     * Является ли бинарный оператор правоассоциативным
+     * @param token символ оператора
+     * @return логический результат проверки
+     */
+    public boolean isRightAssociative(char token) {
+        return token < SIZE && rightAssociative[token];
+    }
+
+    /**
+     * Является ли оператор встроенным
+     * @param token символ оператора
+     * @return логический результат проверки
+     */
+    public boolean isBuiltIn(char token) {
+        return token < SIZE && builtIn[token];
+    }
+
+    /**
+     * Получить реализацию пользовательского бинарного оператора
+     * @param token символ оператора
+     * @return реализация или null, если символ не является пользовательским бинарным оператором
+     */
+    public DoubleBinaryOperator getBinaryOperator(char token) {
+        return token < SIZE ? binaryOperators[token] : null;
+    }
+
+    /**
+     * Получить реализацию постфиксного оператора
+     * @param token символ оператора
+     * @return реализация или null, если символ не является постфиксным оператором
+     */
+    public DoubleUnaryOperator getPostfixOperator(char token) {
+        return token < SIZE ? postfixOperators[token] : null;
+    }
+
+    /**
+     * Есть ли в таблице пользовательские операторы
+     * @return логический результат проверки
+     */
+    public boolean hasUserOperators() {
+        for (int token = 0; token < SIZE; token++) {
+            if (binaryOperators[token] != null || postfixOperators[token] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Добавить встроенный левоассоциативный оператор
+     * @param symbol символ оператора
+     * @param priority приоритет
+     */
+    private void addBuiltIn(char symbol, int priority) {
+        priorities[symbol] = priority;
+        builtIn[symbol] = true;
+    }
+
+    /**
+     * Проверить, что символ может быть пользовательским оператором
+     * @param symbol символ
+     */
+    private void checkSymbol(char symbol) {
+        if (symbol >= SIZE || Character.isLetterOrDigit(symbol) || Character.isWhitespace(symbol) ||
+                symbol == '.' || symbol == ',' || symbol == '(' || symbol == ')') {
+            throw new IllegalArgumentException("Symbol '" + symbol + "' cannot be an operator");
+        }
+        if (builtIn[symbol] || binaryOperators[symbol] != null || postfixOperators[symbol] != null) {
+            throw new IllegalArgumentException("Operator '" + symbol + "' is already defined");
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Параллельное вычисление очень широких выражений (сумм и логических цепочек из сотен тысяч операндов).
+ * Выражение строится как дерево замыканий; узлы, оба поддерева которых содержат больше заданного количества узлов,
+ * вычисляются параллельно в пуле fork-join. Длинные цепочки уже перестроены при разборе в сбалансированные деревья
+ * ({@link ChainRebalancer}), поэтому делятся пополам до порога.
+ * <p>
+ * В режиме {@link ReductionMode#DETERMINISTIC} параллельное вычисление повторяет форму дерева, и результат
+ * побитово совпадает с последовательным вычислением программы при любом количестве потоков.
+ * В режиме {@link ReductionMode#UNORDERED} цепочка делится на части по числу потоков пула, части вычисляются
+ * слева направо, а их результаты объединяются в порядке завершения: задач меньше, но младшие разряды суммы
+ * и произведения вещественных чисел могут зависеть от количества потоков и от запуска.
+ * <p>
+ * Логические И и ИЛИ вычисляются сокращённо, как программой стековой машины: операнды могут вычисляться
+ * параллельно, но результат и ошибка определяются первым слева операндом, который задаёт результат,
+ * а ошибки операндов правее него не учитываются
+ */
+public class ParallelEvaluator implements Executable {
+
+    /**
+     * Порог параллельного вычисления по умолчанию: количество узлов поддерева
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 14;
+
+    /**
+     * Режим объединения результатов параллельного вычисления
+     */
+    public enum ReductionMode {
+        /**
+         * Порядок объединения задан формой дерева, результат не зависит от параллелизма
+         */
+        DETERMINISTIC,
+        /**
+         * Результаты частей объединяются в порядке завершения
+         */
+        UNORDERED
+    }
+
+    /**
+     * Скомпилированное выражение
+     */
+    private final CompiledExpression<?> expression;
+
+    /**
+     * Номера переменных по именам
+     */
+    private final Map<String, Integer> variableSlots;
+
+    /**
+     * Порог параллельного вычисления
+     */
+    private final int parallelThreshold;
+
+    /**
+     * Режим объединения результатов
+     */
+    private final ReductionMode mode;
+
+    /**
+     * Пул fork-join
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Количество узлов поддеревьев
+     */
+    private final Map<Node, Integer> sizes = new IdentityHashMap<>();
+
+    /**
+     * Количество узлов, вычисляемых параллельно
+     */
+    private int parallelNodesCount;
+
+    /**
+     * Корень дерева замыканий
+     */
+    private final Executable root;
+
+    /**
+     * Конструктор - создание вычислителя с порогом по умолчанию, детерминированным режимом и общим пулом
+     * @param expression скомпилированное выражение
+     */
+    public ParallelEvaluator(CompiledExpression<?> expression) {
+        this(expression, DEFAULT_PARALLEL_THRESHOLD, ReductionMode.DETERMINISTIC, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Конструктор - создание вычислителя
+     * @param expression скомпилированное выражение
+     * @param parallelThreshold минимальное количество узлов поддерева, вычисляемого отдельной задачей
+     * @param mode режим объединения результатов
+     * @param pool пул fork-join
+     * @throws IllegalArgumentException выражение с ограничениями времени, которые параллельное вычисление не проверяет
+     */
+    public ParallelEvaluator(CompiledExpression<?> expression, int parallelThreshold, ReductionMode mode,
+                             ForkJoinPool pool) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Parallel threshold must be positive");
+        }
+        if (expression.getProgram().hasTimeLimits()) {
+            throw new IllegalArgumentException("Time limited expression cannot be evaluated in parallel");
+        }
+        this.expression = expression;
+        this.variableSlots = expression.getVariableSlots();
+        this.parallelThreshold = parallelThreshold;
+        this.mode = mode;
+        this.pool = pool;
+        computeSizes(expression.getRoot());
+        this.root = build(expression.getRoot());
+        sizes.clear();
+    }
+
+    /**
+     * Вычислить выражение
+     * @param variables значения переменных по номерам во внутреннем представлении
+     * @return результат во внутреннем представлении
+     */
+    @Override
+    public double execute(double[] variables) {
+        if (parallelNodesCount == 0 || ForkJoinTask.inForkJoinPool()) {
+            return root.execute(variables);
+        }
+        return pool.invoke(task(root, variables));
+    }
+
+    /**
+     * Получить количество узлов, вычисляемых параллельно
+     * @return количество узлов
+     */
+    public int getParallelNodesCount() {
+        return parallelNodesCount;
+    }
+
+    /**
+     * Получить режим объединения результатов
+     * @return режим
+     */
+    public ReductionMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Посчитать количество узлов поддеревьев
+     * @param node узел
+     * @return количество узлов поддерева
+     */
+    private int computeSizes(Node node) {
+        int size = 1;
+        for (Node child : node.getChildren()) {
+            size += computeSizes(child);
+        }
+        sizes.put(node, size);
+        return size;
+    }
+
+    /**
+     * Построить замыкание узла
+     * @param node узел
+     * @return замыкание
+     */
+    private Executable build(Node node) {
+        if (node instanceof NumberNode numberNode) {
+            double value = numberNode.getValue();
+            return variables -> value;
+        }
+        if (node instanceof BooleanNode booleanNode) {
+            double value = booleanNode.getValue() ? 1 : 0;
+            return variables -> value;
+        }
+        if (node instanceof VariableNode variableNode) {
+            int slot = variableSlots.get(variableNode.getName());
+            return variables -> variables[slot];
+        }
+        if (node instanceof AggregateNode || node instanceof WindowNode) {
+            int slot = expression.getDerivedValueSlot(node);
+            return variables -> variables[slot];
+        }
+        if (node instanceof UnaryOperatorNode unaryNode) {
+            Executable operand = build(unaryNode.getOperand());
+            if (unaryNode.getOperator() == '!') {
+                return variables -> operand.execute(variables) != 0 ? 0 : 1;
+            }
+            return variables -> -operand.execute(variables);
+        }
+        if (node instanceof FunctionNode functionNode) {
+            List<Node> arguments = functionNode.getArguments();
+            Executable first = build(arguments.get(0));
+            if (arguments.size() == 1) {
+                DoubleUnaryOperator function = functionNode.getOneArgumentFunction();
+                return variables -> function.applyAsDouble(first.execute(variables));
+            }
+            Executable second = build(arguments.get(1));
+            DoubleBinaryOperator function = functionNode.getTwoArgumentsFunction();
+            return variables -> function.applyAsDouble(first.execute(variables), second.execute(variables));
+        }
+        BinaryOperatorNode binaryNode = (BinaryOperatorNode) node;
+        int opcode = Program.binaryOpcode(binaryNode.getOperator());
+        if (mode == ReductionMode.UNORDERED && sizes.get(node) > parallelThreshold && isReduction(opcode)) {
+            List<Node> operands = new ArrayList<>();
+            ExpressionCanonicalizer.flatten(binaryNode, binaryNode.getOperator(), operands);
+            Executable[] closures = new Executable[operands.size()];
+            for (int i = 0; i < closures.length; i++) {
+                closures[i] = build(operands.get(i));
+            }
+            parallelNodesCount++;
+            return opcode == Program.AND || opcode == Program.OR ? shortCircuitReduction(opcode, closures) :
+                   unorderedReduction(opcode, closures);
+        }
+        Executable left = build(binaryNode.getLeft());
+        Executable right = build(binaryNode.getRight());
+        if (sizes.get(binaryNode.getLeft()) > parallelThreshold && sizes.get(binaryNode.getRight()) > parallelThreshold) {
+            parallelNodesCount++;
+            return forkingBinary(opcode, left, right);
+        }
+        return ClosureCompiler.binary(opcode, left, right);
+    }
+
+    /**
+     * Построить замыкание бинарной операции, левый операнд которой вычисляется отдельной задачей.
+     * Задача левого операнда всегда дожидается завершения, и её ошибка выбрасывается раньше ошибки правого операнда,
+     * как при последовательном вычислении
+     * @param opcode код операции
+     * @param left левый операнд
+     * @param right правый операнд
+     * @return замыкание
+     */
+    private static Executable forkingBinary(int opcode, Executable left, Executable right) {
+        if (opcode == Program.AND || opcode == Program.OR) {
+            return variables -> {
+                ForkJoinTask<Double> leftTask = task(left, variables).fork();
+                double rightValue = 0;
+                RuntimeException rightError = null;
+                try {
+                    rightValue = right.execute(variables);
+                }
+                catch (RuntimeException exception) {
+                    rightError = exception;
+                }
+                double leftValue = leftTask.join();
+                if (decides(opcode, leftValue)) {
+                    return opcode == Program.AND ? 0 : 1;
+                }
+                if (rightError != null) {
+                    throw rightError;
+                }
+                return apply(opcode, leftValue, rightValue);
+            };
+        }
+        return variables -> {
+            ForkJoinTask<Double> leftTask = task(left, variables).fork();
+            double rightValue;
+            try {
+                rightValue = right.execute(variables);
+            }
+            catch (RuntimeException exception) {
+                leftTask.join();
+                throw exception;
+            }
+            return apply(opcode, leftTask.join(), rightValue);
+        };
+    }
+
+    /**
+     * Построить замыкание цепочки, части которой вычисляются параллельно и объединяются в порядке завершения
+     * @param opcode код операции цепочки
+     * @param operands операнды цепочки
+     * @return замыкание
+     */
+    private Executable unorderedReduction(int opcode, Executable[] operands) {
+        return variables -> {
+            int parts = Math.min(operands.length, pool.getParallelism() * 4);
+            DoubleAccumulator accumulator = new DoubleAccumulator((a, b) -> apply(opcode, a, b), identity(opcode));
+            List<ForkJoinTask<Double>> tasks = new ArrayList<>(parts);
+            for (int part = 0; part < parts; part++) {
+                int from = (int) ((long) operands.length * part / parts);
+                int to = (int) ((long) operands.length * (part + 1) / parts);
+                tasks.add(task(values -> {
+                    double result = operands[from].execute(values);
+                    for (int i = from + 1; i < to; i++) {
+                        result = apply(opcode, result, operands[i].execute(values));
+                    }
+                    accumulator.accumulate(result);
+                    return result;
+                }, variables));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            return accumulator.get();
+        };
+    }
+
+    /**
+     * Построить замыкание логической цепочки, части которой вычисляются параллельно слева направо до операнда,
+     * задающего результат, а результаты и ошибки частей просматриваются по порядку
+     * @param opcode код операции цепочки (И или ИЛИ)
+     * @param operands операнды цепочки
+     * @return замыкание
+     */
+    private Executable shortCircuitReduction(int opcode, Executable[] operands) {
+        return variables -> {
+            int parts = Math.min(operands.length, pool.getParallelism() * 4);
+            double[] results = new double[parts];
+            RuntimeException[] errors = new RuntimeException[parts];
+            List<ForkJoinTask<Double>> tasks = new ArrayList<>(parts);
+            for (int part = 0; part < parts; part++) {
+                int index = part;
+                int from = (int) ((long) operands.length * part / parts);
+                int to = (int) ((long) operands.length * (part + 1) / parts);
+                tasks.add(task(values -> {
+                    try {
+                        double result = identity(opcode);
+                        for (int i = from; i < to && !decides(opcode, result); i++) {
+                            result = apply(opcode, result, operands[i].execute(values));
+                        }
+                        results[index] = result;
+                    }
+                    catch (RuntimeException exception) {
+                        errors[index] = exception;
+                    }
+                    return 0.0;
+                }, variables));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            for (int part = 0; part < parts; part++) {
+                if (errors[part] != null) {
+                    throw errors[part];
+                }
+                if (decides(opcode, results[part])) {
+                    return results[part];
+                }
+            }
+            return identity(opcode);
+        };
+    }
+
+    /**
+     * Задаёт ли левый операнд результат логической операции без вычисления правого
+     * @param opcode код операции
+     * @param left значение левого операнда
+     * @return логический результат проверки
+     */
+    private static boolean decides(int opcode, double left) {
+        return opcode == Program.AND ? left == 0 : opcode == Program.OR && left != 0;
+    }
+
+    /**
+     * Является ли операция ассоциативной операцией свёртки цепочки
+     * @param opcode код операции
+     * @return логический результат проверки
+     */
+    private static boolean isReduction(int opcode) {
+        return opcode == Program.ADD || opcode == Program.MULTIPLY || opcode == Program.AND || opcode == Program.OR;
+    }
+
+    /**
+     * Применить бинарную операцию к вычисленным операндам
+     * @param opcode код операции
+     * @param left левый операнд
+     * @param right правый операнд
+     * @return результат
+     */
+    private static double apply(int opcode, double left, double right) {
+        return switch (opcode) {
+            case Program.ADD -> left + right;
+            case Program.SUBTRACT -> left - right;
+            case Program.MULTIPLY -> left * right;
+            case Program.DIVIDE -> {
+                if (right == 0) {
+                    throw new ParserException(ErrorType.DIVISION_BY_ZERO_ERROR);
+                }
+                yield left / right;
+            }
+            case Program.AND -> left != 0 && right != 0 ? 1 : 0;
+            case Program.OR -> left != 0 || right != 0 ? 1 : 0;
+            default -> Program.compare(opcode, left, right);
+        };
+    }
+
+    /**
+     * Получить нейтральный элемент операции свёртки
+     * @param opcode код операции
+     * @return нейтральный элемент
+     */
+    private static double identity(int opcode) {
+        return opcode == Program.ADD || opcode == Program.OR ? 0 : 1;
+    }
+
+    /**
+     * Создать задачу вычисления замыкания
+     * @param executable замыкание
+     * @param variables значения переменных
+     * @return задача
+     */
+    private static RecursiveTask<Double> task(Executable executable, double[] variables) {
+        return new RecursiveTask<>() {
+            @Override
+            protected Double compute() {
+                return executable.execute(variables);
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+/**
+ * Результат компиляции или вычисления без выбрасывания исключения: значение либо тип и позиция ошибки
+ * @param <T> тип значения
+ */
+public final class ParserResult<T> {
+
+    /**
+     * Значение
+     */
+    private final T value;
+
+    /**
+     * Тип ошибки, null при успехе
+     */
+    private final ErrorType errorType;
+
+    /**
+     * Позиция ошибки в выражении без пробельных символов, -1 если позиция неизвестна
+     */
+    private final int position;
+
+    /**
+     * Конструктор - создание результата
+     * @param value значение
+     * @param errorType тип ошибки
+     * @param position позиция ошибки
+     */
+    private ParserResult(T value, ErrorType errorType, int position) {
+        this.value = value;
+        this.errorType = errorType;
+        this.position = position;
+    }
+
+    /**
+     * Создать успешный результат
+     * @param value значение
+     * @param <T> тип значения
+     * @return результат
+     */
+    public static <T> ParserResult<T> success(T value) {
+        return new ParserResult<>(value, null, -1);
+    }
+
+    /**
+     * Создать результат с ошибкой
+     * @param errorType тип ошибки
+     * @param position позиция ошибки, -1 если позиция неизвестна
+     * @param <T> тип значения
+     * @return результат
+     */
+    public static <T> ParserResult<T> failure(ErrorType errorType, int position) {
+        return new ParserResult<>(null, errorType, position);
+    }
+
+    /**
+     * Создать результат с ошибкой из исключения
+     * @param exception исключение
+     * @param <T> тип значения
+     * @return результат
+     */
+    public static <T> ParserResult<T> failure(ParserException exception) {
+        return failure(exception.getErrorType(), exception.getPosition());
+    }
+
+    /**
+     * Успешен ли результат
+     * @return логический результат проверки
+     */
+    public boolean isSuccess() {
+        return errorType == null;
+    }
+
+    /**
+     * Получить значение
+     * @return значение
+     * @throws ParserException если результат содержит ошибку
+     */
+    public T getValue() {
+        if (errorType != null) {
+            throw new ParserException(errorType, position);
+        }
+        return value;
+    }
+
+    /**
+     * Получить тип ошибки
+     * @return тип ошибки или null при успехе
+     */
+    public ErrorType getErrorType() {
+        return errorType;
+    }
+
+    /**
+     * Получить позицию ошибки
+     * @return позиция ошибки в выражении без пробельных символов, -1 если позиция неизвестна
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "ParserResult[" + value + "]" : "ParserResult[" + errorType + " at " + position + "]";
+    }
+}
@@ -0,0 +1,144 @@
+package com.calculator.parser.compiler;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Частичное вычисление выражения: подстановка известных значений переменных и свёртка констант.
+ * Свёртка выполняется теми же операциями double, что и при вычислении, поэтому результат остаточного
+ * выражения совпадает с результатом исходного. Деление на ноль и нечисловые результаты не сворачиваются,
+ * чтобы ошибка возникала при вычислении. Функции считаются чистыми
+ */
+public final class PartialEvaluator {
+
+    private PartialEvaluator() {
+    }
+
+    /**
+     * Подставить известные значения и свернуть константы
+     * @param node корень дерева выражения
+     * @param constants узлы констант (числовых или логических) для известных переменных
+     * @return корень остаточного дерева
+     */
+    public static Node specialize(Node node, Map<String, ? extends Node> constants) {
+        if (node instanceof VariableNode variableNode) {
+            Node constant = constants.get(variableNode.getName());
+            return constant != null ? constant : node;
+        }
+        if (node instanceof UnaryOperatorNode unaryNode) {
+            Node operand = specialize(unaryNode.getOperand(), constants);
+            if (operand instanceof NumberNode numberNode) {
+                return new NumberNode(-numberNode.getValue());
+            }
+            if (operand instanceof BooleanNode booleanNode) {
+                return new BooleanNode(!booleanNode.getValue());
+            }
+            return operand == unaryNode.getOperand() ? node : new UnaryOperatorNode(unaryNode.getOperator(), operand);
+        }
+        if (node instanceof BinaryOperatorNode binaryNode) {
+            return specializeBinary(binaryNode, specialize(binaryNode.getLeft(), constants),
+                                    specialize(binaryNode.getRight(), constants));
+        }
+        if (node instanceof FunctionNode functionNode) {
+            return specializeFunction(functionNode, constants);
+        }
+        return node;
+    }
+
+    /**
+     * Свернуть бинарный оператор
+     * @param node исходный узел
+     * @param left частично вычисленный левый операнд
+     * @param right частично вычисленный правый операнд
+     * @return остаточный узел
+     */
+    private static Node specializeBinary(BinaryOperatorNode node, Node left, Node right) {
+        char operator = node.getOperator();
+        if (left instanceof BooleanNode leftBoolean) {
+            return specializeLogic(operator, leftBoolean.getValue(), right, left, right);
+        }
+        if (right instanceof BooleanNode rightBoolean) {
+            return specializeLogic(operator, rightBoolean.getValue(), left, left, right);
+        }
+        if (left instanceof NumberNode leftNumber && right instanceof NumberNode rightNumber) {
+            double a = leftNumber.getValue();
+            double b = rightNumber.getValue();
+            if (BinaryOperatorNode.isComparison(operator)) {
+                return new BooleanNode(Program.compare(Program.binaryOpcode(operator), a, b) != 0);
+            }
+            double result = switch (operator) {
+                case '+' -> a + b;
+                case '-' -> a - b;
+                case '*' -> a * b;
+                case '/' -> b == 0 ? Double.NaN : a / b;
+                default -> Double.NaN;
+            };
+            if (Double.isFinite(result)) {
+                return new NumberNode(result);
+            }
+        }
+        if (right instanceof NumberNode rightNumber) {
+            double value = rightNumber.getValue();
+            if ((operator == '*' || operator == '/') && value == 1 || operator == '-' && value == 0) {
+                return left;
+            }
+        }
+        if (left instanceof NumberNode leftNumber && operator == '*' && leftNumber.getValue() == 1) {
+            return right;
+        }
+        if (left == node.getLeft() && right == node.getRight()) {
+            return node;
+        }
+        return new BinaryOperatorNode(operator, left, right);
+    }
+
+    /**
+     * Упростить логический оператор с одним известным операндом
+     * @param operator оператор
+     * @param value значение известного операнда
+     * @param other другой операнд
+     * @param left левый операнд
+     * @param right правый операнд
+     * @return остаточный узел
+     */
+    private static Node specializeLogic(char operator, boolean value, Node other, Node left, Node right) {
+        if (operator == '&') {
+            return value ? other : new BooleanNode(false);
+        }
+        if (operator == '|') {
+            return value ? new BooleanNode(true) : other;
+        }
+        return new BinaryOperatorNode(operator, left, right);
+    }
+
+    /**
+     * Свернуть вызов функции с известными аргументами
+     * @param node узел функции
+     * @param constants узлы констант для известных переменных
+     * @return остаточный узел
+     */
+    private static Node specializeFunction(FunctionNode node, Map<String, ? extends Node> constants) {
+        List<Node> arguments = node.getArguments();
+        Node first = specialize(arguments.get(0), constants);
+        if (node.getOneArgumentFunction() != null) {
+            if (first instanceof NumberNode number) {
+                double result = node.getOneArgumentFunction().applyAsDouble(number.getValue());
+                if (Double.isFinite(result)) {
+                    return new NumberNode(result);
+                }
+            }
+            return first == arguments.get(0) ? node : new FunctionNode(node.getName(), first, node.getOneArgumentFunction());
+        }
+        Node second = specialize(arguments.get(1), constants);
+        if (first instanceof NumberNode firstNumber && second instanceof NumberNode secondNumber) {
+            double result = node.getTwoArgumentsFunction().applyAsDouble(firstNumber.getValue(), secondNumber.getValue());
+            if (Double.isFinite(result)) {
+                return new NumberNode(result);
+            }
+        }
+        if (first == arguments.get(0) && second == arguments.get(1)) {
+            return node;
+        }
+        return new FunctionNode(node.getName(), first, second, node.getTwoArgumentsFunction());
+    }
+}
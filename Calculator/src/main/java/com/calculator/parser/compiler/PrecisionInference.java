@@ -0,0 +1,159 @@
+package com.calculator.parser.compiler;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Вывод числового представления каждого подвыражения по типам констант, объявлениям переменных и операторам.
+ * Целые константы и целые переменные дают long, сложение, вычитание, умножение, минимум и максимум
+ * сохраняют самое широкое представление операндов, а деление, тригонометрические функции и дробные степени
+ * переходят к дробному представлению выражения (double или BigDecimal).
+ * Клиентские функции и пользовательские операторы определены над double и всегда дают double
+ */
+public final class PrecisionInference {
+
+    /**
+     * Наибольшее целое, точно представимое в double
+     */
+    private static final double MAX_EXACT_INTEGER = 0x1p53;
+
+    /**
+     * Представление целых констант и целых переменных
+     */
+    private final NumericKind integerKind;
+
+    /**
+     * Представление дробных значений
+     */
+    private final NumericKind fractionalKind;
+
+    /**
+     * Объявленные представления переменных
+     */
+    private final Map<String, NumericKind> variableKinds;
+
+    /**
+     * Выведенные представления узлов
+     */
+    private final Map<Node, NumericKind> kinds = new IdentityHashMap<>();
+
+    /**
+     * Конструктор - создание вывода представлений
+     * @param variableKinds объявленные представления переменных
+     * @param integerKind представление целых значений
+     * @param fractionalKind представление дробных значений
+     */
+    private PrecisionInference(Map<String, NumericKind> variableKinds, NumericKind integerKind, NumericKind fractionalKind) {
+        this.variableKinds = variableKinds;
+        this.integerKind = integerKind;
+        this.fractionalKind = fractionalKind;
+    }
+
+    /**
+     * Вывести представления узлов выражения
+     * @param root корень дерева выражения
+     * @param variableKinds объявленные представления переменных, необъявленные переменные дробные
+     * @param fractionalKind представление дробных значений: DOUBLE или DECIMAL
+     * @return представления узлов (ключи сравниваются по ссылке)
+     */
+    public static Map<Node, NumericKind> infer(Node root, Map<String, NumericKind> variableKinds, NumericKind fractionalKind) {
+        return infer(root, variableKinds, NumericKind.LONG, fractionalKind);
+    }
+
+    /**
+     * Вывести представления узлов выражения с заданным представлением целых значений
+     * @param root корень дерева выражения
+     * @param variableKinds объявленные представления переменных
+     * @param integerKind представление целых значений, не уже LONG
+     * @param fractionalKind представление дробных значений: DOUBLE или DECIMAL
+     * @return представления узлов (ключи сравниваются по ссылке)
+     */
+    static Map<Node, NumericKind> infer(Node root, Map<String, NumericKind> variableKinds, NumericKind integerKind,
+                                        NumericKind fractionalKind) {
+        if (fractionalKind == NumericKind.LONG) {
+            throw new IllegalArgumentException("Fractional values cannot be represented as long");
+        }
+        PrecisionInference inference = new PrecisionInference(variableKinds, integerKind, fractionalKind);
+        inference.kindOf(root);
+        return inference.kinds;
+    }
+
+    /**
+     * Вывести представление узла и его потомков
+     * @param node узел
+     * @return представление узла
+     */
+    private NumericKind kindOf(Node node) {
+        NumericKind kind;
+        if (node instanceof NumberNode numberNode) {
+            kind = isExactInteger(numberNode.getValue()) ? integerKind : fractionalKind;
+        }
+        else if (node instanceof VariableNode variableNode) {
+            NumericKind declared = variableKinds.getOrDefault(variableNode.getName(), fractionalKind);
+            kind = declared == NumericKind.LONG ? integerKind : declared;
+        }
+        else if (node instanceof UnaryOperatorNode unaryNode && unaryNode.getOperator() == '-') {
+            kind = kindOf(unaryNode.getOperand());
+        }
+        else if (node instanceof BinaryOperatorNode binaryNode && "+-*/".indexOf(binaryNode.getOperator()) >= 0) {
+            kind = kindOf(binaryNode.getLeft()).widen(kindOf(binaryNode.getRight()));
+            if (binaryNode.getOperator() == '/') {
+                kind = kind.widen(fractionalKind);
+            }
+        }
+        else if (node instanceof FunctionNode functionNode) {
+            kind = functionKind(functionNode);
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported node in mixed precision expression: " + node);
+        }
+        kinds.put(node, kind);
+        return kind;
+    }
+
+    /**
+     * Вывести представление вызова функции
+     * @param functionNode узел функции
+     * @return представление результата функции
+     */
+    private NumericKind functionKind(FunctionNode functionNode) {
+        NumericKind argumentsKind = NumericKind.LONG;
+        for (Node argument : functionNode.getArguments()) {
+            argumentsKind = argumentsKind.widen(kindOf(argument));
+        }
+        if (!isBuiltIn(functionNode)) {
+            return NumericKind.DOUBLE;
+        }
+        return switch (functionNode.getName()) {
+            case "min", "max" -> argumentsKind;
+            case "pow" -> functionNode.getArguments().get(1) instanceof NumberNode exponent && exponent.getValue() >= 0 &&
+                          isExactInteger(exponent.getValue()) ? argumentsKind : argumentsKind.widen(fractionalKind);
+            default -> argumentsKind.widen(fractionalKind);
+        };
+    }
+
+    /**
+     * Является ли функция узла встроенной, а не клиентской с тем же именем
+     * @param functionNode узел функции
+     * @return логический результат проверки
+     */
+    static boolean isBuiltIn(FunctionNode functionNode) {
+        if (functionNode.getArguments().size() == 1) {
+            DoubleUnaryOperator builtIn = MathFunctions.ONE_ARGUMENT_FUNCTIONS.get(functionNode.getName());
+            return builtIn != null && builtIn == functionNode.getOneArgumentFunction();
+        }
+        DoubleBinaryOperator builtIn = MathFunctions.TWO_ARGUMENTS_FUNCTIONS.get(functionNode.getName());
+        return builtIn != null && builtIn == functionNode.getTwoArgumentsFunction();
+    }
+
+    /**
+     * Является ли значение целым, точно представимым в double
+     * @param value значение
+     * @return логический результат проверки
+     */
+    static boolean isExactInteger(double value) {
+        return value == Math.rint(value) && Math.abs(value) <= MAX_EXACT_INTEGER;
+    }
+}
@@ -0,0 +1,941 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntPredicate;
+
+/**
+ * Программа стековой машины, полученная из дерева выражения (обратная польская нотация в виде кодов операций).
+ * Логические значения представлены числами 1 (истина) и 0 (ложь). Логические И и ИЛИ вычисляются сокращённо:
+ * перед правым операндом стоит условный переход, который пропускает его вместе с оператором,
+ * если результат определён левым операндом
+ */
+public final class Program implements Executable {
+
+    /**
+     * Поместить в стек константу, операнд - индекс в пуле констант
+     */
+    public static final int PUSH_CONSTANT = 0;
+
+    /**
+     * Поместить в стек значение переменной, операнд - номер переменной
+     */
+    public static final int LOAD_VARIABLE = 1;
+
+    /**
+     * Унарный минус
+     */
+    public static final int NEGATE = 2;
+
+    /**
+     * Сложение
+     */
+    public static final int ADD = 3;
+
+    /**
+     * Вычитание
+     */
+    public static final int SUBTRACT = 4;
+
+    /**
+     * Умножение
+     */
+    public static final int MULTIPLY = 5;
+
+    /**
+     * Деление
+     */
+    public static final int DIVIDE = 6;
+
+    /**
+     * Логическое И
+     */
+    public static final int AND = 7;
+
+    /**
+     * Логическое ИЛИ
+     */
+    public static final int OR = 8;
+
+    /**
+     * Вызов функции с одним параметром, операнд - индекс функции
+     */
+    public static final int CALL_ONE_ARGUMENT = 9;
+
+    /**
+     * Вызов функции с двумя параметрами, операнд - индекс функции
+     */
+    public static final int CALL_TWO_ARGUMENTS = 10;
+
+    /**
+     * Деление без проверки делителя на ноль, используется когда анализ доказал, что делитель не равен нулю
+     */
+    public static final int DIVIDE_UNCHECKED = 11;
+
+    /**
+     * Сравнение "меньше"
+     */
+    public static final int LESS = 12;
+
+    /**
+     * Сравнение "меньше или равно"
+     */
+    public static final int LESS_OR_EQUAL = 13;
+
+    /**
+     * Сравнение "больше"
+     */
+    public static final int GREATER = 14;
+
+    /**
+     * Сравнение "больше или равно"
+     */
+    public static final int GREATER_OR_EQUAL = 15;
+
+    /**
+     * Сравнение "равно"
+     */
+    public static final int EQUAL = 16;
+
+    /**
+     * Сравнение "не равно"
+     */
+    public static final int NOT_EQUAL = 17;
+
+    /**
+     * Логическое отрицание
+     */
+    public static final int NOT = 18;
+
+    /**
+     * Переход вперёд на заданное операндом количество кодов, если значение на вершине стека ложно (значение остаётся 0)
+     */
+    public static final int JUMP_IF_FALSE = 19;
+
+    /**
+     * Переход вперёд на заданное операндом количество кодов, если значение на вершине стека истинно (значение становится 1)
+     */
+    public static final int JUMP_IF_TRUE = 20;
+
+    /**
+     * Коды операций с операндами
+     */
+    private final int[] code;
+
+    /**
+     * Пул констант
+     */
+    private final double[] constants;
+
+    /**
+     * Имена функций с одним параметром
+     */
+    private final String[] oneArgumentFunctionNames;
+
+    /**
+     * Функции с одним параметром
+     */
+    private final DoubleUnaryOperator[] oneArgumentFunctions;
+
+    /**
+     * Имена функций с двумя параметрами
+     */
+    private final String[] twoArgumentsFunctionNames;
+
+    /**
+     * Функции с двумя параметрами
+     */
+    private final DoubleBinaryOperator[] twoArgumentsFunctions;
+
+    /**
+     * Максимальная глубина стека при выполнении
+     */
+    private final int maxStackDepth;
+
+    /**
+     * Есть ли в программе условные переходы
+     */
+    private final boolean shortCircuit;
+
+    /**
+     * Ограничены ли время вычисления и время вызова функции
+     */
+    private final boolean timed;
+
+    /**
+     * Срок одного вычисления в наносекундах, 0 - без ограничения
+     */
+    private final long deadlineNanos;
+
+    /**
+     * Бюджет времени одного вызова функции в наносекундах, 0 - без ограничения
+     */
+    private final long functionBudgetNanos;
+
+    /**
+     * Конструктор - создание программы из готовых таблиц
+     * @param code коды операций с операндами
+     * @param constants пул констант
+     * @param oneArgumentFunctionNames имена функций с одним параметром
+     * @param oneArgumentFunctions функции с одним параметром
+     * @param twoArgumentsFunctionNames имена функций с двумя параметрами
+     * @param twoArgumentsFunctions функции с двумя параметрами
+     */
+    public Program(int[] code, double[] constants,
+                   String[] oneArgumentFunctionNames, DoubleUnaryOperator[] oneArgumentFunctions,
+                   String[] twoArgumentsFunctionNames, DoubleBinaryOperator[] twoArgumentsFunctions) {
+        this.code = code;
+        this.constants = constants;
+        this.oneArgumentFunctionNames = oneArgumentFunctionNames;
+        this.oneArgumentFunctions = oneArgumentFunctions;
+        this.twoArgumentsFunctionNames = twoArgumentsFunctionNames;
+        this.twoArgumentsFunctions = twoArgumentsFunctions;
+        this.maxStackDepth = computeMaxStackDepth(code);
+        this.shortCircuit = hasJumps(code);
+        this.timed = false;
+        this.deadlineNanos = 0;
+        this.functionBudgetNanos = 0;
+    }
+
+    /**
+     * Конструктор - создание копии программы с ограничениями времени
+     * @param program исходная программа
+     * @param limits ограничения
+     */
+    private Program(Program program, EvaluationLimits limits) {
+        this.code = program.code;
+        this.constants = program.constants;
+        this.oneArgumentFunctionNames = program.oneArgumentFunctionNames;
+        this.oneArgumentFunctions = program.oneArgumentFunctions;
+        this.twoArgumentsFunctionNames = program.twoArgumentsFunctionNames;
+        this.twoArgumentsFunctions = program.twoArgumentsFunctions;
+        this.maxStackDepth = program.maxStackDepth;
+        this.shortCircuit = program.shortCircuit;
+        this.timed = limits.hasTimeLimits();
+        this.deadlineNanos = limits.getDeadlineNanos();
+        this.functionBudgetNanos = limits.getFunctionBudgetNanos();
+    }
+
+    /**
+     * Построить программу из дерева выражения
+     * @param root корень дерева выражения
+     * @param variableSlots номера переменных
+     * @return программа
+     */
+    public static Program compile(Node root, Map<String, Integer> variableSlots) {
+        return compile(root, variableSlots, Set.of());
+    }
+
+    /**
+     * Построить программу из дерева выражения без проверок деления на ноль для заданных узлов
+     * @param root корень дерева выражения
+     * @param variableSlots номера переменных
+     * @param uncheckedDivisions узлы деления, делитель которых заведомо не равен нулю
+     * @return программа
+     */
+    public static Program compile(Node root, Map<String, Integer> variableSlots, Set<Node> uncheckedDivisions) {
+        Emitter emitter = new Emitter(variableSlots, uncheckedDivisions);
+        emitter.emit(root);
+        return emitter.toProgram();
+    }
+
+    /**
+     * Получить копию программы, проверяющую срок вычисления и бюджет времени вызова функции
+     * после каждого вызова функции
+     * @param limits ограничения
+     * @return программа с ограничениями времени
+     */
+    public Program withLimits(EvaluationLimits limits) {
+        return new Program(this, limits);
+    }
+
+    @Override
+    public double execute(double[] variables) {
+        return execute(variables, new double[maxStackDepth]);
+    }
+
+    /**
+     * Выполнить программу со стеком, предоставленным вызывающей стороной, без выделения памяти
+     * @param variables значения переменных по номерам
+     * @param stack стек длиной не меньше {@link #getMaxStackDepth()}
+     * @return результат выполнения
+     */
+    public double execute(double[] variables, double[] stack) {
+        int top = -1;
+        double a;
+        long start = timed ? System.nanoTime() : 0;
+        long callStart;
+
+        for (int i = 0; i < code.length; i++) {
+            switch (code[i]) {
+                case PUSH_CONSTANT -> stack[++top] = constants[code[++i]];
+                case LOAD_VARIABLE -> stack[++top] = variables[code[++i]];
+                case NEGATE -> stack[top] = -stack[top];
+                case NOT -> stack[top] = stack[top] != 0 ? 0 : 1;
+                case JUMP_IF_FALSE -> {
+                    if (stack[top] == 0) {
+                        stack[top] = 0;
+                        i += code[i + 1];
+                    }
+                    i++;
+                }
+                case JUMP_IF_TRUE -> {
+                    if (stack[top] != 0) {
+                        stack[top] = 1;
+                        i += code[i + 1];
+                    }
+                    i++;
+                }
+                case ADD -> {
+                    a = stack[top--];
+                    stack[top] += a;
+                }
+                case SUBTRACT -> {
+                    a = stack[top--];
+                    stack[top] -= a;
+                }
+                case MULTIPLY -> {
+                    a = stack[top--];
+                    stack[top] *= a;
+                }
+                case DIVIDE -> {
+                    a = stack[top--];
+                    if (a == 0) {
+                        throw new ParserException(ErrorType.DIVISION_BY_ZERO_ERROR);
+                    }
+                    stack[top] /= a;
+                }
+                case DIVIDE_UNCHECKED -> {
+                    a = stack[top--];
+                    stack[top] /= a;
+                }
+                case AND -> {
+                    a = stack[top--];
+                    stack[top] = stack[top] != 0 && a != 0 ? 1 : 0;
+                }
+                case OR -> {
+                    a = stack[top--];
+                    stack[top] = stack[top] != 0 || a != 0 ? 1 : 0;
+                }
+                case LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL, EQUAL, NOT_EQUAL -> {
+                    a = stack[top--];
+                    stack[top] = compare(code[i], stack[top], a);
+                }
+                case CALL_ONE_ARGUMENT -> {
+                    callStart = timed ? System.nanoTime() : 0;
+                    stack[top] = oneArgumentFunctions[code[++i]].applyAsDouble(stack[top]);
+                    if (timed) {
+                        checkTime(start, callStart, 1);
+                    }
+                }
+                case CALL_TWO_ARGUMENTS -> {
+                    a = stack[top--];
+                    callStart = timed ? System.nanoTime() : 0;
+                    stack[top] = twoArgumentsFunctions[code[++i]].applyAsDouble(stack[top], a);
+                    if (timed) {
+                        checkTime(start, callStart, 1);
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown opcode " + code[i]);
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Выполнить программу для набора строк за один проход: каждая операция применяется сразу ко всем строкам.
+     * Операнды логических И и ИЛИ вычисляются для всех строк; если при этом возникла ошибка, строки
+     * вычисляются по одной с сокращённым вычислением, чтобы результат совпадал с {@link #execute(double[])}
+     * @param columns значения переменных по столбцам, columns[номер переменной][номер строки]
+     * @param rows количество строк
+     * @param results массив для результатов длиной не меньше rows
+     */
+    public void executeColumns(double[][] columns, int rows, double[] results) {
+        if (!shortCircuit) {
+            executeAllColumns(columns, rows, results);
+            return;
+        }
+        try {
+            executeAllColumns(columns, rows, results);
+        }
+        catch (RuntimeException exception) {
+            if (exception instanceof ParserException parserException &&
+                    parserException.getErrorType() == ErrorType.LIMIT_EXCEEDED_ERROR) {
+                throw exception;
+            }
+            executeRows(columns, rows, results);
+        }
+    }
+
+    /**
+     * Выполнить программу для набора строк по одной
+     * @param columns значения переменных по столбцам
+     * @param rows количество строк
+     * @param results массив для результатов
+     */
+    private void executeRows(double[][] columns, int rows, double[] results) {
+        double[] variables = new double[columns.length];
+        double[] stack = new double[maxStackDepth];
+        for (int row = 0; row < rows; row++) {
+            for (int variable = 0; variable < columns.length; variable++) {
+                variables[variable] = columns[variable][row];
+            }
+            results[row] = execute(variables, stack);
+        }
+    }
+
+    /**
+     * Выполнить программу для всех строк за один проход, вычисляя оба операнда логических операций
+     * @param columns значения переменных по столбцам
+     * @param rows количество строк
+     * @param results массив для результатов
+     */
+    private void executeAllColumns(double[][] columns, int rows, double[] results) {
+        double[][] stack = new double[maxStackDepth][];
+        int top = -1;
+        double[] a, b;
+        long start = timed ? System.nanoTime() : 0;
+        long callStart;
+
+        for (int i = 0; i < code.length; i++) {
+            switch (code[i]) {
+                case PUSH_CONSTANT -> {
+                    b = new double[rows];
+                    Arrays.fill(b, constants[code[++i]]);
+                    stack[++top] = b;
+                }
+                case LOAD_VARIABLE -> stack[++top] = Arrays.copyOf(columns[code[++i]], rows);
+                case NEGATE -> {
+                    b = stack[top];
+                    for (int row = 0; row < rows; row++) {
+                        b[row] = -b[row];
+                    }
+                }
+                case NOT -> {
+                    b = stack[top];
+                    for (int row = 0; row < rows; row++) {
+                        b[row] = b[row] != 0 ? 0 : 1;
+                    }
+                }
+                case JUMP_IF_FALSE, JUMP_IF_TRUE -> i++;
+                case ADD -> {
+                    a = stack[top--];
+                    b = stack[top];
+                    for (int row = 0; row < rows; row++) {
+                        b[row] += a[row];
+                    }
+                }
+                case SUBTRACT -> {
+                    a = stack[top--];
+                    b = stack[top];
+                    for (int row = 0; row < rows; row++) {
+                        b[row] -= a[row];
+                    }
+                }
+                case MULTIPLY -> {
+                    a = stack[top--];
+                    b = stack[top];
+                    for (int row = 0; row < rows; row++) {
+                        b[row] *= a[row];
+                    }
+                }
+                case DIVIDE -> {
+                    a = stack[top--];
+                    b = stack[top];
+                    for (int row = 0; row < rows; row++) {
+                        if (a[row] == 0) {
+                            throw new ParserException(ErrorType.DIVISION_BY_ZERO_ERROR);
+                        }
+                        b[row] /= a[row];
+                    }
+                }
+                case DIVIDE_UNCHECKED -> {
+                    a = stack[top--];
+                    b = stack[top];
+                    for (int row = 0; row < rows; row++) {
+                        b[row] /= a[row];
+                    }
+                }
+                case AND -> {
+                    a = stack[top--];
+                    b = stack[top];
+                    for (int row = 0; row < rows; row++) {
+                        b[row] = b[row] != 0 && a[row] != 0 ? 1 : 0;
+                    }
+                }
+                case OR -> {
+                    a = stack[top--];
+                    b = stack[top];
+                    for (int row = 0; row < rows; row++) {
+                        b[row] = b[row] != 0 || a[row] != 0 ? 1 : 0;
+                    }
+                }
+                case LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL, EQUAL, NOT_EQUAL -> {
+                    int opcode = code[i];
+                    a = stack[top--];
+                    b = stack[top];
+                    for (int row = 0; row < rows; row++) {
+                        b[row] = compare(opcode, b[row], a[row]);
+                    }
+                }
+                case CALL_ONE_ARGUMENT -> {
+                    DoubleUnaryOperator function = oneArgumentFunctions[code[++i]];
+                    b = stack[top];
+                    callStart = timed ? System.nanoTime() : 0;
+                    for (int row = 0; row < rows; row++) {
+                        b[row] = function.applyAsDouble(b[row]);
+                    }
+                    if (timed) {
+                        checkTime(start, callStart, rows);
+                    }
+                }
+                case CALL_TWO_ARGUMENTS -> {
+                    DoubleBinaryOperator function = twoArgumentsFunctions[code[++i]];
+                    a = stack[top--];
+                    b = stack[top];
+                    callStart = timed ? System.nanoTime() : 0;
+                    for (int row = 0; row < rows; row++) {
+                        b[row] = function.applyAsDouble(b[row], a[row]);
+                    }
+                    if (timed) {
+                        checkTime(start, callStart, rows);
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown opcode " + code[i]);
+            }
+        }
+        System.arraycopy(stack[0], 0, results, 0, rows);
+    }
+
+    /**
+     * Восстановить дерево выражения из программы
+     * @param logic является ли выражение логическим (константы восстанавливаются как логические)
+     * @param variables имена переменных по номерам
+     * @return корень дерева выражения
+     */
+    public Node toTree(boolean logic, String[] variables) {
+        return toTree(constant -> logic, variables);
+    }
+
+    /**
+     * Восстановить дерево выражения из программы с константами разных типов
+     * @param booleanConstants является ли константа логической по порядковому номеру её загрузки в коде
+     * @param variables имена переменных по номерам
+     * @return корень дерева выражения
+     */
+    public Node toTree(IntPredicate booleanConstants, String[] variables) {
+        Deque<Node> stack = new ArrayDeque<>();
+        Node right;
+        int constantsLoaded = 0;
+
+        for (int i = 0; i < code.length; i++) {
+            switch (code[i]) {
+                case PUSH_CONSTANT -> {
+                    double value = constants[code[++i]];
+                    stack.push(booleanConstants.test(constantsLoaded++) ? new BooleanNode(value != 0) : new NumberNode(value));
+                }
+                case LOAD_VARIABLE -> stack.push(new VariableNode(variables[code[++i]]));
+                case NEGATE -> stack.push(new UnaryOperatorNode('-', stack.pop()));
+                case NOT -> stack.push(new UnaryOperatorNode('!', stack.pop()));
+                case JUMP_IF_FALSE, JUMP_IF_TRUE -> i++;
+                case ADD, SUBTRACT, MULTIPLY, DIVIDE, DIVIDE_UNCHECKED, AND, OR,
+                     LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL, EQUAL, NOT_EQUAL -> {
+                    right = stack.pop();
+                    stack.push(new BinaryOperatorNode(binaryOperator(code[i]), stack.pop(), right));
+                }
+                case CALL_ONE_ARGUMENT -> {
+                    int function = code[++i];
+                    stack.push(new FunctionNode(oneArgumentFunctionNames[function], stack.pop(), oneArgumentFunctions[function]));
+                }
+                case CALL_TWO_ARGUMENTS -> {
+                    int function = code[++i];
+                    right = stack.pop();
+                    stack.push(new FunctionNode(twoArgumentsFunctionNames[function], stack.pop(), right,
+                                                twoArgumentsFunctions[function]));
+                }
+                default -> throw new IllegalStateException("Unknown opcode " + code[i]);
+            }
+        }
+        return stack.pop();
+    }
+
+    /**
+     * Получить оператор по коду операции
+     * @param opcode код операции
+     * @return оператор
+     */
+    public static char binaryOperator(int opcode) {
+        return switch (opcode) {
+            case ADD -> '+';
+            case SUBTRACT -> '-';
+            case MULTIPLY -> '*';
+            case DIVIDE, DIVIDE_UNCHECKED -> '/';
+            case AND -> '&';
+            case OR -> '|';
+            case LESS -> '<';
+            case LESS_OR_EQUAL -> BinaryOperatorNode.LESS_OR_EQUAL;
+            case GREATER -> '>';
+            case GREATER_OR_EQUAL -> BinaryOperatorNode.GREATER_OR_EQUAL;
+            case EQUAL -> BinaryOperatorNode.EQUAL;
+            case NOT_EQUAL -> BinaryOperatorNode.NOT_EQUAL;
+            default -> throw new IllegalArgumentException("Not a binary opcode " + opcode);
+        };
+    }
+
+    /**
+     * Получить код операции бинарного оператора
+     * @param operator оператор
+     * @return код операции
+     */
+    public static int binaryOpcode(char operator) {
+        return switch (operator) {
+            case '+' -> ADD;
+            case '-' -> SUBTRACT;
+            case '*' -> MULTIPLY;
+            case '/' -> DIVIDE;
+            case '&' -> AND;
+            case '|' -> OR;
+            case '<' -> LESS;
+            case BinaryOperatorNode.LESS_OR_EQUAL -> LESS_OR_EQUAL;
+            case '>' -> GREATER;
+            case BinaryOperatorNode.GREATER_OR_EQUAL -> GREATER_OR_EQUAL;
+            case BinaryOperatorNode.EQUAL -> EQUAL;
+            case BinaryOperatorNode.NOT_EQUAL -> NOT_EQUAL;
+            default -> throw new ParserException(ErrorType.INCORRECT_EXPRESSION_SYNTAX);
+        };
+    }
+
+    /**
+     * Выполнить сравнение
+     * @param opcode код операции сравнения
+     * @param left левый операнд
+     * @param right правый операнд
+     * @return 1, если сравнение истинно, иначе 0
+     */
+    public static double compare(int opcode, double left, double right) {
+        boolean result = switch (opcode) {
+            case LESS -> left < right;
+            case LESS_OR_EQUAL -> left <= right;
+            case GREATER -> left > right;
+            case GREATER_OR_EQUAL -> left >= right;
+            case EQUAL -> left == right;
+            case NOT_EQUAL -> left != right;
+            default -> throw new IllegalArgumentException("Not a comparison opcode " + opcode);
+        };
+        return result ? 1 : 0;
+    }
+
+    /**
+     * Получить коды операций с операндами
+     * @return коды операций
+     */
+    public int[] getCode() {
+        return code;
+    }
+
+    /**
+     * Получить пул констант
+     * @return пул констант
+     */
+    public double[] getConstants() {
+        return constants;
+    }
+
+    /**
+     * Получить имена функций с одним параметром
+     * @return имена функций
+     */
+    public String[] getOneArgumentFunctionNames() {
+        return oneArgumentFunctionNames;
+    }
+
+    /**
+     * Получить имена функций с двумя параметрами
+     * @return имена функций
+     */
+    public String[] getTwoArgumentsFunctionNames() {
+        return twoArgumentsFunctionNames;
+    }
+
+    /**
+     * Получить функции с одним параметром
+     * @return функции в порядке номеров
+     */
+    public DoubleUnaryOperator[] getOneArgumentFunctions() {
+        return oneArgumentFunctions;
+    }
+
+    /**
+     * Получить функции с двумя параметрами
+     * @return функции в порядке номеров
+     */
+    public DoubleBinaryOperator[] getTwoArgumentsFunctions() {
+        return twoArgumentsFunctions;
+    }
+
+    /**
+     * Получить максимальную глубину стека
+     * @return максимальная глубина стека
+     */
+    public int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * Проверяет ли программа срок вычисления и бюджет времени вызова функции
+     * @return логический результат проверки
+     */
+    public boolean hasTimeLimits() {
+        return timed;
+    }
+
+    /**
+     * Проверить срок вычисления и бюджет времени вызова функции
+     * @param start время начала вычисления
+     * @param callStart время начала вызова функции
+     * @param rows количество вычисляемых строк, сроки умножаются на него
+     */
+    private void checkTime(long start, long callStart, int rows) {
+        long now = System.nanoTime();
+        if (functionBudgetNanos > 0 && now - callStart > functionBudgetNanos * rows ||
+                deadlineNanos > 0 && now - start > deadlineNanos * rows) {
+            throw new ParserException(ErrorType.LIMIT_EXCEEDED_ERROR);
+        }
+    }
+
+    /**
+     * Имеет ли код операции операнд
+     * @param opcode код операции
+     * @return логический результат проверки
+     */
+    public static boolean hasOperand(int opcode) {
+        return opcode == PUSH_CONSTANT || opcode == LOAD_VARIABLE || opcode == CALL_ONE_ARGUMENT ||
+                opcode == CALL_TWO_ARGUMENTS || opcode == JUMP_IF_FALSE || opcode == JUMP_IF_TRUE;
+    }
+
+    /**
+     * Есть ли в коде условные переходы
+     * @param code коды операций с операндами
+     * @return логический результат проверки
+     */
+    private static boolean hasJumps(int[] code) {
+        for (int i = 0; i < code.length; i++) {
+            if (code[i] == JUMP_IF_FALSE || code[i] == JUMP_IF_TRUE) {
+                return true;
+            }
+            if (hasOperand(code[i])) {
+                i++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Вычислить максимальную глубину стека
+     * @param code коды операций с операндами
+     * @return максимальная глубина стека
+     */
+    private static int computeMaxStackDepth(int[] code) {
+        int depth = 0;
+        int maxDepth = 0;
+
+        for (int i = 0; i < code.length; i++) {
+            switch (code[i]) {
+                case PUSH_CONSTANT, LOAD_VARIABLE -> depth++;
+                case ADD, SUBTRACT, MULTIPLY, DIVIDE, DIVIDE_UNCHECKED, AND, OR, CALL_TWO_ARGUMENTS,
+                     LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL, EQUAL, NOT_EQUAL -> depth--;
+                default -> { }
+            }
+            if (hasOperand(code[i])) {
+                i++;
+            }
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        return Math.max(maxDepth, 1);
+    }
+
+    /**
+     * Генератор кода программы из дерева выражения
+     */
+    private static class Emitter {
+
+        /**
+         * Номера переменных
+         */
+        private final Map<String, Integer> variableSlots;
+
+        /**
+         * Узлы деления без проверки делителя
+         */
+        private final Set<Node> uncheckedDivisions;
+
+        /**
+         * Коды операций
+         */
+        private int[] code = new int[16];
+
+        /**
+         * Длина кода
+         */
+        private int length;
+
+        /**
+         * Пул констант
+         */
+        private final List<Double> constants = new ArrayList<>();
+
+        /**
+         * Имена функций с одним параметром
+         */
+        private final List<String> oneArgumentFunctionNames = new ArrayList<>();
+
+        /**
+         * Функции с одним параметром
+         */
+        private final List<DoubleUnaryOperator> oneArgumentFunctions = new ArrayList<>();
+
+        /**
+         * Имена функций с двумя параметрами
+         */
+        private final List<String> twoArgumentsFunctionNames = new ArrayList<>();
+
+        /**
+         * Функции с двумя параметрами
+         */
+        private final List<DoubleBinaryOperator> twoArgumentsFunctions = new ArrayList<>();
+
+        /**
+         * Конструктор - создание генератора
+         * @param variableSlots номера переменных
+         * @param uncheckedDivisions узлы деления без проверки делителя
+         */
+        Emitter(Map<String, Integer> variableSlots, Set<Node> uncheckedDivisions) {
+            this.variableSlots = variableSlots;
+            this.uncheckedDivisions = uncheckedDivisions;
+        }
+
+        /**
+         * Сгенерировать код узла
+         * @param node узел
+         */
+        void emit(Node node) {
+            if (node instanceof NumberNode numberNode) {
+                emitConstant(numberNode.getValue());
+            }
+            else if (node instanceof BooleanNode booleanNode) {
+                emitConstant(booleanNode.getValue() ? 1 : 0);
+            }
+            else if (node instanceof VariableNode variableNode) {
+                add(LOAD_VARIABLE);
+                add(variableSlots.get(variableNode.getName()));
+            }
+            else if (node instanceof AggregateNode || node instanceof WindowNode) {
+                add(LOAD_VARIABLE);
+                add(variableSlots.get(node.toString()));
+            }
+            else if (node instanceof UnaryOperatorNode unaryNode) {
+                emit(unaryNode.getOperand());
+                add(unaryNode.getOperator() == '!' ? NOT : NEGATE);
+            }
+            else if (node instanceof BinaryOperatorNode binaryNode &&
+                    (binaryNode.getOperator() == '&' || binaryNode.getOperator() == '|')) {
+                emit(binaryNode.getLeft());
+                add(binaryNode.getOperator() == '&' ? JUMP_IF_FALSE : JUMP_IF_TRUE);
+                int jump = length;
+                add(0);
+                emit(binaryNode.getRight());
+                add(binaryOpcode(binaryNode.getOperator()));
+                code[jump] = length - jump - 1;
+            }
+            else if (node instanceof BinaryOperatorNode binaryNode) {
+                emit(binaryNode.getLeft());
+                emit(binaryNode.getRight());
+                add(uncheckedDivisions.contains(binaryNode) ? DIVIDE_UNCHECKED : binaryOpcode(binaryNode.getOperator()));
+            }
+            else if (node instanceof FunctionNode functionNode) {
+                for (Node argument : functionNode.getArguments()) {
+                    emit(argument);
+                }
+                if (functionNode.getOneArgumentFunction() != null) {
+                    add(CALL_ONE_ARGUMENT);
+                    add(functionIndex(oneArgumentFunctionNames, oneArgumentFunctions,
+                                      functionNode.getName(), functionNode.getOneArgumentFunction()));
+                }
+                else {
+                    add(CALL_TWO_ARGUMENTS);
+                    add(functionIndex(twoArgumentsFunctionNames, twoArgumentsFunctions,
+                                      functionNode.getName(), functionNode.getTwoArgumentsFunction()));
+                }
+            }
+        }
+
+        /**
+         * Сгенерировать помещение константы в стек
+         * @param value значение константы
+         */
+        private void emitConstant(double value) {
+            int index = constants.indexOf(value);
+            if (index < 0) {
+                index = constants.size();
+                constants.add(value);
+            }
+            add(PUSH_CONSTANT);
+            add(index);
+        }
+
+        /**
+         * Получить индекс функции в таблице, добавив её при отсутствии
+         * @param names имена функций
+         * @param functions функции
+         * @param name имя функции
+         * @param function функция
+         * @return индекс функции
+         */
+        private static <F> int functionIndex(List<String> names, List<F> functions, String name, F function) {
+            int index = names.indexOf(name);
+            if (index < 0) {
+                index = names.size();
+                names.add(name);
+                functions.add(function);
+            }
+            return index;
+        }
+
+        /**
+         * Добавить значение в код
+         * @param value значение
+         */
+        private void add(int value) {
+            if (length == code.length) {
+                code = Arrays.copyOf(code, length * 2);
+            }
+            code[length++] = value;
+        }
+
+        /**
+         * Получить построенную программу
+         * @return программа
+         */
+        Program toProgram() {
+            double[] constantsPool = new double[constants.size()];
+            for (int i = 0; i < constantsPool.length; i++) {
+                constantsPool[i] = constants.get(i);
+            }
+            return new Program(Arrays.copyOf(code, length), constantsPool,
+                               oneArgumentFunctionNames.toArray(new String[0]),
+                               oneArgumentFunctions.toArray(new DoubleUnaryOperator[0]),
+                               twoArgumentsFunctionNames.toArray(new String[0]),
+                               twoArgumentsFunctions.toArray(new DoubleBinaryOperator[0]));
+        }
+    }
+}
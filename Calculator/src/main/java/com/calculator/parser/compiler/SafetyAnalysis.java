@@ -0,0 +1,129 @@
+package com.calculator.parser.compiler;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Результат анализа безопасности выражения по объявленным диапазонам переменных:
+ * какие проверки времени выполнения доказаны ненужными и могут быть удалены
+ */
+public final class SafetyAnalysis {
+
+    /**
+     * Диапазоны переменных, для которых выполнен анализ
+     */
+    private final Map<String, Interval> variableBounds;
+
+    /**
+     * Диапазон результата
+     */
+    private final Interval resultRange;
+
+    /**
+     * Узлы деления, делитель которых не может быть равен нулю
+     */
+    private final Set<Node> safeDivisions;
+
+    /**
+     * Количество узлов деления, для которых проверка сохраняется
+     */
+    private final int checkedDivisions;
+
+    /**
+     * Переменные без объявленного диапазона
+     */
+    private final List<String> undeclaredVariables;
+
+    /**
+     * Описания удалённых проверок
+     */
+    private final List<String> removedChecks;
+
+    /**
+     * Конструктор - создание результата анализа
+     * @param variableBounds диапазоны переменных
+     * @param resultRange диапазон результата
+     * @param safeDivisions узлы безопасного деления
+     * @param checkedDivisions количество узлов деления с сохраняемой проверкой
+     * @param undeclaredVariables переменные без объявленного диапазона
+     * @param removedChecks описания удалённых проверок
+     */
+    SafetyAnalysis(Map<String, Interval> variableBounds, Interval resultRange, Set<Node> safeDivisions,
+                   int checkedDivisions, List<String> undeclaredVariables, List<String> removedChecks) {
+        this.variableBounds = Map.copyOf(variableBounds);
+        this.resultRange = resultRange;
+        Set<Node> divisions = Collections.newSetFromMap(new IdentityHashMap<>());
+        divisions.addAll(safeDivisions);
+        this.safeDivisions = Collections.unmodifiableSet(divisions);
+        this.checkedDivisions = checkedDivisions;
+        this.undeclaredVariables = List.copyOf(undeclaredVariables);
+        this.removedChecks = List.copyOf(removedChecks);
+    }
+
+    /**
+     * Получить диапазоны переменных, для которых выполнен анализ
+     * @return диапазоны переменных по именам
+     */
+    public Map<String, Interval> getVariableBounds() {
+        return variableBounds;
+    }
+
+    /**
+     * Получить диапазон результата
+     * @return диапазон результата
+     */
+    public Interval getResultRange() {
+        return resultRange;
+    }
+
+    /**
+     * Получить узлы деления, делитель которых не может быть равен нулю
+     * @return узлы деления
+     */
+    public Set<Node> getSafeDivisions() {
+        return safeDivisions;
+    }
+
+    /**
+     * Получить количество делений, для которых проверка на ноль сохраняется
+     * @return количество делений
+     */
+    public int getCheckedDivisions() {
+        return checkedDivisions;
+    }
+
+    /**
+     * Доказано ли, что округлённый результат помещается в int
+     * @return логический результат проверки
+     */
+    public boolean isIntRangeSafe() {
+        return resultRange.getMin() >= Integer.MIN_VALUE && resultRange.getMax() <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Все ли переменные имеют объявленный диапазон (функции разрешаются при компиляции всегда)
+     * @return логический результат проверки
+     */
+    public boolean isAllIdentifiersResolved() {
+        return undeclaredVariables.isEmpty();
+    }
+
+    /**
+     * Получить переменные без объявленного диапазона
+     * @return имена переменных
+     */
+    public List<String> getUndeclaredVariables() {
+        return undeclaredVariables;
+    }
+
+    /**
+     * Получить описания удалённых проверок
+     * @return описания проверок
+     */
+    public List<String> getRemovedChecks() {
+        return removedChecks;
+    }
+}
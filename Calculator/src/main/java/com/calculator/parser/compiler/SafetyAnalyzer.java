@@ -0,0 +1,142 @@
+package com.calculator.parser.compiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Анализ диапазонов значений (интервальная арифметика) по объявленным границам переменных.
+ * Доказывает, что делитель не может быть равен нулю и что результат помещается в int
+ */
+public final class SafetyAnalyzer {
+
+    /**
+     * Диапазоны переменных
+     */
+    private final Map<String, Interval> variableBounds;
+
+    /**
+     * Узлы безопасного деления
+     */
+    private final Set<Node> safeDivisions = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Количество делений с сохраняемой проверкой
+     */
+    private int checkedDivisions;
+
+    /**
+     * Переменные без объявленного диапазона
+     */
+    private final List<String> undeclaredVariables = new ArrayList<>();
+
+    /**
+     * Описания удалённых проверок
+     */
+    private final List<String> removedChecks = new ArrayList<>();
+
+    /**
+     * Конструктор - создание анализатора
+     * @param variableBounds диапазоны переменных
+     */
+    private SafetyAnalyzer(Map<String, Interval> variableBounds) {
+        this.variableBounds = variableBounds;
+    }
+
+    /**
+     * Выполнить анализ выражения
+     * @param root корень дерева выражения
+     * @param variableBounds объявленные диапазоны переменных
+     * @return результат анализа
+     */
+    public static SafetyAnalysis analyze(Node root, Map<String, Interval> variableBounds) {
+        SafetyAnalyzer analyzer = new SafetyAnalyzer(variableBounds);
+        Interval resultRange = analyzer.range(root);
+        if (resultRange.getMin() >= Integer.MIN_VALUE && resultRange.getMax() <= Integer.MAX_VALUE) {
+            analyzer.removedChecks.add("Проверка переполнения int результата " + resultRange);
+        }
+        return new SafetyAnalysis(variableBounds, resultRange, analyzer.safeDivisions, analyzer.checkedDivisions,
+                                  analyzer.undeclaredVariables, analyzer.removedChecks);
+    }
+
+    /**
+     * Вычислить диапазон значений узла
+     * @param node узел
+     * @return диапазон значений
+     */
+    private Interval range(Node node) {
+        if (node instanceof NumberNode numberNode) {
+            return Interval.point(numberNode.getValue());
+        }
+        if (node instanceof BooleanNode) {
+            return Interval.of(0, 1);
+        }
+        if (node instanceof VariableNode variableNode) {
+            Interval bounds = variableBounds.get(variableNode.getName());
+            if (bounds == null) {
+                if (!undeclaredVariables.contains(variableNode.getName())) {
+                    undeclaredVariables.add(variableNode.getName());
+                }
+                return Interval.UNBOUNDED;
+            }
+            return bounds;
+        }
+        if (node instanceof UnaryOperatorNode unaryNode) {
+            return range(unaryNode.getOperand()).negate();
+        }
+        if (node instanceof BinaryOperatorNode binaryNode) {
+            Interval left = range(binaryNode.getLeft());
+            Interval right = range(binaryNode.getRight());
+            return switch (binaryNode.getOperator()) {
+                case '+' -> left.add(right);
+                case '-' -> left.subtract(right);
+                case '*' -> left.multiply(right);
+                case '/' -> {
+                    if (right.contains(0)) {
+                        checkedDivisions++;
+                    }
+                    else {
+                        safeDivisions.add(binaryNode);
+                        removedChecks.add("Проверка деления на ноль в " + binaryNode + ", делитель " + right);
+                    }
+                    yield left.divide(right);
+                }
+                default -> Interval.of(0, 1);
+            };
+        }
+        if (node instanceof FunctionNode functionNode) {
+            List<Node> arguments = functionNode.getArguments();
+            Interval first = range(arguments.get(0));
+            Interval second = arguments.size() > 1 ? range(arguments.get(1)) : null;
+            if (second == null && functionNode.getOneArgumentFunction() == MathFunctions.ONE_ARGUMENT_FUNCTIONS.get(functionNode.getName())) {
+                switch (functionNode.getName()) {
+                    case "sin", "cos" -> {
+                        return Interval.of(-1, 1);
+                    }
+                    default -> {
+                        return Interval.UNBOUNDED;
+                    }
+                }
+            }
+            if (second != null &&
+                    functionNode.getTwoArgumentsFunction() == MathFunctions.TWO_ARGUMENTS_FUNCTIONS.get(functionNode.getName())) {
+                switch (functionNode.getName()) {
+                    case "min" -> {
+                        return first.min(second);
+                    }
+                    case "max" -> {
+                        return first.max(second);
+                    }
+                    default -> {
+                        return Interval.UNBOUNDED;
+                    }
+                }
+            }
+            return Interval.UNBOUNDED;
+        }
+        return Interval.UNBOUNDED;
+    }
+}
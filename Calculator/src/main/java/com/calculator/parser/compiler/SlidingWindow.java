@@ -0,0 +1,298 @@
+package com.calculator.parser.compiler;
+
+import java.util.Set;
+
+/**
+ * Скользящее окно значений потока с обновлением за постоянное время.
+ * Значения хранятся в кольцевом буфере; сумма поддерживается с компенсацией ошибки округления,
+ * среднее и дисперсия - по Уэлфорду с добавлением и удалением значений, минимум и максимум -
+ * монотонными очередями, в которых каждое значение добавляется и удаляется не более одного раза.
+ * Окно ограничено количеством последних значений либо длительностью по меткам времени. Объект не потокобезопасен
+ */
+public class SlidingWindow {
+
+    /**
+     * Функции скользящего окна
+     */
+    public static final Set<String> FUNCTIONS = Set.of("sum", "avg", "stddev", "wmin", "wmax");
+
+    /**
+     * Размер окна: количество значений либо длительность
+     */
+    private final long size;
+
+    /**
+     * Ограничено ли окно длительностью
+     */
+    private final boolean timeBased;
+
+    /**
+     * Значения окна с метками времени
+     */
+    private final Ring values = new Ring();
+
+    /**
+     * Монотонная очередь кандидатов в минимум с порядковыми номерами значений
+     */
+    private final Ring minimums = new Ring();
+
+    /**
+     * Монотонная очередь кандидатов в максимум с порядковыми номерами значений
+     */
+    private final Ring maximums = new Ring();
+
+    /**
+     * Порядковый номер следующего значения
+     */
+    private long sequence;
+
+    /**
+     * Сумма значений
+     */
+    private double sum;
+
+    /**
+     * Компенсация ошибки округления суммы
+     */
+    private double compensation;
+
+    /**
+     * Среднее значение
+     */
+    private double mean;
+
+    /**
+     * Сумма квадратов отклонений от среднего
+     */
+    private double squaredDeviations;
+
+    /**
+     * Конструктор - создание окна
+     * @param size количество значений либо длительность в единицах меток времени
+     * @param timeBased ограничено ли окно длительностью
+     */
+    public SlidingWindow(long size, boolean timeBased) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        this.size = size;
+        this.timeBased = timeBased;
+    }
+
+    /**
+     * Добавить значение и удалить значения, вышедшие из окна
+     * @param timestamp метка времени значения, не меньше предыдущей
+     * @param value значение
+     */
+    public void add(long timestamp, double value) {
+        if (!timeBased && values.count == size) {
+            removeOldest();
+        }
+        values.pushBack(value, timestamp);
+        addToSum(value);
+        double deviation = value - mean;
+        mean += deviation / values.count;
+        squaredDeviations += deviation * (value - mean);
+        while (minimums.count > 0 && minimums.peekBackValue() >= value) {
+            minimums.popBack();
+        }
+        minimums.pushBack(value, sequence);
+        while (maximums.count > 0 && maximums.peekBackValue() <= value) {
+            maximums.popBack();
+        }
+        maximums.pushBack(value, sequence);
+        sequence++;
+        if (timeBased) {
+            while (values.peekFrontKey() <= timestamp - size) {
+                removeOldest();
+            }
+        }
+    }
+
+    /**
+     * Получить значение функции окна
+     * @param function имя функции: sum, avg, stddev, wmin или wmax
+     * @return значение функции, NaN для пустого окна
+     */
+    public double get(String function) {
+        if (values.count == 0) {
+            return function.equals("sum") ? 0 : Double.NaN;
+        }
+        return switch (function) {
+            case "sum" -> sum + compensation;
+            case "avg" -> (sum + compensation) / values.count;
+            case "stddev" -> values.count < 2 ? 0 : Math.sqrt(Math.max(squaredDeviations, 0) / (values.count - 1));
+            case "wmin" -> minimums.peekFrontValue();
+            case "wmax" -> maximums.peekFrontValue();
+            default -> throw new IllegalArgumentException("Unknown window function " + function);
+        };
+    }
+
+    /**
+     * Получить количество значений в окне
+     * @return количество значений
+     */
+    public int getCount() {
+        return values.count;
+    }
+
+    /**
+     * Очистить окно
+     */
+    public void clear() {
+        values.clear();
+        minimums.clear();
+        maximums.clear();
+        sum = 0;
+        compensation = 0;
+        mean = 0;
+        squaredDeviations = 0;
+    }
+
+    /**
+     * Удалить самое старое значение окна
+     */
+    private void removeOldest() {
+        long oldestSequence = sequence - values.count;
+        double value = values.popFront();
+        addToSum(-value);
+        if (values.count == 0) {
+            mean = 0;
+            squaredDeviations = 0;
+            sum = 0;
+            compensation = 0;
+        }
+        else {
+            double deviation = value - mean;
+            mean -= deviation / values.count;
+            squaredDeviations -= deviation * (value - mean);
+        }
+        if (minimums.count > 0 && minimums.peekFrontKey() == oldestSequence) {
+            minimums.popFront();
+        }
+        if (maximums.count > 0 && maximums.peekFrontKey() == oldestSequence) {
+            maximums.popFront();
+        }
+    }
+
+    /**
+     * Добавить слагаемое к сумме с компенсацией ошибки округления (алгоритм Ноймайера)
+     * @param value слагаемое
+     */
+    private void addToSum(double value) {
+        double total = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - total) + value;
+        }
+        else {
+            compensation += (value - total) + sum;
+        }
+        sum = total;
+    }
+
+    /**
+     * Расширяемый кольцевой буфер пар значение-ключ
+     */
+    private static class Ring {
+
+        /**
+         * Значения
+         */
+        private double[] values = new double[16];
+
+        /**
+         * Ключи: метки времени или порядковые номера
+         */
+        private long[] keys = new long[16];
+
+        /**
+         * Позиция первого элемента
+         */
+        private int head;
+
+        /**
+         * Количество элементов
+         */
+        private int count;
+
+        /**
+         * Добавить элемент в конец
+         * @param value значение
+         * @param key ключ
+         */
+        private void pushBack(double value, long key) {
+            if (count == values.length) {
+                grow();
+            }
+            int position = (head + count) & (values.length - 1);
+            values[position] = value;
+            keys[position] = key;
+            count++;
+        }
+
+        /**
+         * Удалить первый элемент
+         * @return значение первого элемента
+         */
+        private double popFront() {
+            double value = values[head];
+            head = (head + 1) & (values.length - 1);
+            count--;
+            return value;
+        }
+
+        /**
+         * Удалить последний элемент
+         */
+        private void popBack() {
+            count--;
+        }
+
+        /**
+         * Получить значение первого элемента
+         * @return значение
+         */
+        private double peekFrontValue() {
+            return values[head];
+        }
+
+        /**
+         * Получить ключ первого элемента
+         * @return ключ
+         */
+        private long peekFrontKey() {
+            return keys[head];
+        }
+
+        /**
+         * Получить значение последнего элемента
+         * @return значение
+         */
+        private double peekBackValue() {
+            return values[(head + count - 1) & (values.length - 1)];
+        }
+
+        /**
+         * Очистить буфер
+         */
+        private void clear() {
+            head = 0;
+            count = 0;
+        }
+
+        /**
+         * Удвоить ёмкость буфера
+         */
+        private void grow() {
+            double[] grownValues = new double[values.length * 2];
+            long[] grownKeys = new long[keys.length * 2];
+            for (int i = 0; i < count; i++) {
+                grownValues[i] = values[(head + i) & (values.length - 1)];
+                grownKeys[i] = keys[(head + i) & (keys.length - 1)];
+            }
+            values = grownValues;
+            keys = grownKeys;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Математическое выражение, привязанное к потоку значений переменных, например avg(price,100) - x1.
+ * Каждое обновление добавляет значения в скользящие окна за постоянное время и вычисляет выражение
+ * без выделения памяти. Окна с одинаковыми переменной и размером общие для всех функций выражения.
+ * Размер окна задаёт количество последних значений либо, если указана единица времени, длительность
+ * по меткам времени в миллисекундах. Объект не потокобезопасен
+ */
+public class StreamingExpression {
+
+    /**
+     * Скомпилированное выражение
+     */
+    private final CompiledMathExpression expression;
+
+    /**
+     * Имена переменных потока в порядке значений при позиционном обновлении
+     */
+    private final List<String> streamVariables;
+
+    /**
+     * Скользящие окна
+     */
+    private final SlidingWindow[] windows;
+
+    /**
+     * Номер переменной потока для каждого окна
+     */
+    private final int[] windowSources;
+
+    /**
+     * Номер окна для каждого узла окна выражения
+     */
+    private final int[] nodeWindows;
+
+    /**
+     * Имя функции для каждого узла окна выражения
+     */
+    private final String[] nodeFunctions;
+
+    /**
+     * Номер внутреннего значения переменной для каждого узла окна выражения
+     */
+    private final int[] nodeSlots;
+
+    /**
+     * Номер переменной потока для каждой переменной выражения
+     */
+    private final int[] variableSources;
+
+    /**
+     * Внутренние значения переменных программы
+     */
+    private final double[] variables;
+
+    /**
+     * Стек стековой машины
+     */
+    private final double[] stack;
+
+    /**
+     * Значения переменных потока при обновлении по именам
+     */
+    private final double[] tickValues;
+
+    /**
+     * Ограничены ли окна длительностью
+     */
+    private final boolean timeBased;
+
+    /**
+     * Метка времени последнего обновления
+     */
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    /**
+     * Конструктор - создание выражения с окнами по количеству последних значений
+     * @param expression скомпилированное выражение
+     */
+    public StreamingExpression(CompiledMathExpression expression) {
+        this(expression, null);
+    }
+
+    /**
+     * Конструктор - создание выражения с окнами по длительности
+     * @param expression скомпилированное выражение
+     * @param windowUnit единица времени размеров окон или null для окон по количеству значений
+     */
+    public StreamingExpression(CompiledMathExpression expression, TimeUnit windowUnit) {
+        if (!expression.getArrayVariables().isEmpty()) {
+            throw new IllegalArgumentException("Array aggregates are not supported in streaming expressions");
+        }
+        this.expression = expression;
+        this.timeBased = windowUnit != null;
+
+        Map<String, Integer> sources = new LinkedHashMap<>();
+        expression.getVariables().forEach(variable -> sources.putIfAbsent(variable, sources.size()));
+        List<WindowNode> windowNodes = expression.getWindows();
+        Map<String, Integer> windowIndexes = new LinkedHashMap<>();
+        List<SlidingWindow> windowList = new ArrayList<>();
+        List<Integer> windowSourceList = new ArrayList<>();
+        this.nodeWindows = new int[windowNodes.size()];
+        this.nodeFunctions = new String[windowNodes.size()];
+        this.nodeSlots = new int[windowNodes.size()];
+        for (int i = 0; i < windowNodes.size(); i++) {
+            WindowNode node = windowNodes.get(i);
+            sources.putIfAbsent(node.getVariable(), sources.size());
+            Integer index = windowIndexes.get(node.getVariable() + "," + node.getSize());
+            if (index == null) {
+                index = windowList.size();
+                windowIndexes.put(node.getVariable() + "," + node.getSize(), index);
+                windowList.add(new SlidingWindow(timeBased ? windowUnit.toMillis(node.getSize()) : node.getSize(), timeBased));
+                windowSourceList.add(sources.get(node.getVariable()));
+            }
+            nodeWindows[i] = index;
+            nodeFunctions[i] = node.getName();
+            nodeSlots[i] = expression.getDerivedValueSlot(node);
+        }
+        this.windows = windowList.toArray(new SlidingWindow[0]);
+        this.windowSources = windowSourceList.stream().mapToInt(Integer::intValue).toArray();
+        this.streamVariables = List.copyOf(sources.keySet());
+
+        Map<String, Integer> variableSlots = expression.getVariableSlots();
+        this.variableSources = new int[variableSlots.size()];
+        variableSlots.forEach((variable, slot) -> variableSources[slot] = sources.get(variable));
+        this.variables = new double[expression.getProgramVariablesCount()];
+        this.stack = new double[Math.max(expression.getProgram().getMaxStackDepth(), 1)];
+        this.tickValues = new double[streamVariables.size()];
+    }
+
+    /**
+     * Добавить значения переменных потока и вычислить выражение.
+     * Для окон по длительности метка времени - текущее время
+     * @param tick значения переменных потока по именам
+     * @return результат выражения
+     */
+    public double update(Map<String, Double> tick) {
+        return update(timeBased ? System.currentTimeMillis() : lastTimestamp, tick);
+    }
+
+    /**
+     * Добавить значения переменных потока с меткой времени и вычислить выражение
+     * @param timestampMillis метка времени в миллисекундах, не меньше предыдущей
+     * @param tick значения переменных потока по именам
+     * @return результат выражения
+     */
+    public double update(long timestampMillis, Map<String, Double> tick) {
+        for (int i = 0; i < tickValues.length; i++) {
+            Double value = tick.get(streamVariables.get(i));
+            if (value == null) {
+                throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+            }
+            tickValues[i] = value;
+        }
+        return update(timestampMillis, tickValues);
+    }
+
+    /**
+     * Добавить значения переменных потока с меткой времени и вычислить выражение без выделения памяти
+     * @param timestampMillis метка времени в миллисекундах, не меньше предыдущей
+     * @param values значения переменных потока в порядке {@link #getStreamVariables()}
+     * @return результат выражения
+     */
+    public double update(long timestampMillis, double... values) {
+        if (values.length != streamVariables.size()) {
+            throw new ParserException(ErrorType.INCORRECT_VARIABLES_QUANTITY_ERROR);
+        }
+        if (timestampMillis < lastTimestamp) {
+            throw new IllegalArgumentException("Timestamps must not decrease");
+        }
+        lastTimestamp = timestampMillis;
+        for (int i = 0; i < windows.length; i++) {
+            windows[i].add(timestampMillis, values[windowSources[i]]);
+        }
+        for (int i = 0; i < variableSources.length; i++) {
+            variables[i] = values[variableSources[i]];
+        }
+        for (int i = 0; i < nodeSlots.length; i++) {
+            variables[nodeSlots[i]] = windows[nodeWindows[i]].get(nodeFunctions[i]);
+        }
+        return expression.getProgram().execute(variables, stack);
+    }
+
+    /**
+     * Очистить окна
+     */
+    public void reset() {
+        for (SlidingWindow window : windows) {
+            window.clear();
+        }
+        lastTimestamp = Long.MIN_VALUE;
+    }
+
+    /**
+     * Получить имена переменных потока: переменные выражения и переменные окон в порядке первого появления
+     * @return имена переменных потока
+     */
+    public List<String> getStreamVariables() {
+        return streamVariables;
+    }
+
+    /**
+     * Получить скомпилированное выражение
+     * @return выражение
+     */
+    public CompiledMathExpression getExpression() {
+        return expression;
+    }
+}
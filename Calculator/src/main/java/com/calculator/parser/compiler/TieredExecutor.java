@@ -0,0 +1,245 @@
+package com.calculator.parser.compiler;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Многоуровневый исполнитель скомпилированных выражений.
+ * Выражение начинает выполняться интерпретатором программы стековой машины; после заданного количества вызовов
+ * в фоновом потоке для него строится дерево замыканий, которое атомарно подменяет интерпретатор.
+ * Редко вызываемые выражения не тратят время на оптимизацию. Выражения с ограничениями времени
+ * ({@link EvaluationLimits}) не оптимизируются и всегда выполняются интерпретатором, который проверяет сроки.
+ * Уровень исполнения и количество вызовов хранятся в самом выражении, поэтому исполнитель не удерживает выражения
+ * и общие для всех исполнителей; счётчики вычислений и оптимизаций ведутся каждым исполнителем отдельно.
+ * Безопасен для использования из нескольких потоков
+ */
+public class TieredExecutor {
+
+    /**
+     * Количество вызовов, после которого выражение оптимизируется, по умолчанию
+     */
+    public static final long DEFAULT_PROMOTION_THRESHOLD = 1000;
+
+    /**
+     * Количество вызовов, после которого выражение оптимизируется
+     */
+    private final long promotionThreshold;
+
+    /**
+     * Исполнитель фоновой оптимизации
+     */
+    private final Executor promotionExecutor;
+
+    /**
+     * Количество вычислений интерпретатором
+     */
+    private final LongAdder interpretedEvaluations = new LongAdder();
+
+    /**
+     * Количество вычислений оптимизированным представлением
+     */
+    private final LongAdder optimizedEvaluations = new LongAdder();
+
+    /**
+     * Количество выполненных оптимизаций
+     */
+    private final AtomicLong promotions = new AtomicLong();
+
+    /**
+     * Суммарное время оптимизаций в наносекундах
+     */
+    private final AtomicLong promotionNanos = new AtomicLong();
+
+    /**
+     * Конструктор - создание исполнителя с порогом по умолчанию и общим пулом для фоновой оптимизации
+     */
+    public TieredExecutor() {
+        this(DEFAULT_PROMOTION_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Конструктор - создание исполнителя
+     * @param promotionThreshold количество вызовов, после которого выражение оптимизируется (0 - сразу)
+     * @param promotionExecutor исполнитель фоновой оптимизации
+     */
+    public TieredExecutor(long promotionThreshold, Executor promotionExecutor) {
+        if (promotionThreshold < 0) {
+            throw new IllegalArgumentException("promotionThreshold must not be negative");
+        }
+        this.promotionThreshold = promotionThreshold;
+        this.promotionExecutor = promotionExecutor;
+    }
+
+    /**
+     * Вычислить выражение
+     * @param expression скомпилированное выражение
+     * @param variablesValue значения переменных по именам
+     * @param <T> тип результата и значений переменных
+     * @return результат выражения
+     */
+    public <T> T evaluate(CompiledExpression<T> expression, Map<String, T> variablesValue) {
+        return expression.fromInternalValue(execute(expression, expression.toInternalVariables(variablesValue)));
+    }
+
+    /**
+     * Вычислить математическое выражение
+     * @param expression скомпилированное выражение
+     * @param variablesValue значения переменных в порядке первого появления в выражении
+     * @return результат выражения
+     */
+    public double evaluate(CompiledMathExpression expression, double... variablesValue) {
+        expression.checkVariablesQuantity(variablesValue.length);
+        return execute(expression, variablesValue);
+    }
+
+    /**
+     * Вычислить логическое выражение
+     * @param expression скомпилированное выражение
+     * @param variablesValue значения переменных в порядке первого появления в выражении
+     * @return результат выражения
+     */
+    public boolean evaluate(CompiledLogicExpression expression, boolean... variablesValue) {
+        expression.checkVariablesQuantity(variablesValue.length);
+        double[] variables = new double[variablesValue.length];
+        for (int i = 0; i < variablesValue.length; i++) {
+            variables[i] = variablesValue[i] ? 1 : 0;
+        }
+        return execute(expression, variables) != 0;
+    }
+
+    /**
+     * Получить текущий уровень исполнения выражения
+     * @param expression скомпилированное выражение
+     * @return уровень исполнения
+     */
+    public ExecutionTier getTier(CompiledExpression<?> expression) {
+        TierState state = expression.peekTierState();
+        return state == null ? ExecutionTier.INTERPRETER : state.tier;
+    }
+
+    /**
+     * Получить план вычисления выражения с текущим уровнем исполнения
+     * @param expression скомпилированное выражение
+     * @return план вычисления
+     */
+    public ExplainPlan explain(CompiledExpression<?> expression) {
+        return new ExplainPlan(expression, getTier(expression));
+    }
+
+    /**
+     * Получить количество вызовов выражения через исполнители
+     * @param expression скомпилированное выражение
+     * @return количество вызовов
+     */
+    public long getInvocationsCount(CompiledExpression<?> expression) {
+        TierState state = expression.peekTierState();
+        return state == null ? 0 : state.invocations.get();
+    }
+
+    /**
+     * Получить количество вычислений интерпретатором
+     * @return количество вычислений
+     */
+    public long getInterpretedEvaluationsCount() {
+        return interpretedEvaluations.sum();
+    }
+
+    /**
+     * Получить количество вычислений оптимизированным представлением
+     * @return количество вычислений
+     */
+    public long getOptimizedEvaluationsCount() {
+        return optimizedEvaluations.sum();
+    }
+
+    /**
+     * Получить количество выполненных оптимизаций (переходов на следующий уровень)
+     * @return количество оптимизаций
+     */
+    public long getPromotionsCount() {
+        return promotions.get();
+    }
+
+    /**
+     * Получить суммарное время оптимизаций
+     * @return время в наносекундах
+     */
+    public long getPromotionNanos() {
+        return promotionNanos.get();
+    }
+
+    /**
+     * Выполнить выражение на текущем уровне и при необходимости запланировать оптимизацию
+     * @param expression скомпилированное выражение
+     * @param variables внутренние значения переменных по номерам
+     * @return результат во внутреннем представлении
+     */
+    private double execute(CompiledExpression<?> expression, double[] variables) {
+        TierState state = expression.getTierState();
+        Executable executable = state.executable;
+        if (state.tier == ExecutionTier.INTERPRETER) {
+            interpretedEvaluations.increment();
+            if (state.invocations.incrementAndGet() >= promotionThreshold && !expression.getProgram().hasTimeLimits() &&
+                    state.promotionScheduled.compareAndSet(false, true)) {
+                promotionExecutor.execute(() -> promote(expression, state));
+            }
+        }
+        else {
+            optimizedEvaluations.increment();
+            state.invocations.incrementAndGet();
+        }
+        return executable.execute(variables);
+    }
+
+    /**
+     * Оптимизировать выражение и подменить его исполняемое представление
+     * @param expression скомпилированное выражение
+     * @param state состояние выражения
+     */
+    private void promote(CompiledExpression<?> expression, TierState state) {
+        long start = System.nanoTime();
+        Executable optimized = ClosureCompiler.compile(expression.getProgram());
+        promotionNanos.addAndGet(System.nanoTime() - start);
+        state.executable = optimized;
+        state.tier = ExecutionTier.OPTIMIZED;
+        promotions.incrementAndGet();
+    }
+
+    /**
+     * Состояние многоуровневого исполнения выражения
+     */
+    static final class TierState {
+
+        /**
+         * Текущее исполняемое представление
+         */
+        private volatile Executable executable;
+
+        /**
+         * Текущий уровень исполнения
+         */
+        private volatile ExecutionTier tier = ExecutionTier.INTERPRETER;
+
+        /**
+         * Количество вызовов
+         */
+        private final AtomicLong invocations = new AtomicLong();
+
+        /**
+         * Запланирована ли оптимизация
+         */
+        private final AtomicBoolean promotionScheduled = new AtomicBoolean();
+
+        /**
+         * Конструктор - создание состояния выражения
+         * @param program программа стековой машины
+         */
+        TierState(Program program) {
+            this.executable = program;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.calculator.parser.compiler;
+
+import java.util.List;
+
+/**
+ * Узел унарного оператора
+ */
+public class UnaryOperatorNode extends Node {
+
+    /**
+     * Оператор
+     */
+    private final char operator;
+
+    /**
+     * Операнд
+     */
+    private final Node operand;
+
+    /**
+     * Конструктор - создание нового узла унарного оператора
+     * @param operator оператор
+     * @param operand операнд
+     */
+    public UnaryOperatorNode(char operator, Node operand) {
+        this.operator = operator;
+        this.operand = operand;
+    }
+
+    /**
+     * Получить оператор
+     * @return оператор
+     */
+    public char getOperator() {
+        return operator;
+    }
+
+    /**
+     * Получить операнд
+     * @return операнд
+     */
+    public Node getOperand() {
+        return operand;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return List.of(operand);
+    }
+
+    @Override
+    public String toString() {
+        return operator + "(" + operand + ")";
+    }
+}
@@ -0,0 +1,40 @@
+package com.calculator.parser.compiler;
+
+import java.util.List;
+
+/**
+ * Узел переменной
+ */
+public class VariableNode extends Node {
+
+    /**
+     * Имя переменной
+     */
+    private final String name;
+
+    /**
+     * Конструктор - создание нового узла переменной
+     * @param name имя переменной
+     */
+    public VariableNode(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Получить имя переменной
+     * @return имя переменной
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return List.of();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
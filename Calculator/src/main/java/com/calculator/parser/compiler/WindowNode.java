@@ -0,0 +1,72 @@
+package com.calculator.parser.compiler;
+
+import java.util.List;
+
+/**
+ * Узел функции скользящего окна над значениями переменной потока: sum, avg, stddev, wmin или wmax.
+ * Размер окна - количество последних значений либо длительность, в зависимости от привязки к потоку.
+ * Значение окна вычисляется до выполнения программы и передаётся ей как значение дополнительной переменной
+ */
+public class WindowNode extends Node {
+
+    /**
+     * Имя функции
+     */
+    private final String name;
+
+    /**
+     * Имя переменной потока
+     */
+    private final String variable;
+
+    /**
+     * Размер окна
+     */
+    private final long size;
+
+    /**
+     * Конструктор - создание узла функции скользящего окна
+     * @param name имя функции
+     * @param variable имя переменной потока
+     * @param size размер окна
+     */
+    public WindowNode(String name, String variable, long size) {
+        this.name = name;
+        this.variable = variable;
+        this.size = size;
+    }
+
+    /**
+     * Получить имя функции
+     * @return имя функции
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Получить имя переменной потока
+     * @return имя переменной
+     */
+    public String getVariable() {
+        return variable;
+    }
+
+    /**
+     * Получить размер окна
+     * @return размер окна
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return List.of();
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + variable + "," + size + ")";
+    }
+}
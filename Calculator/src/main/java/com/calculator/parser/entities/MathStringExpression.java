@@ -1,5 +1,7 @@
 package com.calculator.parser.entities;
 
+import com.calculator.parser.compiler.OperatorTable;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiFunction;
@@ -20,6 +22,11 @@ public class MathStringExpression extends StringExpression {
      */
     private final Map<String, BiFunction<Double, Double, Double>> clientFunctionsWithTwoArgument;
 
+    /**
+     * Таблица операторов: встроенные и клиентские операторы
+     */
+    private final OperatorTable operatorTable;
+
     /**
      * Конструктор - создание нового объекта выражения
      * @param expression выражение
@@ -28,6 +35,7 @@ public class MathStringExpression extends StringExpression {
         super(expression);
         clientFunctionsWithOneArgument = new HashMap<>();
         clientFunctionsWithTwoArgument = new HashMap<>();
+        operatorTable = OperatorTable.math();
     }
 
     /**
@@ -63,4 +71,12 @@ public class MathStringExpression extends StringExpression {
     public Map<String, BiFunction<Double, Double, Double>> getClientFunctionsWithTwoArguments() {
         return clientFunctionsWithTwoArgument;
     }
-}
\ No newline at end of file
+
+    /**
+     * Получить таблицу операторов
+     * @return таблица операторов
+     */
+    public OperatorTable getOperatorTable() {
+        return operatorTable;
+    }
+}
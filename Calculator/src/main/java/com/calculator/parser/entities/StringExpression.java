@@ -1,5 +1,7 @@
 package com.calculator.parser.entities;
 
+import com.calculator.parser.compiler.EvaluationLimits;
+
 /**
  * Объект строкового выражения
  */
@@ -10,12 +12,17 @@ public abstract class StringExpression {
      */
     private String expression;
 
+    /**
+     * Ограничения разбора и вычисления
+     */
+    private EvaluationLimits limits = EvaluationLimits.UNLIMITED;
+
     /**
      * Конструктор - создание нового объекта выражения
      * @param expression выражение
      */
     public StringExpression(String expression) {
-        this.expression = expression.replaceAll("\\s+", "");
+        this.expression = removeWhitespaces(expression);
     }
 
     /**
@@ -23,7 +30,7 @@ public abstract class StringExpression {
      * @param expression выражение
      */
     public void setExpression(String expression) {
-        this.expression = expression.replaceAll("\\s+", "");
+        this.expression = removeWhitespaces(expression);
     }
 
     /**
@@ -33,4 +40,56 @@ public abstract class StringExpression {
     public String getExpression() {
         return expression;
     }
+
+    /**
+     * Установить ограничения разбора и вычисления
+     * @param limits ограничения
+     */
+    public void setLimits(EvaluationLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Получить ограничения разбора и вычисления
+     * @return ограничения
+     */
+    public EvaluationLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Удалить пробельные символы из выражения за один проход.
+     * Если пробельных символов нет, возвращается исходная строка без копирования
+     * @param expression выражение
+     * @return выражение без пробельных символов
+     */
+    private static String removeWhitespaces(String expression) {
+        int length = expression.length();
+        int position = 0;
+        while (position < length && !isWhitespace(expression.charAt(position))) {
+            position++;
+        }
+        if (position == length) {
+            return expression;
+        }
+
+        StringBuilder normalizedExpression = new StringBuilder(length - 1);
+        normalizedExpression.append(expression, 0, position);
+        for (; position < length; position++) {
+            char symbol = expression.charAt(position);
+            if (!isWhitespace(symbol)) {
+                normalizedExpression.append(symbol);
+            }
+        }
+        return normalizedExpression.toString();
+    }
+
+    /**
+     * Является ли символ пробельным (тот же набор, что и \s в регулярных выражениях)
+     * @param symbol символ
+     * @return логический результат проверки
+     */
+    private static boolean isWhitespace(char symbol) {
+        return symbol == ' ' || symbol == '\t' || symbol == '\n' || symbol == '\u000B' || symbol == '\f' || symbol == '\r';
+    }
 }
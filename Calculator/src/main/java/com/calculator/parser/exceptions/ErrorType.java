@@ -10,7 +10,11 @@ public enum ErrorType {
     INCORRECT_VARIABLES_QUANTITY_ERROR("Количество значений больше количества переменных"),
     INCORRECT_NUMBER_TYPE("Неверный тип чисел в выражении"),
     INCORRECT_LOGIC_TYPE("Неверный тип логических значений в выражении"),
-    INCORRECT_VARIABLE_VALUE_TYPE("Неверный тип значения переменной");
+    INCORRECT_VARIABLE_VALUE_TYPE("Неверный тип значения переменной"),
+    INCORRECT_EXPRESSION_SYNTAX("Неверный синтаксис выражения"),
+    UNKNOWN_FUNCTION_ERROR("Обнаружена неизвестная функция"),
+    TYPE_MISMATCH_ERROR("Несовместимые типы операндов"),
+    LIMIT_EXCEEDED_ERROR("Превышено ограничение сложности или времени вычисления");
 
     /**
      * Описание ошибки
@@ -1,15 +1,59 @@
 package com.calculator.parser.exceptions;
 
 /**
- * Исключение при вычислении выражения
+ * Исключение при вычислении выражения.
+ * Стек вызовов по умолчанию не заполняется, чтобы отклонение неверного выражения было дешёвым;
+ * для отладки его можно включить системным свойством com.calculator.parser.exceptionStackTrace=true
  */
 public class ParserException extends RuntimeException {
 
+    /**
+     * Заполнять ли стек вызовов
+     */
+    private static final boolean WRITABLE_STACK_TRACE = Boolean.getBoolean("com.calculator.parser.exceptionStackTrace");
+
+    /**
+     * Тип ошибки
+     */
+    private final ErrorType errorType;
+
+    /**
+     * Позиция ошибки в выражении без пробельных символов, -1 если позиция неизвестна
+     */
+    private final int position;
+
     /**
      * Конструктор - создание нового исключения
      * @param errorType тип ошибки
      */
     public ParserException(ErrorType errorType) {
-        super(errorType.getDescription());
+        this(errorType, -1);
+    }
+
+    /**
+     * Конструктор - создание нового исключения с позицией ошибки
+     * @param errorType тип ошибки
+     * @param position позиция ошибки в выражении без пробельных символов
+     */
+    public ParserException(ErrorType errorType, int position) {
+        super(errorType.getDescription(), null, false, WRITABLE_STACK_TRACE);
+        this.errorType = errorType;
+        this.position = position;
+    }
+
+    /**
+     * Получить тип ошибки
+     * @return тип ошибки
+     */
+    public ErrorType getErrorType() {
+        return errorType;
+    }
+
+    /**
+     * Получить позицию ошибки
+     * @return позиция ошибки в выражении без пробельных символов, -1 если позиция неизвестна
+     */
+    public int getPosition() {
+        return position;
     }
-}
\ No newline at end of file
+}
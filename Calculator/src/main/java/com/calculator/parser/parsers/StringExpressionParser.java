@@ -1,11 +1,13 @@
 package com.calculator.parser.parsers;
 
+import com.calculator.parser.entities.StringExpression;
+
 import java.util.Stack;
 
 /**
  * Парсер строковых выражений с использованием обратной польской нотации
  */
-public abstract class StringExpressionParser<T> {
+public abstract class StringExpressionParser<T extends StringExpression> {
 
     /**
      * Объект строкового выражения
@@ -27,6 +29,24 @@ public abstract class StringExpressionParser<T> {
      */
     protected abstract int getTokenPriority(char token);
 
+    /**
+     * Является ли бинарный оператор правоассоциативным
+     * @param token токен-символ
+     * @return логический результат проверки
+     */
+    protected boolean isRightAssociative(char token) {
+        return false;
+    }
+
+    /**
+     * Является ли символ постфиксным унарным оператором
+     * @param token токен-символ
+     * @return логический результат проверки
+     */
+    protected boolean isPostfixOperator(char token) {
+        return false;
+    }
+
     /**
      * Получить результат выражения из обратной польской нотации
      * @param expressionInReversePolishNotation выражение в обратной польской нотации
@@ -51,13 +71,17 @@ public abstract class StringExpressionParser<T> {
         Stack<Character> operatorsStack = new Stack<>();
         int operatorPriority;
 
+        stringExpression.getLimits().checkExpression(expression);
         if (expression.charAt(0) == '-' || expression.contains("--")) {
             expression = preparingExpressionWithUnaryOperator(expression);
         }
 
         for (int i = 0; i < expression.length(); i++) {
             operatorPriority = getTokenPriority(expression.charAt(i));
-            if (operatorPriority == 0) {
+            if (isPostfixOperator(expression.charAt(i))) {
+                expressionInReversePolishNotation += " " + expression.charAt(i);
+            }
+            else if (operatorPriority == 0) {
                 expressionInReversePolishNotation += expression.charAt(i);
             }
             else if (operatorPriority == 1) {
@@ -66,7 +90,9 @@ public abstract class StringExpressionParser<T> {
             else if (operatorPriority > 1) {
                 expressionInReversePolishNotation += ' ';
                 while (!operatorsStack.isEmpty()) {
-                    if (getTokenPriority(operatorsStack.peek()) >= operatorPriority) {
+                    int stackPriority = getTokenPriority(operatorsStack.peek());
+                    if (stackPriority > operatorPriority ||
+                            stackPriority == operatorPriority && !isRightAssociative(expression.charAt(i))) {
                         expressionInReversePolishNotation += operatorsStack.pop();
                     }
                     else {
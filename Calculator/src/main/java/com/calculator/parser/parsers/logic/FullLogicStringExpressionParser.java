@@ -1,5 +1,6 @@
 package com.calculator.parser.parsers.logic;
 
+import com.calculator.parser.compiler.CompiledLogicExpression;
 import com.calculator.parser.entities.LogicStringExpression;
 import com.calculator.parser.exceptions.ErrorType;
 import com.calculator.parser.exceptions.ParserException;
@@ -42,6 +43,14 @@ public class FullLogicStringExpressionParser extends ShortLogicStringExpressionP
         return Boolean.parseBoolean(result);
     }
 
+    @Override
+    public CompiledLogicExpression compile() {
+        if (isSettedVariablesValue) {
+            return compile(stringExpression.getExpression());
+        }
+        return compile(convertExpressionWithFullOperatorsAndOperandsToShort(stringExpression.getExpression()));
+    }
+
     /**
      * Установка переменных в выражение
      * @param variablesValue значения переменных
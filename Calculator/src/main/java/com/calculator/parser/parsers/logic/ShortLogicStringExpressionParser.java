@@ -1,5 +1,11 @@
 package com.calculator.parser.parsers.logic;
 
+import com.calculator.parser.compiler.BooleanMinimization;
+import com.calculator.parser.compiler.BooleanMinimizer;
+import com.calculator.parser.compiler.CompiledLogicExpression;
+import com.calculator.parser.compiler.ExpressionCompiler;
+import com.calculator.parser.compiler.OperatorTable;
+import com.calculator.parser.compiler.ParserResult;
 import com.calculator.parser.entities.LogicStringExpression;
 import com.calculator.parser.exceptions.ErrorType;
 import com.calculator.parser.exceptions.ParserException;
@@ -14,6 +20,12 @@ import java.util.Stack;
  * Парсер логических выражений с использованием коротких операторов и операндов (&, |, T, F)
  */
 public class ShortLogicStringExpressionParser extends StringExpressionParser<LogicStringExpression> {
+
+    /**
+     * Таблица операторов логических выражений, не изменяется после создания
+     */
+    private static final OperatorTable OPERATORS = OperatorTable.logic();
+
     /**
      * Конструктор - создание нового объекта парсера с заданием объекта строкового выражения
      * @param stringExpression заполненный объект строкового выражения
@@ -38,6 +50,49 @@ public class ShortLogicStringExpressionParser extends StringExpressionParser<Log
         return Boolean.parseBoolean(result);
     }
 
+    /**
+     * Скомпилировать выражение для многократного вычисления без повторного разбора строки.
+     * Переменные скомпилированного выражения адресуются по имени
+     * @return скомпилированное выражение
+     */
+    public CompiledLogicExpression compile() {
+        return compile(stringExpression.getExpression());
+    }
+
+    /**
+     * Скомпилировать и минимизировать выражение. Минимизированное выражение записывается с отрицанием (!)
+     * и вычисляется только в скомпилированном виде
+     * @param form нормальная форма результата
+     * @return результат минимизации
+     */
+    public BooleanMinimization minimize(BooleanMinimizer.NormalForm form) {
+        return compile().minimize(form);
+    }
+
+    /**
+     * Скомпилировать выражение без выбрасывания исключения
+     * @return скомпилированное выражение либо тип и позиция ошибки
+     */
+    public ParserResult<CompiledLogicExpression> tryCompile() {
+        try {
+            return ParserResult.success(compile());
+        }
+        catch (ParserException exception) {
+            return ParserResult.failure(exception);
+        }
+    }
+
+    /**
+     * Скомпилировать выражение с короткими операторами и операндами
+     * @param expression выражение
+     * @return скомпилированное выражение
+     */
+    protected CompiledLogicExpression compile(String expression) {
+        stringExpression.getLimits().checkExpression(expression);
+        return new CompiledLogicExpression(expression, new ExpressionCompiler(OPERATORS).parse(expression),
+                                           stringExpression.getLimits());
+    }
+
     @Override
     protected String expressionInReversePolishNotationToResult(String expressionInReversePolishNotation) {
         String operand = "";
@@ -85,21 +140,7 @@ public class ShortLogicStringExpressionParser extends StringExpressionParser<Log
 
     @Override
     protected int getTokenPriority(char token) {
-        if (token == '&') {
-            return 3;
-        }
-        else if (token == '|') {
-            return 2;
-        }
-        else if (token == '(') {
-            return 1;
-        }
-        else if (token == ')') {
-            return -1;
-        }
-        else {
-            return 0;
-        }
+        return OPERATORS.getPriority(token);
     }
 
     /**
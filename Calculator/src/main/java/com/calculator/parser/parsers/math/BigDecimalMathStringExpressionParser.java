@@ -1,10 +1,12 @@
 package com.calculator.parser.parsers.math;
 
+import com.calculator.parser.compiler.BigDecimalMath;
 import com.calculator.parser.entities.MathStringExpression;
 import com.calculator.parser.exceptions.ErrorType;
 import com.calculator.parser.exceptions.ParserException;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.Queue;
@@ -15,12 +17,27 @@ import java.util.Stack;
  */
 public class BigDecimalMathStringExpressionParser extends MathStringExpressionParser<String>{
 
+    /**
+     * Математические функции с точностью парсера
+     */
+    private final BigDecimalMath bigDecimalMath;
+
     /**
      * Конструктор - создание нового объекта парсера с заданием объекта строкового выражения
      * @param stringExpression заполненный объект строкового выражения
      */
     public BigDecimalMathStringExpressionParser(MathStringExpression stringExpression) {
+        this(stringExpression, MathContext.DECIMAL128);
+    }
+
+    /**
+     * Конструктор - создание нового объекта парсера с заданием объекта строкового выражения и точности функций
+     * @param stringExpression заполненный объект строкового выражения
+     * @param mathContext точность вычисления математических функций
+     */
+    public BigDecimalMathStringExpressionParser(MathStringExpression stringExpression, MathContext mathContext) {
         super(stringExpression);
+        this.bigDecimalMath = new BigDecimalMath(mathContext);
     }
 
     @Override
@@ -42,9 +59,16 @@ public class BigDecimalMathStringExpressionParser extends MathStringExpressionPa
             if (expressionInReversePolishNotation.charAt(i) == ' ') {
                 continue;
             }
+            if (isPostfixOperator(expressionInReversePolishNotation.charAt(i))) {
+                a = new BigDecimal(operandStack.pop());
+                operandStack.push(String.valueOf(BigDecimal.valueOf(stringExpression.getOperatorTable()
+                        .getPostfixOperator(expressionInReversePolishNotation.charAt(i)).applyAsDouble(a.doubleValue()))));
+                continue;
+            }
             if (getTokenPriority(expressionInReversePolishNotation.charAt(i)) == 0) {
                 while (expressionInReversePolishNotation.charAt(i) != ' ' &&
-                        getTokenPriority(expressionInReversePolishNotation.charAt(i)) == 0) {
+                        getTokenPriority(expressionInReversePolishNotation.charAt(i)) == 0 &&
+                        !isPostfixOperator(expressionInReversePolishNotation.charAt(i))) {
                     operand += expressionInReversePolishNotation.charAt(i++);
                     if (i == expressionInReversePolishNotation.length()) {
                         i--;
@@ -79,12 +103,58 @@ public class BigDecimalMathStringExpressionParser extends MathStringExpressionPa
                     } else {
                         operandStack.push(String.valueOf(b.divide(a)));
                     }
+                } else {
+                    operandStack.push(String.valueOf(BigDecimal.valueOf(stringExpression.getOperatorTable()
+                            .getBinaryOperator(expressionInReversePolishNotation.charAt(i)).applyAsDouble(b.doubleValue(), a.doubleValue()))));
                 }
             }
         }
         return operandStack.pop();
     }
 
+    /**
+     * Получить значение математической функции в BigDecimal с точностью парсера, без перехода к double
+     * и округления до двух знаков
+     * @param operand операнд
+     * @return значение математической функции
+     */
+    @Override
+    protected String getMathFunctionResult(String operand) {
+        String functionName = getFunctionNameFromOperand(operand);
+        String[] functionArguments = getFunctionArgumentsFromOperand(operand).split(",");
+        BigDecimal functionValue;
+
+        try {
+            if (functionArguments.length == 1) {
+                BigDecimal argument = new BigDecimal(functionArguments[0]);
+                functionValue = switch (functionName) {
+                    case "tan" -> bigDecimalMath.tan(argument);
+                    case "sin" -> bigDecimalMath.sin(argument);
+                    case "cos" -> bigDecimalMath.cos(argument);
+                    default -> throw new ParserException(ErrorType.INCORRECT_EXPRESSION_SYNTAX);
+                };
+            }
+            else if (functionArguments.length == 2) {
+                BigDecimal first = new BigDecimal(functionArguments[0]);
+                BigDecimal second = new BigDecimal(functionArguments[1]);
+                functionValue = switch (functionName) {
+                    case "pow" -> bigDecimalMath.pow(first, second);
+                    case "max" -> bigDecimalMath.max(first, second);
+                    case "min" -> bigDecimalMath.min(first, second);
+                    default -> throw new ParserException(ErrorType.INCORRECT_EXPRESSION_SYNTAX);
+                };
+            }
+            else {
+                throw new ParserException(ErrorType.INCORRECT_EXPRESSION_SYNTAX);
+            }
+        }
+        catch (ArithmeticException exception) {
+            throw new ParserException(ErrorType.INCORRECT_NUMBER_TYPE);
+        }
+
+        return functionValue.toPlainString();
+    }
+
     @Override
     public void setVariablesValue(String... variablesValue) {
         String expression = stringExpression.getExpression();
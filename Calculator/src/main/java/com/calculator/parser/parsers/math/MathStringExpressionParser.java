@@ -1,12 +1,20 @@
 package com.calculator.parser.parsers.math;
 
+import com.calculator.parser.compiler.CompiledMathExpression;
+import com.calculator.parser.compiler.ExpressionCompiler;
+import com.calculator.parser.compiler.MathFunctions;
+import com.calculator.parser.compiler.ParserResult;
 import com.calculator.parser.entities.MathStringExpression;
 import com.calculator.parser.exceptions.ErrorType;
 import com.calculator.parser.exceptions.ParserException;
 import com.calculator.parser.parsers.StringExpressionParser;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * Парсер математических выражений с использованием обратной польской нотации
@@ -18,6 +26,16 @@ public abstract class MathStringExpressionParser<T> extends StringExpressionPars
      */
     protected static final List<String> mathFunctions = List.of("tan", "sin", "cos", "pow", "min", "max");
 
+    /**
+     * Реализации математических функций с одним параметром
+     */
+    protected static final Map<String, DoubleUnaryOperator> mathFunctionsWithOneArgument = MathFunctions.ONE_ARGUMENT_FUNCTIONS;
+
+    /**
+     * Реализации математических функций с двумя параметрами
+     */
+    protected static final Map<String, DoubleBinaryOperator> mathFunctionsWithTwoArguments = MathFunctions.TWO_ARGUMENTS_FUNCTIONS;
+
     /**
      * Конструктор - создание нового объекта парсера с заданием объекта строкового выражения
      * @param stringExpression заполненный объект строкового выражения
@@ -32,6 +50,38 @@ public abstract class MathStringExpressionParser<T> extends StringExpressionPars
      */
     public abstract T getExpressionResult();
 
+    /**
+     * Скомпилировать выражение для многократного вычисления без повторного разбора строки.
+     * Переменные скомпилированного выражения адресуются по имени, значения функций не округляются
+     * @return скомпилированное выражение
+     */
+    public CompiledMathExpression compile() {
+        Map<String, DoubleUnaryOperator> oneArgumentFunctions = new HashMap<>(mathFunctionsWithOneArgument);
+        Map<String, DoubleBinaryOperator> twoArgumentsFunctions = new HashMap<>(mathFunctionsWithTwoArguments);
+        stringExpression.getClientFunctionsWithOneArgument()
+                        .forEach((name, function) -> oneArgumentFunctions.putIfAbsent(name, function::apply));
+        stringExpression.getClientFunctionsWithTwoArguments()
+                        .forEach((name, function) -> twoArgumentsFunctions.putIfAbsent(name, function::apply));
+
+        ExpressionCompiler compiler = new ExpressionCompiler(stringExpression.getOperatorTable(), oneArgumentFunctions, twoArgumentsFunctions);
+        String expression = stringExpression.getExpression();
+        stringExpression.getLimits().checkExpression(expression);
+        return new CompiledMathExpression(expression, compiler.parse(expression), stringExpression.getLimits());
+    }
+
+    /**
+     * Скомпилировать выражение без выбрасывания исключения
+     * @return скомпилированное выражение либо тип и позиция ошибки
+     */
+    public ParserResult<CompiledMathExpression> tryCompile() {
+        try {
+            return ParserResult.success(compile());
+        }
+        catch (ParserException exception) {
+            return ParserResult.failure(exception);
+        }
+    }
+
     /**
      * Получение значения строкового выражения, представленного в форме обратной польской нотации
      * @param expressionInReversePolishNotation строковое выражение в обратной польской нотации
@@ -45,9 +95,15 @@ public abstract class MathStringExpressionParser<T> extends StringExpressionPars
             if (expressionInReversePolishNotation.charAt(i) == ' ') {
                 continue;
             }
+            if (isPostfixOperator(expressionInReversePolishNotation.charAt(i))) {
+                DoubleUnaryOperator operator = stringExpression.getOperatorTable().getPostfixOperator(expressionInReversePolishNotation.charAt(i));
+                operandStack.push(operator.applyAsDouble(operandStack.pop()));
+                continue;
+            }
             if (getTokenPriority(expressionInReversePolishNotation.charAt(i)) == 0) {
                 while (expressionInReversePolishNotation.charAt(i) != ' ' &&
-                        getTokenPriority(expressionInReversePolishNotation.charAt(i)) == 0) {
+                        getTokenPriority(expressionInReversePolishNotation.charAt(i)) == 0 &&
+                        !isPostfixOperator(expressionInReversePolishNotation.charAt(i))) {
                     operand += expressionInReversePolishNotation.charAt(i++);
                     if (i == expressionInReversePolishNotation.length()) {
                         i--;
@@ -89,32 +145,32 @@ public abstract class MathStringExpressionParser<T> extends StringExpressionPars
                         operandStack.push(b / a);
                     }
                 }
+                else {
+                    DoubleBinaryOperator operator = stringExpression.getOperatorTable().getBinaryOperator(expressionInReversePolishNotation.charAt(i));
+                    operandStack.push(operator.applyAsDouble(b, a));
+                }
             }
         }
         return Double.toString(operandStack.pop());
     }
 
     /**
-     * Получить приоритет символа
+     * Получить приоритет символа из таблицы операторов выражения
      * @param token символ
      * @return приоритет символа
      */
     protected int getTokenPriority(char token) {
-        if (token == '*' || token == '/') {
-            return 3;
-        }
-        else if (token == '+' || token == '-') {
-            return 2;
-        }
-        else if (token == '(') {
-            return 1;
-        }
-        else if (token == ')') {
-            return -1;
-        }
-        else {
-            return 0;
-        }
+        return stringExpression.getOperatorTable().getPriority(token);
+    }
+
+    @Override
+    protected boolean isRightAssociative(char token) {
+        return stringExpression.getOperatorTable().isRightAssociative(token);
+    }
+
+    @Override
+    protected boolean isPostfixOperator(char token) {
+        return stringExpression.getOperatorTable().getPostfixOperator(token) != null;
     }
 
     /**
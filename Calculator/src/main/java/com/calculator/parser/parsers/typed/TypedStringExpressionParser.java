@@ -0,0 +1,68 @@
+package com.calculator.parser.parsers.typed;
+
+import com.calculator.parser.compiler.CompiledTypedExpression;
+import com.calculator.parser.compiler.ExpressionCompiler;
+import com.calculator.parser.compiler.MathFunctions;
+import com.calculator.parser.compiler.Node;
+import com.calculator.parser.compiler.ParserResult;
+import com.calculator.parser.entities.MathStringExpression;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Парсер типизированных выражений, смешивающих математические и логические операции
+ * и операторы сравнения (&lt;, &lt;=, &gt;, &gt;=, ==, !=). Логические константы записываются как true и false.
+ * Выражение только компилируется, вычисление выполняется скомпилированным выражением за один проход
+ */
+public class TypedStringExpressionParser {
+
+    /**
+     * Объект строкового выражения
+     */
+    private final MathStringExpression stringExpression;
+
+    /**
+     * Конструктор - создание нового объекта парсера с заданием объекта строкового выражения
+     * @param stringExpression заполненный объект строкового выражения (клиентские функции доступны в выражении)
+     */
+    public TypedStringExpressionParser(MathStringExpression stringExpression) {
+        this.stringExpression = stringExpression;
+    }
+
+    /**
+     * Скомпилировать выражение
+     * @return скомпилированное типизированное выражение
+     */
+    public CompiledTypedExpression compile() {
+        Map<String, DoubleUnaryOperator> oneArgumentFunctions = new HashMap<>(MathFunctions.ONE_ARGUMENT_FUNCTIONS);
+        Map<String, DoubleBinaryOperator> twoArgumentsFunctions = new HashMap<>(MathFunctions.TWO_ARGUMENTS_FUNCTIONS);
+        stringExpression.getClientFunctionsWithOneArgument()
+                        .forEach((name, function) -> oneArgumentFunctions.putIfAbsent(name, function::apply));
+        stringExpression.getClientFunctionsWithTwoArguments()
+                        .forEach((name, function) -> twoArgumentsFunctions.putIfAbsent(name, function::apply));
+
+        ExpressionCompiler compiler = new ExpressionCompiler(oneArgumentFunctions, twoArgumentsFunctions);
+        String expression = stringExpression.getExpression();
+        stringExpression.getLimits().checkExpression(expression);
+        Node root = compiler.parse(expression);
+        return new CompiledTypedExpression(expression, root, compiler.typeOf(root), compiler.getVariableTypes(),
+                                           stringExpression.getLimits());
+    }
+
+    /**
+     * Скомпилировать выражение без выбрасывания исключения
+     * @return скомпилированное выражение либо тип и позиция ошибки
+     */
+    public ParserResult<CompiledTypedExpression> tryCompile() {
+        try {
+            return ParserResult.success(compile());
+        }
+        catch (ParserException exception) {
+            return ParserResult.failure(exception);
+        }
+    }
+}
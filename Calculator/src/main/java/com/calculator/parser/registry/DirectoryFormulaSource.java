@@ -0,0 +1,352 @@
+package com.calculator.parser.registry;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledExpression;
+import com.calculator.parser.compiler.ParserResult;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Источник формул из каталога: файл name.math содержит математическую формулу, файл name.logic - логическую
+ * с короткими операторами. Изменения каталога отслеживаются через WatchService в фоновом потоке;
+ * перекомпилируются только изменённые файлы, и в реестр попадают только успешно скомпилированные формулы.
+ * Изменённые файлы перечитываются только после паузы без новых событий, а файл, изменившийся во время чтения,
+ * пропускается до следующего события. Файлы формул следует записывать во временный файл и атомарно
+ * переименовывать на место - только так недописанная формула гарантированно не попадёт в реестр.
+ * Формула, заданная одновременно файлами name.math и name.logic, удаляется из реестра до удаления одного из них.
+ * Ошибки чтения каталога и файлов передаются обработчику ошибок и не останавливают отслеживание,
+ * отслеживание завершается только закрытием источника
+ */
+public class DirectoryFormulaSource implements AutoCloseable {
+
+    /**
+     * Расширение файла математической формулы
+     */
+    public static final String MATH_EXTENSION = ".math";
+
+    /**
+     * Расширение файла логической формулы
+     */
+    public static final String LOGIC_EXTENSION = ".logic";
+
+    /**
+     * Пауза без событий по умолчанию, после которой перечитываются изменённые файлы, в миллисекундах
+     */
+    public static final long DEFAULT_QUIET_PERIOD_MILLIS = 100;
+
+    /**
+     * Каталог формул
+     */
+    private final Path directory;
+
+    /**
+     * Реестр формул
+     */
+    private final FormulaRegistry registry;
+
+    /**
+     * Клиентские функции с одним параметром
+     */
+    private final Map<String, Function<Double, Double>> clientFunctionsWithOneArgument;
+
+    /**
+     * Клиентские функции с двумя параметрами
+     */
+    private final Map<String, BiFunction<Double, Double, Double>> clientFunctionsWithTwoArguments;
+
+    /**
+     * Ошибки компиляции файлов, не попавших в реестр
+     */
+    private final Map<Path, ParserResult<?>> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Обработчик ошибок чтения каталога и файлов
+     */
+    private volatile Consumer<Exception> errorHandler = exception -> { };
+
+    /**
+     * Пауза без событий, после которой перечитываются изменённые файлы, в миллисекундах
+     */
+    private volatile long quietPeriodMillis = DEFAULT_QUIET_PERIOD_MILLIS;
+
+    /**
+     * Служба отслеживания изменений каталога
+     */
+    private WatchService watchService;
+
+    /**
+     * Фоновый поток перезагрузки
+     */
+    private Thread watcherThread;
+
+    /**
+     * Конструктор - создание источника формул без клиентских функций
+     * @param directory каталог формул
+     * @param registry реестр формул
+     */
+    public DirectoryFormulaSource(Path directory, FormulaRegistry registry) {
+        this(directory, registry, Map.of(), Map.of());
+    }
+
+    /**
+     * Конструктор - создание источника формул
+     * @param directory каталог формул
+     * @param registry реестр формул
+     * @param clientFunctionsWithOneArgument клиентские функции с одним параметром
+     * @param clientFunctionsWithTwoArguments клиентские функции с двумя параметрами
+     */
+    public DirectoryFormulaSource(Path directory, FormulaRegistry registry,
+                                  Map<String, Function<Double, Double>> clientFunctionsWithOneArgument,
+                                  Map<String, BiFunction<Double, Double, Double>> clientFunctionsWithTwoArguments) {
+        this.directory = directory;
+        this.registry = registry;
+        this.clientFunctionsWithOneArgument = clientFunctionsWithOneArgument;
+        this.clientFunctionsWithTwoArguments = clientFunctionsWithTwoArguments;
+    }
+
+    /**
+     * Установить обработчик ошибок чтения каталога и файлов. Обработчик вызывается в фоновом потоке перезагрузки
+     * (и в потоке, вызвавшем {@link #start()}, при начальной загрузке)
+     * @param errorHandler обработчик ошибок
+     */
+    public void setErrorHandler(Consumer<Exception> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Установить паузу без событий, после которой перечитываются изменённые файлы
+     * @param quietPeriodMillis пауза в миллисекундах
+     */
+    public void setQuietPeriodMillis(long quietPeriodMillis) {
+        if (quietPeriodMillis < 0) {
+            throw new IllegalArgumentException("Quiet period must not be negative");
+        }
+        this.quietPeriodMillis = quietPeriodMillis;
+    }
+
+    /**
+     * Загрузить все формулы каталога и начать отслеживание изменений
+     * @throws IOException ошибка чтения каталога
+     */
+    public synchronized void start() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                           StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            stream.forEach(files::add);
+        }
+        reload(files);
+
+        watcherThread = new Thread(this::watch, "formula-directory-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    /**
+     * Получить ошибки компиляции файлов, не попавших в реестр
+     * @return ошибки по путям файлов
+     */
+    public Map<Path, ParserResult<?>> getFailures() {
+        return Map.copyOf(failures);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watcherThread.interrupt();
+        }
+    }
+
+    /**
+     * Цикл отслеживания изменений каталога. События накапливаются, пока не наступит пауза без событий,
+     * после чего изменённые файлы перечитываются одной перезагрузкой. Ошибки передаются обработчику,
+     * цикл завершается только закрытием службы отслеживания
+     */
+    private void watch() {
+        while (true) {
+            Set<Path> changedFiles = new LinkedHashSet<>();
+            try {
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    collectChanges(key, changedFiles);
+                    key = watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (ClosedWatchServiceException e) {
+                return;
+            }
+            try {
+                reload(changedFiles);
+            }
+            catch (RuntimeException e) {
+                errorHandler.accept(e);
+            }
+        }
+    }
+
+    /**
+     * Добавить файлы, изменённые по событиям ключа отслеживания, и вернуть ключ в очередь службы
+     * @param key ключ отслеживания
+     * @param changedFiles изменённые файлы
+     */
+    private void collectChanges(WatchKey key, Set<Path> changedFiles) {
+        try {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() != StandardWatchEventKinds.OVERFLOW) {
+                    changedFiles.add(directory.resolve((Path) event.context()));
+                }
+                else {
+                    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                        stream.forEach(changedFiles::add);
+                    }
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            errorHandler.accept(e);
+        }
+        if (!key.reset()) {
+            errorHandler.accept(new IOException("Formula directory " + directory + " is no longer watched"));
+        }
+    }
+
+    /**
+     * Перекомпилировать формулы изменённых файлов и атомарно обновить реестр. Формула перечитывается
+     * по имени, поэтому удаление одного из файлов name.math и name.logic не удаляет формулу другого
+     * @param files изменённые файлы
+     */
+    private void reload(Collection<Path> files) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Path file : files) {
+            String name = formulaName(file);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        Map<String, CompiledExpression<?>> putExpressions = new HashMap<>();
+        List<String> removedNames = new ArrayList<>();
+
+        for (String name : names) {
+            Path mathFile = directory.resolve(name + MATH_EXTENSION);
+            Path logicFile = directory.resolve(name + LOGIC_EXTENSION);
+            boolean isMath = Files.isRegularFile(mathFile);
+            boolean isLogic = Files.isRegularFile(logicFile);
+            if (isMath == isLogic) {
+                removedNames.add(name);
+                failures.remove(mathFile);
+                failures.remove(logicFile);
+                if (isMath) {
+                    errorHandler.accept(new IOException("Formula " + name + " is defined by both "
+                            + mathFile.getFileName() + " and " + logicFile.getFileName()));
+                }
+                continue;
+            }
+            Path file = isMath ? mathFile : logicFile;
+            failures.remove(isMath ? logicFile : mathFile);
+            ParserResult<? extends CompiledExpression<?>> result;
+            try {
+                String expression = readStable(file);
+                if (expression == null) {
+                    continue;
+                }
+                result = compile(file, expression);
+            }
+            catch (IOException e) {
+                errorHandler.accept(e);
+                continue;
+            }
+            if (result.isSuccess()) {
+                putExpressions.put(name, result.getValue());
+                failures.remove(file);
+            }
+            else {
+                failures.put(file, result);
+            }
+        }
+        if (!putExpressions.isEmpty() || !removedNames.isEmpty()) {
+            registry.update(putExpressions, removedNames);
+        }
+    }
+
+    /**
+     * Прочитать файл формулы, если он не изменился во время чтения
+     * @param file файл формулы
+     * @return содержимое файла или null, если файл изменился во время чтения и будет перечитан по следующему событию
+     * @throws IOException ошибка чтения файла
+     */
+    private static String readStable(Path file) throws IOException {
+        BasicFileAttributes before = Files.readAttributes(file, BasicFileAttributes.class);
+        String expression = Files.readString(file);
+        BasicFileAttributes after = Files.readAttributes(file, BasicFileAttributes.class);
+        if (before.size() != after.size() || !before.lastModifiedTime().equals(after.lastModifiedTime())) {
+            return null;
+        }
+        return expression;
+    }
+
+    /**
+     * Скомпилировать содержимое файла формулы
+     * @param file файл формулы
+     * @param expression содержимое файла
+     * @return результат компиляции
+     */
+    private ParserResult<? extends CompiledExpression<?>> compile(Path file, String expression) {
+        if (file.getFileName().toString().endsWith(LOGIC_EXTENSION)) {
+            return new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(expression).build()).tryCompile();
+        }
+        MathStringExpressionBuilder builder = new MathStringExpressionBuilder(expression);
+        clientFunctionsWithOneArgument.forEach(builder::setClientFunctionWithOneArgument);
+        clientFunctionsWithTwoArguments.forEach(builder::setClientFunctionWithTwoArguments);
+        return new DoubleMathStringExpressionParser(builder.build()).tryCompile();
+    }
+
+    /**
+     * Получить имя формулы по имени файла
+     * @param file файл
+     * @return имя формулы или null, если файл не является файлом формулы
+     */
+    private static String formulaName(Path file) {
+        String fileName = file.getFileName().toString();
+        if (fileName.endsWith(MATH_EXTENSION)) {
+            return fileName.substring(0, fileName.length() - MATH_EXTENSION.length());
+        }
+        if (fileName.endsWith(LOGIC_EXTENSION)) {
+            return fileName.substring(0, fileName.length() - LOGIC_EXTENSION.length());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,156 @@
+package com.calculator.parser.registry;
+
+import com.calculator.parser.compiler.CompiledExpression;
+import com.calculator.parser.compiler.CompiledLogicExpression;
+import com.calculator.parser.compiler.CompiledMathExpression;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Реестр именованных скомпилированных формул.
+ * Читатели работают с неизменяемым снимком и никогда не блокируются; изменения создают новый снимок
+ * и публикуют его атомарно, поэтому несколько формул обновляются одновременно для всех читателей
+ */
+public class FormulaRegistry {
+
+    /**
+     * Текущий снимок реестра
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, Map.of()));
+
+    /**
+     * Получить текущий снимок реестра
+     * @return снимок реестра
+     */
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Получить версию реестра
+     * @return версия, увеличивается при каждом изменении
+     */
+    public long getVersion() {
+        return snapshot.get().getVersion();
+    }
+
+    /**
+     * Получить формулу по имени
+     * @param name имя формулы
+     * @return скомпилированная формула или null, если формула не найдена
+     */
+    public CompiledExpression<?> get(String name) {
+        return snapshot.get().get(name);
+    }
+
+    /**
+     * Получить математическую формулу по имени
+     * @param name имя формулы
+     * @return скомпилированная формула или null, если формула не найдена
+     */
+    public CompiledMathExpression getMath(String name) {
+        return (CompiledMathExpression) get(name);
+    }
+
+    /**
+     * Получить логическую формулу по имени
+     * @param name имя формулы
+     * @return скомпилированная формула или null, если формула не найдена
+     */
+    public CompiledLogicExpression getLogic(String name) {
+        return (CompiledLogicExpression) get(name);
+    }
+
+    /**
+     * Добавить или заменить формулу
+     * @param name имя формулы
+     * @param expression скомпилированная формула
+     * @return версия реестра после изменения
+     */
+    public long put(String name, CompiledExpression<?> expression) {
+        return update(Map.of(name, expression), List.of());
+    }
+
+    /**
+     * Удалить формулу
+     * @param name имя формулы
+     * @return версия реестра после изменения
+     */
+    public long remove(String name) {
+        return update(Map.of(), List.of(name));
+    }
+
+    /**
+     * Атомарно изменить несколько формул: читатели увидят либо все изменения, либо ни одного
+     * @param putExpressions добавляемые или заменяемые формулы по именам
+     * @param removedNames имена удаляемых формул
+     * @return версия реестра после изменения
+     */
+    public long update(Map<String, ? extends CompiledExpression<?>> putExpressions, Collection<String> removedNames) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            Map<String, CompiledExpression<?>> expressions = new HashMap<>(current.expressions);
+            expressions.keySet().removeAll(removedNames);
+            expressions.putAll(putExpressions);
+            Snapshot next = new Snapshot(current.getVersion() + 1, expressions);
+            if (snapshot.compareAndSet(current, next)) {
+                return next.getVersion();
+            }
+        }
+    }
+
+    /**
+     * Неизменяемый снимок реестра
+     */
+    public static final class Snapshot {
+
+        /**
+         * Версия снимка
+         */
+        private final long version;
+
+        /**
+         * Формулы по именам
+         */
+        private final Map<String, CompiledExpression<?>> expressions;
+
+        /**
+         * Конструктор - создание снимка
+         * @param version версия снимка
+         * @param expressions формулы по именам
+         */
+        Snapshot(long version, Map<String, CompiledExpression<?>> expressions) {
+            this.version = version;
+            this.expressions = Map.copyOf(expressions);
+        }
+
+        /**
+         * Получить версию снимка
+         * @return версия
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Получить формулу по имени
+         * @param name имя формулы
+         * @return скомпилированная формула или null, если формула не найдена
+         */
+        public CompiledExpression<?> get(String name) {
+            return expressions.get(name);
+        }
+
+        /**
+         * Получить все формулы снимка
+         * @return неизменяемое отображение формул по именам
+         */
+        public Map<String, CompiledExpression<?>> getExpressions() {
+            return expressions;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.calculator.parser.rules;
+
+import com.calculator.parser.compiler.BinaryOperatorNode;
+import com.calculator.parser.compiler.BooleanNode;
+import com.calculator.parser.compiler.CompiledLogicExpression;
+import com.calculator.parser.compiler.Node;
+import com.calculator.parser.compiler.UnaryOperatorNode;
+import com.calculator.parser.compiler.VariableNode;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сеть сопоставления логических правил с общими подвыражениями (в духе алгоритма Rete).
+ * Одинаковые подвыражения всех правил (с точностью до порядка операндов цепочек &amp; и |) объединяются в один узел,
+ * поэтому каждая переменная читается один раз на факт, а общие конъюнкции и дизъюнкции вычисляются один раз.
+ * Отрицание - узел с одним операндом, двойное отрицание сокращается.
+ * Узлы пронумерованы в топологическом порядке: операнды всегда имеют меньшие номера, чем использующие их узлы.
+ * Сеть неизменяема и может использоваться из нескольких потоков; для пошагового сопоставления
+ * изменяющихся фактов используется {@link RuleSession}
+ */
+public class RuleNetwork {
+
+    /**
+     * Вид узла: переменная
+     */
+    static final int VARIABLE = 0;
+
+    /**
+     * Вид узла: константа
+     */
+    static final int CONSTANT = 1;
+
+    /**
+     * Вид узла: конъюнкция
+     */
+    static final int AND = 2;
+
+    /**
+     * Вид узла: дизъюнкция
+     */
+    static final int OR = 3;
+
+    /**
+     * Вид узла: отрицание
+     */
+    static final int NOT = 4;
+
+    /**
+     * Идентификаторы правил в порядке номеров
+     */
+    private final String[] ruleIds;
+
+    /**
+     * Номера переменных по именам
+     */
+    private final Map<String, Integer> variableIndexes;
+
+    /**
+     * Виды узлов
+     */
+    final int[] kinds;
+
+    /**
+     * Параметр узла: номер переменной для переменных, 1 или 0 для констант
+     */
+    final int[] arguments;
+
+    /**
+     * Номера операндов узлов
+     */
+    final int[][] children;
+
+    /**
+     * Номера узлов, использующих узел
+     */
+    final int[][] parents;
+
+    /**
+     * Номера узлов переменных по номерам переменных
+     */
+    final int[] variableNodes;
+
+    /**
+     * Номера корневых узлов правил
+     */
+    final int[] ruleNodes;
+
+    /**
+     * Номера правил, корнем которых является узел
+     */
+    final int[][] nodeRules;
+
+    /**
+     * Конструктор - построение сети из набора правил
+     * @param rules правила по идентификаторам
+     */
+    public RuleNetwork(Map<String, CompiledLogicExpression> rules) {
+        NetworkBuilder builder = new NetworkBuilder();
+        this.ruleIds = rules.keySet().toArray(new String[0]);
+        this.ruleNodes = new int[ruleIds.length];
+        for (int rule = 0; rule < ruleIds.length; rule++) {
+            ruleNodes[rule] = builder.intern(rules.get(ruleIds[rule]).getRoot());
+        }
+
+        int nodesCount = builder.kinds.size();
+        this.variableIndexes = Collections.unmodifiableMap(builder.variableIndexes);
+        this.kinds = new int[nodesCount];
+        this.arguments = new int[nodesCount];
+        this.children = builder.children.toArray(new int[0][]);
+        List<List<Integer>> parentLists = new ArrayList<>();
+        List<List<Integer>> ruleLists = new ArrayList<>();
+        for (int node = 0; node < nodesCount; node++) {
+            kinds[node] = builder.kinds.get(node);
+            arguments[node] = builder.arguments.get(node);
+            parentLists.add(new ArrayList<>());
+            ruleLists.add(new ArrayList<>());
+        }
+        for (int node = 0; node < nodesCount; node++) {
+            for (int child : children[node]) {
+                parentLists.get(child).add(node);
+            }
+        }
+        for (int rule = 0; rule < ruleNodes.length; rule++) {
+            ruleLists.get(ruleNodes[rule]).add(rule);
+        }
+        this.variableNodes = new int[variableIndexes.size()];
+        for (int node = 0; node < nodesCount; node++) {
+            if (kinds[node] == VARIABLE) {
+                variableNodes[arguments[node]] = node;
+            }
+        }
+        this.parents = toArrays(parentLists);
+        this.nodeRules = toArrays(ruleLists);
+    }
+
+    /**
+     * Найти правила, выполняющиеся для факта
+     * @param fact значения всех переменных сети по именам
+     * @return идентификаторы выполняющихся правил в порядке добавления
+     */
+    public List<String> match(Map<String, Boolean> fact) {
+        return match(toVariables(fact));
+    }
+
+    /**
+     * Найти правила, выполняющиеся для факта
+     * @param variables значения переменных по номерам сети
+     * @return идентификаторы выполняющихся правил в порядке добавления
+     */
+    public List<String> match(boolean[] variables) {
+        boolean[] values = new boolean[kinds.length];
+        for (int node = 0; node < kinds.length; node++) {
+            values[node] = evaluateNode(node, values, variables);
+        }
+        List<String> matched = new ArrayList<>();
+        for (int rule = 0; rule < ruleNodes.length; rule++) {
+            if (values[ruleNodes[rule]]) {
+                matched.add(ruleIds[rule]);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Создать сеанс пошагового сопоставления (все переменные изначально ложны)
+     * @return сеанс
+     */
+    public RuleSession newSession() {
+        return new RuleSession(this);
+    }
+
+    /**
+     * Получить номера переменных по именам
+     * @return номера переменных
+     */
+    public Map<String, Integer> getVariableIndexes() {
+        return variableIndexes;
+    }
+
+    /**
+     * Получить количество узлов сети
+     * @return количество узлов
+     */
+    public int getNodesCount() {
+        return kinds.length;
+    }
+
+    /**
+     * Получить количество правил
+     * @return количество правил
+     */
+    public int getRulesCount() {
+        return ruleIds.length;
+    }
+
+    /**
+     * Получить идентификатор правила
+     * @param rule номер правила
+     * @return идентификатор правила
+     */
+    public String getRuleId(int rule) {
+        return ruleIds[rule];
+    }
+
+    /**
+     * Вычислить узел по уже вычисленным операндам
+     * @param node номер узла
+     * @param values значения узлов
+     * @param variables значения переменных по номерам
+     * @return значение узла
+     */
+    boolean evaluateNode(int node, boolean[] values, boolean[] variables) {
+        return switch (kinds[node]) {
+            case VARIABLE -> variables[arguments[node]];
+            case CONSTANT -> arguments[node] != 0;
+            case NOT -> !values[children[node][0]];
+            case AND -> {
+                for (int child : children[node]) {
+                    if (!values[child]) {
+                        yield false;
+                    }
+                }
+                yield true;
+            }
+            default -> {
+                for (int child : children[node]) {
+                    if (values[child]) {
+                        yield true;
+                    }
+                }
+                yield false;
+            }
+        };
+    }
+
+    /**
+     * Преобразовать факт в значения переменных по номерам
+     * @param fact значения переменных по именам
+     * @return значения переменных по номерам
+     */
+    private boolean[] toVariables(Map<String, Boolean> fact) {
+        boolean[] variables = new boolean[variableIndexes.size()];
+        for (Map.Entry<String, Integer> variable : variableIndexes.entrySet()) {
+            Boolean value = fact.get(variable.getKey());
+            if (value == null) {
+                throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+            }
+            variables[variable.getValue()] = value;
+        }
+        return variables;
+    }
+
+    /**
+     * Преобразовать списки номеров в массивы
+     * @param lists списки номеров
+     * @return массивы номеров
+     */
+    private static int[][] toArrays(List<List<Integer>> lists) {
+        int[][] arrays = new int[lists.size()][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = lists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return arrays;
+    }
+
+    /**
+     * Построитель узлов сети с объединением одинаковых подвыражений
+     */
+    private static class NetworkBuilder {
+
+        /**
+         * Номера переменных по именам
+         */
+        private final Map<String, Integer> variableIndexes = new LinkedHashMap<>();
+
+        /**
+         * Номера узлов по ключам подвыражений
+         */
+        private final Map<String, Integer> nodeIndexes = new HashMap<>();
+
+        /**
+         * Виды узлов
+         */
+        private final List<Integer> kinds = new ArrayList<>();
+
+        /**
+         * Параметры узлов
+         */
+        private final List<Integer> arguments = new ArrayList<>();
+
+        /**
+         * Операнды узлов
+         */
+        private final List<int[]> children = new ArrayList<>();
+
+        /**
+         * Получить номер узла для подвыражения, создав узел при необходимости
+         * @param node узел дерева выражения
+         * @return номер узла сети
+         */
+        private int intern(Node node) {
+            if (node instanceof VariableNode variableNode) {
+                int variable = variableIndexes.computeIfAbsent(variableNode.getName(), name -> variableIndexes.size());
+                return add("v" + variable, VARIABLE, variable, new int[0]);
+            }
+            if (node instanceof BooleanNode booleanNode) {
+                int value = booleanNode.getValue() ? 1 : 0;
+                return add("c" + value, CONSTANT, value, new int[0]);
+            }
+            if (node instanceof UnaryOperatorNode unaryNode && unaryNode.getOperator() == '!') {
+                int operand = intern(unaryNode.getOperand());
+                if (kinds.get(operand) == NOT) {
+                    return children.get(operand)[0];
+                }
+                if (kinds.get(operand) == CONSTANT) {
+                    int value = 1 - arguments.get(operand);
+                    return add("c" + value, CONSTANT, value, new int[0]);
+                }
+                return add("!" + operand, NOT, 0, new int[]{operand});
+            }
+            if (node instanceof BinaryOperatorNode binaryNode) {
+                char operator = binaryNode.getOperator();
+                List<Node> operands = new ArrayList<>();
+                flatten(binaryNode, operator, operands);
+                int[] operandNodes = operands.stream().mapToInt(this::intern).sorted().distinct().toArray();
+                if (operandNodes.length == 1) {
+                    return operandNodes[0];
+                }
+                return add(operator + Arrays.toString(operandNodes), operator == '&' ? AND : OR, 0, operandNodes);
+            }
+            throw new ParserException(ErrorType.INCORRECT_LOGIC_TYPE);
+        }
+
+        /**
+         * Добавить узел, если такого ещё нет
+         * @param key ключ подвыражения
+         * @param kind вид узла
+         * @param argument параметр узла
+         * @param operands операнды узла
+         * @return номер узла
+         */
+        private int add(String key, int kind, int argument, int[] operands) {
+            return nodeIndexes.computeIfAbsent(key, newKey -> {
+                kinds.add(kind);
+                arguments.add(argument);
+                children.add(operands);
+                return kinds.size() - 1;
+            });
+        }
+
+        /**
+         * Развернуть цепочку одинаковых операторов в список операндов
+         * @param node узел
+         * @param operator оператор цепочки
+         * @param operands список операндов
+         */
+        private static void flatten(Node node, char operator, List<Node> operands) {
+            if (node instanceof BinaryOperatorNode binaryNode && binaryNode.getOperator() == operator) {
+                flatten(binaryNode.getLeft(), operator, operands);
+                flatten(binaryNode.getRight(), operator, operands);
+            }
+            else {
+                operands.add(node);
+            }
+        }
+    }
+}
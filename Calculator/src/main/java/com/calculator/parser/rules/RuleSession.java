@@ -0,0 +1,117 @@
+package com.calculator.parser.rules;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сеанс пошагового сопоставления правил с изменяющимся фактом.
+ * Сеанс хранит значения всех узлов сети; при изменении переменных пересчитываются только узлы,
+ * зависящие от изменившихся переменных, и только правила, значение которых могло измениться.
+ * Сеанс не предназначен для использования из нескольких потоков
+ */
+public class RuleSession {
+
+    /**
+     * Сеть правил
+     */
+    private final RuleNetwork network;
+
+    /**
+     * Текущие значения переменных по номерам сети
+     */
+    private final boolean[] variables;
+
+    /**
+     * Текущие значения узлов
+     */
+    private final boolean[] values;
+
+    /**
+     * Узлы, требующие пересчёта
+     */
+    private final BitSet dirty = new BitSet();
+
+    /**
+     * Выполняющиеся правила
+     */
+    private final BitSet matched = new BitSet();
+
+    /**
+     * Количество пересчитанных узлов за время сеанса
+     */
+    private long evaluatedNodesCount;
+
+    /**
+     * Конструктор - создание сеанса, все переменные ложны
+     * @param network сеть правил
+     */
+    RuleSession(RuleNetwork network) {
+        this.network = network;
+        this.variables = new boolean[network.getVariableIndexes().size()];
+        this.values = new boolean[network.getNodesCount()];
+        dirty.set(0, values.length);
+        propagate(true);
+    }
+
+    /**
+     * Изменить значения переменных и найти выполняющиеся правила
+     * @param changes новые значения части переменных по именам; переменные, не входящие в сеть, игнорируются
+     * @return идентификаторы выполняющихся правил в порядке добавления
+     */
+    public List<String> update(Map<String, Boolean> changes) {
+        Map<String, Integer> variableIndexes = network.getVariableIndexes();
+        for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+            Integer variable = variableIndexes.get(change.getKey());
+            if (variable != null && variables[variable] != change.getValue()) {
+                variables[variable] = change.getValue();
+                dirty.set(network.variableNodes[variable]);
+            }
+        }
+        propagate(false);
+        return getMatchedRules();
+    }
+
+    /**
+     * Получить правила, выполняющиеся для текущих значений переменных
+     * @return идентификаторы правил в порядке добавления
+     */
+    public List<String> getMatchedRules() {
+        List<String> rules = new ArrayList<>(matched.cardinality());
+        for (int rule = matched.nextSetBit(0); rule >= 0; rule = matched.nextSetBit(rule + 1)) {
+            rules.add(network.getRuleId(rule));
+        }
+        return rules;
+    }
+
+    /**
+     * Получить количество пересчитанных узлов за время сеанса
+     * @return количество узлов
+     */
+    public long getEvaluatedNodesCount() {
+        return evaluatedNodesCount;
+    }
+
+    /**
+     * Пересчитать узлы, требующие пересчёта, в топологическом порядке
+     * @param force обновить правила даже при неизменившемся значении узла
+     */
+    private void propagate(boolean force) {
+        for (int node = dirty.nextSetBit(0); node >= 0; node = dirty.nextSetBit(node + 1)) {
+            dirty.clear(node);
+            evaluatedNodesCount++;
+            boolean value = network.evaluateNode(node, values, variables);
+            if (value == values[node] && !force) {
+                continue;
+            }
+            values[node] = value;
+            for (int parent : network.parents[node]) {
+                dirty.set(parent);
+            }
+            for (int rule : network.nodeRules[node]) {
+                matched.set(rule, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.calculator.parser.service;
+
+import java.util.Locale;
+
+/**
+ * Отчёт о пакетном вычислении выражения над файлом
+ */
+public class BulkEvaluationReport {
+
+    /**
+     * Количество строк
+     */
+    private final long rows;
+
+    /**
+     * Количество строк с ошибками
+     */
+    private final long errors;
+
+    /**
+     * Размер входного файла в байтах
+     */
+    private final long bytes;
+
+    /**
+     * Время вычисления в наносекундах
+     */
+    private final long nanos;
+
+    /**
+     * Конструктор - создание отчёта
+     * @param rows количество строк
+     * @param errors количество строк с ошибками
+     * @param bytes размер входного файла в байтах
+     * @param nanos время вычисления в наносекундах
+     */
+    public BulkEvaluationReport(long rows, long errors, long bytes, long nanos) {
+        this.rows = rows;
+        this.errors = errors;
+        this.bytes = bytes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Получить количество строк
+     * @return количество строк
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Получить количество строк с ошибками; результат таких строк - NaN
+     * @return количество строк
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Получить размер входного файла
+     * @return размер в байтах
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Получить время вычисления
+     * @return время в наносекундах
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Получить скорость вычисления в строках
+     * @return строк в секунду
+     */
+    public double getRowsPerSecond() {
+        return nanos == 0 ? 0 : rows * 1e9 / nanos;
+    }
+
+    /**
+     * Получить скорость чтения входного файла
+     * @return байтов в секунду
+     */
+    public double getBytesPerSecond() {
+        return nanos == 0 ? 0 : bytes * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d rows (%d errors), %d bytes in %.3f s: %.0f rows/s, %.1f MB/s",
+                rows, errors, bytes, nanos / 1e9, getRowsPerSecond(), getBytesPerSecond() / (1 << 20));
+    }
+}
@@ -0,0 +1,137 @@
+package com.calculator.parser.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Разбор десятичных чисел непосредственно из байтов без создания строк.
+ * Числа, мантисса которых помещается в 53 бита, а десятичный порядок не превышает 22,
+ * вычисляются одним точным умножением или делением, остальные разбираются стандартным способом
+ */
+final class ByteNumberParser {
+
+    /**
+     * Точно представимые степени десяти
+     */
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * Максимальная точно представимая мантисса
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private ByteNumberParser() {
+    }
+
+    /**
+     * Разобрать число из диапазона байтов
+     * @param buffer буфер
+     * @param start начало числа
+     * @param end конец числа (не включительно)
+     * @return число
+     * @throws NumberFormatException диапазон не содержит числа
+     */
+    static double parse(ByteBuffer buffer, int start, int end) {
+        while (start < end && isSpace(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isSpace(buffer.get(end - 1))) {
+            end--;
+        }
+        int position = start;
+        boolean negative = false;
+        if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            negative = buffer.get(position) == '-';
+            position++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean dot = false;
+        boolean digitFound = false;
+        for (; position < end; position++) {
+            byte symbol = buffer.get(position);
+            if (symbol >= '0' && symbol <= '9') {
+                digitFound = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (symbol - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (dot) {
+                        exponent--;
+                    }
+                }
+                else {
+                    return parseSlow(buffer, start, end);
+                }
+            }
+            else if (symbol == '.' && !dot) {
+                dot = true;
+            }
+            else {
+                break;
+            }
+        }
+        if (!digitFound || position < end && buffer.get(position) != 'e' && buffer.get(position) != 'E') {
+            return parseSlow(buffer, start, end);
+        }
+        if (position < end) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+                negativeExponent = buffer.get(position) == '-';
+                position++;
+            }
+            int exponentStart = position;
+            int explicitExponent = 0;
+            for (; position < end && explicitExponent < 10000; position++) {
+                byte symbol = buffer.get(position);
+                if (symbol < '0' || symbol > '9') {
+                    return parseSlow(buffer, start, end);
+                }
+                explicitExponent = explicitExponent * 10 + (symbol - '0');
+            }
+            if (position == exponentStart || position < end) {
+                return parseSlow(buffer, start, end);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (mantissa >= MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            return parseSlow(buffer, start, end);
+        }
+        double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Разобрать число стандартным способом
+     * @param buffer буфер
+     * @param start начало числа
+     * @param end конец числа (не включительно)
+     * @return число
+     */
+    private static double parseSlow(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Является ли байт пробельным символом
+     * @param symbol байт
+     * @return логический результат проверки
+     */
+    private static boolean isSpace(byte symbol) {
+        return symbol == ' ' || symbol == '\t' || symbol == '\r';
+    }
+}
@@ -0,0 +1,298 @@
+package com.calculator.parser.service;
+
+import com.calculator.parser.compiler.CompiledExpression;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Сервис асинхронного вычисления скомпилированных выражений.
+ * Одинаковые запросы, находящиеся в обработке, объединяются в один, а запросы к одному выражению,
+ * накопившиеся до начала обработки, вычисляются пакетом за один проход по столбцам
+ */
+public class ExpressionEvaluationService implements AutoCloseable {
+
+    /**
+     * Размер пакета по умолчанию
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+
+    /**
+     * Исполнитель вычислений
+     */
+    private final Executor executor;
+
+    /**
+     * Создан ли исполнитель сервисом (и должен ли сервис его завершить)
+     */
+    private final boolean ownExecutor;
+
+    /**
+     * Максимальный размер пакета
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Запросы в обработке
+     */
+    private final ConcurrentMap<RequestKey, CompletableFuture<?>> inFlightRequests = new ConcurrentHashMap<>();
+
+    /**
+     * Очереди запросов по выражениям
+     */
+    private final ConcurrentMap<CompiledExpression<?>, Batch<?>> batches = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор - создание сервиса с исполнителем по умолчанию:
+     * виртуальные потоки на Java 21+, иначе пул потоков по числу процессоров
+     */
+    public ExpressionEvaluationService() {
+        this(createDefaultExecutor(), true, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Конструктор - создание сервиса с заданным исполнителем
+     * @param executor исполнитель вычислений, завершается вызывающей стороной
+     * @param maxBatchSize максимальный размер пакета
+     */
+    public ExpressionEvaluationService(Executor executor, int maxBatchSize) {
+        this(executor, false, maxBatchSize);
+    }
+
+    /**
+     * Конструктор - создание сервиса
+     * @param executor исполнитель вычислений
+     * @param ownExecutor создан ли исполнитель сервисом
+     * @param maxBatchSize максимальный размер пакета
+     */
+    private ExpressionEvaluationService(Executor executor, boolean ownExecutor, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Вычислить выражение асинхронно
+     * @param expression скомпилированное выражение
+     * @param variablesValue значения переменных по именам
+     * @param <T> тип результата
+     * @return будущий результат выражения
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> evaluate(CompiledExpression<T> expression, Map<String, T> variablesValue) {
+        RequestKey key = new RequestKey(expression, Map.copyOf(variablesValue));
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<?> inFlightRequest = inFlightRequests.putIfAbsent(key, future);
+        if (inFlightRequest != null) {
+            return ((CompletableFuture<T>) inFlightRequest).copy();
+        }
+        future.whenComplete((result, exception) -> inFlightRequests.remove(key, future));
+
+        Batch<T> batch = (Batch<T>) batches.computeIfAbsent(expression, k -> new Batch<>(expression));
+        batch.requests.add(new Request<>((Map<String, T>) key.variablesValue, future));
+        if (batch.scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> drain(batch));
+        }
+        return future.copy();
+    }
+
+    /**
+     * Получить количество запросов в обработке
+     * @return количество запросов
+     */
+    public int getInFlightRequestsCount() {
+        return inFlightRequests.size();
+    }
+
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    /**
+     * Обработать накопленные запросы к выражению пакетами
+     * @param batch очередь запросов к выражению
+     * @param <T> тип результата
+     */
+    private <T> void drain(Batch<T> batch) {
+        while (true) {
+            List<Request<T>> requests = new ArrayList<>();
+            Request<T> request;
+            while (requests.size() < maxBatchSize && (request = batch.requests.poll()) != null) {
+                requests.add(request);
+            }
+            if (!requests.isEmpty()) {
+                evaluateBatch(batch.expression, requests);
+                continue;
+            }
+            batch.scheduled.set(false);
+            if (batch.requests.isEmpty() || !batch.scheduled.compareAndSet(false, true)) {
+                batches.remove(batch.expression, batch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Вычислить пакет запросов. При ошибке в пакете запросы вычисляются по одному,
+     * чтобы ошибка одной строки не затрагивала остальные
+     * @param expression скомпилированное выражение
+     * @param requests запросы
+     * @param <T> тип результата
+     */
+    private static <T> void evaluateBatch(CompiledExpression<T> expression, List<Request<T>> requests) {
+        List<Map<String, T>> variablesValues = new ArrayList<>(requests.size());
+        for (Request<T> request : requests) {
+            variablesValues.add(request.variablesValue);
+        }
+        try {
+            List<T> results = expression.evaluateBatch(variablesValues);
+            for (int i = 0; i < requests.size(); i++) {
+                requests.get(i).future.complete(results.get(i));
+            }
+        }
+        catch (RuntimeException batchException) {
+            for (Request<T> request : requests) {
+                try {
+                    request.future.complete(expression.evaluate(request.variablesValue));
+                }
+                catch (RuntimeException exception) {
+                    request.future.completeExceptionally(exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * Создать исполнитель по умолчанию
+     * @return исполнитель
+     */
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            Method virtualThreadExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualThreadExecutor.invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "expression-evaluation");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Ключ запроса: выражение и значения переменных
+     */
+    private static final class RequestKey {
+
+        /**
+         * Скомпилированное выражение
+         */
+        private final CompiledExpression<?> expression;
+
+        /**
+         * Значения переменных
+         */
+        private final Map<String, ?> variablesValue;
+
+        /**
+         * Конструктор - создание ключа запроса
+         * @param expression скомпилированное выражение
+         * @param variablesValue значения переменных
+         */
+        RequestKey(CompiledExpression<?> expression, Map<String, ?> variablesValue) {
+            this.expression = expression;
+            this.variablesValue = variablesValue;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof RequestKey other)) {
+                return false;
+            }
+            return expression == other.expression && variablesValue.equals(other.variablesValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(expression) + variablesValue.hashCode();
+        }
+    }
+
+    /**
+     * Запрос на вычисление
+     * @param <T> тип результата
+     */
+    private static final class Request<T> {
+
+        /**
+         * Значения переменных
+         */
+        private final Map<String, T> variablesValue;
+
+        /**
+         * Будущий результат
+         */
+        private final CompletableFuture<T> future;
+
+        /**
+         * Конструктор - создание запроса
+         * @param variablesValue значения переменных
+         * @param future будущий результат
+         */
+        Request(Map<String, T> variablesValue, CompletableFuture<T> future) {
+            this.variablesValue = variablesValue;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Очередь запросов к одному выражению
+     * @param <T> тип результата
+     */
+    private static final class Batch<T> {
+
+        /**
+         * Скомпилированное выражение
+         */
+        private final CompiledExpression<T> expression;
+
+        /**
+         * Накопленные запросы
+         */
+        private final Queue<Request<T>> requests = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Запланирована ли обработка очереди
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /**
+         * Конструктор - создание очереди запросов
+         * @param expression скомпилированное выражение
+         */
+        Batch(CompiledExpression<T> expression) {
+            this.expression = expression;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.calculator.parser.service;
+
+import com.calculator.parser.compiler.CompiledExpression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Потоковый обработчик: получает значения переменных, публикует результаты скомпилированного выражения.
+ * Значения собираются в ограниченные пакеты, пакеты вычисляются параллельно, результаты публикуются в порядке поступления.
+ * Запрос новых значений у источника выполняется только после публикации результатов,
+ * поэтому медленный подписчик сдерживает источник. Результаты публикуются отдельным потоком обработчика:
+ * ожидание места в буфере подписчиков не занимает потоки исполнителя, которые доставляют результаты
+ * @param <T> тип результата и значений переменных
+ */
+public class ExpressionStreamProcessor<T> extends SubmissionPublisher<T> implements Flow.Processor<Map<String, T>, T> {
+
+    /**
+     * Скомпилированное выражение
+     */
+    private final CompiledExpression<T> expression;
+
+    /**
+     * Исполнитель вычислений
+     */
+    private final Executor executor;
+
+    /**
+     * Поток публикации результатов, который может ожидать места в буфере подписчиков
+     */
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "expression-stream-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Максимальный размер пакета
+     */
+    private final int batchSize;
+
+    /**
+     * Максимальное количество одновременно вычисляемых пакетов
+     */
+    private final int maxInFlightBatches;
+
+    /**
+     * Максимальное время ожидания заполнения пакета в миллисекундах, 0 - без ограничения
+     */
+    private final long maxBatchDelayMillis;
+
+    /**
+     * Подписка на источник значений
+     */
+    private Flow.Subscription subscription;
+
+    /**
+     * Заполняемый пакет
+     */
+    private List<Map<String, T>> currentBatch = new ArrayList<>();
+
+    /**
+     * Номер заполняемого пакета
+     */
+    private long currentBatchNumber;
+
+    /**
+     * Публикация результатов последнего отправленного на вычисление пакета
+     */
+    private CompletableFuture<Void> publication = CompletableFuture.completedFuture(null);
+
+    /**
+     * Завершена ли обработка
+     */
+    private boolean terminated;
+
+    /**
+     * Конструктор - создание потокового обработчика
+     * @param expression скомпилированное выражение
+     * @param executor исполнитель вычислений и доставки результатов
+     * @param batchSize максимальный размер пакета
+     * @param maxInFlightBatches максимальное количество одновременно вычисляемых пакетов
+     * @param maxBatchDelayMillis максимальное время ожидания заполнения пакета в миллисекундах, 0 - без ограничения
+     */
+    public ExpressionStreamProcessor(CompiledExpression<T> expression, Executor executor,
+                                     int batchSize, int maxInFlightBatches, long maxBatchDelayMillis) {
+        super(executor, Math.max(batchSize, Flow.defaultBufferSize()));
+        if (batchSize < 1 || maxInFlightBatches < 1 || maxBatchDelayMillis < 0) {
+            throw new IllegalArgumentException("Incorrect batching parameters");
+        }
+        this.expression = expression;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.maxBatchDelayMillis = maxBatchDelayMillis;
+    }
+
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request((long) batchSize * maxInFlightBatches);
+    }
+
+    @Override
+    public synchronized void onNext(Map<String, T> variablesValue) {
+        if (terminated) {
+            return;
+        }
+        currentBatch.add(variablesValue);
+        if (currentBatch.size() >= batchSize) {
+            dispatchCurrentBatch();
+        }
+        else if (currentBatch.size() == 1 && maxBatchDelayMillis > 0) {
+            long batchNumber = currentBatchNumber;
+            CompletableFuture.delayedExecutor(maxBatchDelayMillis, TimeUnit.MILLISECONDS, executor)
+                             .execute(() -> flush(batchNumber));
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        if (terminated) {
+            return;
+        }
+        dispatchCurrentBatch();
+        terminated = true;
+        publication.whenComplete((ignored, exception) -> closeExceptionally(exception != null ? exception : throwable));
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        if (terminated) {
+            return;
+        }
+        dispatchCurrentBatch();
+        terminated = true;
+        publication.whenComplete((ignored, exception) -> {
+            if (exception == null) {
+                close();
+            }
+        });
+    }
+
+    /**
+     * Отправить заполняемый пакет на вычисление по истечении времени ожидания
+     * @param batchNumber номер пакета, для которого истекло время ожидания
+     */
+    private synchronized void flush(long batchNumber) {
+        if (!terminated && batchNumber == currentBatchNumber) {
+            dispatchCurrentBatch();
+        }
+    }
+
+    /**
+     * Отправить заполняемый пакет на вычисление и поставить публикацию его результатов в очередь за предыдущими
+     */
+    private void dispatchCurrentBatch() {
+        if (currentBatch.isEmpty()) {
+            return;
+        }
+        List<Map<String, T>> batch = currentBatch;
+        currentBatch = new ArrayList<>(batchSize);
+        currentBatchNumber++;
+
+        CompletableFuture<List<T>> results = CompletableFuture.supplyAsync(() -> expression.evaluateBatch(batch), executor);
+        publication = publication.thenCombineAsync(results, (ignored, batchResults) -> {
+            for (T result : batchResults) {
+                submit(result);
+            }
+            subscription.request(batch.size());
+            return (Void) null;
+        }, publisher);
+        publication.whenComplete((ignored, exception) -> {
+            if (exception != null) {
+                fail(exception);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        publisher.shutdown();
+    }
+
+    @Override
+    public void closeExceptionally(Throwable error) {
+        super.closeExceptionally(error);
+        publisher.shutdown();
+    }
+
+    /**
+     * Завершить обработку с ошибкой вычисления
+     * @param exception ошибка
+     */
+    private synchronized void fail(Throwable exception) {
+        if (!terminated) {
+            terminated = true;
+            subscription.cancel();
+        }
+        closeExceptionally(exception);
+    }
+}
@@ -0,0 +1,566 @@
+package com.calculator.parser.service;
+
+import com.calculator.parser.compiler.CompiledExpression;
+import com.calculator.parser.compiler.Program;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Пакетное вычисление выражения над файлом значений переменных.
+ * Файл разбивается на части по границам строк, каждая часть отображается в память через {@link FileChannel#map}
+ * и вычисляется в отдельном потоке: числа разбираются непосредственно из байтов, строки собираются в блоки
+ * и вычисляются за один проход по столбцам. Текстовые результаты форматируются в переиспользуемый буфер
+ * без создания строк. Результаты записываются в выходной файл в порядке строк входного,
+ * количество одновременно обрабатываемых частей ограничено
+ */
+public class MappedFileEvaluator {
+
+    /**
+     * Размер части файла по умолчанию в байтах
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+    /**
+     * Количество строк в блоке вычисления по столбцам
+     */
+    private static final int BLOCK_ROWS = 1024;
+
+    /**
+     * Формат входного файла
+     */
+    public enum Format {
+        /**
+         * CSV: строка заголовка с именами переменных, затем значения через запятую; результат - число в строке
+         */
+        CSV,
+        /**
+         * Записи фиксированной длины: значения переменных (double) в порядке первого появления в выражении;
+         * результат - double в том же порядке байтов
+         */
+        BINARY
+    }
+
+    /**
+     * Скомпилированное выражение
+     */
+    private final CompiledExpression<?> expression;
+
+    /**
+     * Количество потоков вычисления
+     */
+    private final int threads;
+
+    /**
+     * Размер части файла в байтах
+     */
+    private final int chunkSize;
+
+    /**
+     * Порядок байтов двоичных файлов
+     */
+    private final ByteOrder byteOrder;
+
+    /**
+     * Конструктор - создание вычислителя с параметрами по умолчанию
+     * @param expression скомпилированное выражение
+     */
+    public MappedFileEvaluator(CompiledExpression<?> expression) {
+        this(expression, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Конструктор - создание вычислителя
+     * @param expression скомпилированное выражение
+     * @param threads количество потоков вычисления
+     * @param chunkSize размер части файла в байтах
+     * @param byteOrder порядок байтов двоичных файлов
+     * @throws ParserException выражение содержит агрегаты или окна
+     */
+    public MappedFileEvaluator(CompiledExpression<?> expression, int threads, int chunkSize, ByteOrder byteOrder) {
+        if (threads < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Threads and chunk size must be positive");
+        }
+        expression.checkNoDerivedValues();
+        this.expression = expression;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.byteOrder = byteOrder;
+    }
+
+    /**
+     * Вычислить выражение для всех строк входного файла
+     * @param input входной файл
+     * @param format формат входного файла
+     * @param output выходной файл, перезаписывается
+     * @return отчёт о вычислении
+     */
+    public BulkEvaluationReport evaluate(Path input, Format format, Path output) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = inputChannel.size();
+            long dataStart = 0;
+            int[] columnSlots = null;
+            if (format == Format.CSV) {
+                ByteBuffer header = readHeader(inputChannel);
+                dataStart = header.remaining() + 1L;
+                columnSlots = columnSlots(StandardCharsets.UTF_8.decode(header).toString().strip());
+            }
+            else if (expression.getVariables().isEmpty()) {
+                throw new IllegalArgumentException("Binary input requires at least one variable");
+            }
+
+            long rows = 0;
+            long errors = 0;
+            Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+            List<Long> boundaries = chunkBoundaries(inputChannel, format, dataStart, size);
+            for (int i = 0; i + 1 < boundaries.size(); i++) {
+                long chunkStart = boundaries.get(i);
+                long chunkEnd = boundaries.get(i + 1);
+                MappedByteBuffer chunk = inputChannel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart);
+                int[] slots = columnSlots;
+                inFlight.add(executor.submit(() -> format == Format.CSV ? evaluateCsv(chunk, slots) : evaluateBinary(chunk)));
+                if (inFlight.size() > threads) {
+                    ChunkResult result = await(inFlight.poll());
+                    rows += result.rows;
+                    errors += result.errors;
+                    write(outputChannel, result.output);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                ChunkResult result = await(inFlight.poll());
+                rows += result.rows;
+                errors += result.errors;
+                write(outputChannel, result.output);
+            }
+            return new BulkEvaluationReport(rows, errors, size, System.nanoTime() - start);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Вычислить часть файла CSV
+     * @param chunk отображённая часть файла, начинается с начала строки и заканчивается концом строки
+     * @param columnSlots номера переменных по номерам столбцов, -1 - столбец не используется
+     * @return результат вычисления части
+     */
+    private ChunkResult evaluateCsv(ByteBuffer chunk, int[] columnSlots) {
+        Block block = new Block(expression.getVariables().size());
+        ResultWriter writer = new ResultWriter(Format.CSV, byteOrder, chunk.limit() / 2);
+        int limit = chunk.limit();
+        int position = 0;
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd > position && !(lineEnd == position + 1 && chunk.get(position) == '\r')) {
+                int row = block.rows;
+                int column = 0;
+                int fieldStart = position;
+                for (int i = position; i <= lineEnd; i++) {
+                    if (i == lineEnd || chunk.get(i) == ',') {
+                        int slot = column < columnSlots.length ? columnSlots[column] : -1;
+                        if (slot >= 0) {
+                            try {
+                                block.columns[slot][row] = ByteNumberParser.parse(chunk, fieldStart, i);
+                            }
+                            catch (NumberFormatException exception) {
+                                block.invalid[row] = true;
+                            }
+                        }
+                        column++;
+                        fieldStart = i + 1;
+                    }
+                }
+                if (column < columnSlots.length) {
+                    block.invalid[row] = true;
+                }
+                if (++block.rows == BLOCK_ROWS) {
+                    block.flush(writer);
+                }
+            }
+            position = lineEnd + 1;
+        }
+        block.flush(writer);
+        return writer.finish(block);
+    }
+
+    /**
+     * Вычислить часть двоичного файла
+     * @param chunk отображённая часть файла из целого числа записей
+     * @return результат вычисления части
+     */
+    private ChunkResult evaluateBinary(ByteBuffer chunk) {
+        int variablesCount = expression.getVariables().size();
+        int recordSize = variablesCount * Double.BYTES;
+        Block block = new Block(variablesCount);
+        ResultWriter writer = new ResultWriter(Format.BINARY, byteOrder, chunk.limit() / variablesCount);
+        chunk.order(byteOrder);
+        for (int record = 0; record + recordSize <= chunk.limit(); record += recordSize) {
+            for (int slot = 0; slot < variablesCount; slot++) {
+                block.columns[slot][block.rows] = chunk.getDouble(record + slot * Double.BYTES);
+            }
+            if (++block.rows == BLOCK_ROWS) {
+                block.flush(writer);
+            }
+        }
+        block.flush(writer);
+        if (chunk.limit() % recordSize != 0) {
+            block.errors++;
+        }
+        return writer.finish(block);
+    }
+
+    /**
+     * Прочитать строку заголовка CSV
+     * @param channel входной файл
+     * @return байты заголовка без перевода строки
+     */
+    private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 << 10);
+        int read = channel.read(buffer, 0);
+        for (int i = 0; i < Math.max(read, 0); i++) {
+            if (buffer.get(i) == '\n') {
+                return buffer.flip().limit(i);
+            }
+        }
+        throw new IllegalArgumentException("CSV header line is missing or too long");
+    }
+
+    /**
+     * Сопоставить столбцы CSV переменным выражения
+     * @param header строка заголовка
+     * @return номера переменных по номерам столбцов
+     */
+    private int[] columnSlots(String header) {
+        String[] names = header.split(",");
+        int[] slots = new int[names.length];
+        Arrays.fill(slots, -1);
+        for (String variable : expression.getVariables()) {
+            boolean found = false;
+            for (int column = 0; column < names.length; column++) {
+                if (names[column].strip().equals(variable)) {
+                    slots[column] = expression.getVariableSlots().get(variable);
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                throw new IllegalArgumentException("No column for variable " + variable);
+            }
+        }
+        int last = slots.length;
+        while (last > 0 && slots[last - 1] < 0) {
+            last--;
+        }
+        return Arrays.copyOf(slots, last);
+    }
+
+    /**
+     * Получить границы частей файла
+     * @param channel входной файл
+     * @param format формат файла
+     * @param dataStart начало данных
+     * @param size размер файла
+     * @return начала частей и конец последней части
+     */
+    private List<Long> chunkBoundaries(FileChannel channel, Format format, long dataStart, long size) throws IOException {
+        List<Long> boundaries = new ArrayList<>();
+        long boundary = dataStart;
+        while (boundary < size) {
+            boundaries.add(boundary);
+            boundary = nextBoundary(channel, format, dataStart, boundary, size);
+        }
+        boundaries.add(size);
+        return boundaries;
+    }
+
+    /**
+     * Получить конец части файла: границу строки или записи не раньше, чем через размер части
+     * @param channel входной файл
+     * @param format формат файла
+     * @param dataStart начало данных
+     * @param chunkStart начало части
+     * @param size размер файла
+     * @return конец части
+     */
+    private long nextBoundary(FileChannel channel, Format format, long dataStart, long chunkStart, long size)
+            throws IOException {
+        long end = Math.min(size, chunkStart + chunkSize);
+        if (end == size) {
+            return size;
+        }
+        if (format == Format.BINARY) {
+            long recordSize = (long) expression.getVariables().size() * Double.BYTES;
+            return Math.max(end - (end - dataStart) % recordSize, chunkStart + recordSize);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8 << 10);
+        while (end < size) {
+            buffer.clear();
+            int read = channel.read(buffer, end);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return end + i + 1;
+                }
+            }
+            end += read;
+        }
+        return size;
+    }
+
+    /**
+     * Дождаться результата части файла
+     * @param future результат части
+     * @return результат части
+     */
+    private static ChunkResult await(Future<ChunkResult> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exception);
+        }
+        catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(exception.getCause());
+        }
+    }
+
+    /**
+     * Записать буфер в файл полностью
+     * @param channel выходной файл
+     * @param buffer буфер
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Блок строк, вычисляемый за один проход по столбцам
+     */
+    private class Block {
+
+        /**
+         * Значения переменных по столбцам
+         */
+        private final double[][] columns;
+
+        /**
+         * Признаки строк с неверными значениями
+         */
+        private final boolean[] invalid = new boolean[BLOCK_ROWS];
+
+        /**
+         * Результаты блока
+         */
+        private final double[] results = new double[BLOCK_ROWS];
+
+        /**
+         * Значения переменных одной строки
+         */
+        private final double[] row;
+
+        /**
+         * Количество строк в блоке
+         */
+        private int rows;
+
+        /**
+         * Количество строк с ошибками
+         */
+        private long errors;
+
+        /**
+         * Количество вычисленных строк
+         */
+        private long evaluatedRows;
+
+        /**
+         * Конструктор - создание блока
+         * @param variablesCount количество переменных
+         */
+        private Block(int variablesCount) {
+            this.columns = new double[variablesCount][BLOCK_ROWS];
+            this.row = new double[variablesCount];
+        }
+
+        /**
+         * Вычислить блок и записать результаты; при ошибке вычисления строки вычисляются по одной,
+         * результат строки с ошибкой - NaN
+         * @param writer запись результатов
+         */
+        private void flush(ResultWriter writer) {
+            Program program = expression.getProgram();
+            boolean rowByRow = false;
+            for (int i = 0; i < rows && !rowByRow; i++) {
+                rowByRow = invalid[i];
+            }
+            if (!rowByRow) {
+                try {
+                    program.executeColumns(columns, rows, results);
+                }
+                catch (ParserException exception) {
+                    rowByRow = true;
+                }
+            }
+            if (rowByRow) {
+                for (int i = 0; i < rows; i++) {
+                    results[i] = Double.NaN;
+                    if (!invalid[i]) {
+                        for (int slot = 0; slot < row.length; slot++) {
+                            row[slot] = columns[slot][i];
+                        }
+                        try {
+                            results[i] = program.execute(row);
+                        }
+                        catch (ParserException exception) {
+                            invalid[i] = true;
+                        }
+                    }
+                    if (invalid[i]) {
+                        errors++;
+                        invalid[i] = false;
+                    }
+                }
+            }
+            for (int i = 0; i < rows; i++) {
+                writer.write(results[i]);
+            }
+            evaluatedRows += rows;
+            rows = 0;
+        }
+    }
+
+    /**
+     * Запись результатов части файла в байты выходного формата
+     */
+    private static class ResultWriter {
+
+        /**
+         * Формат результатов
+         */
+        private final Format format;
+
+        /**
+         * Буфер результатов
+         */
+        private ByteBuffer output;
+
+        /**
+         * Переиспользуемый буфер цифр текстового результата
+         */
+        private final StringBuilder digits = new StringBuilder(32);
+
+        /**
+         * Конструктор - создание записи результатов
+         * @param format формат результатов
+         * @param byteOrder порядок байтов двоичных результатов
+         * @param capacity начальный размер буфера
+         */
+        private ResultWriter(Format format, ByteOrder byteOrder, int capacity) {
+            this.format = format;
+            this.output = ByteBuffer.allocate(Math.max(capacity, 64)).order(byteOrder);
+        }
+
+        /**
+         * Записать результат
+         * @param result результат
+         */
+        private void write(double result) {
+            if (format == Format.BINARY) {
+                ensureCapacity(Double.BYTES);
+                output.putDouble(result);
+                return;
+            }
+            digits.setLength(0);
+            digits.append(result);
+            ensureCapacity(digits.length() + 1);
+            for (int i = 0; i < digits.length(); i++) {
+                output.put((byte) digits.charAt(i));
+            }
+            output.put((byte) '\n');
+        }
+
+        /**
+         * Завершить запись
+         * @param block вычисленный блок
+         * @return результат части
+         */
+        private ChunkResult finish(Block block) {
+            return new ChunkResult(output.flip(), block.evaluatedRows, block.errors);
+        }
+
+        /**
+         * Увеличить буфер при необходимости
+         * @param bytes количество записываемых байтов
+         */
+        private void ensureCapacity(int bytes) {
+            if (output.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(output.capacity() * 2, output.position() + bytes))
+                                              .order(output.order());
+                output.flip();
+                output = larger.put(output);
+            }
+        }
+    }
+
+    /**
+     * Результат вычисления части файла
+     */
+    private static class ChunkResult {
+
+        /**
+         * Результаты в выходном формате
+         */
+        private final ByteBuffer output;
+
+        /**
+         * Количество строк
+         */
+        private final long rows;
+
+        /**
+         * Количество строк с ошибками
+         */
+        private final long errors;
+
+        /**
+         * Конструктор - создание результата части
+         * @param output результаты в выходном формате
+         * @param rows количество строк
+         * @param errors количество строк с ошибками
+         */
+        private ChunkResult(ByteBuffer output, long rows, long errors) {
+            this.output = output;
+            this.rows = rows;
+            this.errors = errors;
+        }
+    }
+}
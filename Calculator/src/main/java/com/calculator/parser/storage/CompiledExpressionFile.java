@@ -0,0 +1,365 @@
+package com.calculator.parser.storage;
+
+import com.calculator.parser.compiler.CompiledExpression;
+import com.calculator.parser.compiler.CompiledLogicExpression;
+import com.calculator.parser.compiler.CompiledMathExpression;
+import com.calculator.parser.compiler.CompiledTypedExpression;
+import com.calculator.parser.compiler.ExpressionType;
+import com.calculator.parser.compiler.FunctionNode;
+import com.calculator.parser.compiler.MathFunctions;
+import com.calculator.parser.compiler.Node;
+import com.calculator.parser.compiler.OperatorTable;
+import com.calculator.parser.compiler.Program;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Файл скомпилированных выражений, отображённый в память.
+ * При открытии читается только заголовок, выражения восстанавливаются при первом обращении и кэшируются,
+ * поэтому время открытия не зависит от количества выражений в файле. Объект потокобезопасен
+ */
+public class CompiledExpressionFile {
+
+    /**
+     * Отображённое содержимое файла
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Количество записей
+     */
+    private final int size;
+
+    /**
+     * Доступные функции с одним параметром
+     */
+    private final Map<String, DoubleUnaryOperator> oneArgumentFunctions;
+
+    /**
+     * Доступные функции с двумя параметрами
+     */
+    private final Map<String, DoubleBinaryOperator> twoArgumentsFunctions;
+
+    /**
+     * Таблица пользовательских операторов
+     */
+    private final OperatorTable operators;
+
+    /**
+     * Восстановленные выражения
+     */
+    private final AtomicReferenceArray<CompiledExpression<?>> expressions;
+
+    /**
+     * Конструктор - создание файла выражений над содержимым
+     * @param buffer содержимое файла
+     * @param oneArgumentFunctions клиентские функции с одним параметром
+     * @param twoArgumentsFunctions клиентские функции с двумя параметрами
+     * @param operators таблица пользовательских операторов
+     * @throws IOException неверный формат файла
+     */
+    private CompiledExpressionFile(ByteBuffer buffer,
+                                   Map<String, DoubleUnaryOperator> oneArgumentFunctions,
+                                   Map<String, DoubleBinaryOperator> twoArgumentsFunctions,
+                                   OperatorTable operators) throws IOException {
+        if (buffer.capacity() < CompiledExpressionFormat.HEADER_SIZE ||
+                buffer.getInt(0) != CompiledExpressionFormat.MAGIC) {
+            throw new IOException("Not a compiled expressions file");
+        }
+        short version = buffer.getShort(4);
+        if (version < 1 || version > CompiledExpressionFormat.VERSION) {
+            throw new IOException("Unsupported compiled expressions file version " + version);
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        this.oneArgumentFunctions = new HashMap<>(MathFunctions.ONE_ARGUMENT_FUNCTIONS);
+        this.oneArgumentFunctions.putAll(oneArgumentFunctions);
+        this.twoArgumentsFunctions = new HashMap<>(MathFunctions.TWO_ARGUMENTS_FUNCTIONS);
+        this.twoArgumentsFunctions.putAll(twoArgumentsFunctions);
+        this.operators = operators;
+        this.expressions = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Открыть файл выражений, использующих только встроенные функции
+     * @param path путь к файлу
+     * @return файл выражений
+     * @throws IOException ошибка чтения или неверный формат файла
+     */
+    public static CompiledExpressionFile open(Path path) throws IOException {
+        return open(path, Map.of(), Map.of());
+    }
+
+    /**
+     * Открыть файл выражений
+     * @param path путь к файлу
+     * @param oneArgumentFunctions клиентские функции с одним параметром
+     * @param twoArgumentsFunctions клиентские функции с двумя параметрами
+     * @return файл выражений
+     * @throws IOException ошибка чтения или неверный формат файла
+     */
+    public static CompiledExpressionFile open(Path path,
+                                              Map<String, DoubleUnaryOperator> oneArgumentFunctions,
+                                              Map<String, DoubleBinaryOperator> twoArgumentsFunctions) throws IOException {
+        return open(path, oneArgumentFunctions, twoArgumentsFunctions, OperatorTable.math());
+    }
+
+    /**
+     * Открыть файл выражений с пользовательскими операторами
+     * @param path путь к файлу
+     * @param oneArgumentFunctions клиентские функции с одним параметром
+     * @param twoArgumentsFunctions клиентские функции с двумя параметрами
+     * @param operators таблица пользовательских операторов, по которой разрешаются операторы выражений
+     * @return файл выражений
+     * @throws IOException ошибка чтения или неверный формат файла
+     */
+    public static CompiledExpressionFile open(Path path,
+                                              Map<String, DoubleUnaryOperator> oneArgumentFunctions,
+                                              Map<String, DoubleBinaryOperator> twoArgumentsFunctions,
+                                              OperatorTable operators) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CompiledExpressionFile(buffer, oneArgumentFunctions, twoArgumentsFunctions, operators);
+        }
+    }
+
+    /**
+     * Получить количество выражений в файле
+     * @return количество выражений
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Получить имя выражения
+     * @param index номер выражения
+     * @return имя выражения
+     */
+    public String getName(int index) {
+        return readString(entryOffset(index) + 1);
+    }
+
+    /**
+     * Найти номер выражения по имени двоичным поиском по индексу файла
+     * @param name имя выражения
+     * @return номер выражения или -1, если выражение не найдено
+     */
+    public int indexOf(String name) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = getName(middle).compareTo(name);
+            if (comparison < 0) {
+                low = middle + 1;
+            }
+            else if (comparison > 0) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Получить выражение по номеру
+     * @param index номер выражения
+     * @return скомпилированное выражение
+     */
+    public CompiledExpression<?> getExpression(int index) {
+        CompiledExpression<?> expression = expressions.get(index);
+        if (expression == null) {
+            expression = readExpression(entryOffset(index));
+            if (!expressions.compareAndSet(index, null, expression)) {
+                expression = expressions.get(index);
+            }
+        }
+        return expression;
+    }
+
+    /**
+     * Получить математическое выражение по имени
+     * @param name имя выражения
+     * @return скомпилированное выражение или null, если выражение не найдено
+     */
+    public CompiledMathExpression getMathExpression(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : (CompiledMathExpression) getExpression(index);
+    }
+
+    /**
+     * Получить логическое выражение по имени
+     * @param name имя выражения
+     * @return скомпилированное выражение или null, если выражение не найдено
+     */
+    public CompiledLogicExpression getLogicExpression(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : (CompiledLogicExpression) getExpression(index);
+    }
+
+    /**
+     * Получить типизированное выражение по имени
+     * @param name имя выражения
+     * @return скомпилированное выражение или null, если выражение не найдено
+     */
+    public CompiledTypedExpression getTypedExpression(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : (CompiledTypedExpression) getExpression(index);
+    }
+
+    /**
+     * Получить смещение записи
+     * @param index номер записи
+     * @return смещение записи
+     */
+    private int entryOffset(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return Math.toIntExact(buffer.getLong(CompiledExpressionFormat.HEADER_SIZE + 8 * index));
+    }
+
+    /**
+     * Восстановить выражение из записи
+     * @param offset смещение записи
+     * @return скомпилированное выражение
+     */
+    private CompiledExpression<?> readExpression(int offset) {
+        byte kind = buffer.get(offset);
+        boolean logic = kind == CompiledExpressionFormat.LOGIC_EXPRESSION;
+        int position = offset + 1;
+        position += 4 + buffer.getInt(position);
+        String source = readString(position);
+        position += 4 + buffer.getInt(position);
+
+        String[] variables = new String[buffer.getShort(position)];
+        position = readStrings(position, variables);
+        String[] oneArgumentFunctionNames = new String[buffer.getShort(position)];
+        position = readStrings(position, oneArgumentFunctionNames);
+        String[] twoArgumentsFunctionNames = new String[buffer.getShort(position)];
+        position = readStrings(position, twoArgumentsFunctionNames);
+
+        double[] constants = new double[buffer.getInt(position)];
+        position += 4;
+        for (int i = 0; i < constants.length; i++, position += 8) {
+            constants[i] = buffer.getDouble(position);
+        }
+        int[] code = new int[buffer.getInt(position)];
+        position += 4;
+        for (int i = 0; i < code.length; i++, position += 4) {
+            code[i] = buffer.getInt(position);
+        }
+
+        DoubleUnaryOperator[] oneArgumentFunctionsTable = new DoubleUnaryOperator[oneArgumentFunctionNames.length];
+        for (int i = 0; i < oneArgumentFunctionNames.length; i++) {
+            String name = oneArgumentFunctionNames[i];
+            oneArgumentFunctionsTable[i] = FunctionNode.isOperator(name) ? require(operators.getPostfixOperator(name.charAt(0))) :
+                                           resolve(oneArgumentFunctions, name);
+        }
+        DoubleBinaryOperator[] twoArgumentsFunctionsTable = new DoubleBinaryOperator[twoArgumentsFunctionNames.length];
+        for (int i = 0; i < twoArgumentsFunctionNames.length; i++) {
+            String name = twoArgumentsFunctionNames[i];
+            twoArgumentsFunctionsTable[i] = FunctionNode.isOperator(name) ? require(operators.getBinaryOperator(name.charAt(0))) :
+                                            resolve(twoArgumentsFunctions, name);
+        }
+
+        Program program = new Program(code, constants, oneArgumentFunctionNames, oneArgumentFunctionsTable,
+                                      twoArgumentsFunctionNames, twoArgumentsFunctionsTable);
+        CompiledExpression<?> expression;
+        if (kind == CompiledExpressionFormat.TYPED_EXPRESSION) {
+            ExpressionType resultType = ExpressionType.values()[buffer.get(position++)];
+            Map<String, ExpressionType> variableTypes = new LinkedHashMap<>();
+            for (String variable : variables) {
+                variableTypes.put(variable, ExpressionType.values()[buffer.get(position++)]);
+            }
+            boolean[] booleanLiterals = new boolean[buffer.getInt(position)];
+            position += 4;
+            for (int i = 0; i < booleanLiterals.length; i++) {
+                booleanLiterals[i] = buffer.get(position++) != 0;
+            }
+            Node root = program.toTree(constant -> {
+                if (constant >= booleanLiterals.length) {
+                    throw new IllegalStateException("Corrupted literal kinds of expression " + source);
+                }
+                return booleanLiterals[constant];
+            }, variables);
+            expression = new CompiledTypedExpression(source, root, resultType, variableTypes);
+        }
+        else {
+            Node root = program.toTree(logic, variables);
+            expression = logic ? new CompiledLogicExpression(source, root) : new CompiledMathExpression(source, root);
+        }
+        if (!expression.getVariables().equals(List.of(variables))) {
+            throw new IllegalStateException("Corrupted variables table of expression " + source);
+        }
+        return expression;
+    }
+
+    /**
+     * Найти функцию по имени
+     * @param functions доступные функции
+     * @param name имя функции
+     * @param <F> тип функции
+     * @return функция
+     */
+    private static <F> F resolve(Map<String, F> functions, String name) {
+        return require(functions.get(name));
+    }
+
+    /**
+     * Проверить, что функция или оператор найдены
+     * @param function функция или null
+     * @param <F> тип функции
+     * @return функция
+     */
+    private static <F> F require(F function) {
+        if (function == null) {
+            throw new ParserException(ErrorType.UNKNOWN_FUNCTION_ERROR);
+        }
+        return function;
+    }
+
+    /**
+     * Прочитать таблицу строк
+     * @param position позиция количества строк
+     * @param values массив для строк
+     * @return позиция после таблицы
+     */
+    private int readStrings(int position, String[] values) {
+        position += 2;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(position);
+            position += 4 + buffer.getInt(position);
+        }
+        return position;
+    }
+
+    /**
+     * Прочитать строку
+     * @param position позиция длины строки
+     * @return строка
+     */
+    private String readString(int position) {
+        byte[] bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,56 @@
+package com.calculator.parser.storage;
+
+/**
+ * Описание бинарного формата файла скомпилированных выражений (порядок байт - big-endian).
+ * <pre>
+ * заголовок:  int MAGIC, short VERSION, short 0, int количество записей
+ * индекс:     long[количество записей] - смещения записей, записи упорядочены по имени
+ * запись:     byte вид выражения, строка имя, строка исходное выражение,
+ *             short количество переменных, строки имён переменных в порядке номеров,
+ *             short количество функций с одним параметром, строки имён,
+ *             short количество функций с двумя параметрами, строки имён,
+ *             int количество констант, double[] пул констант,
+ *             int длина кода, int[] коды операций с операндами,
+ *             для типизированного выражения: byte тип результата, byte[количество переменных] типы переменных,
+ *             int количество литералов, byte[] признаки логических литералов в порядке загрузки констант в коде
+ * строка:     int длина в байтах, байты UTF-8
+ * </pre>
+ * Имена пользовательских операторов (один символ, не буква) хранятся в таблицах функций и при загрузке
+ * разрешаются по таблице операторов. Версия 2 добавила типизированные выражения, коды сравнений, отрицания
+ * и условных переходов; файлы версии 1 читаются без изменений
+ */
+final class CompiledExpressionFormat {
+
+    /**
+     * Сигнатура файла
+     */
+    static final int MAGIC = 0x53455043;
+
+    /**
+     * Версия формата
+     */
+    static final short VERSION = 2;
+
+    /**
+     * Размер заголовка в байтах
+     */
+    static final int HEADER_SIZE = 12;
+
+    /**
+     * Вид записи: математическое выражение
+     */
+    static final byte MATH_EXPRESSION = 0;
+
+    /**
+     * Вид записи: логическое выражение
+     */
+    static final byte LOGIC_EXPRESSION = 1;
+
+    /**
+     * Вид записи: типизированное выражение
+     */
+    static final byte TYPED_EXPRESSION = 2;
+
+    private CompiledExpressionFormat() {
+    }
+}
@@ -0,0 +1,161 @@
+package com.calculator.parser.storage;
+
+import com.calculator.parser.compiler.BinaryOperatorNode;
+import com.calculator.parser.compiler.BooleanNode;
+import com.calculator.parser.compiler.CompiledExpression;
+import com.calculator.parser.compiler.CompiledLogicExpression;
+import com.calculator.parser.compiler.CompiledTypedExpression;
+import com.calculator.parser.compiler.FunctionNode;
+import com.calculator.parser.compiler.Node;
+import com.calculator.parser.compiler.NumberNode;
+import com.calculator.parser.compiler.Program;
+import com.calculator.parser.compiler.UnaryOperatorNode;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Запись скомпилированных выражений в бинарный файл (формат описан в {@link CompiledExpressionFormat})
+ */
+public class CompiledExpressionWriter {
+
+    private CompiledExpressionWriter() {
+    }
+
+    /**
+     * Записать именованные скомпилированные выражения в файл
+     * @param path путь к файлу
+     * @param expressions скомпилированные выражения по именам
+     * @throws IOException ошибка записи
+     * @throws ParserException выражение содержит агрегаты или окна
+     */
+    public static void write(Path path, Map<String, ? extends CompiledExpression<?>> expressions) throws IOException {
+        for (CompiledExpression<?> expression : expressions.values()) {
+            expression.checkNoDerivedValues();
+        }
+        TreeMap<String, CompiledExpression<?>> sortedExpressions = new TreeMap<>(expressions);
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream entriesOutput = new DataOutputStream(entries);
+        long[] offsets = new long[sortedExpressions.size()];
+        long entriesStart = CompiledExpressionFormat.HEADER_SIZE + 8L * offsets.length;
+
+        int index = 0;
+        for (Map.Entry<String, CompiledExpression<?>> entry : sortedExpressions.entrySet()) {
+            offsets[index++] = entriesStart + entriesOutput.size();
+            writeEntry(entriesOutput, entry.getKey(), entry.getValue());
+        }
+        entriesOutput.flush();
+
+        try (OutputStream fileOutput = new BufferedOutputStream(Files.newOutputStream(path));
+             DataOutputStream output = new DataOutputStream(fileOutput)) {
+            output.writeInt(CompiledExpressionFormat.MAGIC);
+            output.writeShort(CompiledExpressionFormat.VERSION);
+            output.writeShort(0);
+            output.writeInt(offsets.length);
+            for (long offset : offsets) {
+                output.writeLong(offset);
+            }
+            entries.writeTo(output);
+        }
+    }
+
+    /**
+     * Записать одно выражение
+     * @param output поток записи
+     * @param name имя выражения
+     * @param expression скомпилированное выражение
+     * @throws IOException ошибка записи
+     */
+    private static void writeEntry(DataOutputStream output, String name, CompiledExpression<?> expression) throws IOException {
+        Program program = expression.getProgram();
+        List<String> variables = expression.getVariables();
+
+        output.writeByte(expression instanceof CompiledLogicExpression ? CompiledExpressionFormat.LOGIC_EXPRESSION :
+                         expression instanceof CompiledTypedExpression ? CompiledExpressionFormat.TYPED_EXPRESSION :
+                         CompiledExpressionFormat.MATH_EXPRESSION);
+        writeString(output, name);
+        writeString(output, expression.getExpression());
+        writeStrings(output, variables.toArray(new String[0]));
+        writeStrings(output, program.getOneArgumentFunctionNames());
+        writeStrings(output, program.getTwoArgumentsFunctionNames());
+        output.writeInt(program.getConstants().length);
+        for (double constant : program.getConstants()) {
+            output.writeDouble(constant);
+        }
+        output.writeInt(program.getCode().length);
+        for (int value : program.getCode()) {
+            output.writeInt(value);
+        }
+        if (expression instanceof CompiledTypedExpression typedExpression) {
+            output.writeByte(typedExpression.getResultType().ordinal());
+            for (String variable : variables) {
+                output.writeByte(typedExpression.getVariableTypes().get(variable).ordinal());
+            }
+            List<Boolean> booleanLiterals = new ArrayList<>();
+            collectLiteralKinds(expression.getRoot(), booleanLiterals);
+            output.writeInt(booleanLiterals.size());
+            for (boolean booleanLiteral : booleanLiterals) {
+                output.writeBoolean(booleanLiteral);
+            }
+        }
+    }
+
+    /**
+     * Собрать виды литералов в порядке их загрузки в коде программы
+     * @param node узел выражения
+     * @param booleanLiterals признаки логических литералов
+     */
+    private static void collectLiteralKinds(Node node, List<Boolean> booleanLiterals) {
+        if (node instanceof NumberNode || node instanceof BooleanNode) {
+            booleanLiterals.add(node instanceof BooleanNode);
+        }
+        else if (node instanceof UnaryOperatorNode unaryNode) {
+            collectLiteralKinds(unaryNode.getOperand(), booleanLiterals);
+        }
+        else if (node instanceof BinaryOperatorNode binaryNode) {
+            collectLiteralKinds(binaryNode.getLeft(), booleanLiterals);
+            collectLiteralKinds(binaryNode.getRight(), booleanLiterals);
+        }
+        else if (node instanceof FunctionNode functionNode) {
+            for (Node argument : functionNode.getArguments()) {
+                collectLiteralKinds(argument, booleanLiterals);
+            }
+        }
+    }
+
+    /**
+     * Записать таблицу строк
+     * @param output поток записи
+     * @param values строки
+     * @throws IOException ошибка записи
+     */
+    private static void writeStrings(DataOutputStream output, String[] values) throws IOException {
+        output.writeShort(values.length);
+        for (String value : values) {
+            writeString(output, value);
+        }
+    }
+
+    /**
+     * Записать строку
+     * @param output поток записи
+     * @param value строка
+     * @throws IOException ошибка записи
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
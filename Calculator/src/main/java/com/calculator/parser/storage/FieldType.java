@@ -0,0 +1,56 @@
+package com.calculator.parser.storage;
+
+/**
+ * Тип поля двоичной записи
+ */
+public enum FieldType {
+    /**
+     * 64-битное вещественное число
+     */
+    DOUBLE(8),
+    /**
+     * 32-битное вещественное число
+     */
+    FLOAT(4),
+    /**
+     * 64-битное целое число
+     */
+    LONG(8),
+    /**
+     * 32-битное целое число
+     */
+    INT(4),
+    /**
+     * 16-битное целое число
+     */
+    SHORT(2),
+    /**
+     * 8-битное целое число
+     */
+    BYTE(1),
+    /**
+     * Логический признак: байт, не равный нулю, - истина
+     */
+    FLAG(1);
+
+    /**
+     * Размер поля в байтах
+     */
+    private final int size;
+
+    /**
+     * Конструктор - создание типа поля
+     * @param size размер поля в байтах
+     */
+    FieldType(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Получить размер поля
+     * @return размер в байтах
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,377 @@
+package com.calculator.parser.storage;
+
+import com.calculator.parser.compiler.Program;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Хранилище большого количества скомпилированных правил вне кучи.
+ * Программы правил упакованы в буфер целых чисел, константы и имена переменных вынесены в общие пулы,
+ * функции - в общие таблицы. Правила вычисляются на месте по номеру без создания объектов выражений,
+ * поэтому объём кучи и время сборки мусора не зависят от количества правил.
+ * <pre>
+ * правило: int вид, int глубина стека, int количество переменных, int длина кода,
+ *          int[] номера имён переменных в таблице строк,
+ *          int[] коды операций с операндами (константы и функции - номера в общих пулах)
+ * </pre>
+ * Хранилище неизменяемо и может использоваться из нескольких потоков. Создаётся через {@link OffHeapRuleStoreBuilder}
+ */
+public class OffHeapRuleStore {
+
+    /**
+     * Вид правила: математическое выражение
+     */
+    static final int MATH_RULE = 0;
+
+    /**
+     * Вид правила: логическое выражение
+     */
+    static final int LOGIC_RULE = 1;
+
+    /**
+     * Размер заголовка правила в целых числах
+     */
+    static final int RULE_HEADER_SIZE = 4;
+
+    /**
+     * Минимальный размер стека вычисления
+     */
+    private static final int MIN_STACK_SIZE = 16;
+
+    /**
+     * Стек вычисления потока, переиспользуемый между вычислениями правил. На время вычисления стек изымается,
+     * поэтому вложенное вычисление из функции правила получает собственный стек
+     */
+    private static final ThreadLocal<double[]> STACKS = new ThreadLocal<>();
+
+    /**
+     * Количество правил
+     */
+    private final int size;
+
+    /**
+     * Программы правил
+     */
+    private final ByteBuffer code;
+
+    /**
+     * Смещения правил в буфере программ (в целых числах)
+     */
+    private final ByteBuffer offsets;
+
+    /**
+     * Общий пул констант
+     */
+    private final ByteBuffer constants;
+
+    /**
+     * Байты UTF-8 общей таблицы строк
+     */
+    private final ByteBuffer strings;
+
+    /**
+     * Смещения строк в таблице строк
+     */
+    private final ByteBuffer stringOffsets;
+
+    /**
+     * Общая таблица функций с одним параметром
+     */
+    private final DoubleUnaryOperator[] oneArgumentFunctions;
+
+    /**
+     * Общая таблица функций с двумя параметрами
+     */
+    private final DoubleBinaryOperator[] twoArgumentsFunctions;
+
+    /**
+     * Конструктор - создание хранилища из заполненных буферов
+     * @param size количество правил
+     * @param code программы правил
+     * @param offsets смещения правил
+     * @param constants общий пул констант
+     * @param strings байты таблицы строк
+     * @param stringOffsets смещения строк
+     * @param oneArgumentFunctions функции с одним параметром
+     * @param twoArgumentsFunctions функции с двумя параметрами
+     */
+    OffHeapRuleStore(int size, ByteBuffer code, ByteBuffer offsets, ByteBuffer constants, ByteBuffer strings,
+                     ByteBuffer stringOffsets, DoubleUnaryOperator[] oneArgumentFunctions,
+                     DoubleBinaryOperator[] twoArgumentsFunctions) {
+        this.size = size;
+        this.code = code;
+        this.offsets = offsets;
+        this.constants = constants;
+        this.strings = strings;
+        this.stringOffsets = stringOffsets;
+        this.oneArgumentFunctions = oneArgumentFunctions;
+        this.twoArgumentsFunctions = twoArgumentsFunctions;
+    }
+
+    /**
+     * Получить количество правил
+     * @return количество правил
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Является ли правило логическим выражением
+     * @param rule номер правила
+     * @return логический результат проверки
+     */
+    public boolean isLogic(int rule) {
+        return code.getInt(start(rule)) == LOGIC_RULE;
+    }
+
+    /**
+     * Получить имена переменных правила в порядке первого появления в выражении
+     * @param rule номер правила
+     * @return имена переменных
+     */
+    public List<String> getVariables(int rule) {
+        int start = start(rule);
+        int variablesQuantity = code.getInt(start + 2 * Integer.BYTES);
+        List<String> variables = new ArrayList<>(variablesQuantity);
+        for (int i = 0; i < variablesQuantity; i++) {
+            variables.add(getString(code.getInt(start + (RULE_HEADER_SIZE + i) * Integer.BYTES)));
+        }
+        return Collections.unmodifiableList(variables);
+    }
+
+    /**
+     * Вычислить математическое правило
+     * @param rule номер правила
+     * @param variablesValue значения переменных в порядке первого появления в выражении
+     * @return результат выражения
+     */
+    public double evaluateMath(int rule, double... variablesValue) {
+        return execute(rule, variablesValue);
+    }
+
+    /**
+     * Вычислить логическое правило
+     * @param rule номер правила
+     * @param variablesValue значения переменных в порядке первого появления в выражении
+     * @return результат выражения
+     */
+    public boolean evaluateLogic(int rule, boolean... variablesValue) {
+        double[] variables = new double[variablesValue.length];
+        for (int i = 0; i < variablesValue.length; i++) {
+            variables[i] = variablesValue[i] ? 1 : 0;
+        }
+        return execute(rule, variables) != 0;
+    }
+
+    /**
+     * Вычислить правило по значениям переменных по именам
+     * @param rule номер правила
+     * @param variablesValue значения переменных по именам (логические значения - 1 и 0)
+     * @return результат выражения (для логических правил - 1 или 0)
+     */
+    public double evaluate(int rule, Map<String, Double> variablesValue) {
+        List<String> variableNames = getVariables(rule);
+        double[] variables = new double[variableNames.size()];
+        for (int i = 0; i < variables.length; i++) {
+            Double value = variablesValue.get(variableNames.get(i));
+            if (value == null) {
+                throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+            }
+            variables[i] = value;
+        }
+        return execute(rule, variables);
+    }
+
+    /**
+     * Получить объём памяти вне кучи, занятый хранилищем
+     * @return объём в байтах
+     */
+    public long getOffHeapBytes() {
+        return (long) code.capacity() + offsets.capacity() + constants.capacity() + strings.capacity() + stringOffsets.capacity();
+    }
+
+    /**
+     * Получить средний объём памяти вне кучи на одно правило, включая долю общих пулов
+     * @return объём в байтах
+     */
+    public double getBytesPerRule() {
+        return size == 0 ? 0 : (double) getOffHeapBytes() / size;
+    }
+
+    /**
+     * Получить количество констант в общем пуле
+     * @return количество констант
+     */
+    public int getConstantsCount() {
+        return constants.limit() / Double.BYTES;
+    }
+
+    /**
+     * Получить количество строк в общей таблице
+     * @return количество строк
+     */
+    public int getStringsCount() {
+        return stringOffsets.limit() / Integer.BYTES;
+    }
+
+    /**
+     * Получить количество функций в общих таблицах
+     * @return количество функций с одним и с двумя параметрами
+     */
+    public int getFunctionsCount() {
+        return oneArgumentFunctions.length + twoArgumentsFunctions.length;
+    }
+
+    /**
+     * Выполнить программу правила на месте
+     * @param rule номер правила
+     * @param variables значения переменных по номерам
+     * @return результат во внутреннем представлении
+     */
+    private double execute(int rule, double[] variables) {
+        int start = start(rule);
+        int variablesQuantity = code.getInt(start + 2 * Integer.BYTES);
+        if (variables.length > variablesQuantity) {
+            throw new ParserException(ErrorType.INCORRECT_VARIABLES_QUANTITY_ERROR);
+        }
+        if (variables.length < variablesQuantity) {
+            throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+        }
+        double[] stack = STACKS.get();
+        int maxStackDepth = code.getInt(start + Integer.BYTES);
+        if (stack == null || stack.length < maxStackDepth) {
+            stack = new double[Math.max(maxStackDepth, MIN_STACK_SIZE)];
+        }
+        STACKS.set(null);
+        try {
+            return execute(start, variablesQuantity, variables, stack);
+        }
+        finally {
+            STACKS.set(stack);
+        }
+    }
+
+    /**
+     * Выполнить программу правила на месте на заданном стеке
+     * @param start смещение правила в байтах
+     * @param variablesQuantity количество переменных правила
+     * @param variables значения переменных по номерам
+     * @param stack стек вычисления не меньше глубины стека правила
+     * @return результат во внутреннем представлении
+     */
+    private double execute(int start, int variablesQuantity, double[] variables, double[] stack) {
+        int end = start + (RULE_HEADER_SIZE + variablesQuantity + code.getInt(start + 3 * Integer.BYTES)) * Integer.BYTES;
+        int top = -1;
+        double a;
+
+        for (int position = start + (RULE_HEADER_SIZE + variablesQuantity) * Integer.BYTES; position < end; position += Integer.BYTES) {
+            switch (code.getInt(position)) {
+                case Program.PUSH_CONSTANT -> {
+                    position += Integer.BYTES;
+                    stack[++top] = constants.getDouble(code.getInt(position) * Double.BYTES);
+                }
+                case Program.LOAD_VARIABLE -> {
+                    position += Integer.BYTES;
+                    stack[++top] = variables[code.getInt(position)];
+                }
+                case Program.NEGATE -> stack[top] = -stack[top];
+                case Program.NOT -> stack[top] = stack[top] != 0 ? 0 : 1;
+                case Program.JUMP_IF_FALSE -> {
+                    position += Integer.BYTES;
+                    if (stack[top] == 0) {
+                        stack[top] = 0;
+                        position += code.getInt(position) * Integer.BYTES;
+                    }
+                }
+                case Program.JUMP_IF_TRUE -> {
+                    position += Integer.BYTES;
+                    if (stack[top] != 0) {
+                        stack[top] = 1;
+                        position += code.getInt(position) * Integer.BYTES;
+                    }
+                }
+                case Program.ADD -> {
+                    a = stack[top--];
+                    stack[top] += a;
+                }
+                case Program.SUBTRACT -> {
+                    a = stack[top--];
+                    stack[top] -= a;
+                }
+                case Program.MULTIPLY -> {
+                    a = stack[top--];
+                    stack[top] *= a;
+                }
+                case Program.DIVIDE -> {
+                    a = stack[top--];
+                    if (a == 0) {
+                        throw new ParserException(ErrorType.DIVISION_BY_ZERO_ERROR);
+                    }
+                    stack[top] /= a;
+                }
+                case Program.DIVIDE_UNCHECKED -> {
+                    a = stack[top--];
+                    stack[top] /= a;
+                }
+                case Program.AND -> {
+                    a = stack[top--];
+                    stack[top] = stack[top] != 0 && a != 0 ? 1 : 0;
+                }
+                case Program.OR -> {
+                    a = stack[top--];
+                    stack[top] = stack[top] != 0 || a != 0 ? 1 : 0;
+                }
+                case Program.LESS, Program.LESS_OR_EQUAL, Program.GREATER, Program.GREATER_OR_EQUAL,
+                     Program.EQUAL, Program.NOT_EQUAL -> {
+                    a = stack[top--];
+                    stack[top] = Program.compare(code.getInt(position), stack[top], a);
+                }
+                case Program.CALL_ONE_ARGUMENT -> {
+                    position += Integer.BYTES;
+                    stack[top] = oneArgumentFunctions[code.getInt(position)].applyAsDouble(stack[top]);
+                }
+                case Program.CALL_TWO_ARGUMENTS -> {
+                    position += Integer.BYTES;
+                    a = stack[top--];
+                    stack[top] = twoArgumentsFunctions[code.getInt(position)].applyAsDouble(stack[top], a);
+                }
+                default -> throw new IllegalStateException("Unknown opcode " + code.getInt(position));
+            }
+        }
+        return stack[top];
+    }
+
+    /**
+     * Получить смещение правила в байтах
+     * @param rule номер правила
+     * @return смещение в буфере программ
+     */
+    private int start(int rule) {
+        if (rule < 0 || rule >= size) {
+            throw new IndexOutOfBoundsException("Rule " + rule + " is out of range [0, " + size + ")");
+        }
+        return offsets.getInt(rule * Integer.BYTES) * Integer.BYTES;
+    }
+
+    /**
+     * Получить строку из общей таблицы
+     * @param index номер строки
+     * @return строка
+     */
+    private String getString(int index) {
+        int offset = stringOffsets.getInt(index * Integer.BYTES);
+        byte[] bytes = new byte[strings.getInt(offset)];
+        strings.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,248 @@
+package com.calculator.parser.storage;
+
+import com.calculator.parser.compiler.CompiledExpression;
+import com.calculator.parser.compiler.CompiledLogicExpression;
+import com.calculator.parser.compiler.Program;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Построитель хранилища правил вне кучи. Программы выражений дописываются в буферы вне кучи,
+ * константы и строки объединяются в общие пулы без повторов. Функции объединяются по именам: имена хранятся
+ * в общей таблице строк, и функции с одинаковым именем считаются одной функцией (используется первая добавленная).
+ * Таблицы для устранения повторов существуют только до вызова {@link #build()}
+ */
+public class OffHeapRuleStoreBuilder {
+
+    /**
+     * Начальная ёмкость буферов в байтах
+     */
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    /**
+     * Буфер программ правил
+     */
+    private ByteBuffer code = allocate(INITIAL_CAPACITY);
+
+    /**
+     * Буфер смещений правил в буфере программ
+     */
+    private ByteBuffer offsets = allocate(INITIAL_CAPACITY);
+
+    /**
+     * Общий пул констант
+     */
+    private ByteBuffer constants = allocate(INITIAL_CAPACITY);
+
+    /**
+     * Байты UTF-8 общей таблицы строк
+     */
+    private ByteBuffer strings = allocate(INITIAL_CAPACITY);
+
+    /**
+     * Смещения строк в таблице строк
+     */
+    private ByteBuffer stringOffsets = allocate(INITIAL_CAPACITY);
+
+    /**
+     * Номера констант в пуле по битовому представлению
+     */
+    private final Map<Long, Integer> constantIndexes = new HashMap<>();
+
+    /**
+     * Номера строк в таблице строк
+     */
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+
+    /**
+     * Номера функций с одним параметром по номерам их имён в таблице строк
+     */
+    private final Map<Integer, Integer> oneArgumentFunctionIndexes = new HashMap<>();
+
+    /**
+     * Номера функций с двумя параметрами по номерам их имён в таблице строк
+     */
+    private final Map<Integer, Integer> twoArgumentsFunctionIndexes = new HashMap<>();
+
+    /**
+     * Функции с одним параметром в порядке номеров
+     */
+    private final List<DoubleUnaryOperator> oneArgumentFunctions = new ArrayList<>();
+
+    /**
+     * Функции с двумя параметрами в порядке номеров
+     */
+    private final List<DoubleBinaryOperator> twoArgumentsFunctions = new ArrayList<>();
+
+    /**
+     * Количество правил
+     */
+    private int size;
+
+    /**
+     * Построено ли хранилище
+     */
+    private boolean built;
+
+    /**
+     * Добавить правило
+     * @param expression скомпилированное выражение
+     * @return номер правила в хранилище
+     * @throws ParserException выражение содержит агрегаты или окна
+     * @throws IllegalArgumentException выражение с ограничениями времени, которые хранилище не проверяет
+     */
+    public int add(CompiledExpression<?> expression) {
+        if (built) {
+            throw new IllegalStateException("Store is already built");
+        }
+        expression.checkNoDerivedValues();
+        Program program = expression.getProgram();
+        if (program.hasTimeLimits()) {
+            throw new IllegalArgumentException("Time limited expression cannot be stored off-heap");
+        }
+        List<String> variables = expression.getVariables();
+        int[] programCode = program.getCode();
+
+        offsets = ensureCapacity(offsets, Integer.BYTES);
+        offsets.putInt(code.position() / Integer.BYTES);
+        code = ensureCapacity(code, Integer.BYTES * (OffHeapRuleStore.RULE_HEADER_SIZE + variables.size() + programCode.length));
+        code.putInt(expression instanceof CompiledLogicExpression ? OffHeapRuleStore.LOGIC_RULE : OffHeapRuleStore.MATH_RULE);
+        code.putInt(program.getMaxStackDepth());
+        code.putInt(variables.size());
+        code.putInt(programCode.length);
+        for (String variable : variables) {
+            code.putInt(stringIndex(variable));
+        }
+        for (int i = 0; i < programCode.length; i++) {
+            int opcode = programCode[i];
+            code.putInt(opcode);
+            switch (opcode) {
+                case Program.PUSH_CONSTANT -> code.putInt(constantIndex(program.getConstants()[programCode[++i]]));
+                case Program.LOAD_VARIABLE, Program.JUMP_IF_FALSE, Program.JUMP_IF_TRUE -> code.putInt(programCode[++i]);
+                case Program.CALL_ONE_ARGUMENT -> {
+                    int function = programCode[++i];
+                    code.putInt(functionIndex(oneArgumentFunctionIndexes, oneArgumentFunctions,
+                                              program.getOneArgumentFunctionNames()[function],
+                                              program.getOneArgumentFunctions()[function]));
+                }
+                case Program.CALL_TWO_ARGUMENTS -> {
+                    int function = programCode[++i];
+                    code.putInt(functionIndex(twoArgumentsFunctionIndexes, twoArgumentsFunctions,
+                                              program.getTwoArgumentsFunctionNames()[function],
+                                              program.getTwoArgumentsFunctions()[function]));
+                }
+                default -> { }
+            }
+        }
+        return size++;
+    }
+
+    /**
+     * Построить хранилище. После вызова построитель использовать нельзя
+     * @return хранилище правил
+     */
+    public OffHeapRuleStore build() {
+        built = true;
+        constantIndexes.clear();
+        stringIndexes.clear();
+        oneArgumentFunctionIndexes.clear();
+        twoArgumentsFunctionIndexes.clear();
+        return new OffHeapRuleStore(size, trim(code), trim(offsets), trim(constants), trim(strings), trim(stringOffsets),
+                                    oneArgumentFunctions.toArray(new DoubleUnaryOperator[0]),
+                                    twoArgumentsFunctions.toArray(new DoubleBinaryOperator[0]));
+    }
+
+    /**
+     * Получить номер константы в общем пуле, добавив её при необходимости
+     * @param value константа
+     * @return номер константы
+     */
+    private int constantIndex(double value) {
+        return constantIndexes.computeIfAbsent(Double.doubleToRawLongBits(value), bits -> {
+            constants = ensureCapacity(constants, Double.BYTES);
+            constants.putDouble(value);
+            return constantIndexes.size();
+        });
+    }
+
+    /**
+     * Получить номер строки в общей таблице, добавив её при необходимости
+     * @param value строка
+     * @return номер строки
+     */
+    private int stringIndex(String value) {
+        return stringIndexes.computeIfAbsent(value, key -> {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            stringOffsets = ensureCapacity(stringOffsets, Integer.BYTES);
+            stringOffsets.putInt(strings.position());
+            strings = ensureCapacity(strings, Integer.BYTES + bytes.length);
+            strings.putInt(bytes.length);
+            strings.put(bytes);
+            return stringIndexes.size();
+        });
+    }
+
+    /**
+     * Получить номер функции в общей таблице по её имени, добавив её при необходимости
+     * @param indexes номера функций по номерам имён в таблице строк
+     * @param functions функции в порядке номеров
+     * @param name имя функции
+     * @param function функция
+     * @param <F> тип функции
+     * @return номер функции
+     */
+    private <F> int functionIndex(Map<Integer, Integer> indexes, List<F> functions, String name, F function) {
+        return indexes.computeIfAbsent(stringIndex(name), key -> {
+            functions.add(function);
+            return functions.size() - 1;
+        });
+    }
+
+    /**
+     * Выделить буфер вне кучи
+     * @param capacity ёмкость в байтах
+     * @return буфер
+     */
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Обеспечить свободное место в буфере, увеличив его вдвое при необходимости
+     * @param buffer буфер
+     * @param bytes необходимое количество байт
+     * @return буфер с достаточным свободным местом
+     */
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        long capacity = Math.max((long) buffer.capacity() * 2, (long) buffer.position() + bytes);
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Rule store buffer exceeds 2 GB");
+        }
+        ByteBuffer grown = allocate((int) capacity);
+        grown.put(buffer.flip());
+        return grown;
+    }
+
+    /**
+     * Скопировать заполненную часть буфера в буфер точного размера
+     * @param buffer буфер
+     * @return буфер только для чтения
+     */
+    private static ByteBuffer trim(ByteBuffer buffer) {
+        ByteBuffer trimmed = allocate(Math.max(buffer.position(), 1));
+        trimmed.put(buffer.flip());
+        return trimmed.flip().asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,180 @@
+package com.calculator.parser.storage;
+
+import com.calculator.parser.compiler.Program;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Выражение, связанное с описанием двоичной записи. Значения переменных читаются непосредственно
+ * из буфера записей (в том числе буфера вне кучи или отображённого файла) по абсолютным смещениям,
+ * без преобразования записей в объекты. Запись с номером i начинается с байта i * размер записи.
+ * Объект неизменяем; вычисления выполняются вычислителями {@link Evaluator}, по одному на поток
+ */
+public class RecordBinding {
+
+    /**
+     * Программа стековой машины
+     */
+    private final Program program;
+
+    /**
+     * Размер записи в байтах
+     */
+    private final int recordSize;
+
+    /**
+     * Порядок байтов полей
+     */
+    private final ByteOrder byteOrder;
+
+    /**
+     * Смещения полей по номерам переменных
+     */
+    private final int[] offsets;
+
+    /**
+     * Типы полей по номерам переменных
+     */
+    private final FieldType[] types;
+
+    /**
+     * Конструктор - создание связывания
+     * @param program программа стековой машины
+     * @param recordSize размер записи в байтах
+     * @param byteOrder порядок байтов полей
+     * @param offsets смещения полей по номерам переменных
+     * @param types типы полей по номерам переменных
+     */
+    RecordBinding(Program program, int recordSize, ByteOrder byteOrder, int[] offsets, FieldType[] types) {
+        this.program = program;
+        this.recordSize = recordSize;
+        this.byteOrder = byteOrder;
+        this.offsets = offsets;
+        this.types = types;
+    }
+
+    /**
+     * Создать вычислитель с собственными буферами значений и стека
+     * @return вычислитель
+     */
+    public Evaluator newEvaluator() {
+        return new Evaluator();
+    }
+
+    /**
+     * Получить количество целых записей в буфере
+     * @param records буфер записей
+     * @return количество записей
+     */
+    public int getRecordsCount(ByteBuffer records) {
+        return records.limit() / recordSize;
+    }
+
+    /**
+     * Получить размер записи
+     * @return размер в байтах
+     */
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Прочитать поле записи
+     * @param records буфер записей
+     * @param position абсолютная позиция поля
+     * @param type тип поля
+     * @param swap отличается ли порядок байтов буфера от порядка байтов полей
+     * @return значение во внутреннем представлении
+     */
+    private static double read(ByteBuffer records, int position, FieldType type, boolean swap) {
+        return switch (type) {
+            case DOUBLE -> swap ? Double.longBitsToDouble(Long.reverseBytes(records.getLong(position)))
+                                : records.getDouble(position);
+            case FLOAT -> swap ? Float.intBitsToFloat(Integer.reverseBytes(records.getInt(position)))
+                               : records.getFloat(position);
+            case LONG -> swap ? Long.reverseBytes(records.getLong(position)) : records.getLong(position);
+            case INT -> swap ? Integer.reverseBytes(records.getInt(position)) : records.getInt(position);
+            case SHORT -> swap ? Short.reverseBytes(records.getShort(position)) : records.getShort(position);
+            case BYTE -> records.get(position);
+            case FLAG -> records.get(position) != 0 ? 1 : 0;
+        };
+    }
+
+    /**
+     * Вычислитель выражения по записям буфера. После создания не выделяет память, не потокобезопасен
+     */
+    public final class Evaluator {
+
+        /**
+         * Значения переменных текущей записи
+         */
+        private final double[] variables = new double[offsets.length];
+
+        /**
+         * Стек программы
+         */
+        private final double[] stack = new double[program.getMaxStackDepth()];
+
+        /**
+         * Конструктор - создание вычислителя
+         */
+        private Evaluator() {
+        }
+
+        /**
+         * Вычислить выражение по записи
+         * @param records буфер записей
+         * @param index номер записи
+         * @return результат во внутреннем представлении (логические значения - 1 и 0)
+         */
+        public double evaluate(ByteBuffer records, int index) {
+            boolean swap = records.order() != byteOrder;
+            int base = index * recordSize;
+            for (int slot = 0; slot < variables.length; slot++) {
+                variables[slot] = read(records, base + offsets[slot], types[slot], swap);
+            }
+            return program.execute(variables, stack);
+        }
+
+        /**
+         * Вычислить логическое выражение по записи
+         * @param records буфер записей
+         * @param index номер записи
+         * @return результат выражения
+         */
+        public boolean test(ByteBuffer records, int index) {
+            return evaluate(records, index) != 0;
+        }
+
+        /**
+         * Вычислить выражение по последовательности записей
+         * @param records буфер записей
+         * @param first номер первой записи
+         * @param count количество записей
+         * @param results массив результатов длиной не меньше count
+         */
+        public void evaluateAll(ByteBuffer records, int first, int count, double[] results) {
+            for (int i = 0; i < count; i++) {
+                results[i] = evaluate(records, first + i);
+            }
+        }
+
+        /**
+         * Отобрать записи буфера, для которых логическое выражение истинно
+         * @param records буфер записей
+         * @param indexes массив для номеров отобранных записей длиной не меньше количества записей
+         * @return количество отобранных записей
+         */
+        public int select(ByteBuffer records, int[] indexes) {
+            int selected = 0;
+            int count = getRecordsCount(records);
+            for (int index = 0; index < count; index++) {
+                if (test(records, index)) {
+                    indexes[selected++] = index;
+                }
+            }
+            return selected;
+        }
+    }
+}
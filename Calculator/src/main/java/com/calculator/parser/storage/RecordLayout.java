@@ -0,0 +1,117 @@
+package com.calculator.parser.storage;
+
+import com.calculator.parser.compiler.CompiledExpression;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Описание двоичной записи фиксированной длины. Связывание с выражением сопоставляет каждой переменной
+ * смещение и тип поля, после чего выражение вычисляется непосредственно по записям буфера.
+ * Объект неизменяем и может использоваться из нескольких потоков
+ */
+public class RecordLayout {
+
+    /**
+     * Размер записи в байтах
+     */
+    private final int recordSize;
+
+    /**
+     * Порядок байтов полей
+     */
+    private final ByteOrder byteOrder;
+
+    /**
+     * Имена полей
+     */
+    private final String[] names;
+
+    /**
+     * Смещения полей
+     */
+    private final int[] offsets;
+
+    /**
+     * Типы полей
+     */
+    private final FieldType[] types;
+
+    /**
+     * Конструктор - создание описания записи
+     * @param recordSize размер записи в байтах
+     * @param byteOrder порядок байтов полей
+     * @param names имена полей
+     * @param offsets смещения полей
+     * @param types типы полей
+     */
+    RecordLayout(int recordSize, ByteOrder byteOrder, String[] names, int[] offsets, FieldType[] types) {
+        this.recordSize = recordSize;
+        this.byteOrder = byteOrder;
+        this.names = names;
+        this.offsets = offsets;
+        this.types = types;
+    }
+
+    /**
+     * Связать выражение с описанием записи
+     * @param expression скомпилированное выражение
+     * @return связывание выражения с записью
+     * @throws ParserException для переменной выражения нет поля или выражение содержит агрегаты или окна
+     */
+    public RecordBinding bind(CompiledExpression<?> expression) {
+        expression.checkNoDerivedValues();
+        List<String> variables = expression.getVariables();
+        int[] slotOffsets = new int[variables.size()];
+        FieldType[] slotTypes = new FieldType[variables.size()];
+        for (int slot = 0; slot < variables.size(); slot++) {
+            int field = indexOf(variables.get(slot));
+            if (field < 0) {
+                throw new ParserException(ErrorType.VARIABLE_DETECTED_ERROR);
+            }
+            slotOffsets[slot] = offsets[field];
+            slotTypes[slot] = types[field];
+        }
+        return new RecordBinding(expression.getProgram(), recordSize, byteOrder, slotOffsets, slotTypes);
+    }
+
+    /**
+     * Получить размер записи
+     * @return размер в байтах
+     */
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Получить порядок байтов полей
+     * @return порядок байтов
+     */
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    /**
+     * Получить имена полей
+     * @return имена полей в порядке добавления
+     */
+    public List<String> getFieldNames() {
+        return List.of(names);
+    }
+
+    /**
+     * Найти поле по имени
+     * @param name имя поля
+     * @return номер поля или -1
+     */
+    private int indexOf(String name) {
+        for (int field = 0; field < names.length; field++) {
+            if (names[field].equals(name)) {
+                return field;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,93 @@
+package com.calculator.parser.storage;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Построитель описания двоичной записи фиксированной длины: имя, смещение и тип каждого поля
+ */
+public class RecordLayoutBuilder {
+
+    /**
+     * Размер записи в байтах
+     */
+    private final int recordSize;
+
+    /**
+     * Порядок байтов полей
+     */
+    private ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Имена полей
+     */
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * Смещения полей
+     */
+    private final List<Integer> offsets = new ArrayList<>();
+
+    /**
+     * Типы полей
+     */
+    private final List<FieldType> types = new ArrayList<>();
+
+    /**
+     * Имена добавленных полей
+     */
+    private final Set<String> addedNames = new HashSet<>();
+
+    /**
+     * Конструктор - создание построителя
+     * @param recordSize размер записи в байтах
+     */
+    public RecordLayoutBuilder(int recordSize) {
+        if (recordSize < 1) {
+            throw new IllegalArgumentException("Record size must be positive");
+        }
+        this.recordSize = recordSize;
+    }
+
+    /**
+     * Задать порядок байтов полей, по умолчанию little-endian
+     * @param byteOrder порядок байтов
+     * @return построитель
+     */
+    public RecordLayoutBuilder setByteOrder(ByteOrder byteOrder) {
+        this.byteOrder = byteOrder;
+        return this;
+    }
+
+    /**
+     * Добавить поле
+     * @param name имя поля (имя переменной выражения)
+     * @param offset смещение поля от начала записи в байтах
+     * @param type тип поля
+     * @return построитель
+     */
+    public RecordLayoutBuilder addField(String name, int offset, FieldType type) {
+        if (offset < 0 || offset + type.getSize() > recordSize) {
+            throw new IllegalArgumentException("Field " + name + " is out of record bounds");
+        }
+        if (!addedNames.add(name)) {
+            throw new IllegalArgumentException("Duplicate field " + name);
+        }
+        names.add(name);
+        offsets.add(offset);
+        types.add(type);
+        return this;
+    }
+
+    /**
+     * Построить описание записи
+     * @return описание записи
+     */
+    public RecordLayout build() {
+        return new RecordLayout(recordSize, byteOrder, names.toArray(new String[0]),
+                offsets.stream().mapToInt(Integer::intValue).toArray(), types.toArray(new FieldType[0]));
+    }
+}
@@ -0,0 +1,75 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLogicExpressionTest {
+    @Test
+    void reorderBySelectivity() {
+        CompiledLogicExpression compiled = compile("(a | b | c) & rare");
+        AdaptiveLogicExpression adaptive = new AdaptiveLogicExpression(compiled, 1, 100);
+
+        for (int i = 0; i < 100; i++) {
+            adaptive.evaluate(true, true, true, i % 10 == 0);
+        }
+
+        assertThat(adaptive.getReordersCount()).isEqualTo(1);
+        assertThat(adaptive.getChainOrders().get(0)).as("Редко истинный операнд конъюнкции не перемещён в начало")
+                .containsExactly("rare", "(a|b|c)");
+        assertThat(adaptive.getCurrentForm()).isEqualTo("(rare&(a|b|c))");
+    }
+
+    @Test
+    void keepResultsIdentical() {
+        CompiledLogicExpression compiled = compile("a & (b | c & d) | e & F | T & a");
+        AdaptiveLogicExpression adaptive = new AdaptiveLogicExpression(compiled, 2, 8);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            boolean[] values = new boolean[compiled.getVariables().size()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = random.nextInt(4) == 0;
+            }
+            assertThat(adaptive.evaluate(values)).isEqualTo(compiled.evaluate(values));
+        }
+        assertThat(adaptive.getReordersCount()).isPositive();
+        Map<String, Boolean> values = Map.of("a", true, "b", false, "c", true, "d", true, "e", false);
+        assertThat(compile(adaptive.getCurrentForm()).evaluate(values)).isEqualTo(compiled.evaluate(values));
+        assertThat(compile(adaptive.getCurrentForm()).getVariables()).hasSameElementsAs(List.of("a", "b", "c", "d", "e"));
+    }
+
+    @Test
+    void wrapNegationsAndUserOperators() {
+        OperatorTable operators = OperatorTable.logic()
+                .addBinaryOperator('^', 4, OperatorTable.Associativity.LEFT, (a, b) -> a != b ? 1 : 0);
+        List<CompiledLogicExpression> expressions = List.of(
+                compile("!a&b"), compile("a&!(b|c)"), compile("!(a&b)"), compile("!!a|!(b&!c&d)"),
+                new CompiledLogicExpression("a&(b^c)|!d", new ExpressionCompiler(operators).parse("a&(b^c)|!d")));
+        Random random = new Random(7);
+
+        for (CompiledLogicExpression compiled : expressions) {
+            AdaptiveLogicExpression adaptive = new AdaptiveLogicExpression(compiled, 1, 16);
+            for (int i = 0; i < 200; i++) {
+                boolean[] values = new boolean[compiled.getVariables().size()];
+                for (int j = 0; j < values.length; j++) {
+                    values[j] = random.nextBoolean();
+                }
+                assertThat(adaptive.evaluate(values)).as(compiled.getExpression()).isEqualTo(compiled.evaluate(values));
+            }
+        }
+        AdaptiveLogicExpression negated = new AdaptiveLogicExpression(compile("a&!(b|c)"));
+        assertThat(negated.getChainOrders()).as("Цепочка под отрицанием не профилируется").hasSize(2);
+        assertThat(compile(negated.getCurrentForm()).evaluate(true, false, false)).isTrue();
+    }
+
+    private static CompiledLogicExpression compile(String expression) {
+        return new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(expression).build()).compile();
+    }
+}
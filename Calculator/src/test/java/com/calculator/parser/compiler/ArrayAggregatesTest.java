@@ -0,0 +1,80 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class ArrayAggregatesTest {
+
+    @Test
+    void evaluateAggregatesOverArrays() {
+        CompiledMathExpression expression = compile("sum(prices) / count(prices) - avg(prices) + max(ids) - min(ids) + x");
+        ArrayVariables arrays = new ArrayVariables().set("prices", new double[]{1.5, 2.5, 3.5, 4.5, 5.5})
+                                                    .set("ids", new long[]{7, -3, 12});
+
+        assertThat(expression.getVariables()).as("Массив учтён как переменная").containsExactly("x");
+        assertThat(expression.getArrayVariables()).containsExactly("prices", "ids");
+        assertThat(expression.evaluate(Map.of("x", 0.5), arrays)).isEqualTo(15.5);
+    }
+
+    @Test
+    void evaluateDotProductAndScalarFunctions() {
+        CompiledMathExpression expression = compile("dot(weights, values) + min(a, b)");
+        double[] weights = new double[1001];
+        long[] values = new long[1001];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 0.5;
+            values[i] = i;
+        }
+
+        double result = expression.evaluate(Map.of("a", 1.0, "b", 2.0),
+                new ArrayVariables().set("weights", weights).set("values", values));
+
+        assertThat(result).as("Неверное скалярное произведение").isEqualTo(0.5 * 1000 * 1001 / 2 + 1);
+        assertThat(ArrayAggregates.sum(new double[]{1, 2, 3, 4, 5, 6, 7})).isEqualTo(28.0);
+        assertThat(ArrayAggregates.dot(new long[]{1, 2, 3}, new long[]{4, 5, 6})).isEqualTo(32.0);
+    }
+
+    @Test
+    void widenLongAggregatesOnOverflow() {
+        long[] large = {Long.MAX_VALUE, Long.MAX_VALUE, -Long.MAX_VALUE, 1};
+        long[] factors = {1L << 40, 1L << 40, 3};
+
+        assertThat(ArrayAggregates.sum(large)).as("Сумма переполнилась").isEqualTo((double) Long.MAX_VALUE + 1);
+        assertThat(ArrayAggregates.dot(factors, new long[]{1L << 40, 1L << 40, 2})).as("Произведение переполнилось")
+                .isEqualTo(Math.pow(2, 81) + 6);
+        assertThat(ArrayAggregates.sum(new long[]{Long.MAX_VALUE - 1, 1})).isEqualTo((double) Long.MAX_VALUE);
+    }
+
+    @Test
+    void failOnMissingOrEmptyArrays() {
+        CompiledMathExpression expression = compile("avg(values)");
+
+        assertThat(errorType(() -> expression.evaluate(Map.of(), new ArrayVariables())))
+                .as("Отсутствие массива не обнаружено").isEqualTo(ErrorType.VARIABLE_DETECTED_ERROR);
+        assertThat(errorType(() -> expression.evaluate(Map.of(), new ArrayVariables().set("values", new double[0]))))
+                .isEqualTo(ErrorType.DIVISION_BY_ZERO_ERROR);
+        assertThat(errorType(() -> compile("dot(a, b)").evaluate(Map.of(),
+                new ArrayVariables().set("a", new double[2]).set("b", new double[3]))))
+                .isEqualTo(ErrorType.INCORRECT_VARIABLES_QUANTITY_ERROR);
+        assertThat(errorType(expression::evaluate)).as("Агрегат вычислен без массивов")
+                                                   .isEqualTo(ErrorType.VARIABLE_DETECTED_ERROR);
+    }
+
+    private static ErrorType errorType(Runnable action) {
+        Throwable thrown = catchThrowable(action::run);
+        assertThat(thrown).isInstanceOf(ParserException.class);
+        return ((ParserException) thrown).getErrorType();
+    }
+
+    private static CompiledMathExpression compile(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+}
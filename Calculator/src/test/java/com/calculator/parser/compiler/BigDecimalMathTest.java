@@ -0,0 +1,30 @@
+package com.calculator.parser.compiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BigDecimalMathTest {
+    private final BigDecimalMath math = new BigDecimalMath(new MathContext(30));
+
+    @Test
+    void integerPowerBySquaring() {
+        assertThat(new BigDecimalMath(new MathContext(40)).pow(BigDecimal.valueOf(2), 100))
+                .isEqualByComparingTo("1267650600228229401496703205376");
+        assertThat(math.pow(new BigDecimal("1.5"), BigDecimal.valueOf(-2))).isEqualByComparingTo("0.444444444444444444444444444444");
+    }
+
+    @Test
+    void seriesFunctions() {
+        assertThat(BigDecimalMath.pi(30)).isEqualByComparingTo("3.14159265358979323846264338328");
+        assertThat(math.exp(BigDecimal.ONE)).isEqualByComparingTo("2.71828182845904523536028747135");
+        assertThat(math.ln(BigDecimal.valueOf(10))).isEqualByComparingTo("2.30258509299404568401799145468");
+        assertThat(math.sin(BigDecimal.ONE)).isEqualByComparingTo("0.841470984807896506652502321630");
+        assertThat(math.cos(BigDecimal.valueOf(100))).isEqualByComparingTo("0.862318872287683934101938513951");
+        assertThat(math.tan(BigDecimal.ONE)).isEqualByComparingTo("1.55740772465490223050697480746");
+        assertThat(math.pow(BigDecimal.valueOf(2), new BigDecimal("0.5"))).isEqualByComparingTo("1.41421356237309504880168872421");
+    }
+}
@@ -0,0 +1,77 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BooleanMinimizerTest {
+
+    @Test
+    void minimizeRedundantRule() {
+        BooleanMinimization minimization = compile("(a&b)|(a&!b)|a&c").minimize();
+
+        assertThat(minimization.getMethod()).isEqualTo(BooleanMinimizer.Method.QUINE_MCCLUSKEY);
+        assertThat(minimization.getExpression().getExpression()).isEqualTo("a");
+        assertThat(minimization.getOriginalOperatorsCount()).isEqualTo(6);
+        assertThat(minimization.getMinimizedOperatorsCount()).isZero();
+        assertThat(minimization.getOperatorsReduction()).isEqualTo(1.0);
+        assertThat(minimization.getExpression().evaluate(Map.of("a", true))).isTrue();
+    }
+
+    @Test
+    void buildEquivalentNormalForms() {
+        CompiledLogicExpression expression = compile("a&(b|c&!d)|!a&b&d|c&T&(a|!b)");
+        BooleanMinimization dnf = expression.minimize(BooleanMinimizer.NormalForm.DNF);
+        BooleanMinimization cnf = expression.minimize(BooleanMinimizer.NormalForm.CNF);
+
+        assertThat(cnf.getExpression().getExpression()).as("КНФ не является конъюнкцией дизъюнкций").doesNotContain(")|(");
+        assertThat(compile(dnf.getExpression().getExpression()).getRoot().toString())
+                .isEqualTo(dnf.getExpression().getRoot().toString());
+        assertEquivalent(expression, dnf.getExpression());
+        assertEquivalent(expression, cnf.getExpression());
+        assertThat(dnf.getMinimizedOperatorsCount()).isLessThan(dnf.getOriginalOperatorsCount());
+    }
+
+    @Test
+    void minimizeConstantsAndLargeExpressions() {
+        assertThat(compile("a|!a").minimize().getExpression().getExpression()).isEqualTo("T");
+        assertThat(compile("a&!a").minimize(BooleanMinimizer.NormalForm.CNF).getExpression().getExpression()).isEqualTo("F");
+
+        StringBuilder rule = new StringBuilder("v0&v1");
+        for (int i = 1; i < 20; i++) {
+            rule.append("|v").append(i).append("&v").append(i + 1).append("|v").append(i).append("&v").append(i + 1)
+                .append("&v0|!v").append(i).append("&v").append(i).append("&v").append(i + 1);
+        }
+        CompiledLogicExpression expression = compile(rule.toString());
+        BooleanMinimization minimization = expression.minimize();
+
+        assertThat(minimization.getMethod()).isEqualTo(BooleanMinimizer.Method.ESPRESSO);
+        assertThat(minimization.getMinimizedOperatorsCount()).isEqualTo(39);
+        assertEquivalent(expression, minimization.getExpression());
+        assertEquivalent(expression, expression.minimize(BooleanMinimizer.NormalForm.CNF).getExpression());
+    }
+
+    private static void assertEquivalent(CompiledLogicExpression expected, CompiledLogicExpression actual) {
+        List<String> variables = expected.getVariables();
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            Map<String, Boolean> values = new HashMap<>();
+            for (String variable : variables) {
+                values.put(variable, random.nextBoolean());
+            }
+            assertThat(actual.evaluate(values)).as("Выражения не эквивалентны на %s", values)
+                                               .isEqualTo(expected.evaluate(values));
+        }
+    }
+
+    private static CompiledLogicExpression compile(String expression) {
+        return new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(expression).build()).compile();
+    }
+}
@@ -0,0 +1,130 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.logic.FullLogicStringExpressionParser;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class CompiledExpressionTest {
+    @Nested
+    class EvaluateTest {
+        @Test
+        void evaluateMathWithVariables() {
+            CompiledMathExpression compiledExpression = new DoubleMathStringExpressionParser(
+                    new MathStringExpressionBuilder("(x1 + 6) / x2 - -x1").build()).compile();
+
+            double actualResult = compiledExpression.evaluate(4.0, 2.0);
+
+            assertThat(compiledExpression.getVariables()).as("Неверный порядок переменных").containsExactly("x1", "x2");
+            assertThat(actualResult).as("Неверный результат при наличии переменных").isEqualTo(9);
+        }
+
+        @Test
+        void evaluateMathWithFunctions() {
+            CompiledMathExpression compiledExpression = new DoubleMathStringExpressionParser(
+                    new MathStringExpressionBuilder("pow(x, 2) + myFun(x * 2) + max(1, min(x, 10))")
+                            .setClientFunctionWithOneArgument("myFun", param -> param + 1)
+                            .build()).compile();
+
+            double actualResult = compiledExpression.evaluate(Map.of("x", 3.0));
+
+            assertThat(actualResult).as("Неверный результат при наличии функций").isEqualTo(19);
+        }
+
+        @Test
+        void evaluateMathColumns() {
+            CompiledMathExpression compiledExpression = new DoubleMathStringExpressionParser(
+                    new MathStringExpressionBuilder("a * b + 1").build()).compile();
+            double[] results = new double[3];
+
+            compiledExpression.evaluateColumns(new double[][] {{1, 2, 3}, {4, 5, 6}}, results);
+
+            assertThat(results).as("Неверный результат при вычислении по столбцам").containsExactly(5, 11, 19);
+        }
+
+        @Test
+        void evaluateMathBatch() {
+            CompiledMathExpression compiledExpression = new DoubleMathStringExpressionParser(
+                    new MathStringExpressionBuilder("a - b").build()).compile();
+
+            List<Double> results = compiledExpression.evaluateBatch(List.of(Map.of("a", 5.0, "b", 1.0),
+                                                                            Map.of("a", 1.0, "b", 5.0)));
+
+            assertThat(results).as("Неверный результат при пакетном вычислении").containsExactly(4.0, -4.0);
+        }
+
+        @Test
+        void evaluateShortLogic() {
+            CompiledLogicExpression compiledExpression = new ShortLogicStringExpressionParser(
+                    new LogicStringExpressionBuilder("T & (x1 | x2) & x1").build()).compile();
+
+            assertThat(compiledExpression.evaluate(true, false)).as("Неверный результат логического выражения").isTrue();
+            assertThat(compiledExpression.evaluate(false, true)).as("Неверный результат логического выражения").isFalse();
+        }
+
+        @Test
+        void evaluateFullLogic() {
+            CompiledLogicExpression compiledExpression = new FullLogicStringExpressionParser(
+                    new LogicStringExpressionBuilder("False or x1 and (True or False)").build()).compile();
+
+            assertThat(compiledExpression.evaluate(Map.of("x1", true))).as("Неверный результат логического выражения").isTrue();
+        }
+    }
+
+    @Nested
+    class ErrorTest {
+        @Test
+        void divisionByZeroError() {
+            CompiledMathExpression compiledExpression = new DoubleMathStringExpressionParser(
+                    new MathStringExpressionBuilder("10 / x").build()).compile();
+
+            Throwable actualException = catchThrowable(() -> compiledExpression.evaluate(0.0));
+
+            assertThat(actualException).as("Исключение не сгенерировано")
+                                       .isInstanceOf(ParserException.class)
+                                       .hasMessage("Обнаружено деление на ноль");
+        }
+
+        @Test
+        void variableDetectedError() {
+            CompiledMathExpression compiledExpression = new DoubleMathStringExpressionParser(
+                    new MathStringExpressionBuilder("x1 + x2").build()).compile();
+
+            Throwable actualException = catchThrowable(() -> compiledExpression.evaluate(Map.of("x1", 1.0)));
+
+            assertThat(actualException).as("Исключение не сгенерировано")
+                                       .isInstanceOf(ParserException.class)
+                                       .hasMessage("Обнаружена переменная без значения");
+        }
+
+        @Test
+        void unknownFunctionError() {
+            Throwable actualException = catchThrowable(() -> new DoubleMathStringExpressionParser(
+                    new MathStringExpressionBuilder("foo(2) + 1").build()).compile());
+
+            assertThat(actualException).as("Исключение не сгенерировано")
+                                       .isInstanceOf(ParserException.class)
+                                       .hasMessage("Обнаружена неизвестная функция");
+        }
+
+        @Test
+        void incorrectSyntaxError() {
+            Throwable actualException = catchThrowable(() -> new DoubleMathStringExpressionParser(
+                    new MathStringExpressionBuilder("(2 + 3").build()).compile());
+
+            assertThat(actualException).as("Исключение не сгенерировано")
+                                       .isInstanceOf(ParserException.class)
+                                       .hasMessage("Неверный синтаксис выражения");
+        }
+    }
+}
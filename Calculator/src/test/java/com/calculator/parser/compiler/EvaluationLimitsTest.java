@@ -0,0 +1,113 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import com.calculator.parser.storage.FieldType;
+import com.calculator.parser.storage.OffHeapRuleStoreBuilder;
+import com.calculator.parser.storage.RecordLayoutBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class EvaluationLimitsTest {
+
+    @Test
+    void rejectExpressionsExceedingSyntaxLimits() {
+        assertThat(errorOf(() -> compile("1+2+3+4", new EvaluationLimitsBuilder().setMaxLength(5).build())))
+                .as("Не проверена длина выражения").isEqualTo(ErrorType.LIMIT_EXCEEDED_ERROR);
+        assertThat(errorOf(() -> compile("10+20+30", new EvaluationLimitsBuilder().setMaxTokens(4).build())))
+                .as("Не проверено количество токенов").isEqualTo(ErrorType.LIMIT_EXCEEDED_ERROR);
+        assertThat(errorOf(() -> compile("((((x))))", new EvaluationLimitsBuilder().setMaxDepth(3).build())))
+                .as("Не проверена глубина вложенности").isEqualTo(ErrorType.LIMIT_EXCEEDED_ERROR);
+        assertThat(errorOf(() -> compile("x*y+x*y+x", new EvaluationLimitsBuilder().setMaxOperations(3).build())))
+                .as("Не проверено количество операций").isEqualTo(ErrorType.LIMIT_EXCEEDED_ERROR);
+        assertThat(errorOf(() -> new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder("((T|F))&T")
+                .setLimits(new EvaluationLimitsBuilder().setMaxDepth(1).build()).build()).getExpressionResult()))
+                .as("Ограничения не применены при вычислении без компиляции").isEqualTo(ErrorType.LIMIT_EXCEEDED_ERROR);
+    }
+
+    @Test
+    void interruptSlowFunctionCalls() {
+        EvaluationLimits limits = new EvaluationLimitsBuilder().setFunctionBudget(Duration.ofMillis(1)).build();
+        CompiledMathExpression expression = slowExpression(limits);
+
+        assertThat(errorOf(() -> expression.evaluate(Map.of("x", 1.0)))).as("Бюджет функции не проверен")
+                .isEqualTo(ErrorType.LIMIT_EXCEEDED_ERROR);
+        assertThat(compile("max(x,2)+1", limits).evaluate(Map.of("x", 4.0))).isEqualTo(5.0);
+    }
+
+    @Test
+    void keepTimeLimitsInOtherBackends() {
+        CompiledMathExpression expression = slowExpression(new EvaluationLimitsBuilder().setFunctionBudget(Duration.ofMillis(1)).build());
+        TieredExecutor executor = new TieredExecutor(0, Runnable::run);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(errorOf(() -> executor.evaluate(expression, 1.0))).isEqualTo(ErrorType.LIMIT_EXCEEDED_ERROR);
+        }
+        assertThat(executor.getTier(expression)).as("Выражение с ограничениями не должно оптимизироваться")
+                .isEqualTo(ExecutionTier.INTERPRETER);
+        assertThat(errorOf(() -> new RecordLayoutBuilder(8).addField("x", 0, FieldType.DOUBLE).build().bind(expression)
+                .newEvaluator().evaluate(ByteBuffer.allocateDirect(8), 0))).isEqualTo(ErrorType.LIMIT_EXCEEDED_ERROR);
+        assertThat(catchThrowable(() -> new ParallelEvaluator(expression))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new OffHeapRuleStoreBuilder().add(expression))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> ClosureCompiler.compile(expression.getProgram()))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void estimateCost() {
+        CompiledMathExpression arithmetic = compile("x*y+z", EvaluationLimits.UNLIMITED);
+        CompiledMathExpression builtIn = compile("sin(x)*y+z", EvaluationLimits.UNLIMITED);
+        CompiledMathExpression client = new DoubleMathStringExpressionParser(
+                new MathStringExpressionBuilder("f(x)*y+z").setClientFunctionWithOneArgument("f", x -> x).build()).compile();
+
+        assertThat(arithmetic.getCost().getEstimatedCost()).isLessThan(builtIn.getCost().getEstimatedCost());
+        assertThat(builtIn.getCost().getEstimatedCost()).as("Клиентская функция должна быть дороже встроенной")
+                .isLessThan(client.getCost().getEstimatedCost());
+        assertThat(client.getCost().getClientFunctionCallsCount()).isEqualTo(1);
+        assertThat(client.getCost().isExpensive(ExpressionCost.CLIENT_FUNCTION_COST)).isTrue();
+        assertThat(arithmetic.getCost().isExpensive(ExpressionCost.CLIENT_FUNCTION_COST)).isFalse();
+    }
+
+    @Test
+    void keepUnlimitedBehaviour() {
+        CompiledMathExpression expression = compile("((x+1)*(y-2))/4", EvaluationLimits.UNLIMITED);
+
+        assertThat(expression.getLimits()).isSameAs(EvaluationLimits.UNLIMITED);
+        assertThat(expression.evaluate(Map.of("x", 3.0, "y", 4.0))).isEqualTo(2.0);
+        assertThat(catchThrowable(() -> new EvaluationLimitsBuilder().setMaxDepth(0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CompiledMathExpression compile(String expression, EvaluationLimits limits) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).setLimits(limits).build())
+                .compile();
+    }
+
+    private static CompiledMathExpression slowExpression(EvaluationLimits limits) {
+        return new DoubleMathStringExpressionParser(
+                new MathStringExpressionBuilder("slow(x)+1").setClientFunctionWithOneArgument("slow", x -> {
+                    try {
+                        Thread.sleep(5);
+                    }
+                    catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return x;
+                }).setLimits(limits).build()).compile();
+    }
+
+    private static ErrorType errorOf(Runnable action) {
+        Throwable throwable = catchThrowable(action::run);
+        assertThat(throwable).isInstanceOf(ParserException.class);
+        return ((ParserException) throwable).getErrorType();
+    }
+}
@@ -0,0 +1,99 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExplainPlanTest {
+
+    @Test
+    void explainCompiledExpression() {
+        CompiledMathExpression expression = compile("2 * 3 + sin(x) + twice(y) / 4");
+        ExplainPlan plan = expression.explain();
+
+        assertThat(plan.getTokens()).containsExactly("2", "*", "3", "+", "sin", "(", "x", ")", "+",
+                                                     "twice", "(", "y", ")", "/", "4");
+        assertThat(plan.getInstructions()).containsExactly("PUSH 2", "PUSH 3", "*", "LOAD x", "CALL sin/1", "+",
+                                                           "LOAD y", "CALL twice/1", "PUSH 4", "/", "+");
+        assertThat(plan.getTree()).isEqualTo(expression.getRoot().toString());
+        assertThat(plan.getFoldableConstants()).as("Константное подвыражение не найдено").containsExactly(Map.entry("(2*3)", "6"));
+        assertThat(plan.getFunctions()).containsExactly(Map.entry("sin", "built-in"), Map.entry("twice", "client"));
+        assertThat(plan.getMaxStackDepth()).isEqualTo(3);
+        assertThat(plan.getTier()).isEqualTo(ExecutionTier.INTERPRETER);
+        assertThat(plan.toString()).contains("Backend: INTERPRETER");
+        assertThat(new TieredExecutor().explain(expression).getCost()).isSameAs(expression.getCost());
+    }
+
+    @Test
+    void neverCallClientFunctionsWhileExplaining() {
+        int[] calls = new int[1];
+        CompiledMathExpression expression = new DoubleMathStringExpressionParser(
+                new MathStringExpressionBuilder("x + 2 * 3 - pow(2, 3) + traced(5)")
+                        .setClientFunctionWithOneArgument("traced", x -> {
+                            calls[0]++;
+                            return x;
+                        }).build()).compile();
+
+        ExplainPlan plan = expression.explain();
+
+        assertThat(calls[0]).as("Клиентская функция вызвана при построении плана").isZero();
+        assertThat(plan.getFoldableConstants()).containsExactly(Map.entry("(2*3)", "6"), Map.entry("pow(2,3)", "8"));
+        assertThat(plan.getInstructions()).contains("CALL pow/2", "CALL traced/1");
+        assertThat(plan.toString()).contains("Foldable constant subexpressions: ");
+    }
+
+    @Test
+    void profileNodesAndFunctions() {
+        CompiledMathExpression expression = new DoubleMathStringExpressionParser(
+                new MathStringExpressionBuilder("slow(x) + x * 2 + twice(x)")
+                        .setClientFunctionWithOneArgument("twice", x -> x * 2)
+                        .setClientFunctionWithOneArgument("slow", x -> {
+                            try {
+                                Thread.sleep(2);
+                            }
+                            catch (InterruptedException exception) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return x;
+                        }).build()).compile();
+        ExpressionProfiler<Double> profiler = expression.profiler();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(profiler.evaluate(Map.of("x", (double) i))).isEqualTo(expression.evaluate(Map.of("x", (double) i)));
+        }
+        List<ExpressionProfiler.NodeProfile> functions = profiler.getFunctionProfiles();
+
+        assertThat(profiler.getEvaluationsCount()).isEqualTo(3);
+        assertThat(functions.get(0).getDescription()).as("Самая дорогая функция определена неверно").isEqualTo("slow");
+        assertThat(functions.get(0).getCalls()).isEqualTo(3);
+        assertThat(functions.get(0).getSelfNanos()).isGreaterThanOrEqualTo(6_000_000L);
+        assertThat(profiler.getNodeProfiles().get(0).getDescription()).isEqualTo("slow(x)");
+        assertThat(profiler.getNodeProfiles()).hasSize(9).allMatch(profile -> profile.getCalls() == 3);
+        assertThat(profiler.report(3)).contains("slow(x): calls=3");
+    }
+
+    @Test
+    void profileLogicExpression() {
+        CompiledLogicExpression expression = new ShortLogicStringExpressionParser(
+                new LogicStringExpressionBuilder("a & !b | c").build()).compile();
+        ExpressionProfiler<Boolean> profiler = expression.profiler();
+
+        assertThat(profiler.evaluate(Map.of("a", true, "b", false, "c", false))).isTrue();
+        assertThat(profiler.evaluate(Map.of("a", true, "b", true, "c", false))).isFalse();
+        profiler.reset();
+        assertThat(profiler.getEvaluationsCount()).isZero();
+        assertThat(profiler.getNodeProfiles()).allMatch(profile -> profile.getCalls() == 0);
+    }
+
+    private static CompiledMathExpression compile(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression)
+                .setClientFunctionWithOneArgument("twice", x -> x * 2).build()).compile();
+    }
+}
@@ -0,0 +1,56 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpressionCanonicalizerTest {
+    @Test
+    void sameFormForCommutativeOperands() {
+        CompiledMathExpression first = compileMath("a + b * c + 2");
+        CompiledMathExpression second = compileMath("2 + c * b + a");
+
+        assertThat(first.getCanonicalForm()).as("Различная каноническая форма").isEqualTo(second.getCanonicalForm());
+        assertThat(first.getStructuralHash()).as("Различный структурный хэш").isEqualTo(second.getStructuralHash());
+    }
+
+    @Test
+    void sameFormForLogicOperands() {
+        CompiledLogicExpression first = compileLogic("x | y & T");
+        CompiledLogicExpression second = compileLogic("T & y | x");
+
+        assertThat(first.getCanonicalForm()).as("Различная каноническая форма").isEqualTo(second.getCanonicalForm());
+        assertThat(first.getStructuralHash()).as("Различный структурный хэш").isEqualTo(second.getStructuralHash());
+    }
+
+    @Test
+    void differentFormForNonCommutativeOperands() {
+        CompiledMathExpression first = compileMath("a - b");
+        CompiledMathExpression second = compileMath("b - a");
+
+        assertThat(first.getCanonicalForm()).as("Совпадает каноническая форма").isNotEqualTo(second.getCanonicalForm());
+        assertThat(first.getStructuralHash()).as("Совпадает структурный хэш").isNotEqualTo(second.getStructuralHash());
+    }
+
+    @Test
+    void canonicalFormCompiles() {
+        CompiledMathExpression expression = compileMath("pow(x, 2) - -(y + 1) / 4");
+
+        CompiledMathExpression recompiled = compileMath(expression.getCanonicalForm());
+
+        assertThat(recompiled.evaluate(3.0, 7.0)).as("Каноническая форма вычисляется иначе")
+                                                 .isEqualTo(expression.evaluate(3.0, 7.0));
+    }
+
+    private static CompiledMathExpression compileMath(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+
+    private static CompiledLogicExpression compileLogic(String expression) {
+        return new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(expression).build()).compile();
+    }
+}
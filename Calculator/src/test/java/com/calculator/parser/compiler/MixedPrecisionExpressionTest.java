@@ -0,0 +1,86 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class MixedPrecisionExpressionTest {
+
+    @Test
+    void inferCheapestRepresentation() {
+        CompiledMathExpression compiled = compile("n * (n + 1) / 2 + pow(k, 3) + sin(x)");
+        MixedPrecisionExpression expression = compiled.withMixedPrecision(Map.of("n", NumericKind.LONG, "k", NumericKind.LONG));
+        BinaryOperatorNode sum = (BinaryOperatorNode) compiled.getRoot();
+        BinaryOperatorNode integerPart = (BinaryOperatorNode) ((BinaryOperatorNode) sum.getLeft()).getLeft();
+
+        assertThat(expression.getKind(integerPart.getLeft())).as("Целое подвыражение должно вычисляться в long")
+                .isEqualTo(NumericKind.LONG);
+        assertThat(expression.getKind(integerPart)).isEqualTo(NumericKind.DOUBLE);
+        assertThat(expression.getKind(((BinaryOperatorNode) sum.getLeft()).getRight())).isEqualTo(NumericKind.LONG);
+        assertThat(expression.getResultKind()).isEqualTo(NumericKind.DOUBLE);
+        assertThat(expression.evaluate(Map.of("n", 4, "k", 2L, "x", 0.0))).isEqualTo(18.0);
+        assertThat(compile("k * 3 - n").withMixedPrecision(Map.of("n", NumericKind.LONG, "k", NumericKind.LONG))
+                .evaluate(Map.of("n", 2L, "k", 3_000_000_000_000_000_001L))).as("Целый результат должен быть точным")
+                .isEqualTo(9_000_000_000_000_000_001L);
+    }
+
+    @Test
+    void evaluateDecimalFormulaWithIntegerSubtrees() {
+        MixedPrecisionExpression expression = compile("price * qty * 2 + 0.1 + 0.2")
+                .withMixedPrecision(Map.of("qty", NumericKind.LONG), MathContext.DECIMAL64);
+
+        assertThat(expression.evaluate(Map.of("price", new BigDecimal("19.99"), "qty", 3L)))
+                .as("Десятичная формула не должна терять точность").isEqualTo(new BigDecimal("120.24"));
+        assertThat(expression.getResultKind()).isEqualTo(NumericKind.DECIMAL);
+        assertThat(compile("qty * 2 + 1").withMixedPrecision(Map.of("qty", NumericKind.LONG), MathContext.DECIMAL64)
+                .evaluate(Map.of("qty", 20L))).isEqualTo(41L);
+    }
+
+    @Test
+    void widenOnOverflow() {
+        MixedPrecisionExpression doubleExpression = compile("a * b").withMixedPrecision(Map.of("a", NumericKind.LONG, "b", NumericKind.LONG));
+        MixedPrecisionExpression decimalExpression = compile("a * b")
+                .withMixedPrecision(Map.of("a", NumericKind.LONG, "b", NumericKind.LONG), MathContext.DECIMAL128);
+
+        assertThat(doubleExpression.evaluate(Map.of("a", 3L, "b", 5L))).isEqualTo(15L);
+        assertThat(doubleExpression.evaluate(Map.of("a", 1L << 40, "b", 1L << 40)))
+                .as("Целый результат после переполнения должен быть BigDecimal").isEqualTo(new BigDecimal(BigInteger.ONE.shiftLeft(80)));
+        assertThat(decimalExpression.evaluate(Map.of("a", Long.MAX_VALUE, "b", 2L)))
+                .isEqualTo(BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2)));
+        assertThat(doubleExpression.getResultKind()).isEqualTo(NumericKind.LONG);
+
+        MixedPrecisionExpression sum = compile("x * y + 1").withMixedPrecision(Map.of("x", NumericKind.LONG, "y", NumericKind.LONG));
+        assertThat(sum.evaluate(Map.of("x", Long.MAX_VALUE, "y", 2L))).isInstanceOf(BigDecimal.class)
+                .isEqualTo(new BigDecimal("18446744073709551615"));
+        assertThat(sum.evaluate(Map.of("x", 2L, "y", 3L))).isEqualTo(7L);
+
+        MixedPrecisionExpression fractional = compile("x * y + z").withMixedPrecision(Map.of("x", NumericKind.LONG, "y", NumericKind.LONG));
+        assertThat(fractional.getResultKind()).isEqualTo(NumericKind.DOUBLE);
+        assertThat(fractional.evaluate(Map.of("x", Long.MAX_VALUE, "y", 2L, "z", 0.5))).isInstanceOf(Double.class);
+    }
+
+    @Test
+    void rejectIncorrectValues() {
+        MixedPrecisionExpression expression = compile("n / m").withMixedPrecision(Map.of("n", NumericKind.LONG, "m", NumericKind.LONG));
+
+        assertThat(((ParserException) catchThrowable(() -> expression.evaluate(Map.of("n", 1.5, "m", 1L)))).getErrorType())
+                .isEqualTo(ErrorType.INCORRECT_VARIABLE_VALUE_TYPE);
+        assertThat(((ParserException) catchThrowable(() -> expression.evaluate(Map.of("n", 1L, "m", 0L)))).getErrorType())
+                .isEqualTo(ErrorType.DIVISION_BY_ZERO_ERROR);
+        assertThat(expression.evaluate(Map.of("n", 3L, "m", 2.0))).isEqualTo(1.5);
+    }
+
+    private static CompiledMathExpression compile(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+}
@@ -0,0 +1,66 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.parsers.math.BigDecimalMathStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class OperatorTableTest {
+
+    @Test
+    void compileUserOperators() {
+        CompiledMathExpression expression = compile("2 ^ 3 ^ 2 + x % 4 * 3! - 2 ^ y");
+
+        assertThat(expression.evaluate(Map.of("x", 10.0, "y", 1.0))).as("Неверный приоритет или ассоциативность")
+                .isEqualTo(512 + 2 * 6 - 2);
+        assertThat(expression.getRoot().toString()).isEqualTo("(((2^(3^2))+((x%4)*(3)!))-(2^y))");
+        assertThat(compile(expression.getCanonicalForm()).evaluate(Map.of("x", 10.0, "y", 1.0))).isEqualTo(522.0);
+        assertThat(compile("-(1 + 2)!").evaluate(Map.of())).isEqualTo(-6.0);
+    }
+
+    @Test
+    void evaluateUserOperatorsWithoutCompilation() {
+        DoubleMathStringExpressionParser parser = new DoubleMathStringExpressionParser(builder("2^3^2-10.0%4*3!").build());
+        BigDecimalMathStringExpressionParser decimalParser = new BigDecimalMathStringExpressionParser(builder("2^10+3!").build());
+
+        assertThat(parser.getExpressionResult()).isEqualTo(512 - 12.0);
+        assertThat(decimalParser.getExpressionResult()).isEqualTo("1030.0");
+    }
+
+    @Test
+    void rejectIncorrectOperators() {
+        OperatorTable table = OperatorTable.math();
+
+        assertThat(catchThrowable(() -> table.addBinaryOperator('+', 2, OperatorTable.Associativity.LEFT, Double::sum)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> table.addBinaryOperator('x', 4, OperatorTable.Associativity.LEFT, Double::sum)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> table.addBinaryOperator('^', 1, OperatorTable.Associativity.LEFT, Math::pow)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(table.hasUserOperators()).isFalse();
+        assertThat(table.getPriority('*')).isEqualTo(3);
+        assertThat(table.getPriority('≤')).isZero();
+    }
+
+    private static MathStringExpressionBuilder builder(String expression) {
+        return new MathStringExpressionBuilder(expression)
+                .setClientOperator('^', 4, OperatorTable.Associativity.RIGHT, Math::pow)
+                .setClientOperator('%', 3, OperatorTable.Associativity.LEFT, (a, b) -> a % b)
+                .setClientPostfixOperator('!', a -> {
+                    double result = 1;
+                    for (int i = 2; i <= a; i++) {
+                        result *= i;
+                    }
+                    return result;
+                });
+    }
+
+    private static CompiledMathExpression compile(String expression) {
+        return new DoubleMathStringExpressionParser(builder(expression).build()).compile();
+    }
+}
@@ -0,0 +1,133 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class ParallelEvaluatorTest {
+    private static final int TERMS = 200_000;
+
+    @Test
+    void rebalanceWideSum() {
+        CompiledMathExpression expression = compileMath(chain("a", '+', TERMS));
+        double[] values = new Random(7).doubles(TERMS).toArray();
+
+        assertThat(expression.getProgram().getMaxStackDepth()).as("Цепочка не перестроена").isLessThanOrEqualTo(20);
+        assertThat(expression.evaluate(values)).isCloseTo(sum(values), Offset.offset(1e-6));
+        assertThat(compileMath("0.1+0.2+0.3").evaluate()).as("Изменён порядок короткой цепочки")
+                                                       .isEqualTo(0.1 + 0.2 + 0.3);
+        int terms = ChainRebalancer.MIN_CHAIN_OPERANDS - 1;
+        double[] shortValues = new Random(3).doubles(terms).toArray();
+        assertThat(compileMath(chain("a", '+', terms)).evaluate(shortValues)).as("Изменён порядок цепочки ниже порога")
+                                                                           .isEqualTo(sum(shortValues));
+    }
+
+    @Test
+    void joinForkedOperandOnError() {
+        CompiledMathExpression expression = new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(
+                "(" + chain("a", '+', 2000) + "+1/z)*(" + chain("b", '+', 2000) + "+fail(z))")
+                .setClientFunctionWithOneArgument("fail", x -> {
+                    throw new IllegalStateException("right operand failed");
+                }).build()).compile();
+        double[] values = new double[expression.getVariables().size()];
+        ParallelEvaluator evaluator = new ParallelEvaluator(expression, 1000,
+                ParallelEvaluator.ReductionMode.DETERMINISTIC, ForkJoinPool.commonPool());
+
+        Throwable thrown = catchThrowable(() -> evaluator.execute(values));
+
+        assertThat(evaluator.getParallelNodesCount()).isPositive();
+        assertThat(thrown).as("Ошибка левого операнда потеряна").isInstanceOf(ParserException.class);
+        assertThat(((ParserException) thrown).getErrorType()).isEqualTo(ErrorType.DIVISION_BY_ZERO_ERROR);
+    }
+
+    @Test
+    void deterministicModeMatchesSequentialResult() {
+        CompiledMathExpression expression = compileMath(chain("a", '+', TERMS) + "*2-" + chain("b", '*', 100));
+        double[] values = new Random(11).doubles(expression.getVariables().size(), 0.5, 1.5).toArray();
+        double sequential = expression.getProgram().execute(values);
+
+        for (int parallelism : new int[]{1, 2, 4}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                ParallelEvaluator evaluator = new ParallelEvaluator(expression, 1000,
+                        ParallelEvaluator.ReductionMode.DETERMINISTIC, pool);
+                assertThat(evaluator.getParallelNodesCount()).isPositive();
+                assertThat(evaluator.execute(values)).as("Результат зависит от параллелизма").isEqualTo(sequential);
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void unorderedLogicChain() {
+        CompiledLogicExpression expression = compileLogic(chain("c", '|', 50_000));
+        double[] values = new double[50_000];
+        ParallelEvaluator evaluator = new ParallelEvaluator(expression, 1000,
+                ParallelEvaluator.ReductionMode.UNORDERED, ForkJoinPool.commonPool());
+
+        assertThat(evaluator.execute(values)).isEqualTo(0.0);
+        values[49_999] = 1;
+        assertThat(evaluator.execute(values)).isEqualTo(1.0);
+        assertThat(evaluator.getParallelNodesCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rebalanceSubtractionAndPropagateErrors() {
+        StringBuilder expression = new StringBuilder("a0");
+        for (int i = 1; i < 10_000; i++) {
+            expression.append(i % 2 == 0 ? '+' : '-').append('a').append(i);
+        }
+        CompiledMathExpression compiled = compileMath(expression + "+x/y");
+        double[] values = new double[compiled.getVariables().size()];
+        for (int i = 0; i < 10_000; i++) {
+            values[i] = i;
+        }
+        values[10_000] = 6;
+        values[10_001] = 3;
+        ParallelEvaluator evaluator = new ParallelEvaluator(compiled, 100,
+                ParallelEvaluator.ReductionMode.DETERMINISTIC, ForkJoinPool.commonPool());
+
+        assertThat(evaluator.execute(values)).as("Неверная знакопеременная сумма").isEqualTo(-5000.0 + 2);
+        values[10_001] = 0;
+        Throwable thrown = catchThrowable(() -> evaluator.execute(values));
+        assertThat(thrown).isInstanceOf(ParserException.class);
+        assertThat(((ParserException) thrown).getErrorType()).isEqualTo(ErrorType.DIVISION_BY_ZERO_ERROR);
+    }
+
+    private static String chain(String prefix, char operator, int terms) {
+        StringBuilder expression = new StringBuilder(prefix).append(0);
+        for (int i = 1; i < terms; i++) {
+            expression.append(operator).append(prefix).append(i);
+        }
+        return expression.toString();
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static CompiledMathExpression compileMath(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+
+    private static CompiledLogicExpression compileLogic(String expression) {
+        return new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(expression).build()).compile();
+    }
+}
@@ -0,0 +1,70 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParserResultTest {
+    @Test
+    void tryCompileSuccess() {
+        ParserResult<CompiledMathExpression> result = tryCompileMath("x * 2");
+
+        assertThat(result.isSuccess()).as("Компиляция неуспешна").isTrue();
+        assertThat(result.getValue().evaluate(2.0)).isEqualTo(4.0);
+    }
+
+    @Test
+    void tryCompileSyntaxErrorPosition() {
+        ParserResult<CompiledMathExpression> result = tryCompileMath("2 + (3 * )");
+
+        assertThat(result.getErrorType()).as("Неверный тип ошибки").isEqualTo(ErrorType.INCORRECT_EXPRESSION_SYNTAX);
+        assertThat(result.getPosition()).as("Неверная позиция ошибки").isEqualTo(5);
+    }
+
+    @Test
+    void tryCompileUnknownFunctionPosition() {
+        ParserResult<CompiledMathExpression> result = tryCompileMath("1 + foo(2)");
+
+        assertThat(result.getErrorType()).as("Неверный тип ошибки").isEqualTo(ErrorType.UNKNOWN_FUNCTION_ERROR);
+        assertThat(result.getPosition()).as("Неверная позиция ошибки").isEqualTo(2);
+    }
+
+    @Test
+    void tryCompileLogicError() {
+        ParserResult<CompiledLogicExpression> result = new ShortLogicStringExpressionParser(
+                new LogicStringExpressionBuilder("a & 1").build()).tryCompile();
+
+        assertThat(result.getErrorType()).as("Неверный тип ошибки").isEqualTo(ErrorType.INCORRECT_LOGIC_TYPE);
+        assertThat(result.getPosition()).as("Неверная позиция ошибки").isEqualTo(2);
+    }
+
+    @Test
+    void tryEvaluateErrors() {
+        CompiledMathExpression expression = tryCompileMath("x / y").getValue();
+
+        assertThat(expression.tryEvaluate(Map.of("x", 1.0)).getErrorType())
+                .as("Неверный тип ошибки").isEqualTo(ErrorType.VARIABLE_DETECTED_ERROR);
+        assertThat(expression.tryEvaluate(Map.of("x", 1.0, "y", 0.0)).getErrorType())
+                .as("Неверный тип ошибки").isEqualTo(ErrorType.DIVISION_BY_ZERO_ERROR);
+        assertThat(expression.tryEvaluate(Map.of("x", 1.0, "y", 4.0)).getValue()).isEqualTo(0.25);
+    }
+
+    @Test
+    void exceptionWithoutStackTrace() {
+        ParserException exception = new ParserException(ErrorType.NO_EXPRESSION_ERROR);
+
+        assertThat(exception.getStackTrace()).as("Стек вызовов заполнен").isEmpty();
+    }
+
+    private static ParserResult<CompiledMathExpression> tryCompileMath(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).tryCompile();
+    }
+}
@@ -0,0 +1,75 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class PartialEvaluatorTest {
+    @Test
+    void specializeMathExpression() {
+        CompiledMathExpression expression = compileMath("rate * (base + 2) * x + pow(base, 2) / 4");
+
+        CompiledMathExpression residual = expression.specialize(Map.of("rate", 0.5, "base", 3.0));
+
+        assertThat(residual.getVariables()).as("Известные переменные остались в выражении").containsExactly("x");
+        assertThat(residual.getProgram().getCode().length).as("Остаточное выражение не уменьшилось")
+                .isLessThan(expression.getProgram().getCode().length);
+        assertThat(residual.evaluate(7.0)).isEqualTo(expression.evaluate(0.5, 3.0, 7.0));
+    }
+
+    @Test
+    void specializeToConstant() {
+        CompiledMathExpression residual = compileMath("x * 1 + y - 0").specialize(Map.of("x", 1.5, "y", 0.25));
+
+        assertThat(residual.getRoot()).isInstanceOf(NumberNode.class);
+        assertThat(residual.evaluate()).isEqualTo(1.75);
+    }
+
+    @Test
+    void keepDivisionByZero() {
+        CompiledMathExpression residual = compileMath("x / y").specialize(Map.of("y", 0.0));
+
+        Throwable actualException = catchThrowable(() -> residual.evaluate(1.0));
+
+        assertThat(actualException).as("Деление на ноль не обнаружено").isNotNull();
+    }
+
+    @Test
+    void keepNonFiniteValues() {
+        CompiledMathExpression expression = compileMath("x * y + 1");
+
+        CompiledMathExpression infinite = expression.specialize(Map.of("x", Double.POSITIVE_INFINITY, "y", 2.0));
+        CompiledMathExpression notANumber = expression.specialize(Map.of("x", Double.NaN));
+
+        assertThat(infinite.getVariables()).as("Бесконечность подставлена в выражение").containsExactly("x");
+        assertThat(infinite.evaluate(Double.POSITIVE_INFINITY)).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(notANumber.getVariables()).containsExactly("x", "y");
+        assertThat(new NumberNode(Double.NEGATIVE_INFINITY).toString()).isEqualTo("-Infinity");
+        assertThat(new NumberNode(Double.NaN).toString()).isEqualTo("NaN");
+    }
+
+    @Test
+    void specializeLogicExpression() {
+        CompiledLogicExpression expression = compileLogic("(a & b) | (c & d)");
+
+        assertThat(expression.specialize(Map.of("a", false)).getExpression()).isEqualTo("(c&d)");
+        assertThat(expression.specialize(Map.of("a", true, "b", true)).getRoot()).isInstanceOf(BooleanNode.class);
+        assertThat(expression.specialize(Map.of("c", true)).evaluate(true, false, false)).isFalse();
+        assertThat(expression.specialize(Map.of("c", true)).evaluate(false, false, true)).isTrue();
+    }
+
+    private static CompiledMathExpression compileMath(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+
+    private static CompiledLogicExpression compileLogic(String expression) {
+        return new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(expression).build()).compile();
+    }
+}
@@ -0,0 +1,53 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.parsers.math.IntMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class SafetyAnalyzerTest {
+    @Test
+    void removeProvenDivisionCheck() {
+        CompiledMathExpression expression = compile("x / (y + 1) + x / y")
+                .withVariableBounds(Map.of("x", Interval.of(0, 100), "y", Interval.of(0, 10)));
+
+        SafetyAnalysis analysis = expression.getSafetyAnalysis();
+
+        assertThat(analysis.getSafeDivisions()).as("Неверное количество безопасных делений").hasSize(1);
+        assertThat(analysis.getCheckedDivisions()).as("Неверное количество проверяемых делений").isEqualTo(1);
+        assertThat(expression.getProgram().getCode()).as("Проверка деления не удалена").contains(Program.DIVIDE_UNCHECKED);
+        assertThat(expression.evaluate(10.0, 4.0)).isEqualTo(10.0 / 5 + 10.0 / 4);
+    }
+
+    @Test
+    void provenIntRange() {
+        CompiledMathExpression expression = compile("a * b - sin(a)")
+                .withVariableBounds(Map.of("a", Interval.of(-1000, 1000), "b", Interval.of(-1000, 1000)));
+
+        SafetyAnalysis analysis = expression.getSafetyAnalysis();
+
+        assertThat(analysis.isIntRangeSafe()).as("Диапазон int не доказан").isTrue();
+        assertThat(analysis.getResultRange()).isEqualTo(Interval.of(-1000001, 1000001));
+        assertThat(analysis.getRemovedChecks()).as("Удалённая проверка не отражена в отчёте").hasSize(1);
+        assertThat(expression.evaluateInt(30.0, 20.0)).isEqualTo((int) Math.round(600 - Math.sin(30)));
+    }
+
+    @Test
+    void unprovenIntRangeKeepsCheck() {
+        CompiledMathExpression expression = compile("a * a").withVariableBounds(Map.of());
+
+        Throwable actualException = catchThrowable(() -> expression.evaluateInt(1e6));
+
+        assertThat(expression.getSafetyAnalysis().isAllIdentifiersResolved()).as("Переменная без диапазона не обнаружена").isFalse();
+        assertThat(expression.getSafetyAnalysis().getUndeclaredVariables()).containsExactly("a");
+        assertThat(actualException).as("Переполнение не обнаружено").isInstanceOf(ArithmeticException.class);
+    }
+
+    private static CompiledMathExpression compile(String expression) {
+        return new IntMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+}
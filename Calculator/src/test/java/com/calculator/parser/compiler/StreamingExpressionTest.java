@@ -0,0 +1,85 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.within;
+
+class StreamingExpressionTest {
+
+    @Test
+    void evaluateCountWindowsIncrementally() {
+        StreamingExpression stream = new StreamingExpression(compile("avg(price, 3) - x1 + sum(price, 3) * 0"));
+
+        assertThat(stream.getStreamVariables()).containsExactly("x1", "price");
+        assertThat(stream.update(Map.of("price", 10.0, "x1", 1.0))).isEqualTo(9.0);
+        assertThat(stream.update(Map.of("price", 20.0, "x1", 1.0))).isEqualTo(14.0);
+        assertThat(stream.update(Map.of("price", 30.0, "x1", 1.0))).isEqualTo(19.0);
+        assertThat(stream.update(Map.of("price", 40.0, "x1", 0.0))).as("Старое значение не вышло из окна").isEqualTo(30.0);
+    }
+
+    @Test
+    void matchNaiveWindowStatistics() {
+        StreamingExpression stream = new StreamingExpression(compile("wmax(v, 50) - wmin(v, 50) + stddev(v, 50)"));
+        double[] values = new double[2000];
+        long seed = 42;
+        for (int i = 0; i < values.length; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            values[i] = (seed >>> 40) / 1000.0;
+            double result = stream.update(i, values[i]);
+
+            int from = Math.max(0, i - 49);
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            double sum = 0;
+            for (int j = from; j <= i; j++) {
+                min = Math.min(min, values[j]);
+                max = Math.max(max, values[j]);
+                sum += values[j];
+            }
+            double mean = sum / (i - from + 1);
+            double squares = 0;
+            for (int j = from; j <= i; j++) {
+                squares += (values[j] - mean) * (values[j] - mean);
+            }
+            double stddev = i == from ? 0 : Math.sqrt(squares / (i - from));
+            assertThat(result).as("Расхождение на шаге %d", i).isCloseTo(max - min + stddev, within(1e-6));
+        }
+    }
+
+    @Test
+    void evictValuesByTimestamp() {
+        StreamingExpression stream = new StreamingExpression(compile("sum(v, 10) + wmin(v, 10) * 0"), TimeUnit.SECONDS);
+
+        assertThat(stream.update(0, 1.0)).isEqualTo(1.0);
+        assertThat(stream.update(5_000, 2.0)).isEqualTo(3.0);
+        assertThat(stream.update(9_999, 4.0)).isEqualTo(7.0);
+        assertThat(stream.update(10_000, 8.0)).as("Значение старше окна не удалено").isEqualTo(14.0);
+        assertThat(stream.update(30_000, 16.0)).isEqualTo(16.0);
+
+        stream.reset();
+        assertThat(stream.update(0, 3.0)).isEqualTo(3.0);
+    }
+
+    @Test
+    void rejectIncorrectStreams() {
+        assertThat(catchThrowable(() -> new StreamingExpression(compile("sum(prices) + avg(v, 2)"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> compile("avg(v, 2) + x").evaluate(Map.of("v", 1.0, "x", 1.0))))
+                .as("Окно вычислено без потока").isNotNull();
+
+        StreamingExpression stream = new StreamingExpression(compile("avg(v, 2)"));
+        stream.update(10, 1.0);
+        assertThat(catchThrowable(() -> stream.update(5, 1.0))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CompiledMathExpression compile(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+}
@@ -0,0 +1,120 @@
+package com.calculator.parser.compiler;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import com.calculator.parser.parsers.typed.TypedStringExpressionParser;
+import com.calculator.parser.storage.OffHeapRuleStore;
+import com.calculator.parser.storage.OffHeapRuleStoreBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class TieredExecutorTest {
+    @Test
+    void promoteHotExpression() {
+        TieredExecutor executor = new TieredExecutor(3, Runnable::run);
+        CompiledMathExpression hot = compileMath("pow(x, 2) / (y - 1) + -x");
+        CompiledMathExpression cold = compileMath("x + 1");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(executor.evaluate(hot, 3.0, 4.0)).isEqualTo(hot.evaluate(3.0, 4.0));
+        }
+        executor.evaluate(cold, 1.0);
+
+        assertThat(executor.getTier(hot)).as("Горячее выражение не оптимизировано").isEqualTo(ExecutionTier.OPTIMIZED);
+        assertThat(executor.getTier(cold)).as("Холодное выражение оптимизировано").isEqualTo(ExecutionTier.INTERPRETER);
+        assertThat(executor.getPromotionsCount()).isEqualTo(1);
+        assertThat(executor.getInterpretedEvaluationsCount()).isEqualTo(4);
+        assertThat(executor.getOptimizedEvaluationsCount()).isEqualTo(2);
+        assertThat(executor.getInvocationsCount(hot)).isEqualTo(5);
+    }
+
+    @Test
+    void releaseExecutedExpressions() throws InterruptedException {
+        TieredExecutor executor = new TieredExecutor(0, Runnable::run);
+        CompiledMathExpression expression = compileMath("x * 2");
+        executor.evaluate(expression, 1.0);
+        assertThat(new TieredExecutor().getTier(expression)).as("Уровень исполнения не хранится в выражении")
+                .isEqualTo(ExecutionTier.OPTIMIZED);
+        WeakReference<CompiledMathExpression> reference = new WeakReference<>(expression);
+        expression = null;
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (reference.get() != null && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(reference.get()).as("Исполнитель удерживает выполненное выражение").isNull();
+        assertThat(executor.getPromotionsCount()).isEqualTo(1);
+    }
+
+    @Test
+    void optimizedTierKeepsDivisionCheck() {
+        TieredExecutor executor = new TieredExecutor(0, Runnable::run);
+        CompiledMathExpression expression = compileMath("x / y");
+        executor.evaluate(expression, 1.0, 2.0);
+
+        Throwable actualException = catchThrowable(() -> executor.evaluate(expression, 1.0, 0.0));
+
+        assertThat(executor.getTier(expression)).isEqualTo(ExecutionTier.OPTIMIZED);
+        assertThat(actualException).isInstanceOf(ParserException.class);
+        assertThat(((ParserException) actualException).getErrorType()).isEqualTo(ErrorType.DIVISION_BY_ZERO_ERROR);
+    }
+
+    @Test
+    void shortCircuitInEveryTier() {
+        TieredExecutor executor = new TieredExecutor(2, Runnable::run);
+        CompiledTypedExpression expression = new TypedStringExpressionParser(
+                new MathStringExpressionBuilder("x == 0 | 1 / x > 1").build()).compile();
+        Map<String, Object> zero = Map.of("x", 0.0);
+        assertThat(expression.getProgram().getCode()).contains(Program.JUMP_IF_TRUE, Program.DIVIDE);
+
+        assertThat(executor.evaluate(expression, zero)).as("Правый операнд ИЛИ не должен вычисляться").isEqualTo(true);
+        assertThat(executor.evaluate(expression, zero)).isEqualTo(true);
+        assertThat(executor.getTier(expression)).isEqualTo(ExecutionTier.OPTIMIZED);
+        assertThat(executor.evaluate(expression, zero)).isEqualTo(true);
+        assertThat(expression.evaluateBatch(List.of(zero, Map.of("x", 0.5), Map.of("x", 2.0)))).containsExactly(true, true, false);
+        assertThat(new ParallelEvaluator(expression, 1, ParallelEvaluator.ReductionMode.DETERMINISTIC,
+                                         ForkJoinPool.commonPool()).execute(new double[]{0})).isEqualTo(1.0);
+
+        OffHeapRuleStoreBuilder builder = new OffHeapRuleStoreBuilder();
+        int rule = builder.add(expression);
+        OffHeapRuleStore store = builder.build();
+        assertThat(store.evaluateMath(rule, 0.0)).isEqualTo(1.0);
+        assertThat(store.evaluateMath(rule, 2.0)).isEqualTo(0.0);
+    }
+
+    @Test
+    void evaluateLogicExpression() {
+        TieredExecutor executor = new TieredExecutor(0, Runnable::run);
+        CompiledLogicExpression expression = compileLogic("a & (b | c)");
+
+        for (boolean a : new boolean[]{false, true}) {
+            for (boolean b : new boolean[]{false, true}) {
+                for (boolean c : new boolean[]{false, true}) {
+                    assertThat(executor.evaluate(expression, a, b, c)).isEqualTo(expression.evaluate(a, b, c));
+                }
+            }
+        }
+        assertThat(executor.evaluate(expression, Map.of("a", true, "b", false, "c", true))).isTrue();
+    }
+
+    private static CompiledMathExpression compileMath(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+
+    private static CompiledLogicExpression compileLogic(String expression) {
+        return new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(expression).build()).compile();
+    }
+}
@@ -46,6 +46,16 @@ class BigDecimalMathStringExpressionParserTest {
                     .isEqualTo("444444444444444444444444444444.444444444444444444444444444444");
         }
 
+        @Test
+        void evaluateWithFunctions() {
+            MathStringExpression stringExpression = new MathStringExpressionBuilder("pow(2,100) + max(3,7)").build();
+
+            String actualResult = new BigDecimalMathStringExpressionParser(stringExpression).getExpressionResult();
+
+            assertThat(actualResult).as("Неверный результат при вычислении функций")
+                    .isEqualTo("1267650600228229401496703205383");
+        }
+
         @Test
         void evaluateWithDivide() {
             MathStringExpression stringExpression = new MathStringExpressionBuilder("444444444444444444444444444444.444444444444444444444444444444 / 2")
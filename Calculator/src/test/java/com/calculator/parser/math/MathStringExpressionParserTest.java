@@ -41,6 +41,16 @@ class MathStringExpressionParserTest {
             assertThat(actualResult).as("Неверный результат при сложении и вычитании").isEqualTo(11);
         }
 
+        @Test
+        void evaluateWithWhitespaces() {
+            MathStringExpression stringExpression = new MathStringExpressionBuilder(" 20\t-\n4 +\r 5 ").build();
+
+            double actualResult = new IntMathStringExpressionParser(stringExpression).getExpressionResult();
+
+            assertThat(stringExpression.getExpression()).as("Пробельные символы не удалены").isEqualTo("20-4+5");
+            assertThat(actualResult).as("Неверный результат при наличии пробельных символов").isEqualTo(21);
+        }
+
         @Test
         void evaluateWithMultiply() {
             MathStringExpression stringExpression = new MathStringExpressionBuilder("5 * 2 *9").build();
@@ -0,0 +1,136 @@
+package com.calculator.parser.registry;
+
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledMathExpression;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FormulaRegistryTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void atomicUpdateOfSeveralFormulas() {
+        FormulaRegistry registry = new FormulaRegistry();
+        registry.put("old", compile("1"));
+        FormulaRegistry.Snapshot before = registry.getSnapshot();
+
+        long version = registry.update(Map.of("a", compile("x + 1"), "b", compile("x * 2")), List.of("old"));
+
+        assertThat(version).as("Неверная версия реестра").isEqualTo(2);
+        assertThat(registry.getMath("a").evaluate(1.0)).isEqualTo(2.0);
+        assertThat(registry.getMath("b").evaluate(3.0)).isEqualTo(6.0);
+        assertThat(registry.get("old")).as("Формула не удалена").isNull();
+        assertThat(before.get("old")).as("Изменён ранее полученный снимок").isNotNull();
+        assertThat(before.get("a")).as("Изменён ранее полученный снимок").isNull();
+    }
+
+    @Test
+    void reloadChangedFiles() throws Exception {
+        Files.writeString(directory.resolve("price.math"), "qty * cost");
+        Files.writeString(directory.resolve("allowed.logic"), "a & b");
+        FormulaRegistry registry = new FormulaRegistry();
+
+        try (DirectoryFormulaSource source = new DirectoryFormulaSource(directory, registry)) {
+            source.start();
+            assertThat(registry.getMath("price").evaluate(2.0, 3.0)).isEqualTo(6.0);
+            assertThat(registry.getLogic("allowed").evaluate(true, false)).isFalse();
+
+            Files.writeString(directory.resolve("price.math"), "qty * cost + 1");
+            await(() -> registry.getMath("price").getExpression().equals("qty*cost+1"));
+            assertThat(registry.getMath("price").evaluate(2.0, 3.0)).isEqualTo(7.0);
+
+            long version = registry.getVersion();
+            Files.writeString(directory.resolve("broken.math"), "qty * (");
+            await(() -> source.getFailures().containsKey(directory.resolve("broken.math")) &&
+                    source.getFailures().get(directory.resolve("broken.math")).getErrorType() == ErrorType.INCORRECT_EXPRESSION_SYNTAX);
+            assertThat(registry.getVersion()).as("Реестр изменён неверной формулой").isEqualTo(version);
+
+            Files.delete(directory.resolve("allowed.logic"));
+            await(() -> registry.get("allowed") == null);
+        }
+    }
+
+    @Test
+    void reloadOnlyAfterQuietPeriod() throws Exception {
+        FormulaRegistry registry = new FormulaRegistry();
+
+        try (DirectoryFormulaSource source = new DirectoryFormulaSource(directory, registry)) {
+            source.setQuietPeriodMillis(500);
+            source.start();
+            long version = registry.getVersion();
+
+            Files.writeString(directory.resolve("limit.math"), "x + 1");
+            Files.writeString(directory.resolve("limit.math"), "x + 10");
+            await(() -> registry.get("limit") != null);
+
+            assertThat(registry.getMath("limit").getExpression()).as("Загружена промежуточная версия файла").isEqualTo("x+10");
+            assertThat(registry.getVersion()).as("Файл перечитан до паузы без событий").isEqualTo(version + 1);
+        }
+    }
+
+    @Test
+    void rejectDuplicateFormulaNames() throws Exception {
+        Files.writeString(directory.resolve("rule.math"), "x + 1");
+        Files.writeString(directory.resolve("rule.logic"), "a & b");
+        Files.writeString(directory.resolve("other.math"), "x * 2");
+        FormulaRegistry registry = new FormulaRegistry();
+        List<Exception> errors = new CopyOnWriteArrayList<>();
+
+        try (DirectoryFormulaSource source = new DirectoryFormulaSource(directory, registry)) {
+            source.setErrorHandler(errors::add);
+            source.start();
+
+            assertThat(registry.get("rule")).as("Неоднозначная формула попала в реестр").isNull();
+            assertThat(registry.get("other")).isNotNull();
+            assertThat(errors).hasSize(1);
+            assertThat(errors.get(0)).hasMessageContaining("rule.math").hasMessageContaining("rule.logic");
+
+            Files.delete(directory.resolve("rule.math"));
+            await(() -> registry.get("rule") != null);
+            assertThat(registry.getLogic("rule").evaluate(true, true)).as("Удаление одного файла удалило другую формулу").isTrue();
+        }
+    }
+
+    @Test
+    void keepWatchingAfterReadErrors() throws Exception {
+        FormulaRegistry registry = new FormulaRegistry();
+        List<Exception> errors = new CopyOnWriteArrayList<>();
+
+        try (DirectoryFormulaSource source = new DirectoryFormulaSource(directory, registry)) {
+            source.setErrorHandler(errors::add);
+            source.start();
+
+            Files.write(directory.resolve("unreadable.math"), new byte[] {(byte) 0xFF, (byte) 0xFE});
+            await(() -> !errors.isEmpty());
+            assertThat(registry.get("unreadable")).as("Нечитаемый файл попал в реестр").isNull();
+
+            Files.writeString(directory.resolve("price.math"), "qty * cost");
+            await(() -> registry.get("price") != null);
+            assertThat(registry.getMath("price").evaluate(2.0, 3.0)).as("Отслеживание остановлено ошибкой").isEqualTo(6.0);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("Изменение не обнаружено").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static CompiledMathExpression compile(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+}
@@ -0,0 +1,89 @@
+package com.calculator.parser.rules;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledLogicExpression;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleNetworkTest {
+    @Test
+    void shareCommonSubexpressions() {
+        RuleNetwork network = new RuleNetwork(rules());
+
+        assertThat(network.getVariableIndexes()).containsOnlyKeys("a", "b", "c", "d");
+        assertThat(network.getNodesCount()).as("Общие подвыражения не объединены").isEqualTo(9);
+    }
+
+    @Test
+    void matchFact() {
+        RuleNetwork network = new RuleNetwork(rules());
+        Map<String, CompiledLogicExpression> rules = rules();
+
+        for (int mask = 0; mask < 16; mask++) {
+            boolean a = (mask & 1) != 0;
+            boolean b = (mask & 2) != 0;
+            boolean c = (mask & 4) != 0;
+            boolean d = (mask & 8) != 0;
+            Map<String, Boolean> fact = Map.of("a", a, "b", b, "c", c, "d", d);
+
+            List<String> expected = rules.entrySet().stream()
+                    .filter(rule -> rule.getValue().evaluate(fact))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertThat(network.match(fact)).as("Неверный результат для факта " + fact).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void recheckOnlyChangedInputs() {
+        RuleSession session = new RuleNetwork(rules()).newSession();
+        long initialNodes = session.getEvaluatedNodesCount();
+
+        assertThat(session.update(Map.of("a", true, "b", true))).containsExactly("first", "second");
+        assertThat(session.update(Map.of("d", true))).containsExactly("first", "second", "fourth");
+        long before = session.getEvaluatedNodesCount();
+        assertThat(session.update(Map.of("d", true, "unknown", true))).containsExactly("first", "second", "fourth");
+
+        assertThat(initialNodes).isEqualTo(9);
+        assertThat(session.getEvaluatedNodesCount()).as("Пересчитаны узлы без изменившихся входов").isEqualTo(before);
+    }
+
+    @Test
+    void matchNegations() {
+        Map<String, CompiledLogicExpression> rules = new LinkedHashMap<>();
+        rules.put("plain", compile("a & !b"));
+        rules.put("double", compile("!!a & !(b | c)"));
+        rules.put("minimized", compile("a&(b|c&!d)|!a&b&d").minimize().getExpression());
+        RuleNetwork network = new RuleNetwork(rules);
+        RuleSession session = network.newSession();
+
+        for (int mask = 0; mask < 16; mask++) {
+            Map<String, Boolean> fact = Map.of("a", (mask & 1) != 0, "b", (mask & 2) != 0, "c", (mask & 4) != 0, "d", (mask & 8) != 0);
+            List<String> expected = rules.entrySet().stream()
+                    .filter(rule -> rule.getValue().evaluate(fact))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertThat(network.match(fact)).as("Неверный результат для факта " + fact).isEqualTo(expected);
+            assertThat(session.update(fact)).as("Отрицание не пересчитано в сеансе").isEqualTo(expected);
+        }
+    }
+
+    private static Map<String, CompiledLogicExpression> rules() {
+        Map<String, CompiledLogicExpression> rules = new LinkedHashMap<>();
+        rules.put("first", compile("a & b"));
+        rules.put("second", compile("(b & a) | c"));
+        rules.put("third", compile("c & (a & b)"));
+        rules.put("fourth", compile("d | F"));
+        return rules;
+    }
+
+    private static CompiledLogicExpression compile(String expression) {
+        return new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(expression).build()).compile();
+    }
+}
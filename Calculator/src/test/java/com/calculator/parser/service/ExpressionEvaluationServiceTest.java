@@ -0,0 +1,82 @@
+package com.calculator.parser.service;
+
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledMathExpression;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class ExpressionEvaluationServiceTest {
+    private final CompiledMathExpression compiledExpression = new DoubleMathStringExpressionParser(
+            new MathStringExpressionBuilder("x / y").build()).compile();
+
+    @Test
+    void evaluateRequests() {
+        try (ExpressionEvaluationService service = new ExpressionEvaluationService()) {
+            List<CompletableFuture<Double>> futures = new ArrayList<>();
+            for (int i = 1; i <= 100; i++) {
+                futures.add(service.evaluate(compiledExpression, Map.of("x", (double) i, "y", 2.0)));
+            }
+
+            for (int i = 1; i <= 100; i++) {
+                assertThat(futures.get(i - 1).join()).as("Неверный результат асинхронного вычисления").isEqualTo(i / 2.0);
+            }
+        }
+    }
+
+    @Test
+    void coalesceIdenticalRequests() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Semaphore blocker = new Semaphore(0);
+        executor.execute(blocker::acquireUninterruptibly);
+        try (ExpressionEvaluationService service = new ExpressionEvaluationService(executor, 16)) {
+            CompletableFuture<Double> first = service.evaluate(compiledExpression, Map.of("x", 1.0, "y", 4.0));
+            CompletableFuture<Double> second = service.evaluate(compiledExpression, Map.of("x", 1.0, "y", 4.0));
+            CompletableFuture<Double> third = service.evaluate(compiledExpression, Map.of("x", 2.0, "y", 4.0));
+
+            assertThat(service.getInFlightRequestsCount()).as("Одинаковые запросы не объединены").isEqualTo(2);
+
+            blocker.release();
+            assertThat(first.join()).isEqualTo(0.25);
+            assertThat(second.join()).isEqualTo(0.25);
+            assertThat(third.join()).isEqualTo(0.5);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void failedRowDoesNotAffectBatch() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Semaphore blocker = new Semaphore(0);
+        executor.execute(blocker::acquireUninterruptibly);
+        try (ExpressionEvaluationService service = new ExpressionEvaluationService(executor, 16)) {
+            CompletableFuture<Double> failed = service.evaluate(compiledExpression, Map.of("x", 1.0, "y", 0.0));
+            CompletableFuture<Double> succeeded = service.evaluate(compiledExpression, Map.of("x", 3.0, "y", 1.0));
+            blocker.release();
+
+            Throwable actualException = catchThrowable(failed::join);
+
+            assertThat(actualException).as("Исключение не сгенерировано")
+                                       .isInstanceOf(CompletionException.class)
+                                       .hasCauseInstanceOf(ParserException.class);
+            assertThat(succeeded.join()).as("Ошибка одной строки затронула пакет").isEqualTo(3.0);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.calculator.parser.service;
+
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledMathExpression;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpressionStreamProcessorTest {
+    private final CompiledMathExpression compiledExpression = new DoubleMathStringExpressionParser(
+            new MathStringExpressionBuilder("10 / x").build()).compile();
+
+    @Test
+    void publishResultsInOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (SubmissionPublisher<Map<String, Double>> source = new SubmissionPublisher<>(executor, 16)) {
+            ExpressionStreamProcessor<Double> processor = new ExpressionStreamProcessor<>(compiledExpression, executor, 8, 4, 5);
+            CollectingSubscriber subscriber = new CollectingSubscriber(1);
+            source.subscribe(processor);
+            processor.subscribe(subscriber);
+
+            for (int i = 1; i <= 1000; i++) {
+                source.submit(Map.of("x", (double) i));
+            }
+            source.close();
+
+            subscriber.completion.get(10, TimeUnit.SECONDS);
+            assertThat(subscriber.results).as("Нарушен порядок результатов").hasSize(1000);
+            for (int i = 1; i <= 1000; i++) {
+                assertThat(subscriber.results.get(i - 1)).isEqualTo(10.0 / i);
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void publishToSlowSubscriberWithSingleThreadExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (SubmissionPublisher<Map<String, Double>> source = new SubmissionPublisher<>()) {
+            ExpressionStreamProcessor<Double> processor = new ExpressionStreamProcessor<>(compiledExpression, executor, 256, 4, 0);
+            CollectingSubscriber subscriber = new CollectingSubscriber(0);
+            source.subscribe(processor);
+            processor.subscribe(subscriber);
+
+            CompletableFuture.runAsync(() -> {
+                for (int i = 1; i <= 2000; i++) {
+                    source.submit(Map.of("x", (double) i));
+                }
+                source.close();
+            });
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!subscriber.completion.isDone() && System.currentTimeMillis() < deadline) {
+                if (subscriber.subscription != null) {
+                    subscriber.subscription.request(64);
+                }
+                Thread.sleep(2);
+            }
+            assertThat(subscriber.completion).as("Публикация заблокировала исполнитель доставки").isCompleted();
+            assertThat(subscriber.results).hasSize(2000);
+            assertThat(subscriber.results.get(1999)).isEqualTo(10.0 / 2000);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void publishPartialBatchAfterDelay() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (SubmissionPublisher<Map<String, Double>> source = new SubmissionPublisher<>(executor, 16)) {
+            ExpressionStreamProcessor<Double> processor = new ExpressionStreamProcessor<>(compiledExpression, executor, 100, 2, 5);
+            CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+            source.subscribe(processor);
+            processor.subscribe(subscriber);
+
+            source.submit(Map.of("x", 2.0));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (subscriber.results.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(subscriber.results).as("Неполный пакет не опубликован").containsExactly(5.0);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void closeExceptionallyOnEvaluationError() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (SubmissionPublisher<Map<String, Double>> source = new SubmissionPublisher<>(executor, 16)) {
+            ExpressionStreamProcessor<Double> processor = new ExpressionStreamProcessor<>(compiledExpression, executor, 4, 2, 0);
+            CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+            source.subscribe(processor);
+            processor.subscribe(subscriber);
+
+            source.submit(Map.of("x", 0.0));
+            source.close();
+
+            Throwable actualException = subscriber.completion.handle((ignored, exception) -> exception)
+                                                             .get(10, TimeUnit.SECONDS);
+            assertThat(actualException).as("Ошибка вычисления не передана подписчику")
+                                       .hasRootCauseInstanceOf(ParserException.class);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Подписчик, запрашивающий результаты порциями; при размере порции 0 результаты запрашивает тест
+     */
+    private static class CollectingSubscriber implements Flow.Subscriber<Double> {
+        private final long requestSize;
+        private final List<Double> results = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+
+        CollectingSubscriber(long requestSize) {
+            this.requestSize = requestSize;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (requestSize > 0) {
+                subscription.request(requestSize);
+            }
+        }
+
+        @Override
+        public void onNext(Double item) {
+            results.add(item);
+            if (requestSize > 0 && requestSize != Long.MAX_VALUE) {
+                subscription.request(requestSize);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completion.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completion.complete(null);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.calculator.parser.service;
+
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledMathExpression;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedFileEvaluatorTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void evaluateCsvInSmallChunks() throws Exception {
+        Path input = directory.resolve("values.csv");
+        Path output = directory.resolve("results.txt");
+        StringBuilder csv = new StringBuilder("id, y ,x\n");
+        for (int row = 1; row <= 2000; row++) {
+            csv.append(row).append(',').append(row % 4).append(',').append(row * 0.5).append('\n');
+        }
+        csv.append("x,-0.25,1e3\r\n").append("y,2,oops\n").append("z,3,12345678901234567890");
+        Files.writeString(input, csv);
+
+        MappedFileEvaluator evaluator = new MappedFileEvaluator(compile("x / y"), 3, 64, ByteOrder.BIG_ENDIAN);
+        BulkEvaluationReport report = evaluator.evaluate(input, MappedFileEvaluator.Format.CSV, output);
+
+        List<String> results = Files.readAllLines(output);
+        assertThat(report.getRows()).as("Неверное количество строк").isEqualTo(2003);
+        assertThat(results).hasSize(2003);
+        assertThat(results.get(0)).isEqualTo("0.5");
+        assertThat(results.get(3)).as("Деление на ноль не отмечено").isEqualTo("NaN");
+        assertThat(results.get(1998)).isEqualTo(Double.toString(1999 * 0.5 / 3));
+        assertThat(results.get(2000)).isEqualTo("-4000.0");
+        assertThat(results.get(2001)).as("Неверное число не отмечено").isEqualTo("NaN");
+        assertThat(results.get(2002)).isEqualTo(Double.toString(12345678901234567890.0 / 3));
+        assertThat(report.getErrors()).isEqualTo(500 + 1);
+        assertThat(report.getBytes()).isEqualTo(Files.size(input));
+    }
+
+    @Test
+    void evaluateBinaryRecords() throws Exception {
+        Path input = directory.resolve("values.bin");
+        Path output = directory.resolve("results.bin");
+        int rows = 5000;
+        ByteBuffer values = ByteBuffer.allocate(rows * 2 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int row = 0; row < rows; row++) {
+            values.putDouble(row).putDouble(2);
+        }
+        Files.write(input, values.array());
+
+        MappedFileEvaluator evaluator = new MappedFileEvaluator(compile("a * b + 1"), 2, 1 << 20, ByteOrder.LITTLE_ENDIAN);
+        BulkEvaluationReport report = evaluator.evaluate(input, MappedFileEvaluator.Format.BINARY, output);
+
+        ByteBuffer results = ByteBuffer.wrap(Files.readAllBytes(output)).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(report.getRows()).isEqualTo(rows);
+        assertThat(report.getErrors()).isZero();
+        assertThat(results.remaining()).isEqualTo(rows * Double.BYTES);
+        for (int row = 0; row < rows; row++) {
+            assertThat(results.getDouble()).as("Неверный результат строки").isEqualTo(row * 2 + 1);
+        }
+    }
+
+    @Test
+    void parseNumbersFromBytes() {
+        for (String number : new String[]{"0", "-0.0", "3.14159", "+2.5e-3", "1E22", "123456789.987654321",
+                "0.1", "1e-300", "4.9e-324", "Infinity", " 42 "}) {
+            ByteBuffer buffer = ByteBuffer.wrap(number.getBytes());
+            assertThat(ByteNumberParser.parse(buffer, 0, buffer.limit())).as("Неверный разбор " + number)
+                                                                       .isEqualTo(Double.parseDouble(number));
+        }
+    }
+
+    private static CompiledMathExpression compile(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+}
@@ -0,0 +1,125 @@
+package com.calculator.parser.storage;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledExpression;
+import com.calculator.parser.compiler.CompiledTypedExpression;
+import com.calculator.parser.compiler.ExpressionType;
+import com.calculator.parser.compiler.OperatorTable;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import com.calculator.parser.parsers.typed.TypedStringExpressionParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class CompiledExpressionFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndLoadExpressions() throws IOException {
+        Path path = directory.resolve("formulas.bin");
+        Map<String, CompiledExpression<?>> expressions = Map.of(
+                "price", new DoubleMathStringExpressionParser(new MathStringExpressionBuilder("qty * (cost + -fee) / pow(2, 1)")
+                                                                      .build()).compile(),
+                "scaled", new DoubleMathStringExpressionParser(new MathStringExpressionBuilder("twice(x) + 1")
+                                                                       .setClientFunctionWithOneArgument("twice", x -> x * 2)
+                                                                       .build()).compile(),
+                "rule", new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder("a & (b | F)").build()).compile());
+        CompiledExpressionWriter.write(path, expressions);
+
+        CompiledExpressionFile file = CompiledExpressionFile.open(path, Map.of("twice", x -> x * 2), Map.of());
+
+        assertThat(file.size()).as("Неверное количество выражений").isEqualTo(3);
+        assertThat(file.indexOf("missing")).as("Найдено отсутствующее выражение").isEqualTo(-1);
+        assertThat(file.getMathExpression("price").evaluate(Map.of("qty", 4.0, "cost", 3.0, "fee", 1.0)))
+                .as("Неверный результат загруженного выражения").isEqualTo(4.0);
+        assertThat(file.getMathExpression("scaled").evaluate(5.0))
+                .as("Неверный результат выражения с клиентской функцией").isEqualTo(11.0);
+        assertThat(file.getLogicExpression("rule").evaluate(true, true))
+                .as("Неверный результат логического выражения").isTrue();
+        assertThat(file.getLogicExpression("rule").getVariables()).containsExactly("a", "b");
+        assertThat(file.getMathExpression("price")).as("Выражение не закэшировано").isSameAs(file.getMathExpression("price"));
+    }
+
+    @Test
+    void writeAndLoadNewShapes() throws IOException {
+        Path path = directory.resolve("formulas.bin");
+        Map<String, CompiledExpression<?>> expressions = Map.of(
+                "limit", new TypedStringExpressionParser(new MathStringExpressionBuilder("price * qty > limit & flag").build()).compile(),
+                "guard", new TypedStringExpressionParser(new MathStringExpressionBuilder("x == 0 | 1 / x > 1").build()).compile(),
+                "negation", new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder("a & !b").build()).compile(),
+                "power", new DoubleMathStringExpressionParser(new MathStringExpressionBuilder("2 ^ x + 1")
+                        .setClientOperator('^', 4, OperatorTable.Associativity.RIGHT, Math::pow).build()).compile());
+        CompiledExpressionWriter.write(path, expressions);
+
+        CompiledExpressionFile file = CompiledExpressionFile.open(path, Map.of(), Map.of(),
+                OperatorTable.math().addBinaryOperator('^', 4, OperatorTable.Associativity.RIGHT, Math::pow));
+        CompiledTypedExpression limit = file.getTypedExpression("limit");
+
+        assertThat(limit.getResultType()).isEqualTo(ExpressionType.BOOLEAN);
+        assertThat(limit.getVariableTypes()).containsEntry("flag", ExpressionType.BOOLEAN).containsEntry("qty", ExpressionType.NUMBER);
+        assertThat(limit.evaluate(Map.of("price", 2.5, "qty", 4.0, "limit", 9.0, "flag", true))).isEqualTo(true);
+        assertThat(file.getTypedExpression("guard").evaluate(Map.of("x", 0.0))).as("Сокращённое вычисление не сохранено").isEqualTo(true);
+        assertThat(file.getLogicExpression("negation").evaluate(true, false)).isTrue();
+        assertThat(file.getLogicExpression("negation").evaluate(true, true)).isFalse();
+        assertThat(file.getMathExpression("power").evaluate(3.0)).isEqualTo(9.0);
+
+        Throwable missingOperator = catchThrowable(() -> CompiledExpressionFile.open(path).getMathExpression("power"));
+        assertThat(((ParserException) missingOperator).getErrorType()).as("Оператор разрешён без таблицы операторов")
+                .isEqualTo(ErrorType.UNKNOWN_FUNCTION_ERROR);
+        assertThat(catchThrowable(() -> CompiledExpressionWriter.write(path, Map.of("total",
+                new DoubleMathStringExpressionParser(new MathStringExpressionBuilder("x + sum(values)").build()).compile()))))
+                .as("Агрегат записан в файл").isInstanceOf(ParserException.class);
+    }
+
+    @Test
+    void restoreTypedLiterals() throws IOException {
+        Path path = directory.resolve("formulas.bin");
+        CompiledTypedExpression original = new TypedStringExpressionParser(
+                new MathStringExpressionBuilder("(x > 1) == true | flag != false & x == 1").build()).compile();
+        CompiledExpressionWriter.write(path, Map.of("check", original));
+
+        CompiledTypedExpression restored = CompiledExpressionFile.open(path).getTypedExpression("check");
+
+        assertThat(restored.getRoot().toString()).as("Логические литералы восстановлены как числа")
+                .isEqualTo(original.getRoot().toString());
+        assertThat(restored.getCanonicalForm()).isEqualTo(original.getCanonicalForm());
+        assertThat(restored.getStructuralHash()).isEqualTo(original.getStructuralHash());
+        assertThat(restored.evaluate(Map.of("x", 1.0, "flag", true))).isEqualTo(true);
+    }
+
+    @Test
+    void unknownFunctionError() throws IOException {
+        Path path = directory.resolve("formulas.bin");
+        CompiledExpressionWriter.write(path, Map.of("scaled", new DoubleMathStringExpressionParser(
+                new MathStringExpressionBuilder("twice(x)").setClientFunctionWithOneArgument("twice", x -> x * 2).build()).compile()));
+        CompiledExpressionFile file = CompiledExpressionFile.open(path);
+
+        Throwable actualException = catchThrowable(() -> file.getMathExpression("scaled"));
+
+        assertThat(actualException).as("Исключение не сгенерировано")
+                                   .isInstanceOf(ParserException.class)
+                                   .hasMessage("Обнаружена неизвестная функция");
+    }
+
+    @Test
+    void incorrectFileError() throws IOException {
+        Path path = directory.resolve("formulas.bin");
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+
+        Throwable actualException = catchThrowable(() -> CompiledExpressionFile.open(path));
+
+        assertThat(actualException).as("Исключение не сгенерировано").isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,90 @@
+package com.calculator.parser.storage;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledLogicExpression;
+import com.calculator.parser.compiler.CompiledMathExpression;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class OffHeapRuleStoreTest {
+    @Test
+    void evaluateRulesInPlace() {
+        CompiledMathExpression price = compileMath("qty * (cost + -fee) / pow(2, 1) + sin(qty)");
+        CompiledLogicExpression rule = compileLogic("a & (b | F)");
+        OffHeapRuleStoreBuilder builder = new OffHeapRuleStoreBuilder();
+        int priceIndex = builder.add(price);
+        int ruleIndex = builder.add(rule);
+        OffHeapRuleStore store = builder.build();
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.isLogic(ruleIndex)).isTrue();
+        assertThat(store.getVariables(priceIndex)).containsExactly("qty", "cost", "fee");
+        assertThat(store.evaluateMath(priceIndex, 4.0, 3.0, 1.0)).isEqualTo(price.evaluate(4.0, 3.0, 1.0));
+        assertThat(store.evaluate(priceIndex, Map.of("qty", 4.0, "cost", 3.0, "fee", 1.0))).isEqualTo(price.evaluate(4.0, 3.0, 1.0));
+        assertThat(store.evaluateLogic(ruleIndex, true, true)).isTrue();
+        assertThat(store.evaluateLogic(ruleIndex, true, false)).isFalse();
+    }
+
+    @Test
+    void sharePoolsBetweenRules() {
+        OffHeapRuleStoreBuilder builder = new OffHeapRuleStoreBuilder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add(compileMath("x * " + (i % 10) + " + y / 2"));
+        }
+        OffHeapRuleStore store = builder.build();
+
+        assertThat(store.getConstantsCount()).as("Константы не объединены").isEqualTo(10);
+        assertThat(store.getStringsCount()).as("Имена переменных не объединены").isEqualTo(2);
+        assertThat(store.getBytesPerRule()).as("Слишком большой объём на правило").isLessThan(80);
+        assertThat(store.evaluateMath(7, 3.0, 4.0)).isEqualTo(3.0 * 7 + 4.0 / 2);
+    }
+
+    @Test
+    void shareClientFunctionsByName() {
+        OffHeapRuleStoreBuilder builder = new OffHeapRuleStoreBuilder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add(new DoubleMathStringExpressionParser(new MathStringExpressionBuilder("twice(x) + sin(x) * " + i)
+                    .setClientFunctionWithOneArgument("twice", x -> x * 2).build()).compile());
+        }
+        String deep = "x";
+        for (int i = 0; i < 16; i++) {
+            deep = "(x + " + deep + ")";
+        }
+        int nested = builder.add(compileMath("pow(x, 2) + " + deep));
+        OffHeapRuleStore store = builder.build();
+
+        assertThat(store.getFunctionsCount()).as("Клиентские функции не объединены по именам").isEqualTo(3);
+        assertThat(store.evaluateMath(5, 3.0)).isEqualTo(6.0 + Math.sin(3.0) * 5);
+        assertThat(store.evaluateMath(nested, 1.0)).isEqualTo(18.0);
+        assertThat(store.evaluateMath(999, 0.0)).isEqualTo(0.0);
+    }
+
+    @Test
+    void divisionByZeroError() {
+        OffHeapRuleStoreBuilder builder = new OffHeapRuleStoreBuilder();
+        int index = builder.add(compileMath("x / y"));
+        OffHeapRuleStore store = builder.build();
+
+        Throwable actualException = catchThrowable(() -> store.evaluateMath(index, 1.0, 0.0));
+
+        assertThat(actualException).isInstanceOf(ParserException.class);
+        assertThat(((ParserException) actualException).getErrorType()).isEqualTo(ErrorType.DIVISION_BY_ZERO_ERROR);
+    }
+
+    private static CompiledMathExpression compileMath(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+
+    private static CompiledLogicExpression compileLogic(String expression) {
+        return new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(expression).build()).compile();
+    }
+}
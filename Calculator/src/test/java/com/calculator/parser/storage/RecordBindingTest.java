@@ -0,0 +1,105 @@
+package com.calculator.parser.storage;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledLogicExpression;
+import com.calculator.parser.compiler.CompiledMathExpression;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class RecordBindingTest {
+    private static final RecordLayout LAYOUT = new RecordLayoutBuilder(24)
+            .addField("price", 0, FieldType.DOUBLE)
+            .addField("qty", 8, FieldType.LONG)
+            .addField("discount", 16, FieldType.FLOAT)
+            .addField("active", 20, FieldType.FLAG)
+            .addField("vip", 21, FieldType.FLAG)
+            .build();
+
+    @Test
+    void evaluateFieldsOfDirectBuffer() {
+        ByteBuffer records = records(1000);
+        RecordBinding.Evaluator evaluator = LAYOUT.bind(compileMath("price * qty - discount")).newEvaluator();
+
+        assertThat(evaluator.evaluate(records, 0)).isEqualTo(0.0 - 0.5);
+        assertThat(evaluator.evaluate(records, 10)).as("Неверный результат записи").isEqualTo(2.5 * 10 * 2 - 0.5);
+
+        double[] results = new double[3];
+        evaluator.evaluateAll(records, 4, 3, results);
+        assertThat(results).containsExactly(2.5 * 4 * 0 - 0.5, 2.5 * 5 - 0.5, 2.5 * 6 * 2 - 0.5);
+
+        ByteBuffer bigEndianView = records.duplicate().order(ByteOrder.BIG_ENDIAN);
+        assertThat(evaluator.evaluate(bigEndianView, 10)).as("Порядок байтов буфера не учтён")
+                                                         .isEqualTo(2.5 * 10 * 2 - 0.5);
+    }
+
+    @Test
+    void selectRecordsWithoutAllocation() {
+        ByteBuffer records = records(10_000);
+        RecordBinding binding = LAYOUT.bind(compileLogic("active & vip"));
+        RecordBinding.Evaluator evaluator = binding.newEvaluator();
+        int[] indexes = new int[binding.getRecordsCount(records)];
+
+        evaluator.select(records, indexes);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        int selected = evaluator.select(records, indexes);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(selected).isEqualTo((10_000 + 5) / 6);
+        assertThat(indexes[1]).isEqualTo(6);
+        assertThat(allocated).as("Память выделяется при обходе записей").isLessThan(1024);
+    }
+
+    @Test
+    void failOnUnboundVariable() {
+        Throwable thrown = catchThrowable(() -> LAYOUT.bind(compileMath("price * tax")));
+
+        assertThat(thrown).isInstanceOf(ParserException.class);
+        assertThat(((ParserException) thrown).getErrorType()).isEqualTo(ErrorType.VARIABLE_DETECTED_ERROR);
+        assertThat(catchThrowable(() -> new RecordLayoutBuilder(8).addField("x", 4, FieldType.DOUBLE)))
+                .as("Поле за границей записи").isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectExpressionsWithDerivedValues() {
+        CompiledMathExpression expression = compileMath("price + sum(prices)");
+        Throwable thrown = catchThrowable(() -> LAYOUT.bind(expression));
+
+        assertThat(expression.hasDerivedValues()).isTrue();
+        assertThat(thrown).as("Агрегат не читается из записи").isInstanceOf(ParserException.class);
+        assertThat(((ParserException) thrown).getErrorType()).isEqualTo(ErrorType.VARIABLE_DETECTED_ERROR);
+        assertThat(catchThrowable(() -> new OffHeapRuleStoreBuilder().add(expression))).isInstanceOf(ParserException.class);
+    }
+
+    private static ByteBuffer records(int count) {
+        ByteBuffer records = ByteBuffer.allocateDirect(count * 24).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; i++) {
+            records.putDouble(i * 24, 2.5 * i)
+                   .putLong(i * 24 + 8, i % 4)
+                   .putFloat(i * 24 + 16, 0.5f)
+                   .put(i * 24 + 20, (byte) (i % 2 == 0 ? 1 : 0))
+                   .put(i * 24 + 21, (byte) (i % 3 == 0 ? 1 : 0));
+        }
+        return records;
+    }
+
+    private static CompiledMathExpression compileMath(String expression) {
+        return new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+
+    private static CompiledLogicExpression compileLogic(String expression) {
+        return new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(expression).build()).compile();
+    }
+}
@@ -0,0 +1,107 @@
+package com.calculator.parser.typed;
+
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledTypedExpression;
+import com.calculator.parser.compiler.ExpressionType;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.typed.TypedStringExpressionParser;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class TypedStringExpressionParserTest {
+    @Nested
+    class EvaluateTest {
+        @Test
+        void evaluateComparisonWithLogic() {
+            CompiledTypedExpression expression = compile("price * qty > limit & flag");
+
+            assertThat(expression.getResultType()).isEqualTo(ExpressionType.BOOLEAN);
+            assertThat(expression.getVariableTypes()).containsEntry("flag", ExpressionType.BOOLEAN)
+                                                     .containsEntry("limit", ExpressionType.NUMBER);
+            assertThat(expression.evaluateBoolean(Map.of("price", 2.5, "qty", 4, "limit", 9.0, "flag", true))).isTrue();
+            assertThat(expression.evaluateBoolean(Map.of("price", 2.5, "qty", 4, "limit", 10.0, "flag", true))).isFalse();
+            assertThat(expression.evaluateBoolean(Map.of("price", 2.5, "qty", 4, "limit", 9.0, "flag", false))).isFalse();
+        }
+
+        @Test
+        void evaluateAllComparisons() {
+            CompiledTypedExpression expression = compile("(a < b) == true & a <= b & b >= a & (a > b) != true");
+
+            assertThat(expression.evaluateBoolean(Map.of("a", 1.0, "b", 2.0))).isTrue();
+            assertThat(expression.evaluateBoolean(Map.of("a", 3.0, "b", 2.0))).isFalse();
+            assertThat(compile("x == y | z").evaluateBoolean(Map.of("x", 1.0, "y", 1.0, "z", false))).isTrue();
+        }
+
+        @Test
+        void evaluateNegation() {
+            CompiledTypedExpression expression = compile("!flag & x > 0");
+
+            assertThat(expression.getResultType()).isEqualTo(ExpressionType.BOOLEAN);
+            assertThat(expression.getVariableTypes()).containsEntry("flag", ExpressionType.BOOLEAN);
+            assertThat(expression.evaluateBoolean(Map.of("flag", false, "x", 1.0))).isTrue();
+            assertThat(expression.evaluateBoolean(Map.of("flag", true, "x", 1.0))).isFalse();
+            assertThat(compile("x >= 1 | !(y == 2)").evaluateBoolean(Map.of("x", 0.0, "y", 3.0))).isTrue();
+            assertThat(compile("x >= 1 | !(y == 2)").evaluateBoolean(Map.of("x", 0.0, "y", 2.0))).isFalse();
+            assertThat(compile("!!ok != (a < b)").evaluateBoolean(Map.of("ok", true, "a", 1.0, "b", 2.0))).isFalse();
+        }
+
+        @Test
+        void evaluateNumberResult() {
+            CompiledTypedExpression expression = compile("pow(x, 2) - 1");
+
+            assertThat(expression.getResultType()).isEqualTo(ExpressionType.NUMBER);
+            assertThat(expression.evaluateNumber(Map.of("x", 3.0))).isEqualTo(8.0);
+        }
+
+        @Test
+        void evaluateBatchInOnePass() {
+            CompiledTypedExpression expression = compile("x >= 0 & ok");
+
+            List<Object> results = expression.evaluateBatch(List.of(Map.of("x", 1.0, "ok", true), Map.of("x", -1.0, "ok", true)));
+
+            assertThat(results).containsExactly(true, false);
+        }
+    }
+
+    @Nested
+    class ErrorTest {
+        @Test
+        void typeMismatchError() {
+            Throwable actualException = catchThrowable(() -> compile("x + 1 & y"));
+
+            assertThat(actualException).isInstanceOf(ParserException.class);
+            assertThat(((ParserException) actualException).getErrorType()).isEqualTo(ErrorType.TYPE_MISMATCH_ERROR);
+            assertThat(((ParserException) actualException).getPosition()).isEqualTo(3);
+        }
+
+        @Test
+        void negationTypeMismatchError() {
+            Throwable actualException = catchThrowable(() -> compile("y & !(x + 1)"));
+
+            assertThat(((ParserException) actualException).getErrorType()).isEqualTo(ErrorType.TYPE_MISMATCH_ERROR);
+            assertThat(((ParserException) actualException).getPosition()).isEqualTo(2);
+            assertThat(((ParserException) catchThrowable(() -> compile("x + 1 > 0 & !x"))).getErrorType())
+                    .isEqualTo(ErrorType.TYPE_MISMATCH_ERROR);
+        }
+
+        @Test
+        void incorrectVariableValueTypeError() {
+            CompiledTypedExpression expression = compile("x > 1 & flag");
+
+            Throwable actualException = catchThrowable(() -> expression.evaluateBoolean(Map.of("x", true, "flag", true)));
+
+            assertThat(((ParserException) actualException).getErrorType()).isEqualTo(ErrorType.INCORRECT_VARIABLE_VALUE_TYPE);
+        }
+    }
+
+    private static CompiledTypedExpression compile(String expression) {
+        return new TypedStringExpressionParser(new MathStringExpressionBuilder(expression).build()).compile();
+    }
+}
@@ -0,0 +1,52 @@
+import com.calculator.parser.compiler.BigDecimalMath;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.function.Supplier;
+
+/**
+ * Сравнение математических функций BigDecimal с вычислением в double и округлением до двух знаков,
+ * которое выполнялось ранее в BigDecimalMathStringExpressionParser
+ */
+public class BigDecimalMathBenchmark {
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 20_000;
+
+    public static void main(String[] args) {
+        BigDecimalMath decimal34 = new BigDecimalMath(MathContext.DECIMAL128);
+        BigDecimalMath decimal16 = new BigDecimalMath(MathContext.DECIMAL64);
+        BigDecimal base = new BigDecimal("1.0001");
+        BigDecimal argument = new BigDecimal("12.345");
+
+        run("pow(1.0001, 1000) double", () -> legacyDouble(Math.pow(base.doubleValue(), 1000)));
+        run("pow(1.0001, 1000) DECIMAL64", () -> decimal16.pow(base, 1000));
+        run("pow(1.0001, 1000) DECIMAL128", () -> decimal34.pow(base, 1000));
+        run("sin(12.345) double", () -> legacyDouble(Math.sin(argument.doubleValue())));
+        run("sin(12.345) DECIMAL64", () -> decimal16.sin(argument));
+        run("sin(12.345) DECIMAL128", () -> decimal34.sin(argument));
+        run("exp(12.345) double", () -> legacyDouble(Math.exp(argument.doubleValue())));
+        run("exp(12.345) DECIMAL128", () -> decimal34.exp(argument));
+        run("ln(12.345) double", () -> legacyDouble(Math.log(argument.doubleValue())));
+        run("ln(12.345) DECIMAL128", () -> decimal34.ln(argument));
+    }
+
+    /**
+     * Путь через double: вычисление, округление до двух знаков и преобразование в строку и обратно
+     */
+    private static BigDecimal legacyDouble(double value) {
+        return new BigDecimal(Double.toString((double) Math.round(value * 100) / 100));
+    }
+
+    private static void run(String name, Supplier<BigDecimal> function) {
+        BigDecimal result = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            result = function.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            result = function.get();
+        }
+        double nanosPerCall = (double) (System.nanoTime() - start) / MEASURED_ITERATIONS;
+        System.out.printf("%-32s %10.1f ns/op  %s%n", name, nanosPerCall, result);
+    }
+}
@@ -0,0 +1,106 @@
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledExpression;
+import com.calculator.parser.compiler.ParserResult;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import com.calculator.parser.service.BulkEvaluationReport;
+import com.calculator.parser.service.MappedFileEvaluator;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Командная строка пакетного вычисления выражения над файлом CSV или двоичным файлом значений переменных:
+ * <pre>
+ * java -cp calculator.jar:LibraryTestProject.jar BulkEvaluationTool
+ *     --formula "qty * cost" --input values.csv --output results.txt
+ *     [--type math|logic] [--format csv|binary] [--threads N] [--chunk-mb N] [--little-endian]
+ * </pre>
+ * Формат по умолчанию определяется расширением входного файла. Логические значения задаются числами 1 и 0.
+ * Вычисление выполняет {@link MappedFileEvaluator} библиотеки
+ */
+public final class BulkEvaluationTool {
+
+    private BulkEvaluationTool() {
+    }
+
+    /**
+     * Запустить вычисление
+     * @param args аргументы командной строки
+     */
+    public static void main(String[] args) {
+        try {
+            System.out.println(run(args));
+        }
+        catch (IllegalArgumentException | IOException exception) {
+            System.err.println(exception.getMessage());
+            System.err.println("Usage: --formula <expression> --input <file> --output <file> "
+                    + "[--type math|logic] [--format csv|binary] [--threads N] [--chunk-mb N] [--little-endian]");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Выполнить вычисление по аргументам командной строки
+     * @param args аргументы командной строки
+     * @return отчёт о вычислении
+     */
+    public static BulkEvaluationReport run(String... args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i]);
+            }
+            if (args[i].equals("--little-endian")) {
+                options.put(args[i], "true");
+            }
+            else if (i + 1 < args.length) {
+                options.put(args[i], args[++i]);
+            }
+            else {
+                throw new IllegalArgumentException("Missing value of " + args[i]);
+            }
+        }
+        String formula = require(options, "--formula");
+        Path input = Path.of(require(options, "--input"));
+        Path output = Path.of(require(options, "--output"));
+        MappedFileEvaluator.Format format = options.containsKey("--format")
+                ? MappedFileEvaluator.Format.valueOf(options.get("--format").toUpperCase())
+                : input.getFileName().toString().toLowerCase().endsWith(".csv")
+                ? MappedFileEvaluator.Format.CSV : MappedFileEvaluator.Format.BINARY;
+        int threads = Integer.parseInt(options.getOrDefault("--threads",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+        int chunkSize = options.containsKey("--chunk-mb")
+                ? Integer.parseInt(options.get("--chunk-mb")) << 20 : MappedFileEvaluator.DEFAULT_CHUNK_SIZE;
+        ByteOrder byteOrder = options.containsKey("--little-endian") ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+
+        ParserResult<? extends CompiledExpression<?>> compiled = switch (options.getOrDefault("--type", "math")) {
+            case "math" -> new DoubleMathStringExpressionParser(new MathStringExpressionBuilder(formula).build()).tryCompile();
+            case "logic" -> new ShortLogicStringExpressionParser(new LogicStringExpressionBuilder(formula).build()).tryCompile();
+            default -> throw new IllegalArgumentException("Unknown expression type " + options.get("--type"));
+        };
+        if (!compiled.isSuccess()) {
+            throw new IllegalArgumentException("Formula error: " + compiled.getErrorType().getDescription()
+                    + " at position " + compiled.getPosition());
+        }
+        return new MappedFileEvaluator(compiled.getValue(), threads, chunkSize, byteOrder).evaluate(input, format, output);
+    }
+
+    /**
+     * Получить обязательный параметр
+     * @param options параметры
+     * @param name имя параметра
+     * @return значение параметра
+     */
+    private static String require(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,78 @@
+package com.calculator.parser.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики задержки обработки запросов одной точки входа сервера
+ */
+public class EndpointMetrics {
+
+    /**
+     * Количество запросов
+     */
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * Количество запросов, завершившихся ошибкой
+     */
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Суммарное время обработки в наносекундах
+     */
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    /**
+     * Максимальное время обработки в наносекундах
+     */
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Учесть обработанный запрос
+     * @param nanos время обработки в наносекундах
+     * @param error завершился ли запрос ошибкой
+     */
+    void record(long nanos, boolean error) {
+        requests.increment();
+        if (error) {
+            errors.increment();
+        }
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Получить количество запросов
+     * @return количество запросов
+     */
+    public long getRequestsCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Получить количество запросов, завершившихся ошибкой
+     * @return количество запросов
+     */
+    public long getErrorsCount() {
+        return errors.sum();
+    }
+
+    /**
+     * Получить среднее время обработки
+     * @return время в микросекундах
+     */
+    public double getMeanMicros() {
+        long count = requests.sum();
+        return count == 0 ? 0 : totalNanos.get() / 1000.0 / count;
+    }
+
+    /**
+     * Получить максимальное время обработки
+     * @return время в микросекундах
+     */
+    public double getMaxMicros() {
+        return maxNanos.get() / 1000.0;
+    }
+}
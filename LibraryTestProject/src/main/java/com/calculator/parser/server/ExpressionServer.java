@@ -0,0 +1,749 @@
+package com.calculator.parser.server;
+
+import com.calculator.parser.builders.LogicStringExpressionBuilder;
+import com.calculator.parser.builders.MathStringExpressionBuilder;
+import com.calculator.parser.compiler.CompiledExpression;
+import com.calculator.parser.compiler.CompiledLogicExpression;
+import com.calculator.parser.compiler.CompiledMathExpression;
+import com.calculator.parser.compiler.CompiledTypedExpression;
+import com.calculator.parser.compiler.ParserResult;
+import com.calculator.parser.exceptions.ErrorType;
+import com.calculator.parser.exceptions.ParserException;
+import com.calculator.parser.parsers.logic.ShortLogicStringExpressionParser;
+import com.calculator.parser.parsers.math.DoubleMathStringExpressionParser;
+import com.calculator.parser.parsers.typed.TypedStringExpressionParser;
+import com.calculator.parser.registry.FormulaRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP-сервер вычисления выражений на встроенном в JDK com.sun.net.httpserver.
+ * Формулы компилируются один раз при регистрации и хранятся в реестре формул,
+ * выражения, вычисляемые без регистрации, кэшируются по тексту. Сервер принимает соединения
+ * только с адреса обратной петли, запросы обрабатываются ограниченным пулом потоков.
+ * При переполнении очереди запрос отклоняется с кодом 503, тело запроса больше заданного размера - с кодом 413.
+ * Сервер находится вне библиотеки, чтобы библиотека не зависела от модуля jdk.httpserver.
+ * <p>
+ * Точки входа:
+ * <ul>
+ *     <li>{@code PUT /formulas/{name}?type=math|logic|typed} - тело запроса: выражение;</li>
+ *     <li>{@code GET /formulas/{name}}, {@code DELETE /formulas/{name}};</li>
+ *     <li>{@code POST /evaluate/{name}} - тело запроса: объект JSON со значениями переменных;</li>
+ *     <li>{@code POST /evaluate?type=...&expression=...} - вычисление выражения без регистрации;</li>
+ *     <li>{@code POST /batch/{name}} - строки JSON, либо при {@code Content-Type: application/octet-stream}
+ *     количество строк (int) и значения переменных по строкам (double, big-endian) во внутреннем представлении;</li>
+ *     <li>{@code GET /metrics} - задержки обработки по точкам входа.</li>
+ * </ul>
+ */
+public class ExpressionServer implements AutoCloseable {
+
+    /**
+     * Тип содержимого строк JSON
+     */
+    public static final String JSON_LINES_CONTENT_TYPE = "application/x-ndjson";
+
+    /**
+     * Тип содержимого двоичного пакета
+     */
+    public static final String BINARY_CONTENT_TYPE = "application/octet-stream";
+
+    /**
+     * Максимальный размер тела запроса по умолчанию
+     */
+    public static final int DEFAULT_MAX_BODY_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * Признак отклонённого запроса, который обрабатывается принимающим потоком только для ответа 503
+     */
+    private static final ThreadLocal<Boolean> REJECTED = new ThreadLocal<>();
+
+    /**
+     * Политика переполнения очереди: принимающий поток не вычисляет запрос, а сразу отвечает 503
+     */
+    private static final RejectedExecutionHandler REJECT_WITH_503 = (task, pool) -> {
+        REJECTED.set(Boolean.TRUE);
+        try {
+            task.run();
+        }
+        finally {
+            REJECTED.remove();
+        }
+    };
+
+    /**
+     * Точки входа сервера
+     */
+    private static final String[] ENDPOINTS = {"/formulas", "/evaluate", "/batch", "/metrics"};
+
+    /**
+     * HTTP-сервер
+     */
+    private final HttpServer httpServer;
+
+    /**
+     * Пул потоков обработки запросов
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Реестр зарегистрированных формул
+     */
+    private final FormulaRegistry registry;
+
+    /**
+     * Кэш выражений, вычисляемых без регистрации, в порядке последнего обращения
+     */
+    private final Map<String, CompiledExpression<?>> expressionCache;
+
+    /**
+     * Максимальный размер тела запроса в байтах
+     */
+    private final int maxBodyBytes;
+
+    /**
+     * Метрики по точкам входа
+     */
+    private final ConcurrentMap<String, EndpointMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор - создание сервера со случайным свободным портом
+     */
+    public ExpressionServer() throws IOException {
+        this(0, Runtime.getRuntime().availableProcessors(), 1024, 256, new FormulaRegistry());
+    }
+
+    /**
+     * Конструктор - создание сервера
+     * @param port порт, 0 - случайный свободный порт
+     * @param threads количество потоков обработки запросов
+     * @param queueCapacity размер очереди запросов; при переполнении запрос отклоняется с кодом 503
+     * @param cacheSize размер кэша выражений, вычисляемых без регистрации
+     * @param registry реестр формул
+     */
+    public ExpressionServer(int port, int threads, int queueCapacity, int cacheSize, FormulaRegistry registry)
+            throws IOException {
+        this(port, threads, queueCapacity, cacheSize, DEFAULT_MAX_BODY_BYTES, registry);
+    }
+
+    /**
+     * Конструктор - создание сервера с ограничением размера тела запроса
+     * @param port порт, 0 - случайный свободный порт
+     * @param threads количество потоков обработки запросов
+     * @param queueCapacity размер очереди запросов; при переполнении запрос отклоняется с кодом 503
+     * @param cacheSize размер кэша выражений, вычисляемых без регистрации
+     * @param maxBodyBytes максимальный размер тела запроса в байтах, он же ограничивает размер двоичного пакета
+     * @param registry реестр формул
+     */
+    public ExpressionServer(int port, int threads, int queueCapacity, int cacheSize, int maxBodyBytes,
+                            FormulaRegistry registry) throws IOException {
+        if (threads < 1 || queueCapacity < 1 || cacheSize < 1 || maxBodyBytes < 1) {
+            throw new IllegalArgumentException("Threads, queue capacity, cache size and body size must be positive");
+        }
+        this.registry = registry;
+        this.maxBodyBytes = maxBodyBytes;
+        this.expressionCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression<?>> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "expression-server");
+                    thread.setDaemon(true);
+                    return thread;
+                }, REJECT_WITH_503);
+        for (String endpoint : ENDPOINTS) {
+            metrics.put(endpoint, new EndpointMetrics());
+        }
+
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/formulas", timed("/formulas", this::handleFormula));
+        httpServer.createContext("/evaluate", timed("/evaluate", this::handleEvaluate));
+        httpServer.createContext("/batch", timed("/batch", this::handleBatch));
+        httpServer.createContext("/metrics", timed("/metrics", this::handleMetrics));
+    }
+
+    /**
+     * Запустить сервер
+     * @return сервер
+     */
+    public ExpressionServer start() {
+        httpServer.start();
+        return this;
+    }
+
+    /**
+     * Получить порт сервера
+     * @return порт
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Получить реестр формул
+     * @return реестр формул
+     */
+    public FormulaRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Получить метрики по точкам входа
+     * @return метрики по путям точек входа
+     */
+    public Map<String, EndpointMetrics> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Получить количество выражений в кэше
+     * @return количество выражений
+     */
+    public int getCachedExpressionsCount() {
+        return expressionCache.size();
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * Обработать запрос к формуле: регистрация, получение, удаление
+     * @param exchange запрос
+     * @return код ответа
+     */
+    private int handleFormula(HttpExchange exchange) throws IOException {
+        String name = pathName(exchange, "/formulas");
+        if (name == null) {
+            return send(exchange, 404, error("Formula name is required"));
+        }
+        switch (exchange.getRequestMethod()) {
+            case "PUT", "POST" -> {
+                String type = queryParameters(exchange).getOrDefault("type", "math");
+                ParserResult<? extends CompiledExpression<?>> result = compile(type, readText(exchange));
+                if (!result.isSuccess()) {
+                    return send(exchange, 400, error(result.getErrorType(), result.getPosition()));
+                }
+                long version = registry.put(name, result.getValue());
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("name", name);
+                response.put("version", (double) version);
+                response.put("variables", result.getValue().getVariables());
+                return send(exchange, 201, JsonLines.formatObject(response));
+            }
+            case "GET" -> {
+                CompiledExpression<?> expression = registry.get(name);
+                if (expression == null) {
+                    return send(exchange, 404, error("Unknown formula " + name));
+                }
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("name", name);
+                response.put("expression", expression.getExpression());
+                response.put("variables", expression.getVariables());
+                return send(exchange, 200, JsonLines.formatObject(response));
+            }
+            case "DELETE" -> {
+                if (registry.get(name) == null) {
+                    return send(exchange, 404, error("Unknown formula " + name));
+                }
+                registry.remove(name);
+                return send(exchange, 204, "");
+            }
+            default -> {
+                return send(exchange, 405, error("Unsupported method " + exchange.getRequestMethod()));
+            }
+        }
+    }
+
+    /**
+     * Обработать запрос вычисления одной строки значений
+     * @param exchange запрос
+     * @return код ответа
+     */
+    private int handleEvaluate(HttpExchange exchange) throws IOException {
+        CompiledExpression<?> expression = resolve(exchange, "/evaluate");
+        if (expression == null) {
+            return send(exchange, 404, error("Unknown formula"));
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        try {
+            response.put("result", evaluate(expression, JsonLines.parseObject(readText(exchange))));
+        }
+        catch (ParserException exception) {
+            return send(exchange, 400, error(exception.getErrorType(), exception.getPosition()));
+        }
+        return send(exchange, 200, JsonLines.formatObject(response));
+    }
+
+    /**
+     * Обработать запрос пакетного вычисления
+     * @param exchange запрос
+     * @return код ответа
+     */
+    private int handleBatch(HttpExchange exchange) throws IOException {
+        CompiledExpression<?> expression = resolve(exchange, "/batch");
+        if (expression == null) {
+            return send(exchange, 404, error("Unknown formula"));
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith(BINARY_CONTENT_TYPE)) {
+            return handleBinaryBatch(exchange, expression);
+        }
+
+        StringBuilder response = new StringBuilder();
+        int errors = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(requestBody(exchange), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    response.append("{\"result\":")
+                            .append(JsonLines.formatValue(evaluate(expression, JsonLines.parseObject(line))))
+                            .append("}\n");
+                }
+                catch (ParserException exception) {
+                    response.append(error(exception.getErrorType(), exception.getPosition())).append('\n');
+                    errors++;
+                }
+            }
+        }
+        exchange.getResponseHeaders().set("X-Errors-Count", Integer.toString(errors));
+        return send(exchange, 200, JSON_LINES_CONTENT_TYPE, response.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Обработать двоичный пакет: значения переменных читаются по строкам и вычисляются за один проход по столбцам
+     * @param exchange запрос
+     * @param expression выражение
+     * @return код ответа
+     */
+    private int handleBinaryBatch(HttpExchange exchange, CompiledExpression<?> expression) throws IOException {
+        expression.checkNoDerivedValues();
+        int variablesCount = expression.getVariables().size();
+        double[][] columns;
+        int rows;
+        try (DataInputStream input = new DataInputStream(requestBody(exchange))) {
+            rows = input.readInt();
+            if (rows < 0) {
+                return send(exchange, 400, error("Negative rows count"));
+            }
+            long batchBytes = Integer.BYTES + (long) rows * Math.max(variablesCount, 1) * Double.BYTES;
+            if (batchBytes > maxBodyBytes) {
+                return send(exchange, 413, error("Binary batch exceeds " + maxBodyBytes + " bytes"));
+            }
+            String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (contentLength != null && variablesCount > 0 &&
+                    Long.parseLong(contentLength) != Integer.BYTES + (long) rows * variablesCount * Double.BYTES) {
+                return send(exchange, 400, error("Rows count does not match Content-Length"));
+            }
+            columns = new double[variablesCount][rows];
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < variablesCount; column++) {
+                    columns[column][row] = input.readDouble();
+                }
+            }
+        }
+        catch (EOFException exception) {
+            return send(exchange, 400, error("Truncated binary batch"));
+        }
+
+        double[] results = new double[rows];
+        try {
+            expression.getProgram().executeColumns(columns, rows, results);
+        }
+        catch (ParserException exception) {
+            return send(exchange, 400, error(exception.getErrorType(), exception.getPosition()));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows * Double.BYTES);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            for (double result : results) {
+                output.writeDouble(result);
+            }
+        }
+        return send(exchange, 200, BINARY_CONTENT_TYPE, bytes.toByteArray());
+    }
+
+    /**
+     * Обработать запрос метрик
+     * @param exchange запрос
+     * @return код ответа
+     */
+    private int handleMetrics(HttpExchange exchange) throws IOException {
+        StringBuilder response = new StringBuilder();
+        for (String endpoint : ENDPOINTS) {
+            EndpointMetrics endpointMetrics = metrics.get(endpoint);
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("endpoint", endpoint);
+            line.put("requests", (double) endpointMetrics.getRequestsCount());
+            line.put("errors", (double) endpointMetrics.getErrorsCount());
+            line.put("meanMicros", endpointMetrics.getMeanMicros());
+            line.put("maxMicros", endpointMetrics.getMaxMicros());
+            response.append(JsonLines.formatObject(line)).append('\n');
+        }
+        return send(exchange, 200, JSON_LINES_CONTENT_TYPE, response.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Найти выражение запроса: зарегистрированную формулу по имени в пути
+     * либо выражение из параметра expression, компилируемое с кэшированием
+     * @param exchange запрос
+     * @param context путь точки входа
+     * @return выражение или null, если формула не найдена
+     */
+    private CompiledExpression<?> resolve(HttpExchange exchange, String context) {
+        String name = pathName(exchange, context);
+        if (name != null) {
+            return registry.get(name);
+        }
+        Map<String, String> parameters = queryParameters(exchange);
+        String expression = parameters.get("expression");
+        if (expression == null) {
+            return null;
+        }
+        String type = parameters.getOrDefault("type", "math");
+        String key = type + ':' + expression;
+        CompiledExpression<?> compiled = expressionCache.get(key);
+        if (compiled == null) {
+            ParserResult<? extends CompiledExpression<?>> result = compile(type, expression);
+            if (!result.isSuccess()) {
+                throw new ParserException(result.getErrorType(), result.getPosition());
+            }
+            compiled = result.getValue();
+            expressionCache.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Скомпилировать выражение заданного типа
+     * @param type тип выражения: math, logic или typed
+     * @param expression выражение
+     * @return скомпилированное выражение либо тип и позиция ошибки
+     */
+    private static ParserResult<? extends CompiledExpression<?>> compile(String type, String expression) {
+        return switch (type) {
+            case "math" -> new DoubleMathStringExpressionParser(
+                    new MathStringExpressionBuilder(expression).build()).tryCompile();
+            case "logic" -> new ShortLogicStringExpressionParser(
+                    new LogicStringExpressionBuilder(expression).build()).tryCompile();
+            case "typed" -> new TypedStringExpressionParser(
+                    new MathStringExpressionBuilder(expression).build()).tryCompile();
+            default -> throw new IllegalArgumentException("Unknown expression type " + type);
+        };
+    }
+
+    /**
+     * Вычислить выражение по значениям переменных из объекта JSON
+     * @param expression выражение
+     * @param values значения переменных
+     * @return результат выражения
+     */
+    private static Object evaluate(CompiledExpression<?> expression, Map<String, Object> values) {
+        if (expression instanceof CompiledTypedExpression typedExpression) {
+            return typedExpression.evaluate(values);
+        }
+        if (expression instanceof CompiledLogicExpression logicExpression) {
+            Map<String, Boolean> logicValues = new HashMap<>();
+            values.forEach((name, value) -> logicValues.put(name, requireType(value, Boolean.class)));
+            return logicExpression.evaluate(logicValues);
+        }
+        Map<String, Double> mathValues = new HashMap<>();
+        values.forEach((name, value) -> mathValues.put(name, requireType(value, Double.class)));
+        return ((CompiledMathExpression) expression).evaluate(mathValues);
+    }
+
+    /**
+     * Проверить тип значения переменной
+     * @param value значение
+     * @param type ожидаемый тип
+     * @param <T> ожидаемый тип
+     * @return значение
+     */
+    private static <T> T requireType(Object value, Class<T> type) {
+        if (!type.isInstance(value)) {
+            throw new ParserException(ErrorType.INCORRECT_VARIABLE_VALUE_TYPE);
+        }
+        return type.cast(value);
+    }
+
+    /**
+     * Обернуть обработчик учётом задержки и ошибок; неверный запрос завершается кодом 400
+     * @param endpoint путь точки входа
+     * @param handler обработчик, возвращающий код ответа
+     * @return обработчик HTTP
+     */
+    private HttpHandler timed(String endpoint, ExchangeHandler handler) {
+        EndpointMetrics endpointMetrics = metrics.get(endpoint);
+        return exchange -> {
+            long start = System.nanoTime();
+            int status;
+            try {
+                if (REJECTED.get() != null) {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    status = send(exchange, 503, error("Server is overloaded"));
+                }
+                else {
+                    status = handler.handle(exchange);
+                }
+            }
+            catch (PayloadTooLargeException exception) {
+                status = send(exchange, 413, error(exception.getMessage()));
+            }
+            catch (ParserException exception) {
+                status = send(exchange, 400, error(exception.getErrorType(), exception.getPosition()));
+            }
+            catch (IllegalArgumentException exception) {
+                status = send(exchange, 400, error(exception.getMessage()));
+            }
+            catch (RuntimeException exception) {
+                status = send(exchange, 500, error(String.valueOf(exception.getMessage())));
+            }
+            finally {
+                exchange.close();
+            }
+            endpointMetrics.record(System.nanoTime() - start, status >= 400);
+        };
+    }
+
+    /**
+     * Получить имя из пути запроса после пути точки входа
+     * @param exchange запрос
+     * @param context путь точки входа
+     * @return имя или null, если оно не задано
+     */
+    private static String pathName(HttpExchange exchange, String context) {
+        String path = exchange.getRequestURI().getPath();
+        if (path.length() <= context.length() + 1) {
+            return null;
+        }
+        return path.substring(context.length() + 1);
+    }
+
+    /**
+     * Разобрать параметры строки запроса
+     * @param exchange запрос
+     * @return значения параметров по именам
+     */
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Прочитать тело запроса как текст
+     * @param exchange запрос
+     * @return текст тела запроса
+     */
+    private String readText(HttpExchange exchange) throws IOException {
+        try (InputStream input = requestBody(exchange)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8).strip();
+        }
+    }
+
+    /**
+     * Получить тело запроса с ограничением размера. Заявленный размер проверяется до чтения,
+     * фактический - при чтении
+     * @param exchange запрос
+     * @return поток тела запроса
+     * @throws PayloadTooLargeException тело запроса больше допустимого
+     */
+    private InputStream requestBody(HttpExchange exchange) {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength) > maxBodyBytes) {
+                    throw new PayloadTooLargeException(maxBodyBytes);
+                }
+            }
+            catch (NumberFormatException exception) {
+                throw new IllegalArgumentException("Incorrect Content-Length");
+            }
+        }
+        return new LimitedInputStream(exchange.getRequestBody(), maxBodyBytes);
+    }
+
+    /**
+     * Сформировать объект ошибки разбора или вычисления
+     * @param errorType тип ошибки
+     * @param position позиция ошибки
+     * @return объект JSON
+     */
+    private static String error(ErrorType errorType, int position) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("error", errorType.name());
+        response.put("message", errorType.getDescription());
+        response.put("position", (double) position);
+        return JsonLines.formatObject(response);
+    }
+
+    /**
+     * Сформировать объект ошибки запроса
+     * @param message сообщение
+     * @return объект JSON
+     */
+    private static String error(String message) {
+        return JsonLines.formatObject(Map.of("error", message));
+    }
+
+    /**
+     * Отправить ответ JSON
+     * @param exchange запрос
+     * @param status код ответа
+     * @param body тело ответа
+     * @return код ответа
+     */
+    private static int send(HttpExchange exchange, int status, String body) throws IOException {
+        return send(exchange, status, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Отправить ответ
+     * @param exchange запрос
+     * @param status код ответа
+     * @param contentType тип содержимого
+     * @param body тело ответа
+     * @return код ответа
+     */
+    private static int send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (status == 204) {
+            exchange.sendResponseHeaders(status, -1);
+            return status;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+        return status;
+    }
+
+    /**
+     * Обработчик запроса, возвращающий код ответа
+     */
+    @FunctionalInterface
+    private interface ExchangeHandler {
+
+        /**
+         * Обработать запрос
+         * @param exchange запрос
+         * @return код ответа
+         */
+        int handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Тело запроса больше допустимого размера
+     */
+    private static final class PayloadTooLargeException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Конструктор - создание исключения
+         * @param maxBodyBytes максимальный размер тела запроса
+         */
+        PayloadTooLargeException(int maxBodyBytes) {
+            super("Request body exceeds " + maxBodyBytes + " bytes");
+        }
+    }
+
+    /**
+     * Поток, прерывающий чтение после заданного количества байт
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        /**
+         * Максимальный размер тела запроса
+         */
+        private final int limit;
+
+        /**
+         * Количество прочитанных байт
+         */
+        private long count;
+
+        /**
+         * Конструктор - создание ограниченного потока
+         * @param input исходный поток
+         * @param limit максимальное количество байт
+         */
+        LimitedInputStream(InputStream input, int limit) {
+            super(input);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, (int) Math.min(length, limit - count + 1));
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        /**
+         * Учесть прочитанные байты
+         * @param read количество байт
+         */
+        private void count(int read) {
+            count += read;
+            if (count > limit) {
+                throw new PayloadTooLargeException(limit);
+            }
+        }
+    }
+}
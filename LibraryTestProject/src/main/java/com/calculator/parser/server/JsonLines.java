@@ -0,0 +1,235 @@
+package com.calculator.parser.server;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Минимальный разбор и запись строк JSON: плоские объекты со значениями-числами и логическими значениями
+ */
+final class JsonLines {
+
+    private JsonLines() {
+    }
+
+    /**
+     * Разобрать плоский объект JSON
+     * @param line строка с объектом
+     * @return значения по именам (Double или Boolean)
+     * @throws IllegalArgumentException неверный формат объекта
+     */
+    static Map<String, Object> parseObject(String line) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        Cursor cursor = new Cursor(line);
+        cursor.expect('{');
+        if (cursor.peek() == '}') {
+            cursor.position++;
+            cursor.expectEnd();
+            return values;
+        }
+        do {
+            String name = cursor.readString();
+            cursor.expect(':');
+            values.put(name, cursor.readValue());
+        }
+        while (cursor.tryRead(','));
+        cursor.expect('}');
+        cursor.expectEnd();
+        return values;
+    }
+
+    /**
+     * Записать значение JSON
+     * @param value значение
+     * @return запись значения
+     */
+    static String formatValue(Object value) {
+        if (value instanceof Double number) {
+            return Double.isFinite(number) ? number.toString() : "null";
+        }
+        if (value instanceof String string) {
+            return quote(string);
+        }
+        if (value instanceof List<?> list) {
+            StringBuilder text = new StringBuilder("[");
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    text.append(',');
+                }
+                text.append(formatValue(list.get(i)));
+            }
+            return text.append(']').toString();
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Записать плоский объект JSON
+     * @param values значения по именам
+     * @return запись объекта
+     */
+    static String formatObject(Map<String, ?> values) {
+        StringBuilder text = new StringBuilder("{");
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            if (text.length() > 1) {
+                text.append(',');
+            }
+            text.append(quote(entry.getKey())).append(':').append(formatValue(entry.getValue()));
+        }
+        return text.append('}').toString();
+    }
+
+    /**
+     * Записать строку JSON в кавычках
+     * @param value строка
+     * @return запись строки
+     */
+    static String quote(String value) {
+        StringBuilder text = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char symbol = value.charAt(i);
+            switch (symbol) {
+                case '"' -> text.append("\\\"");
+                case '\\' -> text.append("\\\\");
+                case '\n' -> text.append("\\n");
+                case '\r' -> text.append("\\r");
+                case '\t' -> text.append("\\t");
+                default -> {
+                    if (symbol < 0x20) {
+                        text.append(String.format("\\u%04x", (int) symbol));
+                    }
+                    else {
+                        text.append(symbol);
+                    }
+                }
+            }
+        }
+        return text.append('"').toString();
+    }
+
+    /**
+     * Позиция чтения строки JSON
+     */
+    private static class Cursor {
+
+        /**
+         * Разбираемая строка
+         */
+        private final String text;
+
+        /**
+         * Текущая позиция
+         */
+        private int position;
+
+        /**
+         * Конструктор - создание позиции чтения
+         * @param text разбираемая строка
+         */
+        private Cursor(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Получить следующий значащий символ без сдвига позиции
+         * @return символ или 0 в конце строки
+         */
+        private char peek() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            return position < text.length() ? text.charAt(position) : 0;
+        }
+
+        /**
+         * Прочитать символ, если он следующий
+         * @param symbol символ
+         * @return прочитан ли символ
+         */
+        private boolean tryRead(char symbol) {
+            if (peek() == symbol) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Прочитать обязательный символ
+         * @param symbol символ
+         */
+        private void expect(char symbol) {
+            if (!tryRead(symbol)) {
+                throw new IllegalArgumentException("Expected '" + symbol + "' at " + position);
+            }
+        }
+
+        /**
+         * Проверить, что строка прочитана полностью
+         */
+        private void expectEnd() {
+            if (peek() != 0) {
+                throw new IllegalArgumentException("Unexpected content at " + position);
+            }
+        }
+
+        /**
+         * Прочитать строку в кавычках
+         * @return строка
+         */
+        private String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < text.length() && text.charAt(position) != '"') {
+                char symbol = text.charAt(position++);
+                if (symbol == '\\' && position < text.length()) {
+                    char escaped = text.charAt(position++);
+                    switch (escaped) {
+                        case 'n' -> value.append('\n');
+                        case 't' -> value.append('\t');
+                        case 'r' -> value.append('\r');
+                        case 'u' -> {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                            position += 4;
+                        }
+                        default -> value.append(escaped);
+                    }
+                }
+                else {
+                    value.append(symbol);
+                }
+            }
+            expect('"');
+            return value.toString();
+        }
+
+        /**
+         * Прочитать значение: число, true или false
+         * @return значение
+         */
+        private Object readValue() {
+            char symbol = peek();
+            if (text.startsWith("true", position)) {
+                position += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", position)) {
+                position += 5;
+                return Boolean.FALSE;
+            }
+            int start = position;
+            if (symbol == '-' || symbol == '+') {
+                position++;
+            }
+            while (position < text.length() && "0123456789.eE+-".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, position));
+            }
+            catch (NumberFormatException exception) {
+                throw new IllegalArgumentException("Expected number or boolean at " + start);
+            }
+        }
+    }
+}
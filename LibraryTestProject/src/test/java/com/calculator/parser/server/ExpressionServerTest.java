@@ -0,0 +1,152 @@
+package com.calculator.parser.server;
+
+import com.calculator.parser.registry.FormulaRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpressionServerTest {
+    private ExpressionServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new ExpressionServer(0, 2, 16, 4, new FormulaRegistry()).start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void registerAndEvaluateFormula() throws Exception {
+        HttpResponse<String> registered = send("PUT", "/formulas/price", "qty * cost + 1", "text/plain");
+        assertThat(registered.statusCode()).as("Формула не зарегистрирована").isEqualTo(201);
+        assertThat(registered.body()).contains("\"variables\":[\"qty\",\"cost\"]");
+        assertThat(server.getRegistry().getMath("price")).isNotNull();
+
+        HttpResponse<String> evaluated = send("POST", "/evaluate/price", "{\"qty\": 2, \"cost\": 3.5}", "application/json");
+        assertThat(evaluated.statusCode()).isEqualTo(200);
+        assertThat(evaluated.body()).as("Неверный результат вычисления").isEqualTo("{\"result\":8.0}");
+
+        send("PUT", "/formulas/allowed?type=logic", "a & b", "text/plain");
+        assertThat(send("POST", "/evaluate/allowed", "{\"a\":true,\"b\":false}", "application/json").body())
+                .isEqualTo("{\"result\":false}");
+
+        assertThat(send("DELETE", "/formulas/price", "", "text/plain").statusCode()).isEqualTo(204);
+        assertThat(send("POST", "/evaluate/price", "{}", "application/json").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void evaluateJsonLinesBatch() throws Exception {
+        send("PUT", "/formulas/ratio", "x / y", "text/plain");
+
+        HttpResponse<String> response = send("POST", "/batch/ratio",
+                "{\"x\":1,\"y\":2}\n{\"x\":1,\"y\":0}\n{\"x\":9,\"y\":3}\n", ExpressionServer.JSON_LINES_CONTENT_TYPE);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("X-Errors-Count")).hasValue("1");
+        String[] lines = response.body().split("\n");
+        assertThat(lines).as("Неверное количество строк ответа").hasSize(3);
+        assertThat(lines[0]).isEqualTo("{\"result\":0.5}");
+        assertThat(lines[1]).contains("\"error\":\"DIVISION_BY_ZERO_ERROR\"");
+        assertThat(lines[2]).isEqualTo("{\"result\":3.0}");
+    }
+
+    @Test
+    void evaluateBinaryBatch() throws Exception {
+        send("PUT", "/formulas/sum", "a + b * 2", "text/plain");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(3);
+            for (int row = 0; row < 3; row++) {
+                output.writeDouble(row);
+                output.writeDouble(10 * row);
+            }
+        }
+
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri("/batch/sum"))
+                        .header("Content-Type", ExpressionServer.BINARY_CONTENT_TYPE)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(bytes.toByteArray())).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).hasSize(3 * Double.BYTES);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(response.body()));
+        assertThat(input.readDouble()).isEqualTo(0.0);
+        assertThat(input.readDouble()).isEqualTo(21.0);
+        assertThat(input.readDouble()).isEqualTo(42.0);
+    }
+
+    @Test
+    void rejectOversizedBodies() throws Exception {
+        send("PUT", "/formulas/sum", "a + b", "text/plain");
+        HttpResponse<String> hugeBatch = client.send(HttpRequest.newBuilder(uri("/batch/sum"))
+                        .header("Content-Type", ExpressionServer.BINARY_CONTENT_TYPE)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(new byte[] {0x7F, -1, -1, -1})).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(hugeBatch.statusCode()).as("Пакет не должен выделять память по заявленному размеру").isEqualTo(413);
+
+        HttpResponse<String> truncatedBatch = client.send(HttpRequest.newBuilder(uri("/batch/sum"))
+                        .header("Content-Type", ExpressionServer.BINARY_CONTENT_TYPE)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(new byte[] {0, 0, 1, 0})).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(truncatedBatch.statusCode()).isEqualTo(400);
+
+        try (ExpressionServer limited = new ExpressionServer(0, 1, 1, 1, 64, new FormulaRegistry()).start()) {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + limited.getPort() + "/formulas/long"))
+                               .PUT(HttpRequest.BodyPublishers.ofString("x + ".repeat(32) + "x")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(413);
+            assertThat(limited.getRegistry().getMath("long")).isNull();
+        }
+    }
+
+    @Test
+    void cacheAdHocExpressionsAndReportErrors() throws Exception {
+        String query = "/evaluate?expression=" + URLEncoder.encode("x * x", StandardCharsets.UTF_8);
+        assertThat(send("POST", query, "{\"x\":3}", "application/json").body()).isEqualTo("{\"result\":9.0}");
+        assertThat(send("POST", query, "{\"x\":4}", "application/json").body()).isEqualTo("{\"result\":16.0}");
+        assertThat(server.getCachedExpressionsCount()).as("Выражение не закэшировано").isEqualTo(1);
+
+        HttpResponse<String> syntaxError = send("PUT", "/formulas/broken", "x * (", "text/plain");
+        assertThat(syntaxError.statusCode()).isEqualTo(400);
+        assertThat(syntaxError.body()).contains("\"error\":\"INCORRECT_EXPRESSION_SYNTAX\"");
+
+        HttpResponse<String> typeError = send("POST", query, "{\"x\":true}", "application/json");
+        assertThat(typeError.statusCode()).isEqualTo(400);
+        assertThat(typeError.body()).contains("INCORRECT_VARIABLE_VALUE_TYPE");
+
+        HttpResponse<String> metrics = send("GET", "/metrics", "", "text/plain");
+        assertThat(metrics.body()).as("Нет метрик точки входа")
+                                  .contains("{\"endpoint\":\"/evaluate\",\"requests\":3.0,\"errors\":1.0");
+        assertThat(server.getMetrics().get("/formulas").getErrorsCount()).isEqualTo(1);
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String contentType) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                                      .header("Content-Type", contentType)
+                                      .method(method, HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+}